@@ -40,7 +40,10 @@ import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.rootdown.dragonsync.utils.Constants;
+import com.rootdown.dragonsync.utils.DroneStorage;
 import com.rootdown.dragonsync.utils.Settings;
+import com.rootdown.dragonsync.utils.TrackHistory;
+import com.rootdown.dragonsync.utils.TrackHistoryStore;
 import com.rootdown.dragonsync.viewmodels.CoTViewModel;
 import com.rootdown.dragonsync.viewmodels.StatusViewModel;
 
@@ -54,6 +57,16 @@ public class MainActivity extends FragmentActivity {
     private SharedPreferences.OnSharedPreferenceChangeListener preferenceChangeListener;
     private RebelHistoryManager RebelHistoryManager;
 
+    // Saves a drone's recorded track once contact is lost. Runs on the view model's writer
+    // thread, so it only hands the history to DroneStorage's background executor
+    private final CoTViewModel.LostContactListener encounterSaver = lastMessage -> {
+        String uid = lastMessage.getUid();
+        TrackHistory history = TrackHistoryStore.getInstance().get(uid);
+        if (history == null || history.size() == 0) return;
+
+        DroneStorage.getInstance(getApplicationContext())
+                .saveEncounterAsync(uid, history, cotViewModel.getMacHistory(uid));
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -73,6 +86,7 @@ public class MainActivity extends FragmentActivity {
 
         cotViewModel = new ViewModelProvider(this).get(CoTViewModel.class);
         statusViewModel = new ViewModelProvider(this).get(StatusViewModel.class);
+        cotViewModel.addLostContactListener(encounterSaver);
 
         RebelHistoryManager = new RebelHistoryManager(this);
 
@@ -219,7 +233,10 @@ public class MainActivity extends FragmentActivity {
             if (intent.hasExtra("parsed_message")) {
                 CoTMessage message = intent.getParcelableExtra("parsed_message");
                 if (message != null) {
-                    RebelHistoryManager.processMessage(message);
+                    // Onboard detections were scanned and stored by the service already
+                    if (!intent.getBooleanExtra("rebel_scanned", false)) {
+                        RebelHistoryManager.processMessage(message);
+                    }
                     cotViewModel.updateMessage(message);
                 }
             }
@@ -292,6 +309,7 @@ public class MainActivity extends FragmentActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        cotViewModel.removeLostContactListener(encounterSaver);
         if (preferenceChangeListener != null) {
             Settings.getInstance(this).unregisterPreferenceChangeListener(preferenceChangeListener);
         }
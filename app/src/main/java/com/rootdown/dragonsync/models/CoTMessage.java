@@ -3,12 +3,15 @@ package com.rootdown.dragonsync.models;
 import android.location.Location;
 import android.os.Parcel;
 import android.os.Parcelable;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import com.rootdown.dragonsync.utils.CoTTimeParser;
+import com.rootdown.dragonsync.utils.NumberScanner;
+
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -112,15 +115,49 @@ public class CoTMessage implements Parcelable {
     private String authData;
     public boolean isSpoofed;
     public DroneSignature.SpoofDetectionResult spoofingDetails;
+    // Position fitted from RSSI along the receiver's track rather than reported by the drone,
+    // with its 95% error ellipse: semi-axes in metres, major axis bearing from north (NaN if unknown)
+    private boolean locationEstimated;
+    private double estimateSemiMajorMeters = Double.NaN;
+    private double estimateSemiMinorMeters = Double.NaN;
+    private double estimateBearingDegrees = Double.NaN;
     private String index;
     private String runtime;
-    public Map<String, Object> rawMessage;
+    // Original payload this message was parsed from; the raw map is built from it on request
+    private String rawSource;
+    // Values attached after parsing (device location, computed distance, estimated range)
+    private Map<String, Object> extras;
+
+    // Numeric views of the string fields above, parsed once on set (NaN when absent)
+    private double latValue = Double.NaN;
+    private double lonValue = Double.NaN;
+    private double homeLatValue = Double.NaN;
+    private double homeLonValue = Double.NaN;
+    private double speedValue = Double.NaN;
+    private double vspeedValue = Double.NaN;
+    private double altValue = Double.NaN;
+    private double heightValue = Double.NaN;
+    private double pilotLatValue = Double.NaN;
+    private double pilotLonValue = Double.NaN;
+    private double directionValue = Double.NaN;
+    private double ceValue = Double.NaN;
+    private double leValue = Double.NaN;
+    private double haeValue = Double.NaN;
+    private Location coordinate;
+    // Epoch millis parsed from time/start/stale on set (0 when absent or unparseable)
+    private long timeMillis;
+    private long startMillis;
+    private long staleMillis;
+    // Epoch millis of timestamp, CoTTimeParser.UNPARSED when absent or not an absolute time
+    private long timestampMillis = CoTTimeParser.UNPARSED;
 
     public static class SignalSource implements Parcelable {
         private final String mac;
         private final int rssi;
         private final SignalType type;
         private final long timestamp;
+        // Arrival time minus the sender's timestamp for the latest observation (-1 if unknown)
+        private final long latencyMillis;
 
         public enum SignalType {
             BLUETOOTH("BT4/5 DroneID"),
@@ -140,10 +177,15 @@ public class CoTMessage implements Parcelable {
         }
 
         public SignalSource(String mac, int rssi, SignalType type, long timestamp) {
+            this(mac, rssi, type, timestamp, -1);
+        }
+
+        public SignalSource(String mac, int rssi, SignalType type, long timestamp, long latencyMillis) {
             this.mac = mac;
             this.rssi = rssi;
             this.type = type;
             this.timestamp = timestamp;
+            this.latencyMillis = latencyMillis;
         }
 
         protected SignalSource(Parcel in) {
@@ -151,6 +193,7 @@ public class CoTMessage implements Parcelable {
             rssi = in.readInt();
             type = SignalType.valueOf(in.readString());
             timestamp = in.readLong();
+            latencyMillis = in.readLong();
         }
 
         @Override
@@ -159,6 +202,7 @@ public class CoTMessage implements Parcelable {
             dest.writeInt(rssi);
             dest.writeString(type.name());
             dest.writeLong(timestamp);
+            dest.writeLong(latencyMillis);
         }
 
         @Override
@@ -182,6 +226,7 @@ public class CoTMessage implements Parcelable {
         public int getRssi() { return rssi; }
         public SignalType getType() { return type; }
         public long getTimestamp() { return timestamp; }
+        public long getLatencyMillis() { return latencyMillis; }
 
         @Override
         public boolean equals(Object o) {
@@ -293,6 +338,30 @@ public class CoTMessage implements Parcelable {
         isSpoofed = in.readByte() != 0;
         index = in.readString();
         runtime = in.readString();
+        latValue = in.readDouble();
+        lonValue = in.readDouble();
+        homeLatValue = in.readDouble();
+        homeLonValue = in.readDouble();
+        speedValue = in.readDouble();
+        vspeedValue = in.readDouble();
+        altValue = in.readDouble();
+        heightValue = in.readDouble();
+        pilotLatValue = in.readDouble();
+        pilotLonValue = in.readDouble();
+        directionValue = in.readDouble();
+        ceValue = in.readDouble();
+        leValue = in.readDouble();
+        haeValue = in.readDouble();
+        timeMillis = in.readLong();
+        startMillis = in.readLong();
+        staleMillis = in.readLong();
+        timestampMillis = in.readLong();
+        locationEstimated = in.readByte() != 0;
+        estimateSemiMajorMeters = in.readDouble();
+        estimateSemiMinorMeters = in.readDouble();
+        estimateBearingDegrees = in.readDouble();
+        rawSource = in.readString();
+        extras = readExtras(in);
     }
 
     @Override
@@ -385,6 +454,55 @@ public class CoTMessage implements Parcelable {
         dest.writeByte((byte) (isSpoofed ? 1 : 0));
         dest.writeString(index);
         dest.writeString(runtime);
+        dest.writeDouble(latValue);
+        dest.writeDouble(lonValue);
+        dest.writeDouble(homeLatValue);
+        dest.writeDouble(homeLonValue);
+        dest.writeDouble(speedValue);
+        dest.writeDouble(vspeedValue);
+        dest.writeDouble(altValue);
+        dest.writeDouble(heightValue);
+        dest.writeDouble(pilotLatValue);
+        dest.writeDouble(pilotLonValue);
+        dest.writeDouble(directionValue);
+        dest.writeDouble(ceValue);
+        dest.writeDouble(leValue);
+        dest.writeDouble(haeValue);
+        dest.writeLong(timeMillis);
+        dest.writeLong(startMillis);
+        dest.writeLong(staleMillis);
+        dest.writeLong(timestampMillis);
+        dest.writeByte((byte) (locationEstimated ? 1 : 0));
+        dest.writeDouble(estimateSemiMajorMeters);
+        dest.writeDouble(estimateSemiMinorMeters);
+        dest.writeDouble(estimateBearingDegrees);
+        dest.writeString(rawSource);
+        writeExtras(dest, extras);
+    }
+
+    // Extras hold boxed primitives and Strings, which writeValue handles; -1 marks none
+    private static void writeExtras(Parcel dest, Map<String, Object> extras) {
+        if (extras == null) {
+            dest.writeInt(-1);
+            return;
+        }
+        dest.writeInt(extras.size());
+        for (Map.Entry<String, Object> entry : extras.entrySet()) {
+            dest.writeString(entry.getKey());
+            dest.writeValue(entry.getValue());
+        }
+    }
+
+    private static Map<String, Object> readExtras(Parcel in) {
+        int size = in.readInt();
+        if (size < 0) return null;
+        Map<String, Object> extras = new HashMap<>(size * 2);
+        ClassLoader loader = CoTMessage.class.getClassLoader();
+        for (int i = 0; i < size; i++) {
+            String key = in.readString();
+            extras.put(key, in.readValue(loader));
+        }
+        return extras;
     }
 
     @Override
@@ -405,44 +523,113 @@ public class CoTMessage implements Parcelable {
     };
 
     // Helper methods
+    private static double parseValue(String value) {
+        return NumberScanner.parseDouble(value);
+    }
+
+    private static boolean isValidLocation(double latitude, double longitude) {
+        return !Double.isNaN(latitude) && !Double.isNaN(longitude) && (latitude != 0 || longitude != 0);
+    }
+
+    public boolean hasCoordinate() {
+        return isValidLocation(latValue, lonValue);
+    }
+
+    public boolean hasHomeLocation() {
+        return isValidLocation(homeLatValue, homeLonValue);
+    }
+
+    public boolean hasPilotLocation() {
+        return isValidLocation(pilotLatValue, pilotLonValue);
+    }
+
+    /**
+     * Takes this drone's position fields (strings, parsed values and accuracy) from another
+     * message, e.g. when fusion keeps a more accurate fix from an earlier observation.
+     */
+    public void copyPositionFrom(CoTMessage other) {
+        lat = other.lat;
+        lon = other.lon;
+        alt = other.alt;
+        height = other.height;
+        speed = other.speed;
+        vspeed = other.vspeed;
+        direction = other.direction;
+        ce = other.ce;
+        le = other.le;
+        hae = other.hae;
+        horizontal_accuracy = other.horizontal_accuracy;
+        vertical_accuracy = other.vertical_accuracy;
+        latValue = other.latValue;
+        lonValue = other.lonValue;
+        altValue = other.altValue;
+        heightValue = other.heightValue;
+        speedValue = other.speedValue;
+        vspeedValue = other.vspeedValue;
+        directionValue = other.directionValue;
+        ceValue = other.ceValue;
+        leValue = other.leValue;
+        haeValue = other.haeValue;
+        coordinate = other.coordinate;
+        locationEstimated = other.locationEstimated;
+        estimateSemiMajorMeters = other.estimateSemiMajorMeters;
+        estimateSemiMinorMeters = other.estimateSemiMinorMeters;
+        estimateBearingDegrees = other.estimateBearingDegrees;
+    }
+
+    // Fills identity, operator and home fields this observation did not carry from an earlier one
+    public void inheritMissingFrom(CoTMessage other) {
+        if (id == null) id = other.id;
+        if (caaRegistration == null) caaRegistration = other.caaRegistration;
+        if (description == null) description = other.description;
+        if (selfIDText == null) selfIDText = other.selfIDText;
+        if (uaType == null) uaType = other.uaType;
+        if (idType == null) idType = other.idType;
+        if (manufacturer == null) manufacturer = other.manufacturer;
+        if (operator_id == null) operator_id = other.operator_id;
+        if (operator_id_type == null) operator_id_type = other.operator_id_type;
+        if (classification_type == null) classification_type = other.classification_type;
+        if (operator_location_type == null) operator_location_type = other.operator_location_type;
+        if (operatorAltGeo == null) operatorAltGeo = other.operatorAltGeo;
+        if (!hasPilotLocation() && other.hasPilotLocation()) {
+            pilotLat = other.pilotLat;
+            pilotLon = other.pilotLon;
+            pilotLatValue = other.pilotLatValue;
+            pilotLonValue = other.pilotLonValue;
+        }
+        if (!hasHomeLocation() && other.hasHomeLocation()) {
+            homeLat = other.homeLat;
+            homeLon = other.homeLon;
+            homeLatValue = other.homeLatValue;
+            homeLonValue = other.homeLonValue;
+        }
+    }
+
+    // Built once per lat/lon change and shared between callers, so treat it as read-only
     public Location getCoordinate() {
-        try {
-            if (lat == null || lon == null || lat.isEmpty() || lon.isEmpty()) {
-                return null;
-            }
-            double latDouble = Double.parseDouble(lat);
-            double lonDouble = Double.parseDouble(lon);
-            if (latDouble != 0 || lonDouble != 0) {
-                Location location = new Location("");
-                location.setLatitude(latDouble);
-                location.setLongitude(lonDouble);
-                return location;
-            }
-        } catch (NumberFormatException e) {
-            Log.e("CoTMessage", "Error parsing coordinates: " + e.getMessage());
+        if (!hasCoordinate()) {
+            return null;
         }
-        return null;
+        if (coordinate == null) {
+            Location location = new Location("");
+            location.setLatitude(latValue);
+            location.setLongitude(lonValue);
+            coordinate = location;
+        }
+        return coordinate;
     }
 
     public String getFormattedAltitude() {
-        try {
-            double altValue = Double.parseDouble(alt);
-            if (altValue != 0) {
-                return String.format("%.1f m MSL", altValue);
-            }
-        } catch (NumberFormatException e) {}
+        if (!Double.isNaN(altValue) && altValue != 0) {
+            return String.format("%.1f m MSL", altValue);
+        }
         return null;
     }
 
     public String getFormattedHeight() {
-        try {
-            if (height != null) {
-                double heightValue = Double.parseDouble(height);
-                if (heightValue != 0) {
-                    return String.format("%.1f m AGL", heightValue);
-                }
-            }
-        } catch (NumberFormatException e) {}
+        if (!Double.isNaN(heightValue) && heightValue != 0) {
+            return String.format("%.1f m AGL", heightValue);
+        }
         return null;
     }
 
@@ -459,35 +646,85 @@ public class CoTMessage implements Parcelable {
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
 
-    public String getLat() { return lat; }
-    public void setLat(String lat) { this.lat = lat; }
+    public String getLat() {
+        if (lat == null && !Double.isNaN(latValue)) lat = String.valueOf(latValue);
+        return lat;
+    }
+    public void setLat(String lat) { this.lat = lat; this.latValue = parseValue(lat); coordinate = null; }
+    public void setLat(double lat) { this.lat = null; this.latValue = lat; coordinate = null; }
+    public double getLatValue() { return latValue; }
 
-    public String getLon() { return lon; }
-    public void setLon(String lon) { this.lon = lon; }
+    public String getLon() {
+        if (lon == null && !Double.isNaN(lonValue)) lon = String.valueOf(lonValue);
+        return lon;
+    }
+    public void setLon(String lon) { this.lon = lon; this.lonValue = parseValue(lon); coordinate = null; }
+    public void setLon(double lon) { this.lon = null; this.lonValue = lon; coordinate = null; }
+    public double getLonValue() { return lonValue; }
 
-    public String getHomeLat() { return homeLat; }
-    public void setHomeLat(String homeLat) { this.homeLat = homeLat; }
+    public String getHomeLat() {
+        if (homeLat == null && !Double.isNaN(homeLatValue)) homeLat = String.valueOf(homeLatValue);
+        return homeLat;
+    }
+    public void setHomeLat(String homeLat) { this.homeLat = homeLat; this.homeLatValue = parseValue(homeLat); }
+    public void setHomeLat(double homeLat) { this.homeLat = null; this.homeLatValue = homeLat; }
+    public double getHomeLatValue() { return homeLatValue; }
 
-    public String getHomeLon() { return homeLon; }
-    public void setHomeLon(String homeLon) { this.homeLon = homeLon; }
+    public String getHomeLon() {
+        if (homeLon == null && !Double.isNaN(homeLonValue)) homeLon = String.valueOf(homeLonValue);
+        return homeLon;
+    }
+    public void setHomeLon(String homeLon) { this.homeLon = homeLon; this.homeLonValue = parseValue(homeLon); }
+    public void setHomeLon(double homeLon) { this.homeLon = null; this.homeLonValue = homeLon; }
+    public double getHomeLonValue() { return homeLonValue; }
 
-    public String getSpeed() { return speed; }
-    public void setSpeed(String speed) { this.speed = speed; }
+    public String getSpeed() {
+        if (speed == null && !Double.isNaN(speedValue)) speed = String.valueOf(speedValue);
+        return speed;
+    }
+    public void setSpeed(String speed) { this.speed = speed; this.speedValue = parseValue(speed); }
+    public void setSpeed(double speed) { this.speed = null; this.speedValue = speed; }
+    public double getSpeedValue() { return speedValue; }
 
-    public String getVspeed() { return vspeed; }
-    public void setVspeed(String vspeed) { this.vspeed = vspeed; }
+    public String getVspeed() {
+        if (vspeed == null && !Double.isNaN(vspeedValue)) vspeed = String.valueOf(vspeedValue);
+        return vspeed;
+    }
+    public void setVspeed(String vspeed) { this.vspeed = vspeed; this.vspeedValue = parseValue(vspeed); }
+    public void setVspeed(double vspeed) { this.vspeed = null; this.vspeedValue = vspeed; }
+    public double getVspeedValue() { return vspeedValue; }
 
-    public String getAlt() { return alt; }
-    public void setAlt(String alt) { this.alt = alt; }
+    public String getAlt() {
+        if (alt == null && !Double.isNaN(altValue)) alt = String.valueOf(altValue);
+        return alt;
+    }
+    public void setAlt(String alt) { this.alt = alt; this.altValue = parseValue(alt); }
+    public void setAlt(double alt) { this.alt = null; this.altValue = alt; }
+    public double getAltValue() { return altValue; }
 
-    public String getHeight() { return height; }
-    public void setHeight(String height) { this.height = height; }
+    public String getHeight() {
+        if (height == null && !Double.isNaN(heightValue)) height = String.valueOf(heightValue);
+        return height;
+    }
+    public void setHeight(String height) { this.height = height; this.heightValue = parseValue(height); }
+    public void setHeight(double height) { this.height = null; this.heightValue = height; }
+    public double getHeightValue() { return heightValue; }
 
-    public String getPilotLat() { return pilotLat; }
-    public void setPilotLat(String pilotLat) { this.pilotLat = pilotLat; }
+    public String getPilotLat() {
+        if (pilotLat == null && !Double.isNaN(pilotLatValue)) pilotLat = String.valueOf(pilotLatValue);
+        return pilotLat;
+    }
+    public void setPilotLat(String pilotLat) { this.pilotLat = pilotLat; this.pilotLatValue = parseValue(pilotLat); }
+    public void setPilotLat(double pilotLat) { this.pilotLat = null; this.pilotLatValue = pilotLat; }
+    public double getPilotLatValue() { return pilotLatValue; }
 
-    public String getPilotLon() { return pilotLon; }
-    public void setPilotLon(String pilotLon) { this.pilotLon = pilotLon; }
+    public String getPilotLon() {
+        if (pilotLon == null && !Double.isNaN(pilotLonValue)) pilotLon = String.valueOf(pilotLonValue);
+        return pilotLon;
+    }
+    public void setPilotLon(String pilotLon) { this.pilotLon = pilotLon; this.pilotLonValue = parseValue(pilotLon); }
+    public void setPilotLon(double pilotLon) { this.pilotLon = null; this.pilotLonValue = pilotLon; }
+    public double getPilotLonValue() { return pilotLonValue; }
 
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
@@ -528,8 +765,13 @@ public class CoTMessage implements Parcelable {
     public String getSpeedMultiplier() { return speed_multiplier; }
     public void setSpeedMultiplier(String speed_multiplier) { this.speed_multiplier = speed_multiplier; }
 
-    public String getDirection() { return direction; }
-    public void setDirection(String direction) { this.direction = direction; }
+    public String getDirection() {
+        if (direction == null && !Double.isNaN(directionValue)) direction = String.valueOf(directionValue);
+        return direction;
+    }
+    public void setDirection(String direction) { this.direction = direction; this.directionValue = parseValue(direction); }
+    public void setDirection(double direction) { this.direction = null; this.directionValue = direction; }
+    public double getDirectionValue() { return directionValue; }
 
     public String getVerticalAccuracy() { return vertical_accuracy; }
     public void setVerticalAccuracy(String vertical_accuracy) { this.vertical_accuracy = vertical_accuracy; }
@@ -544,31 +786,53 @@ public class CoTMessage implements Parcelable {
     public void setSpeedAccuracy(String speed_accuracy) { this.speed_accuracy = speed_accuracy; }
 
     public String getTimestamp() { return timestamp; }
-    public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
+    public void setTimestamp(String timestamp) {
+        this.timestamp = timestamp;
+        this.timestampMillis = CoTTimeParser.parseTimestamp(timestamp, CoTTimeParser.UNPARSED);
+    }
+    public long getTimestampMillis() { return timestampMillis; }
 
     public String getTimestampAccuracy() { return timestamp_accuracy; }
     public void setTimestampAccuracy(String timestamp_accuracy) { this.timestamp_accuracy = timestamp_accuracy; }
 
     public String getTime() { return time; }
-    public void setTime(String time) { this.time = time; }
+    public void setTime(String time) { this.time = time; this.timeMillis = CoTTimeParser.parse(time, 0); }
+    public long getTimeMillis() { return timeMillis; }
 
     public String getStart() { return start; }
-    public void setStart(String start) { this.start = start; }
+    public void setStart(String start) { this.start = start; this.startMillis = CoTTimeParser.parse(start, 0); }
+    public long getStartMillis() { return startMillis; }
 
     public String getStale() { return stale; }
-    public void setStale(String stale) { this.stale = stale; }
+    public void setStale(String stale) { this.stale = stale; this.staleMillis = CoTTimeParser.parse(stale, 0); }
+    public long getStaleMillis() { return staleMillis; }
 
     public String getHow() { return how; }
     public void setHow(String how) { this.how = how; }
 
-    public String getCe() { return ce; }
-    public void setCe(String ce) { this.ce = ce; }
+    public String getCe() {
+        if (ce == null && !Double.isNaN(ceValue)) ce = String.valueOf(ceValue);
+        return ce;
+    }
+    public void setCe(String ce) { this.ce = ce; this.ceValue = parseValue(ce); }
+    public void setCe(double ce) { this.ce = null; this.ceValue = ce; }
+    public double getCeValue() { return ceValue; }
 
-    public String getLe() { return le; }
-    public void setLe(String le) { this.le = le; }
+    public String getLe() {
+        if (le == null && !Double.isNaN(leValue)) le = String.valueOf(leValue);
+        return le;
+    }
+    public void setLe(String le) { this.le = le; this.leValue = parseValue(le); }
+    public void setLe(double le) { this.le = null; this.leValue = le; }
+    public double getLeValue() { return leValue; }
 
-    public String getHae() { return hae; }
-    public void setHae(String hae) { this.hae = hae; }
+    public String getHae() {
+        if (hae == null && !Double.isNaN(haeValue)) hae = String.valueOf(haeValue);
+        return hae;
+    }
+    public void setHae(String hae) { this.hae = hae; this.haeValue = parseValue(hae); }
+    public void setHae(double hae) { this.hae = null; this.haeValue = hae; }
+    public double getHaeValue() { return haeValue; }
 
     public Integer getAuxRssi() { return aux_rssi; }
     public void setAuxRssi(Integer aux_rssi) { this.aux_rssi = aux_rssi; }
@@ -699,29 +963,130 @@ public class CoTMessage implements Parcelable {
     public DroneSignature.SpoofDetectionResult getSpoofingDetails() { return spoofingDetails; }
     public void setSpoofingDetails(DroneSignature.SpoofDetectionResult spoofingDetails) { this.spoofingDetails = spoofingDetails; }
 
+    public boolean isLocationEstimated() { return locationEstimated; }
+    public double getEstimateSemiMajorMeters() { return estimateSemiMajorMeters; }
+    public double getEstimateSemiMinorMeters() { return estimateSemiMinorMeters; }
+    public double getEstimateBearingDegrees() { return estimateBearingDegrees; }
+
+    // Marks the current position as an RSSI estimate with the given 95% error ellipse
+    public void setLocationEstimate(double semiMajorMeters, double semiMinorMeters, double bearingDegrees) {
+        locationEstimated = true;
+        estimateSemiMajorMeters = semiMajorMeters;
+        estimateSemiMinorMeters = semiMinorMeters;
+        estimateBearingDegrees = bearingDegrees;
+    }
+
+    public boolean hasEstimateEllipse() {
+        return locationEstimated && hasCoordinate()
+                && !Double.isNaN(estimateSemiMajorMeters) && !Double.isNaN(estimateSemiMinorMeters);
+    }
+
     public String getIndex() { return index; }
     public void setIndex(String index) { this.index = index; }
 
     public String getRuntime() { return runtime; }
     public void setRuntime(String runtime) { this.runtime = runtime; }
 
-    public Map<String, Object> getRawMessage() { return rawMessage; }
-    public void setRawMessage(Map<String, Object> rawMessage) { this.rawMessage = rawMessage; }
+    public String getRawSource() { return rawSource; }
+    public void setRawSource(String rawSource) { this.rawSource = rawSource; }
+
+    public Object getExtra(String key) { return extras != null ? extras.get(key) : null; }
+    public boolean hasExtra(String key) { return extras != null && extras.containsKey(key); }
+    public void putExtra(String key, Object value) {
+        if (extras == null) {
+            extras = new HashMap<>();
+        }
+        extras.put(key, value);
+    }
+
+    // Built on each call from the typed fields, so only the detail screen and exports pay for it
+    public Map<String, Object> getRawMessage() {
+        Map<String, Object> raw = new LinkedHashMap<>();
+        putIfPresent(raw, "uid", uid);
+        putIfPresent(raw, "id", id);
+        putIfPresent(raw, "type", type);
+        putIfPresent(raw, "mac", mac);
+        putIfPresent(raw, "rssi", rssi);
+        putIfPresent(raw, "manufacturer", manufacturer);
+        putIfPresent(raw, "idType", idType);
+        putIfPresent(raw, "uaType", uaType);
+        putIfPresent(raw, "lat", getLat());
+        putIfPresent(raw, "lon", getLon());
+        putIfPresent(raw, "alt", getAlt());
+        putIfPresent(raw, "height", getHeight());
+        putIfPresent(raw, "speed", getSpeed());
+        putIfPresent(raw, "vspeed", getVspeed());
+        putIfPresent(raw, "direction", getDirection());
+        putIfPresent(raw, "hae", getHae());
+        putIfPresent(raw, "ce", getCe());
+        putIfPresent(raw, "le", getLe());
+        putIfPresent(raw, "time", time);
+        putIfPresent(raw, "start", start);
+        putIfPresent(raw, "stale", stale);
+        putIfPresent(raw, "how", how);
+        putIfPresent(raw, "timestamp", timestamp);
+        putIfPresent(raw, "timestamp_accuracy", timestamp_accuracy);
+        putIfPresent(raw, "location_protocol", location_protocol);
+        putIfPresent(raw, "op_status", op_status);
+        putIfPresent(raw, "height_type", height_type);
+        putIfPresent(raw, "ew_dir_segment", ew_dir_segment);
+        putIfPresent(raw, "speed_multiplier", speed_multiplier);
+        putIfPresent(raw, "horizontal_accuracy", horizontal_accuracy);
+        putIfPresent(raw, "vertical_accuracy", vertical_accuracy);
+        putIfPresent(raw, "baro_accuracy", baro_accuracy);
+        putIfPresent(raw, "speed_accuracy", speed_accuracy);
+        putIfPresent(raw, "status", status);
+        putIfPresent(raw, "selfIDText", selfIDText);
+        putIfPresent(raw, "selfIdType", selfIdType);
+        putIfPresent(raw, "description", description);
+        putIfPresent(raw, "pilotLat", getPilotLat());
+        putIfPresent(raw, "pilotLon", getPilotLon());
+        putIfPresent(raw, "homeLat", getHomeLat());
+        putIfPresent(raw, "homeLon", getHomeLon());
+        putIfPresent(raw, "operatorAltGeo", operatorAltGeo);
+        putIfPresent(raw, "operator_id", operator_id);
+        putIfPresent(raw, "operator_id_type", operator_id_type);
+        putIfPresent(raw, "operator_location_type", operator_location_type);
+        putIfPresent(raw, "classification", classification);
+        putIfPresent(raw, "classification_type", classification_type);
+        putIfPresent(raw, "area_count", area_count);
+        putIfPresent(raw, "area_radius", area_radius);
+        putIfPresent(raw, "area_ceiling", area_ceiling);
+        putIfPresent(raw, "area_floor", area_floor);
+        putIfPresent(raw, "authType", authType);
+        putIfPresent(raw, "authPage", authPage);
+        putIfPresent(raw, "authLength", authLength);
+        putIfPresent(raw, "authTimestamp", authTimestamp);
+        putIfPresent(raw, "authData", authData);
+        putIfPresent(raw, "index", index);
+        putIfPresent(raw, "runtime", runtime);
+        if (extras != null) {
+            raw.putAll(extras);
+        }
+        putIfPresent(raw, "raw", rawSource);
+        return raw;
+    }
+
+    private static void putIfPresent(Map<String, Object> map, String key, Object value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
 
     public Map<String, Object> toDictionary() {
         Map<String, Object> dict = new HashMap<>();
         dict.put("uid", uid);
         dict.put("id", id);
         dict.put("type", type);
-        dict.put("lat", lat);
-        dict.put("lon", lon);
-        dict.put("latitude", lat);
-        dict.put("longitude", lon);
-        dict.put("speed", speed);
-        dict.put("vspeed", vspeed);
-        dict.put("alt", alt);
-        dict.put("pilotLat", pilotLat);
-        dict.put("pilotLon", pilotLon);
+        dict.put("lat", getLat());
+        dict.put("lon", getLon());
+        dict.put("latitude", getLat());
+        dict.put("longitude", getLon());
+        dict.put("speed", getSpeed());
+        dict.put("vspeed", getVspeed());
+        dict.put("alt", getAlt());
+        dict.put("pilotLat", getPilotLat());
+        dict.put("pilotLon", getPilotLon());
         dict.put("description", description);
         dict.put("selfIDText", selfIDText);
         dict.put("uaType", uaType);
@@ -732,7 +1097,7 @@ public class CoTMessage implements Parcelable {
         dict.put("manufacturer", manufacturer != null ? manufacturer : "");
         dict.put("op_status", op_status != null ? op_status : "");
         dict.put("ew_dir_segment", ew_dir_segment != null ? ew_dir_segment : "");
-        dict.put("direction", direction != null ? direction : "");
+        dict.put("direction", getDirection() != null ? getDirection() : "");
 
         return dict;
     }
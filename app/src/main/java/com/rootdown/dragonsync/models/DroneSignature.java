@@ -4,6 +4,7 @@ import android.location.Location;
 import java.util.List;
 
 public class DroneSignature {
+    private String uid;
     private IdInfo primaryId;
     private IdInfo secondaryId;
     private String operatorId;
@@ -16,11 +17,40 @@ public class DroneSignature {
     private double timestamp;
     private double firstSeen;
     private Double messageInterval;
+    private long messageCount;
+
+    public DroneSignature() {
+    }
+
+    // Timestamps are seconds since the epoch; messageInterval is the mean gap in seconds
+    public DroneSignature(String uid, String operatorId, MovementVector movement, HeightInfo heightInfo,
+                          BroadcastPattern broadcastPattern, double timestamp, double firstSeen,
+                          Double messageInterval, long messageCount) {
+        this.uid = uid;
+        this.operatorId = operatorId;
+        this.movement = movement;
+        this.heightInfo = heightInfo;
+        this.broadcastPattern = broadcastPattern;
+        this.timestamp = timestamp;
+        this.firstSeen = firstSeen;
+        this.messageInterval = messageInterval;
+        this.messageCount = messageCount;
+    }
 
     public CoTMessage getPrimaryId() {
         return primaryId;
     }
 
+    public String getUid() { return uid; }
+    public String getOperatorId() { return operatorId; }
+    public MovementVector getMovement() { return movement; }
+    public HeightInfo getHeightInfo() { return heightInfo; }
+    public BroadcastPattern getBroadcastPattern() { return broadcastPattern; }
+    public double getTimestamp() { return timestamp; }
+    public double getFirstSeen() { return firstSeen; }
+    public Double getMessageInterval() { return messageInterval; }
+    public long getMessageCount() { return messageCount; }
+
     public static class IdInfo extends CoTMessage {
         private String id;
         private IdType type;
@@ -77,6 +107,25 @@ public class DroneSignature {
         private Double turnRate;
         private List<Location> flightPath;
         private double timestamp;
+
+        // Speeds in m/s, heading in degrees, turn rate in degrees/s; NaN or null when unknown
+        public MovementVector(double groundSpeed, double verticalSpeed, double heading,
+                              Double climbRate, Double turnRate, double timestamp) {
+            this.groundSpeed = groundSpeed;
+            this.verticalSpeed = verticalSpeed;
+            this.heading = heading;
+            this.climbRate = climbRate;
+            this.turnRate = turnRate;
+            this.timestamp = timestamp;
+        }
+
+        public double getGroundSpeed() { return groundSpeed; }
+        public double getVerticalSpeed() { return verticalSpeed; }
+        public double getHeading() { return heading; }
+        public Double getClimbRate() { return climbRate; }
+        public Double getTurnRate() { return turnRate; }
+        public List<Location> getFlightPath() { return flightPath; }
+        public double getTimestamp() { return timestamp; }
     }
 
     public static class HeightInfo {
@@ -89,6 +138,25 @@ public class DroneSignature {
         private Double lastKnownGoodHeight;
         private double timestamp;
 
+        public HeightInfo(double heightAboveGround, Double heightAboveTakeoff, HeightReferenceType referenceType,
+                          double consistencyScore, Double lastKnownGoodHeight, double timestamp) {
+            this.heightAboveGround = heightAboveGround;
+            this.heightAboveTakeoff = heightAboveTakeoff;
+            this.referenceType = referenceType;
+            this.consistencyScore = consistencyScore;
+            this.lastKnownGoodHeight = lastKnownGoodHeight;
+            this.timestamp = timestamp;
+        }
+
+        public double getHeightAboveGround() { return heightAboveGround; }
+        public Double getHeightAboveTakeoff() { return heightAboveTakeoff; }
+        public HeightReferenceType getReferenceType() { return referenceType; }
+        public Double getHorizontalAccuracy() { return horizontalAccuracy; }
+        public Double getVerticalAccuracy() { return verticalAccuracy; }
+        public double getConsistencyScore() { return consistencyScore; }
+        public Double getLastKnownGoodHeight() { return lastKnownGoodHeight; }
+        public double getTimestamp() { return timestamp; }
+
         public enum HeightReferenceType {
             GROUND("Above Ground Level"),
             TAKEOFF("Above Takeoff"),
@@ -157,6 +225,22 @@ public class DroneSignature {
         private double consistency;
         private double startTime;
         private double lastUpdate;
+
+        // consistency is 1 for perfectly regular intervals and falls towards 0 as they scatter
+        public BroadcastPattern(List<TransmissionInfo.MessageType> messageSequence, List<Double> intervalPattern,
+                                double consistency, double startTime, double lastUpdate) {
+            this.messageSequence = messageSequence;
+            this.intervalPattern = intervalPattern;
+            this.consistency = consistency;
+            this.startTime = startTime;
+            this.lastUpdate = lastUpdate;
+        }
+
+        public List<TransmissionInfo.MessageType> getMessageSequence() { return messageSequence; }
+        public List<Double> getIntervalPattern() { return intervalPattern; }
+        public double getConsistency() { return consistency; }
+        public double getStartTime() { return startTime; }
+        public double getLastUpdate() { return lastUpdate; }
     }
 
     public static class SpoofDetectionResult {
@@ -0,0 +1,262 @@
+package com.rootdown.dragonsync.network;
+
+import java.util.Locale;
+
+/**
+ * Picks BLE scan settings for BluetoothScanner from recent detection density, thermal state and
+ * battery level. While tracks are active the scan runs continuously at LOW_LATENCY; as
+ * detections thin out it steps down to BALANCED and then to LOW_POWER with hardware batching,
+ * and only hot or low-battery devices give up continuous scanning for on/off windows.
+ *
+ * Scan settings only change when the scan is restarted, and Android blocks apps that start more
+ * than MAX_STARTS_PER_WINDOW scans per START_WINDOW_MS, so restarts are rate limited here.
+ *
+ * Has no Android dependencies; time, thermal status and battery level are passed in, so the
+ * latency/power trade-off can be driven from a simulated callback source. Main thread only.
+ * Times are SystemClock.elapsedRealtime() milliseconds.
+ */
+public class BleDutyCycleController {
+    public enum ScanMode { LOW_POWER, BALANCED, LOW_LATENCY }
+
+    // Mirrors of PowerManager.THERMAL_STATUS_*
+    public static final int THERMAL_NONE = 0;
+    public static final int THERMAL_MODERATE = 2;
+    public static final int THERMAL_SEVERE = 3;
+    public static final int THERMAL_CRITICAL = 4;
+
+    public static final int MAX_STARTS_PER_WINDOW = 5;
+    public static final long START_WINDOW_MS = 30_000;
+
+    // Detection rate (per second) at which tracks count as active: one advert every 20 s, so a
+    // single sighting is enough to leave the idle plan
+    private static final double ACTIVE_RATE = 0.05;
+    // Time constant of the detection-rate average
+    private static final double RATE_TAU_MS = 10_000;
+    // After the last detection, keep a continuous BALANCED scan this long before idling
+    private static final long RECENT_WINDOW_MS = 120_000;
+    private static final int LOW_BATTERY_PERCENT = 15;
+    // Hardware batch delay while idle; the first advert of a new drone waits at most this long
+    private static final long IDLE_REPORT_DELAY_MS = 5_000;
+    // On/off windows for a hot or low-battery device with nothing in range
+    private static final long CONSERVE_ON_MS = 10_000;
+    private static final long CONSERVE_OFF_MS = 20_000;
+    private static final long CRITICAL_ON_MS = 5_000;
+    private static final long CRITICAL_OFF_MS = 25_000;
+
+    public static final class Plan {
+        public final ScanMode mode;
+        // 0 for a continuous scan
+        public final long onMillis;
+        public final long offMillis;
+        // 0 for immediate callbacks
+        public final long reportDelayMillis;
+
+        Plan(ScanMode mode, long onMillis, long offMillis, long reportDelayMillis) {
+            this.mode = mode;
+            this.onMillis = onMillis;
+            this.offMillis = offMillis;
+            this.reportDelayMillis = reportDelayMillis;
+        }
+
+        public boolean isContinuous() {
+            return offMillis == 0;
+        }
+
+        // Share of time the radio listens: the controller's window times the mode's own duty cycle
+        public double getRadioDuty() {
+            double window = isContinuous() ? 1 : (double) onMillis / (onMillis + offMillis);
+            return window * getModeDuty(mode);
+        }
+
+        /**
+         * Expected delay from a drone starting to advertise to its first callback: the mean wait
+         * for an on window, the mean gap between the mode's scan windows, and the batch delay.
+         */
+        public long getExpectedLatencyMillis() {
+            double offWait = isContinuous() ? 0 : (double) offMillis * offMillis / (2.0 * (onMillis + offMillis));
+            return Math.round(offWait + getModeGapMillis(mode) / 2.0 + reportDelayMillis);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Plan)) return false;
+            Plan other = (Plan) o;
+            return mode == other.mode && onMillis == other.onMillis
+                    && offMillis == other.offMillis && reportDelayMillis == other.reportDelayMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((mode.hashCode() * 31 + Long.hashCode(onMillis)) * 31
+                    + Long.hashCode(offMillis)) * 31 + Long.hashCode(reportDelayMillis);
+        }
+
+        @Override
+        public String toString() {
+            if (isContinuous()) {
+                return String.format(Locale.US, "%s continuous, batch %d ms", mode, reportDelayMillis);
+            }
+            return String.format(Locale.US, "%s %d/%d s, batch %d ms",
+                    mode, onMillis / 1000, offMillis / 1000, reportDelayMillis);
+        }
+    }
+
+    private final boolean batchingSupported;
+
+    private double detectionRate;
+    private long rateUpdatedMillis;
+    private long lastDetectionMillis = Long.MIN_VALUE / 2;
+    private int thermalStatus = THERMAL_NONE;
+    private int batteryPercent = 100;
+    private boolean charging;
+
+    private final long[] starts = new long[MAX_STARTS_PER_WINDOW];
+    private int startsHead;
+    private int startsCount;
+
+    private Plan runningPlan;
+    private long runningSinceMillis;
+    private long firstStartMillis = -1;
+    private long scansStarted;
+    private long detections;
+    private double radioOnMillis;
+    private long scanningMillis;
+
+    // batchingSupported is BluetoothAdapter.isOffloadedScanBatchingSupported()
+    public BleDutyCycleController(boolean batchingSupported) {
+        this.batchingSupported = batchingSupported;
+    }
+
+    public void updateConditions(int thermalStatus, int batteryPercent, boolean charging) {
+        this.thermalStatus = thermalStatus;
+        this.batteryPercent = batteryPercent;
+        this.charging = charging;
+    }
+
+    /**
+     * Records one detection callback. Returns true when it makes tracks active, i.e. the running
+     * plan should be replaced now rather than at the next cycle boundary.
+     */
+    public boolean onDetection(long nowMillis) {
+        boolean wasActive = isActive(nowMillis);
+        detectionRate = getDetectionRate(nowMillis) + 1000.0 / RATE_TAU_MS;
+        rateUpdatedMillis = nowMillis;
+        lastDetectionMillis = nowMillis;
+        detections++;
+        return !wasActive && isActive(nowMillis);
+    }
+
+    // Detections per second, exponentially averaged
+    public double getDetectionRate(long nowMillis) {
+        return detectionRate * Math.exp(-(nowMillis - rateUpdatedMillis) / RATE_TAU_MS);
+    }
+
+    public boolean isActive(long nowMillis) {
+        return getDetectionRate(nowMillis) >= ACTIVE_RATE;
+    }
+
+    public Plan plan(long nowMillis) {
+        boolean lowBattery = batteryPercent <= LOW_BATTERY_PERCENT && !charging;
+        long batchDelay = batchingSupported ? IDLE_REPORT_DELAY_MS : 0;
+
+        if (thermalStatus >= THERMAL_CRITICAL) {
+            return new Plan(ScanMode.LOW_POWER, CRITICAL_ON_MS, CRITICAL_OFF_MS, batchDelay);
+        }
+        if (isActive(nowMillis)) {
+            // Tracks in range: never leave a blind window, only trade scan density for heat
+            ScanMode mode = thermalStatus >= THERMAL_SEVERE ? ScanMode.LOW_POWER
+                    : thermalStatus >= THERMAL_MODERATE || lowBattery ? ScanMode.BALANCED
+                    : ScanMode.LOW_LATENCY;
+            return new Plan(mode, 0, 0, 0);
+        }
+        if (nowMillis - lastDetectionMillis <= RECENT_WINDOW_MS) {
+            ScanMode mode = thermalStatus >= THERMAL_MODERATE || lowBattery ? ScanMode.LOW_POWER : ScanMode.BALANCED;
+            return new Plan(mode, 0, 0, 0);
+        }
+        if (thermalStatus >= THERMAL_SEVERE || lowBattery) {
+            return new Plan(ScanMode.LOW_POWER, CONSERVE_ON_MS, CONSERVE_OFF_MS, batchDelay);
+        }
+        // Idle: a batched LOW_POWER scan lets the controller filter adverts while the CPU sleeps
+        return new Plan(ScanMode.LOW_POWER, 0, 0, batchDelay);
+    }
+
+    public boolean canStartScan(long nowMillis) {
+        return getStartsInWindow(nowMillis) < MAX_STARTS_PER_WINDOW;
+    }
+
+    // Milliseconds until canStartScan turns true
+    public long getStartDelay(long nowMillis) {
+        if (canStartScan(nowMillis)) return 0;
+        return Math.max(0, starts[startsHead] + START_WINDOW_MS - nowMillis);
+    }
+
+    public void onScanStarted(long nowMillis, Plan plan) {
+        onScanStopped(nowMillis);
+        if (firstStartMillis < 0) firstStartMillis = nowMillis;
+        starts[startsHead] = nowMillis;
+        startsHead = (startsHead + 1) % MAX_STARTS_PER_WINDOW;
+        if (startsCount < MAX_STARTS_PER_WINDOW) startsCount++;
+        scansStarted++;
+        runningPlan = plan;
+        runningSinceMillis = nowMillis;
+    }
+
+    public void onScanStopped(long nowMillis) {
+        if (runningPlan == null) return;
+        long elapsed = nowMillis - runningSinceMillis;
+        scanningMillis += elapsed;
+        radioOnMillis += elapsed * getModeDuty(runningPlan.mode);
+        runningPlan = null;
+    }
+
+    private int getStartsInWindow(long nowMillis) {
+        int inWindow = 0;
+        for (int i = 0; i < startsCount; i++) {
+            if (nowMillis - starts[i] < START_WINDOW_MS) inWindow++;
+        }
+        return inWindow;
+    }
+
+    // Scan window / interval of each mode in AOSP: 512/5120, 1024/4096 and 4096/4096 ms
+    private static double getModeDuty(ScanMode mode) {
+        switch (mode) {
+            case LOW_LATENCY: return 1.0;
+            case BALANCED: return 0.25;
+            default: return 0.1;
+        }
+    }
+
+    private static long getModeGapMillis(ScanMode mode) {
+        switch (mode) {
+            case LOW_LATENCY: return 0;
+            case BALANCED: return 3_072;
+            default: return 4_608;
+        }
+    }
+
+    public long getScansStarted() { return scansStarted; }
+    public long getDetections() { return detections; }
+
+    // Estimated radio listening time, weighted by each plan's duty cycle
+    public long getRadioOnMillis(long nowMillis) {
+        double total = radioOnMillis;
+        if (runningPlan != null) total += (nowMillis - runningSinceMillis) * getModeDuty(runningPlan.mode);
+        return Math.round(total);
+    }
+
+    public long getScanningMillis(long nowMillis) {
+        return scanningMillis + (runningPlan != null ? nowMillis - runningSinceMillis : 0);
+    }
+
+    public String describe(long nowMillis) {
+        // Off windows count against the duty, so this is the share of wall time spent listening
+        long elapsed = firstStartMillis >= 0 ? nowMillis - firstStartMillis : 0;
+        double duty = elapsed > 0 ? (double) getRadioOnMillis(nowMillis) / elapsed : 0;
+        Plan plan = plan(nowMillis);
+        return String.format(Locale.US,
+                "plan %s, starts %d, detections %d, rate %.2f/s, radio duty %.0f%%, expected latency %d ms",
+                plan, scansStarted, detections, getDetectionRate(nowMillis), duty * 100,
+                plan.getExpectedLatencyMillis());
+    }
+}
@@ -11,24 +11,27 @@ import android.bluetooth.le.ScanResult;
 import android.bluetooth.le.ScanSettings;
 import android.content.Context;
 import android.content.pm.PackageManager;
+import android.os.BatteryManager;
+import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.ParcelUuid;
+import android.os.PowerManager;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.core.app.ActivityCompat;
 
-import com.rootdown.dragonsync.utils.DroneDataParser;
-
-import org.json.JSONArray;
-
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 public class BluetoothScanner {
     private static final String TAG = "BluetoothScanner";
-    private static final long SCAN_PERIOD = 10000; // 10 seconds
+    // How often a continuous scan re-checks its duty-cycle plan
+    private static final long PLAN_CHECK_INTERVAL_MS = 10_000;
+    // Frames waiting for the ingest thread; a dense scan delivers well under this per drain
+    private static final int INGEST_QUEUE_CAPACITY = 256;
 
     // ASTM F3411 OpenDroneID manufacturer IDs
     private static final int OPENDRONEID_MFG_ID = 0x4150;
@@ -40,20 +43,32 @@ public class BluetoothScanner {
     private Context context;
     private BluetoothAdapter bluetoothAdapter;
     private BluetoothLeScanner bluetoothLeScanner;
+    private PowerManager powerManager;
+    private BatteryManager batteryManager;
     private boolean isScanning = false;
+    // True between startScanning and stopScanning, including off windows
+    private boolean scanRequested = false;
     private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<ScanFilter> filters = buildFilters();
+    private final BleDutyCycleController dutyCycle;
+    private BleDutyCycleController.Plan currentPlan;
+    private final Runnable cycleRunnable = this::onCycleBoundary;
+    private final ScanIngestQueue ingestQueue =
+            new ScanIngestQueue("BleIngest", INGEST_QUEUE_CAPACITY, this::decodeFrame);
     private final OnDroneDetectedListener listener;
-    private final DroneDataParser dataParser;
+    // Both used on the ingest thread only
+    private final OpenDroneIdDecoder decoder = new OpenDroneIdDecoder();
+    private final DetectionBatch batch = new DetectionBatch();
 
     public interface OnDroneDetectedListener {
-        void onDroneDetected(JSONArray droneData);
+        // Called on the ingest thread; the batch and its events are reused once this returns
+        void onDroneDetected(DetectionBatch batch);
         void onError(String error);
     }
 
     public BluetoothScanner(Context context, OnDroneDetectedListener listener) {
         this.context = context;
         this.listener = listener;
-        this.dataParser = new DroneDataParser();
 
         BluetoothManager bluetoothManager = (BluetoothManager) context.getSystemService(Context.BLUETOOTH_SERVICE);
         if (bluetoothManager != null) {
@@ -62,6 +77,9 @@ public class BluetoothScanner {
                 bluetoothLeScanner = bluetoothAdapter.getBluetoothLeScanner();
             }
         }
+        powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        batteryManager = (BatteryManager) context.getSystemService(Context.BATTERY_SERVICE);
+        dutyCycle = new BleDutyCycleController(bluetoothAdapter != null && bluetoothAdapter.isOffloadedScanBatchingSupported());
     }
 
     public boolean startScanning() {
@@ -70,52 +88,39 @@ public class BluetoothScanner {
             return false;
         }
 
-        if (isScanning) {
+        if (scanRequested) {
             return true; // Already scanning
         }
 
-        // Define scan filters for drone manufacturer IDs
-        List<ScanFilter> filters = new ArrayList<>();
-
-        // Add a filter for the OpenDroneID service UUID
-        ScanFilter serviceFilter = new ScanFilter.Builder()
-                .setServiceUuid(SERVICE_pUUID)
-                .build();
-
-        // Add manufacturer data filters
-        ScanFilter openDroneIdFilter = new ScanFilter.Builder()
-                .setManufacturerData(OPENDRONEID_MFG_ID, null)
-                .build();
-
-        // Create a proper mask array instead of a single byte
-        byte[] astmMask = new byte[]{(byte)0x0F};
-        ScanFilter astmFilter = new ScanFilter.Builder()
-                .setManufacturerData(ASTM_MFG_ID, OPEN_DRONE_ID_AD_CODE, astmMask)
-                .build();
-
-        filters.add(serviceFilter);
-        filters.add(openDroneIdFilter);
-        filters.add(astmFilter);
-
-        // Set up scan settings for low latency
-        ScanSettings settings = new ScanSettings.Builder()
-                .setScanMode(ScanSettings.SCAN_MODE_LOW_LATENCY)
-                .build();
+        scanRequested = true;
+        ingestQueue.start();
+        if (!beginScanWindow()) {
+            scanRequested = false;
+            ingestQueue.stop();
+            return false;
+        }
+        return true;
+    }
 
-        // Start scan with timeout
-        handler.postDelayed(() -> {
-            if (isScanning) {
-                pauseScanning();
-                // Restart after a short break to avoid overheating
-                handler.postDelayed(this::startScanning, 2000);
-            }
-        }, SCAN_PERIOD);
+    // Starts a scan with the duty-cycle controller's current plan and schedules its end or next re-check
+    private boolean beginScanWindow() {
+        long now = SystemClock.elapsedRealtime();
+        if (!dutyCycle.canStartScan(now)) {
+            // Starting now would trip the platform's scan-start limit
+            handler.postDelayed(cycleRunnable, dutyCycle.getStartDelay(now));
+            return true;
+        }
 
+        refreshConditions();
+        BleDutyCycleController.Plan plan = dutyCycle.plan(now);
         try {
             if (ActivityCompat.checkSelfPermission(context, Manifest.permission.BLUETOOTH_SCAN) == PackageManager.PERMISSION_GRANTED) {
-                Log.d(TAG, "🔍 STARTING BLUETOOTH SCAN FOR DRONES");
-                bluetoothLeScanner.startScan(filters, settings, scanCallback);
+                Log.d(TAG, "🔍 STARTING BLUETOOTH SCAN FOR DRONES: " + plan);
+                bluetoothLeScanner.startScan(filters, buildSettings(plan), scanCallback);
                 isScanning = true;
+                currentPlan = plan;
+                dutyCycle.onScanStarted(now, plan);
+                handler.postDelayed(cycleRunnable, plan.isContinuous() ? PLAN_CHECK_INTERVAL_MS : plan.onMillis);
                 return true;
             } else {
                 Log.e(TAG, "Missing BLUETOOTH_SCAN permission");
@@ -127,12 +132,96 @@ public class BluetoothScanner {
         }
     }
 
+    // End of an on or off window, a periodic plan re-check, or a detection that made tracks active
+    private void onCycleBoundary() {
+        handler.removeCallbacks(cycleRunnable);
+        if (!scanRequested) return;
+        if (!isScanning) {
+            // Off window over, or a deferred start
+            resumeScanWindow();
+            return;
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        refreshConditions();
+        BleDutyCycleController.Plan next = dutyCycle.plan(now);
+        if (!currentPlan.isContinuous() && !next.isContinuous()) {
+            // On window over; sit out the off window to let the radio and battery rest
+            pauseScanning();
+            handler.postDelayed(cycleRunnable, next.offMillis);
+            return;
+        }
+        if (!next.equals(currentPlan)) {
+            if (dutyCycle.canStartScan(now)) {
+                Log.d(TAG, "BLE scan plan " + currentPlan + " -> " + next);
+                pauseScanning();
+                resumeScanWindow();
+            } else {
+                handler.postDelayed(cycleRunnable, dutyCycle.getStartDelay(now));
+            }
+            return;
+        }
+        handler.postDelayed(cycleRunnable, PLAN_CHECK_INTERVAL_MS);
+    }
+
+    // Mid-session start; a failure (permission revoked, stack busy) retries at the next re-check
+    // instead of leaving the session requested with nothing scheduled
+    private void resumeScanWindow() {
+        if (!beginScanWindow()) {
+            Log.w(TAG, "BLE scan window failed to start; retrying in " + PLAN_CHECK_INTERVAL_MS + " ms");
+            handler.postDelayed(cycleRunnable, PLAN_CHECK_INTERVAL_MS);
+        }
+    }
+
+    private ScanSettings buildSettings(BleDutyCycleController.Plan plan) {
+        int scanMode;
+        switch (plan.mode) {
+            case LOW_LATENCY: scanMode = ScanSettings.SCAN_MODE_LOW_LATENCY; break;
+            case BALANCED: scanMode = ScanSettings.SCAN_MODE_BALANCED; break;
+            default: scanMode = ScanSettings.SCAN_MODE_LOW_POWER; break;
+        }
+        // Batched results are delivered through onBatchScanResults
+        return new ScanSettings.Builder()
+                .setScanMode(scanMode)
+                .setReportDelay(plan.reportDelayMillis)
+                .build();
+    }
+
+    private void refreshConditions() {
+        int thermalStatus = BleDutyCycleController.THERMAL_NONE;
+        if (powerManager != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            thermalStatus = powerManager.getCurrentThermalStatus();
+        }
+        int batteryPercent = 100;
+        boolean charging = true;
+        if (batteryManager != null) {
+            int capacity = batteryManager.getIntProperty(BatteryManager.BATTERY_PROPERTY_CAPACITY);
+            if (capacity > 0) batteryPercent = capacity;
+            charging = batteryManager.isCharging();
+        }
+        dutyCycle.updateConditions(thermalStatus, batteryPercent, charging);
+    }
+
+    private void onDetection() {
+        long now = SystemClock.elapsedRealtime();
+        if (dutyCycle.onDetection(now) && currentPlan != null && !dutyCycle.plan(now).equals(currentPlan)) {
+            // Tracks just became active; leave the batched idle plan without waiting for the re-check
+            handler.removeCallbacks(cycleRunnable);
+            handler.post(cycleRunnable);
+        }
+    }
+
+    public BleDutyCycleController getDutyCycleController() {
+        return dutyCycle;
+    }
+
     public void pauseScanning() {
         if (bluetoothLeScanner != null && isScanning &&
                 ActivityCompat.checkSelfPermission(context, Manifest.permission.BLUETOOTH_SCAN) == PackageManager.PERMISSION_GRANTED) {
             try {
                 bluetoothLeScanner.stopScan(scanCallback);
                 isScanning = false;
+                dutyCycle.onScanStopped(SystemClock.elapsedRealtime());
                 Log.d(TAG, "BLE scanning paused");
             } catch (Exception e) {
                 Log.e(TAG, "Error stopping BLE scan: " + e.getMessage());
@@ -141,9 +230,37 @@ public class BluetoothScanner {
     }
 
     public void stopScanning() {
+        scanRequested = false;
         pauseScanning();
         handler.removeCallbacksAndMessages(null);
-        Log.d(TAG, "BLE scanning stopped completely");
+        ingestQueue.stop();
+        Log.d(TAG, "BLE scanning stopped completely: " + dutyCycle.describe(SystemClock.elapsedRealtime()));
+    }
+
+    private static List<ScanFilter> buildFilters() {
+        // Define scan filters for drone manufacturer IDs
+        List<ScanFilter> filters = new ArrayList<>();
+
+        // Add a filter for the OpenDroneID service UUID
+        ScanFilter serviceFilter = new ScanFilter.Builder()
+                .setServiceUuid(SERVICE_pUUID)
+                .build();
+
+        // Add manufacturer data filters
+        ScanFilter openDroneIdFilter = new ScanFilter.Builder()
+                .setManufacturerData(OPENDRONEID_MFG_ID, null)
+                .build();
+
+        // Create a proper mask array instead of a single byte
+        byte[] astmMask = new byte[]{(byte)0x0F};
+        ScanFilter astmFilter = new ScanFilter.Builder()
+                .setManufacturerData(ASTM_MFG_ID, OPEN_DRONE_ID_AD_CODE, astmMask)
+                .build();
+
+        filters.add(serviceFilter);
+        filters.add(openDroneIdFilter);
+        filters.add(astmFilter);
+        return filters;
     }
 
     private final ScanCallback scanCallback = new ScanCallback() {
@@ -167,6 +284,7 @@ public class BluetoothScanner {
         }
     };
 
+    // Scan callback, main thread: copy out the Remote ID bytes and leave decoding to the ingest thread
     private void processScanResult(ScanResult result) {
         ScanRecord scanRecord = result.getScanRecord();
         if (scanRecord == null) return;
@@ -174,54 +292,46 @@ public class BluetoothScanner {
         String deviceAddress = result.getDevice().getAddress();
         int rssi = result.getRssi();
 
-        // Log basic information
-//        Log.d(TAG, "Bluetooth device found: " + deviceAddress + ", RSSI: " + rssi);
-
         // Check manufacturer specific data for OpenDroneID
-        byte[] openDroneIdData = scanRecord.getManufacturerSpecificData(OPENDRONEID_MFG_ID);
-        byte[] astmData = scanRecord.getManufacturerSpecificData(ASTM_MFG_ID);
-
-        byte[] droneData = null;
-        String source = "";
-
-        if (openDroneIdData != null) {
-            droneData = openDroneIdData;
-            source = "OpenDroneID";
-        } else if (astmData != null) {
-            droneData = astmData;
-            source = "ASTM";
-        } else {
+        byte[] droneData = scanRecord.getManufacturerSpecificData(OPENDRONEID_MFG_ID);
+        if (droneData == null) {
+            droneData = scanRecord.getManufacturerSpecificData(ASTM_MFG_ID);
+        }
+        if (droneData == null) {
             // Try to find it in service data
             droneData = scanRecord.getServiceData(SERVICE_pUUID);
-            source = "Service";
         }
 
         if (droneData != null) {
-            // We found OpenDroneID data, parse it
-            try {
-                Log.d(TAG, "Found drone data from " + source + ": " + deviceAddress);
-                JSONArray messages = dataParser.parseBluetoothData(droneData, deviceAddress, rssi);
-                if (messages.length() > 0) {
-                    listener.onDroneDetected(messages);
-                    Log.d(TAG, "Drone detected: " + deviceAddress + ", RSSI: " + rssi);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error parsing drone data: " + e.getMessage(), e);
+            if (ingestQueue.offer(droneData, deviceAddress, rssi, null)) {
+                onDetection();
             }
         } else {
             // No explicit drone data found, but check device name as a fallback
             String deviceName = scanRecord.getDeviceName();
-            if (deviceName != null && isDroneDeviceName(deviceName)) {
-                // Create a basic drone entry based just on the name and address
-                JSONArray basicDroneInfo = createBasicDroneInfo(deviceName, deviceAddress, rssi);
-                if (basicDroneInfo.length() > 0) {
-                    listener.onDroneDetected(basicDroneInfo);
-                    Log.d(TAG, "Drone detected by name: " + deviceName + ", address: " + deviceAddress);
-                }
+            if (deviceName != null && isDroneDeviceName(deviceName) &&
+                    ingestQueue.offer(null, deviceAddress, rssi, deviceName)) {
+                onDetection();
             }
         }
     }
 
+    // Ingest thread
+    private void decodeFrame(ScanIngestQueue.RawFrame frame) {
+        batch.clear();
+        if (frame.payload != null) {
+            // We found OpenDroneID data, parse it
+            decoder.decodeBluetooth(frame.payload, frame.address, frame.rssi, frame.receivedMillis, batch);
+        } else {
+            // Create a basic drone entry based just on the name and address
+            addBasicDroneInfo(frame.name, frame.address, frame.rssi, frame.receivedMillis);
+        }
+        if (batch.size() > 0) {
+            listener.onDroneDetected(batch);
+        }
+        batch.clear();
+    }
+
     private boolean isDroneDeviceName(String name) {
         if (name == null) return false;
 
@@ -238,48 +348,36 @@ public class BluetoothScanner {
                 upperName.contains("UAV");
     }
 
-    private JSONArray createBasicDroneInfo(String deviceName, String deviceAddress, int rssi) {
+    private void addBasicDroneInfo(String deviceName, String deviceAddress, int rssi, long timestampMillis) {
         // Create a minimal drone information structure when we just have the device name
-        JSONArray messagesArray = new JSONArray();
-
-        try {
-            org.json.JSONObject basicIdObj = new org.json.JSONObject();
-            org.json.JSONObject basicId = new org.json.JSONObject();
-            basicIdObj.put("Basic ID", basicId);
-
-            basicId.put("MAC", deviceAddress);
-            basicId.put("RSSI", rssi);
-            basicId.put("id_type", "Bluetooth Device Name");
-            basicId.put("id", deviceName);
-            basicId.put("ua_type", "Helicopter (or Multirotor)");
-
-            // Try to determine manufacturer
-            String manufacturer = "Unknown";
-            if (deviceName.toUpperCase().contains("DJI")) {
-                manufacturer = "DJI";
-            } else if (deviceName.toUpperCase().contains("PARROT")) {
-                manufacturer = "Parrot";
-            } else if (deviceName.toUpperCase().contains("SKYDIO")) {
-                manufacturer = "Skydio";
-            }
-
-            basicId.put("manufacturer", manufacturer);
-            messagesArray.put(basicIdObj);
-
-            // Add a basic Self-ID message
-            org.json.JSONObject selfIdObj = new org.json.JSONObject();
-            org.json.JSONObject selfId = new org.json.JSONObject();
-            selfIdObj.put("Self-ID Message", selfId);
-            selfId.put("text", deviceName);
-            selfId.put("description_type", 0);
-            selfId.put("MAC", deviceAddress);
-            selfId.put("RSSI", rssi);
-            messagesArray.put(selfIdObj);
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error creating basic drone info: " + e.getMessage());
+        DetectionEvent basicId = batch.obtain();
+        basicId.type = DetectionEvent.MessageType.BASIC_ID;
+        basicId.mac = deviceAddress;
+        basicId.rssi = rssi;
+        basicId.timestampMillis = timestampMillis;
+        basicId.idType = DetectionEvent.ID_TYPE_DEVICE_NAME;
+        basicId.uasId = deviceName;
+        basicId.uaType = 2; // Helicopter (or Multirotor)
+
+        // Try to determine manufacturer
+        String upperName = deviceName.toUpperCase();
+        String manufacturer = "Unknown";
+        if (upperName.contains("DJI")) {
+            manufacturer = "DJI";
+        } else if (upperName.contains("PARROT")) {
+            manufacturer = "Parrot";
+        } else if (upperName.contains("SKYDIO")) {
+            manufacturer = "Skydio";
         }
-
-        return messagesArray;
+        basicId.manufacturer = manufacturer;
+
+        // Add a basic Self-ID message
+        DetectionEvent selfId = batch.obtain();
+        selfId.type = DetectionEvent.MessageType.SELF_ID;
+        selfId.mac = deviceAddress;
+        selfId.rssi = rssi;
+        selfId.timestampMillis = timestampMillis;
+        selfId.selfIdText = deviceName;
+        selfId.descriptionType = 0;
     }
 }
\ No newline at end of file
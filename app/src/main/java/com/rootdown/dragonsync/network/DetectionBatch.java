@@ -0,0 +1,49 @@
+package com.rootdown.dragonsync.network;
+
+import java.util.Arrays;
+
+/**
+ * The events decoded from one received frame, drawn from a pool the batch owns. Each scanner
+ * keeps a single batch for its ingest thread and clears it once the listener returns, so after
+ * the first few frames decoding reuses the same event objects instead of allocating.
+ *
+ * Not thread-safe; used only on the owning scanner's ingest thread.
+ */
+public final class DetectionBatch {
+    private DetectionEvent[] events = new DetectionEvent[4];
+    private int size;
+
+    DetectionBatch() {
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new DetectionEvent();
+        }
+    }
+
+    // Next free event, reset and appended to the batch
+    DetectionEvent obtain() {
+        if (size == events.length) {
+            events = Arrays.copyOf(events, size * 2);
+            for (int i = size; i < events.length; i++) {
+                events[i] = new DetectionEvent();
+            }
+        }
+        DetectionEvent event = events[size++];
+        event.reset();
+        return event;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public DetectionEvent get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        return events[index];
+    }
+}
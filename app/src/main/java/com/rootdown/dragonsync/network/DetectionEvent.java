@@ -0,0 +1,147 @@
+package com.rootdown.dragonsync.network;
+
+/**
+ * One decoded Remote ID message as handed from a scanner to the onboard detection service.
+ * Events are pooled by DetectionBatch and rewritten for every frame, so a listener must copy
+ * what it needs before returning and never keep a reference to the event itself.
+ *
+ * Fields the message does not carry, or that the transmitter marked invalid, read as NaN, -1 or
+ * null. Values are in the units the CoT model uses: degrees, metres and metres per second.
+ */
+public final class DetectionEvent {
+
+    // In ASTM F3411 message type order, so the header nibble indexes it directly
+    public enum MessageType {
+        BASIC_ID, LOCATION, AUTH, SELF_ID, SYSTEM, OPERATOR_ID;
+
+        private static final MessageType[] BY_CODE = values();
+
+        static MessageType fromCode(int code) {
+            return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        }
+    }
+
+    // Basic ID type of a drone recognized only by its advertised BLE name; outside the 4-bit
+    // F3411 field so it can't collide with a decoded type
+    static final int ID_TYPE_DEVICE_NAME = 0x10;
+
+    MessageType type;
+    String mac;
+    int rssi;
+    long timestampMillis;
+
+    // Basic ID
+    int idType;
+    int uaType;
+    String uasId;
+    // Only set for name-only detections
+    String manufacturer;
+
+    // Location/Vector
+    int status;
+    double latitude;
+    double longitude;
+    double direction;
+    double speed;
+    double verticalSpeed;
+    double geodeticAltitude;
+    double height;
+
+    // Self-ID
+    int descriptionType;
+    String selfIdText;
+
+    // System
+    double operatorLatitude;
+    double operatorLongitude;
+    double operatorAltitude;
+
+    // Operator ID
+    int operatorIdType;
+    String operatorId;
+
+    // Authentication
+    int authType;
+    int authPage;
+    int authLastPageIndex;
+    long authTimestamp;
+    String authData;
+
+    DetectionEvent() {
+        reset();
+    }
+
+    void reset() {
+        type = null;
+        mac = null;
+        rssi = 0;
+        timestampMillis = 0;
+        idType = -1;
+        uaType = -1;
+        uasId = null;
+        manufacturer = null;
+        status = -1;
+        latitude = Double.NaN;
+        longitude = Double.NaN;
+        direction = Double.NaN;
+        speed = Double.NaN;
+        verticalSpeed = Double.NaN;
+        geodeticAltitude = Double.NaN;
+        height = Double.NaN;
+        descriptionType = -1;
+        selfIdText = null;
+        operatorLatitude = Double.NaN;
+        operatorLongitude = Double.NaN;
+        operatorAltitude = Double.NaN;
+        operatorIdType = -1;
+        operatorId = null;
+        authType = -1;
+        authPage = -1;
+        authLastPageIndex = -1;
+        authTimestamp = -1;
+        authData = null;
+    }
+
+    public MessageType getType() {
+        return type;
+    }
+
+    public String getMac() {
+        return mac;
+    }
+
+    public int getRssi() {
+        return rssi;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    // Labels below are constants, so converting an event to a CoT message doesn't allocate them
+
+    String getIdTypeLabel() {
+        switch (idType) {
+            case ID_TYPE_DEVICE_NAME: return "Bluetooth Device Name";
+            case 0: return "None";
+            case 1: return "Serial Number (ANSI/CTA-2063-A)";
+            case 2: return "CAA Assigned Registration ID";
+            case 3: return "UTM (USS) Assigned ID";
+            case 4: return "Specific Session ID";
+            default: return "Unknown";
+        }
+    }
+
+    String getDescriptionTypeLabel() {
+        switch (descriptionType) {
+            case 0: return "Text";
+            case 1: return "Emergency";
+            case 2: return "Extended Status";
+            default: return "Reserved";
+        }
+    }
+
+    String getOperatorIdTypeLabel() {
+        return operatorIdType == 0 ? "CAA Assigned Operator ID" : "Unknown";
+    }
+}
@@ -7,6 +7,8 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.rootdown.dragonsync.models.CoTMessage;
 import com.rootdown.dragonsync.models.DroneSignature;
+import com.rootdown.dragonsync.utils.CoTTimeParser;
+import com.rootdown.dragonsync.utils.NumberScanner;
 
 public class JsonDataParser {
     private static final String TAG = "JsonDataParser";
@@ -50,13 +52,13 @@ public class JsonDataParser {
         // Parse Location/Vector
         if (json.has("Location/Vector Message")) {
             JsonObject location = json.getAsJsonObject("Location/Vector Message");
-            if (location.has("latitude")) message.setLat(String.valueOf(location.get("latitude").getAsDouble()));
-            if (location.has("longitude")) message.setLon(String.valueOf(location.get("longitude").getAsDouble()));
-            if (location.has("speed")) message.setSpeed(String.valueOf(location.get("speed").getAsDouble()));
-            if (location.has("vert_speed")) message.setVspeed(String.valueOf(location.get("vert_speed").getAsDouble()));
-            if (location.has("geodetic_altitude")) message.setAlt(String.valueOf(location.get("geodetic_altitude").getAsDouble()));
-            if (location.has("height_agl")) message.setHeight(String.valueOf(location.get("height_agl").getAsDouble()));
-            if (location.has("direction")) message.setDirection(String.valueOf(location.get("direction").getAsDouble()));
+            if (location.has("latitude")) message.setLat(location.get("latitude").getAsDouble());
+            if (location.has("longitude")) message.setLon(location.get("longitude").getAsDouble());
+            if (location.has("speed")) message.setSpeed(location.get("speed").getAsDouble());
+            if (location.has("vert_speed")) message.setVspeed(location.get("vert_speed").getAsDouble());
+            if (location.has("geodetic_altitude")) message.setAlt(location.get("geodetic_altitude").getAsDouble());
+            if (location.has("height_agl")) message.setHeight(location.get("height_agl").getAsDouble());
+            if (location.has("direction")) message.setDirection(location.get("direction").getAsDouble());
             if (location.has("horiz_acc")) message.setHorizontalAccuracy(String.valueOf(location.get("horiz_acc").getAsInt()));
             if (location.has("vert_acc")) message.setVerticalAccuracy(String.valueOf(location.get("vert_acc").getAsInt()));
             if (location.has("timestamp")) message.setTimestamp(String.valueOf(location.get("timestamp").getAsLong()));
@@ -72,12 +74,12 @@ public class JsonDataParser {
         // Parse System Message - critical for operator and home locations
         if (json.has("System Message")) {
             JsonObject system = json.getAsJsonObject("System Message");
-            if (system.has("operator_lat")) message.setPilotLat(String.valueOf(system.get("operator_lat").getAsDouble()));
-            if (system.has("operator_lon")) message.setPilotLon(String.valueOf(system.get("operator_lon").getAsDouble()));
+            if (system.has("operator_lat")) message.setPilotLat(system.get("operator_lat").getAsDouble());
+            if (system.has("operator_lon")) message.setPilotLon(system.get("operator_lon").getAsDouble());
 
             // Home location for DJI drones
-            if (system.has("home_lat")) message.setHomeLat(String.valueOf(system.get("home_lat").getAsDouble()));
-            if (system.has("home_lon")) message.setHomeLon(String.valueOf(system.get("home_lon").getAsDouble()));
+            if (system.has("home_lat")) message.setHomeLat(system.get("home_lat").getAsDouble());
+            if (system.has("home_lon")) message.setHomeLon(system.get("home_lon").getAsDouble());
 
             // Additional system params
             if (system.has("area_count")) message.setAreaCount(String.valueOf(system.get("area_count").getAsInt()));
@@ -129,7 +131,7 @@ public class JsonDataParser {
                     JsonElement latElement = location.get("latitude");
                     if (latElement.isJsonPrimitive()) {
                         if (latElement.getAsJsonPrimitive().isNumber()) {
-                            message.setLat(String.valueOf(latElement.getAsDouble()));
+                            message.setLat(latElement.getAsDouble());
                         } else {
                             message.setLat(latElement.getAsString());
                         }
@@ -140,7 +142,7 @@ public class JsonDataParser {
                     JsonElement lonElement = location.get("longitude");
                     if (lonElement.isJsonPrimitive()) {
                         if (lonElement.getAsJsonPrimitive().isNumber()) {
-                            message.setLon(String.valueOf(lonElement.getAsDouble()));
+                            message.setLon(lonElement.getAsDouble());
                         } else {
                             message.setLon(lonElement.getAsString());
                         }
@@ -152,13 +154,9 @@ public class JsonDataParser {
                     JsonElement speedElement = location.get("speed");
                     if (speedElement.isJsonPrimitive()) {
                         if (speedElement.getAsJsonPrimitive().isNumber()) {
-                            message.setSpeed(String.valueOf(speedElement.getAsDouble()));
+                            message.setSpeed(speedElement.getAsDouble());
                         } else {
-                            String speedStr = speedElement.getAsString();
-                            if (speedStr.contains(" ")) {
-                                speedStr = speedStr.split(" ")[0]; // Extract numeric part
-                            }
-                            message.setSpeed(speedStr);
+                            message.setSpeed(NumberScanner.parseDouble(speedElement.getAsString()));
                         }
                     }
                 }
@@ -186,8 +184,8 @@ public class JsonDataParser {
                     if (latElement.isJsonPrimitive() && lonElement.isJsonPrimitive()) {
                         if (latElement.getAsJsonPrimitive().isNumber() &&
                                 lonElement.getAsJsonPrimitive().isNumber()) {
-                            message.setPilotLat(String.valueOf(latElement.getAsDouble()));
-                            message.setPilotLon(String.valueOf(lonElement.getAsDouble()));
+                            message.setPilotLat(latElement.getAsDouble());
+                            message.setPilotLon(lonElement.getAsDouble());
                         } else {
                             // Handle string format (might be redacted with "xxxx")
                             String pilotLat = latElement.getAsString();
@@ -202,14 +200,14 @@ public class JsonDataParser {
 
                 // Standard operator location in dedicated fields
                 if (system.has("operator_lat") && system.has("operator_lon")) {
-                    message.setPilotLat(String.valueOf(system.get("operator_lat").getAsDouble()));
-                    message.setPilotLon(String.valueOf(system.get("operator_lon").getAsDouble()));
+                    message.setPilotLat(system.get("operator_lat").getAsDouble());
+                    message.setPilotLon(system.get("operator_lon").getAsDouble());
                 }
 
                 // Home location for DJI
                 if (system.has("home_lat") && system.has("home_lon")) {
-                    message.setHomeLat(String.valueOf(system.get("home_lat").getAsDouble()));
-                    message.setHomeLon(String.valueOf(system.get("home_lon").getAsDouble()));
+                    message.setHomeLat(system.get("home_lat").getAsDouble());
+                    message.setHomeLon(system.get("home_lon").getAsDouble());
                 }
             }
         }
@@ -223,13 +221,9 @@ public class JsonDataParser {
             JsonElement vspeedElement = location.get("vert_speed");
             if (vspeedElement.isJsonPrimitive()) {
                 if (vspeedElement.getAsJsonPrimitive().isNumber()) {
-                    message.setVspeed(String.valueOf(vspeedElement.getAsDouble()));
+                    message.setVspeed(vspeedElement.getAsDouble());
                 } else {
-                    String vspeedStr = vspeedElement.getAsString();
-                    if (vspeedStr.contains(" ")) {
-                        vspeedStr = vspeedStr.split(" ")[0]; // Extract numeric part
-                    }
-                    message.setVspeed(vspeedStr);
+                    message.setVspeed(NumberScanner.parseDouble(vspeedElement.getAsString()));
                 }
             }
         }
@@ -238,13 +232,9 @@ public class JsonDataParser {
             JsonElement altElement = location.get("geodetic_altitude");
             if (altElement.isJsonPrimitive()) {
                 if (altElement.getAsJsonPrimitive().isNumber()) {
-                    message.setAlt(String.valueOf(altElement.getAsDouble()));
+                    message.setAlt(altElement.getAsDouble());
                 } else {
-                    String altStr = altElement.getAsString();
-                    if (altStr.contains(" ")) {
-                        altStr = altStr.split(" ")[0]; // Extract numeric part
-                    }
-                    message.setAlt(altStr);
+                    message.setAlt(NumberScanner.parseDouble(altElement.getAsString()));
                 }
             }
         }
@@ -253,13 +243,9 @@ public class JsonDataParser {
             JsonElement heightElement = location.get("height_agl");
             if (heightElement.isJsonPrimitive()) {
                 if (heightElement.getAsJsonPrimitive().isNumber()) {
-                    message.setHeight(String.valueOf(heightElement.getAsDouble()));
+                    message.setHeight(heightElement.getAsDouble());
                 } else {
-                    String heightStr = heightElement.getAsString();
-                    if (heightStr.contains(" ")) {
-                        heightStr = heightStr.split(" ")[0]; // Extract numeric part
-                    }
-                    message.setHeight(heightStr);
+                    message.setHeight(NumberScanner.parseDouble(heightElement.getAsString()));
                 }
             }
         }
@@ -297,40 +283,43 @@ public class JsonDataParser {
     }
 
     private long parseTextualTimestamp(String timeString) {
+        // Absolute CoT/ISO-8601 times go through the cached parser
+        long absolute = CoTTimeParser.parse(timeString, -1);
+        if (absolute != -1) {
+            return absolute;
+        }
+
         // Parse timestamp format like "28 min 40.0 s"
-        long timestamp = 0;
+        int minIndex = timeString.indexOf("min");
+        int secondsStart = minIndex >= 0 ? minIndex + 3 : 0;
+        int secIndex = timeString.indexOf('s', secondsStart);
 
-        try {
-            // Handle simple case first
-            if (timeString.matches("\\d+")) {
-                return Long.parseLong(timeString);
-            }
+        // Handle simple case first
+        if (minIndex < 0 && secIndex < 0) {
+            return NumberScanner.parseLong(timeString, System.currentTimeMillis());
+        }
 
-            // Handle complex format
-            if (timeString.contains("min")) {
-                String minPart = timeString.split("min")[0].trim();
-                timestamp += Long.parseLong(minPart) * 60 * 1000; // minutes to ms
+        long timestamp = 0;
+        if (minIndex >= 0) {
+            double minutes = NumberScanner.parseDouble(timeString, 0, minIndex);
+            if (!Double.isNaN(minutes)) {
+                timestamp += (long)(minutes * 60 * 1000); // minutes to ms
             }
+        }
 
-            if (timeString.contains("s")) {
-                String secPart = timeString.split("s")[0];
-                if (secPart.contains("min")) {
-                    secPart = secPart.split("min")[1].trim();
-                }
-                float seconds = Float.parseFloat(secPart);
+        if (secIndex >= 0) {
+            double seconds = NumberScanner.parseDouble(timeString, secondsStart, secIndex);
+            if (!Double.isNaN(seconds)) {
                 timestamp += (long)(seconds * 1000); // seconds to ms
             }
+        }
 
-            // If it's relative time, convert to absolute by adding current time
-            if (timestamp > 0) {
-                timestamp = System.currentTimeMillis() - timestamp;
-            }
-
-            return timestamp;
-        } catch (Exception e) {
-            Log.e(TAG, "Error parsing textual timestamp: " + timeString);
-            return System.currentTimeMillis(); // Fallback to current time
+        // If it's relative time, convert to absolute by adding current time
+        if (timestamp > 0) {
+            timestamp = System.currentTimeMillis() - timestamp;
         }
+
+        return timestamp;
     }
 
     private DroneSignature.IdInfo.UAType mapUAType(int uaTypeValue) {
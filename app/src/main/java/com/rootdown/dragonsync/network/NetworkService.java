@@ -164,8 +164,12 @@ public class NetworkService extends Service {
         logMessageFormat(message);
 
         XMLParser parser = new XMLParser();
-        XMLParser.ParseResult result = parser.parse(message);
+        for (XMLParser.ParseResult result : parser.parseAll(message)) {
+            broadcastResult(result, message);
+        }
+    }
 
+    private void broadcastResult(XMLParser.ParseResult result, String message) {
         if (result.error != null) {
             Log.e(TAG, "Failed to parse message: " + result.error);
             return;
@@ -183,10 +187,12 @@ public class NetworkService extends Service {
 
         // Check if we have a telemetry message (but only if it's not the same as a status message)
         if (result.cotMessage != null && result.cotMessage.getUid() != null && !result.cotMessage.getUid().startsWith("wardragon")) {
+            // For batched frames, send only this drone's event rather than the whole frame
+            String rawSource = result.cotMessage.getRawSource();
             Intent telemetryIntent = new Intent("com.rootdown.dragonsync.TELEMETRY");
             telemetryIntent.setPackage(getPackageName());
             telemetryIntent.putExtra("parsed_message", result.cotMessage);
-            telemetryIntent.putExtra("raw_message", message);
+            telemetryIntent.putExtra("raw_message", rawSource != null ? rawSource : message);
             sendBroadcast(telemetryIntent);
             Log.d(TAG, "Broadcast telemetry for drone: " + result.cotMessage.getUid());
         }
@@ -9,7 +9,10 @@ import android.content.pm.PackageManager;
 import android.content.pm.ServiceInfo;
 import android.location.Location;
 import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.IBinder;
+import android.os.Process;
 import android.util.Log;
 
 import androidx.core.app.ActivityCompat;
@@ -19,16 +22,18 @@ import com.rootdown.dragonsync.R;
 import com.rootdown.dragonsync.models.CoTMessage;
 import com.rootdown.dragonsync.models.DroneSignature;
 import com.rootdown.dragonsync.utils.DeviceLocationManager;
+import com.rootdown.dragonsync.utils.SerialIds;
 import com.rootdown.dragonsync.utils.Settings;
-
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.rootdown.dragonsync.utils.TimerWheel;
+import com.rootdown.dragonsync.utils.TrailingRateLimiter;
 
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public class OnboardDetectionService extends Service {
     private static final String TAG = "OnboardDetectionService";
@@ -41,14 +46,68 @@ public class OnboardDetectionService extends Service {
     private boolean isRunning = false;
     private XMLParser xmlParser;
     private DeviceLocationManager locationManager;
-    private Location lastDeviceLocation;
-    private Map<String, Long> lastDetectionTime = new HashMap<>(); // For filtering duplicate detections
+    // Written by location callbacks on the main thread, read by the scanners' ingest threads
+    private volatile Location lastDeviceLocation;
+    // Limits each drone's messages of one type to one per source interval, keeping the newest
+    private static final long BLE_EMIT_INTERVAL_MS = 2000;
+    // Wi-Fi beacons arrive a few per budgeted scan, so a shorter window costs little
+    private static final long WIFI_EMIT_INTERVAL_MS = 1000;
+    private static final long EMIT_IDLE_TIMEOUT_MS = 60000;
+    private static final long EMIT_TICK_MS = 250;
+    private static final int MAX_EMIT_KEYS = 1024;
+    private final TrailingRateLimiter<String, HeldMessage> emitLimiter = new TrailingRateLimiter<>(
+            MAX_EMIT_KEYS, EMIT_IDLE_TIMEOUT_MS, EMIT_TICK_MS, System.currentTimeMillis());
+    private final BiConsumer<String, HeldMessage> emitHeld = (key, held) -> emitMessage(held.message, held.source);
+    // Runs trailing-edge emissions and idle eviction while the limiter tracks any key
+    private HandlerThread emitThread;
+    private Handler emitHandler;
+    private boolean flushScheduled = false;
+    private final Runnable flushRunnable = this::flushHeldMessages;
+
+    // RSSI locators for drones without their own position, least recently heard evicted first
+    private static final int MAX_LOCATORS = 128;
+    // A drone that reported its own position this recently is not estimated
+    private static final long SELF_REPORT_HOLD_MS = 30000;
+    private final Map<String, RssiLocator> rssiLocators = new LinkedHashMap<String, RssiLocator>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RssiLocator> eldest) {
+            return size() > MAX_LOCATORS;
+        }
+    };
+
+    private static final class HeldMessage {
+        final CoTMessage message;
+        final String source;
+
+        HeldMessage(CoTMessage message, String source) {
+            this.message = message;
+            this.source = source;
+        }
+    }
     private Map<String, String> knownDroneIds = new HashMap<>();
     private Map<String, String> macToDroneIdMap = new HashMap<>();
 
-    private Map<String, String> persistentMacToDroneId = new HashMap<>();
-    private Map<String, Long> macLastSeen = new HashMap<>();
+    private Map<String, MacMapping> persistentMacToDroneId = new HashMap<>();
+    // MAC -> drone ID seen in the batch being processed; cleared and reused for every batch
+    private final Map<String, String> batchMacToDroneId = new HashMap<>();
     private static final long MAC_MAPPING_TIMEOUT = 30000; // 30 seconds
+    // Expires each mapping MAC_MAPPING_TIMEOUT after its last use; one lap covers the timeout
+    private final TimerWheel<MacMapping> macMappingExpiry = new TimerWheel<>(1000, 64, System.currentTimeMillis());
+    private final Consumer<MacMapping> onMacMappingExpired = mapping -> {
+        persistentMacToDroneId.remove(mapping.mac);
+        Log.d(TAG, "Cleaned up old MAC mapping: " + mapping.mac);
+    };
+
+    // MAC -> drone ID learned from a Basic ID or Self-ID message
+    private static final class MacMapping {
+        final String mac;
+        String droneId;
+        final TimerWheel.Timer<MacMapping> expiryTimer = new TimerWheel.Timer<>(this);
+
+        MacMapping(String mac) {
+            this.mac = mac;
+        }
+    }
 
     @Override
     public void onCreate() {
@@ -58,6 +117,10 @@ public class OnboardDetectionService extends Service {
         createNotificationChannel();
 
         RebelHistoryManager = new RebelHistoryManager(this);
+        emitThread = new HandlerThread("OnboardEmit", Process.THREAD_PRIORITY_BACKGROUND);
+        emitThread.start();
+        emitHandler = new Handler(emitThread.getLooper());
+
         // Initialize location manager
         locationManager = DeviceLocationManager.getInstance(this);
         locationManager.addListener(location -> {
@@ -69,8 +132,8 @@ public class OnboardDetectionService extends Service {
         if (hasBluetoothPermissions()) {
             bluetoothScanner = new BluetoothScanner(this, new BluetoothScanner.OnDroneDetectedListener() {
                 @Override
-                public void onDroneDetected(JSONArray droneData) {
-                    processDroneData(droneData, "BLE");
+                public void onDroneDetected(DetectionBatch batch) {
+                    processDroneData(batch, "BLE");
                 }
 
                 @Override
@@ -86,8 +149,8 @@ public class OnboardDetectionService extends Service {
         if (hasWifiPermissions()) {
             wifiScanner = new WiFiScanner(this, new WiFiScanner.OnDroneDetectedListener() {
                 @Override
-                public void onDroneDetected(JSONArray droneData) {
-                    processDroneData(droneData, "WiFi");
+                public void onDroneDetected(DetectionBatch batch) {
+                    processDroneData(batch, "WiFi");
                 }
 
                 @Override
@@ -142,120 +205,83 @@ public class OnboardDetectionService extends Service {
         }
     }
 
-    private void processDroneData(JSONArray droneData, String source) {
-        if (droneData == null || droneData.length() == 0) {
+    // Called on the BLE and WiFi scanners' ingest threads; synchronized so the ID mappings and
+    // duplicate filter see one batch at a time. The batch's events are pooled, so nothing here
+    // may hold on to them after returning.
+    private synchronized void processDroneData(DetectionBatch batch, String source) {
+        if (batch == null || batch.size() == 0) {
             return;
         }
 
         try {
-            Log.d(TAG, "Processing " + droneData.length() + " drone message(s) from source: " + source);
-
-            // Clean up old MAC mappings
-            cleanupOldMacMappings();
+            // Expire MAC mappings whose timers came due since the last batch
+            long now = System.currentTimeMillis();
+            macMappingExpiry.advance(now, onMacMappingExpired);
 
             // Step 1: Collect drone IDs from Basic ID messages and update persistent mapping
-            Map<String, String> sessionMacToDroneId = new HashMap<>();
+            Map<String, String> sessionMacToDroneId = batchMacToDroneId;
+            sessionMacToDroneId.clear();
             String primaryDroneId = null;
 
-            for (int i = 0; i < droneData.length(); i++) {
-                JSONObject msgObj = droneData.getJSONObject(i);
-
-                if (msgObj.has("Basic ID")) {
-                    JSONObject basicIdData = msgObj.getJSONObject("Basic ID");
-                    if (basicIdData.has("id") && basicIdData.has("MAC")) {
-                        String droneId = basicIdData.getString("id");
-                        String mac = basicIdData.getString("MAC");
-
-                        if (droneId.matches("^[A-Z0-9]+$") && !droneId.matches("^0+$") && droneId.length() >= 6) {
-                            primaryDroneId = droneId;
-                            sessionMacToDroneId.put(mac, droneId);
+            for (int i = 0; i < batch.size(); i++) {
+                DetectionEvent event = batch.get(i);
+                if (event.type != DetectionEvent.MessageType.BASIC_ID || event.mac == null) {
+                    continue;
+                }
+                String droneId = event.uasId;
+                if (SerialIds.isSerialId(droneId)) {
+                    primaryDroneId = droneId;
+                    sessionMacToDroneId.put(event.mac, droneId);
 
-                            // Update persistent mapping
-                            persistentMacToDroneId.put(mac, droneId);
-                            macLastSeen.put(mac, System.currentTimeMillis());
+                    // Update persistent mapping
+                    rememberMacMapping(event.mac, droneId, now);
 
-                            Log.d(TAG, "Found valid drone ID: " + droneId + " for MAC: " + mac);
-                        }
-                    }
+                    Log.d(TAG, "Found valid drone ID: " + droneId + " for MAC: " + event.mac +
+                            (SerialIds.isCta2063Serial(droneId) ? " (CTA-2063-A)" : ""));
                 }
             }
 
             // Step 2: Look for drone ID in Self-ID messages as fallback
             if (primaryDroneId == null) {
-                for (int i = 0; i < droneData.length(); i++) {
-                    JSONObject msgObj = droneData.getJSONObject(i);
-                    if (msgObj.has("Self-ID Message")) {
-                        JSONObject selfIdData = msgObj.getJSONObject("Self-ID Message");
-                        if (selfIdData.has("text") && selfIdData.has("MAC")) {
-                            String selfIdText = selfIdData.getString("text");
-                            String mac = selfIdData.getString("MAC");
-
-                            if (selfIdText.length() >= 10 && selfIdText.matches(".*[A-Z0-9]{10,}.*")) {
-                                String extractedId = selfIdText.replaceAll("^\\d+", "");
-                                if (extractedId.length() >= 6 && extractedId.matches("^[A-Z0-9]+$")) {
-                                    primaryDroneId = extractedId;
-                                    sessionMacToDroneId.put(mac, primaryDroneId);
-
-                                    // Update persistent mapping
-                                    persistentMacToDroneId.put(mac, primaryDroneId);
-                                    macLastSeen.put(mac, System.currentTimeMillis());
-
-                                    Log.d(TAG, "Extracted drone ID from Self-ID: " + primaryDroneId + " for MAC: " + mac);
-                                    break;
-                                }
-                            }
-                        }
+                for (int i = 0; i < batch.size(); i++) {
+                    DetectionEvent event = batch.get(i);
+                    if (event.type != DetectionEvent.MessageType.SELF_ID || event.mac == null) {
+                        continue;
                     }
-                }
-            }
+                    String extractedId = SerialIds.extractSelfIdSerial(event.selfIdText);
+                    if (extractedId != null) {
+                        primaryDroneId = extractedId;
+                        sessionMacToDroneId.put(event.mac, primaryDroneId);
 
-            // Step 3: Process each message with consistent drone ID
-            for (int i = 0; i < droneData.length(); i++) {
-                JSONObject msgObj = droneData.getJSONObject(i);
-                String messageType = null;
-                JSONObject messageData = null;
-
-                Iterator<String> keys = msgObj.keys();
-                if (keys.hasNext()) {
-                    messageType = keys.next();
-                    messageData = msgObj.getJSONObject(messageType);
-                }
+                        // Update persistent mapping
+                        rememberMacMapping(event.mac, primaryDroneId, now);
 
-                if (messageType == null || messageData == null) {
-                    continue;
+                        Log.d(TAG, "Extracted drone ID from Self-ID: " + primaryDroneId + " for MAC: " + event.mac);
+                        break;
+                    }
                 }
+            }
 
-                // Skip unknown message types
-                if (!isKnownMessageType(messageType)) {
-                    Log.d(TAG, "Skipping unknown message type: " + messageType);
-                    continue;
-                }
+            // Step 3: Process each message with consistent drone ID
+            for (int i = 0; i < batch.size(); i++) {
+                DetectionEvent event = batch.get(i);
 
                 // Apply drone ID from session or persistent mapping
-                if (messageData.has("MAC")) {
-                    String mac = messageData.getString("MAC");
-                    String droneId = null;
-
+                String overrideUid = null;
+                if (event.mac != null) {
                     // Try session mapping first, then persistent mapping
-                    if (sessionMacToDroneId.containsKey(mac)) {
-                        droneId = sessionMacToDroneId.get(mac);
-                    } else if (persistentMacToDroneId.containsKey(mac)) {
-                        droneId = persistentMacToDroneId.get(mac);
-                        // Update last seen time
-                        macLastSeen.put(mac, System.currentTimeMillis());
-                    }
-
-                    if (droneId != null) {
-                        messageData.put("OVERRIDE_UID", droneId);
-                        Log.d(TAG, "Applied drone ID " + droneId + " to " + messageType + " from MAC " + mac);
+                    MacMapping mapping;
+                    if ((overrideUid = sessionMacToDroneId.get(event.mac)) == null &&
+                            (mapping = persistentMacToDroneId.get(event.mac)) != null) {
+                        overrideUid = mapping.droneId;
+                        // Push back its expiry
+                        macMappingExpiry.schedule(mapping.expiryTimer, now + MAC_MAPPING_TIMEOUT);
                     }
                 }
 
-                Log.d(TAG, "Processing " + messageType + " with data: " + messageData.toString(2));
-                CoTMessage message = convertToCoTMessage(messageType, messageData, source);
-
+                CoTMessage message = convertToCoTMessage(event, source, overrideUid);
                 if (message != null && message.getUid() != null) {
-                    processMessage(message, source, messageData);
+                    processMessage(message, source, event.type);
                 }
             }
 
@@ -264,41 +290,26 @@ public class OnboardDetectionService extends Service {
         }
     }
 
-    private void cleanupOldMacMappings() {
-        long currentTime = System.currentTimeMillis();
-        Iterator<Map.Entry<String, Long>> iterator = macLastSeen.entrySet().iterator();
-
-        while (iterator.hasNext()) {
-            Map.Entry<String, Long> entry = iterator.next();
-            if (currentTime - entry.getValue() > MAC_MAPPING_TIMEOUT) {
-                String mac = entry.getKey();
-                persistentMacToDroneId.remove(mac);
-                iterator.remove();
-                Log.d(TAG, "Cleaned up old MAC mapping: " + mac);
-            }
+    private void rememberMacMapping(String mac, String droneId, long now) {
+        MacMapping mapping = persistentMacToDroneId.get(mac);
+        if (mapping == null) {
+            mapping = new MacMapping(mac);
+            persistentMacToDroneId.put(mac, mapping);
         }
+        mapping.droneId = droneId;
+        macMappingExpiry.schedule(mapping.expiryTimer, now + MAC_MAPPING_TIMEOUT);
     }
 
-    private boolean isKnownMessageType(String messageType) {
-        return messageType.equals("Basic ID") ||
-                messageType.equals("Location/Vector Message") ||
-                messageType.equals("Self-ID Message") ||
-                messageType.equals("System Message") ||
-                messageType.equals("Operator ID Message") ||
-                messageType.equals("Authentication Message") ||
-                messageType.equals("Auth Message");
-    }
-
-
-    private void processMessage(CoTMessage message, String source, JSONObject messageData) {
-        // Skip messages without RSSI or with NaN MAC addresses
-        if (message.getRssi() == null || message.getRssi() == 0) {
+    private void processMessage(CoTMessage message, String source, DetectionEvent.MessageType messageType) {
+        // NaN discovery reports no signal strength; every radio-scanned message carries one
+        boolean fromNaN = message.getMac() != null && message.getMac().startsWith(WiFiScanner.NAN_ADDRESS_PREFIX);
+        if (!fromNaN && (message.getRssi() == null || message.getRssi() == 0)) {
             Log.d(TAG, "Skipping message without valid RSSI: " + message.getUid());
             return;
         }
 
-        // Skip NaN messages (WiFi NaN without proper signal strength)
-        if (message.getUid() != null && message.getUid().contains("NaN-")) {
+        // A NaN peer ID alone isn't worth a track; wait for a serial ID to name the drone
+        if (message.getUid() != null && message.getUid().startsWith(WiFiScanner.NAN_ADDRESS_PREFIX)) {
             Log.d(TAG, "Skipping NaN message: " + message.getUid());
             return;
         }
@@ -310,250 +321,235 @@ public class OnboardDetectionService extends Service {
             return;
         }
 
-        long currentTime = System.currentTimeMillis();
-        Long lastDetection = lastDetectionTime.get(uniqueKey);
-        boolean shouldProcess = lastDetection == null || (currentTime - lastDetection) >= 2000;
+        long now = System.currentTimeMillis();
+        recordRssiObservation(message, uniqueKey, now);
 
-        if (shouldProcess) {
-            // Update last detection time
-            lastDetectionTime.put(uniqueKey, currentTime);
+        long interval = "BLE".equals(source) ? BLE_EMIT_INTERVAL_MS : WIFI_EMIT_INTERVAL_MS;
+        if (emitLimiter.offer(uniqueKey + '|' + messageType, new HeldMessage(message, source),
+                interval, now)) {
+            emitMessage(message, source);
+        } else {
+            Log.d(TAG, "Holding latest " + messageType + " for " + uniqueKey + " until its window closes");
+        }
+        scheduleFlush();
+    }
 
-            // Only estimate location if drone doesn't provide its own coordinates
-            if (message.getCoordinate() == null &&
-                    lastDeviceLocation != null &&
-                    message.getRssi() != null &&
-                    settings.isLocationEstimationEnabled()) {
+    // Caller holds the service lock
+    private void scheduleFlush() {
+        if (flushScheduled || emitHandler == null) return;
+        flushScheduled = true;
+        emitHandler.postDelayed(flushRunnable, EMIT_TICK_MS);
+    }
 
-                estimateDroneLocation(message);
-            }
+    private synchronized void flushHeldMessages() {
+        flushScheduled = false;
+        emitLimiter.advance(System.currentTimeMillis(), emitHeld);
+        if (emitLimiter.size() > 0) {
+            scheduleFlush();
+        }
+    }
 
-            // Set the device (operator) location for display purposes
-            if (lastDeviceLocation != null) {
-                message.setPilotLat(String.valueOf(lastDeviceLocation.getLatitude()));
-                message.setPilotLon(String.valueOf(lastDeviceLocation.getLongitude()));
-            }
+    // Enriches and broadcasts one message the rate limiter let through
+    private void emitMessage(CoTMessage message, String source) {
+        // Only estimate location if drone doesn't provide its own coordinates
+        if (!message.hasCoordinate() &&
+                lastDeviceLocation != null &&
+                message.getRssi() != null &&
+                settings.isLocationEstimationEnabled()) {
 
-            // Calculate distance between user and drone if both coordinates are available
-            if (lastDeviceLocation != null && message.getCoordinate() != null) {
-                float distanceInMeters = lastDeviceLocation.distanceTo(message.getCoordinate());
+            estimateDroneLocation(message);
+        }
 
-                // Store the calculated distance in the message
-                if (message.getRawMessage() == null) {
-                    message.setRawMessage(new HashMap<>());
-                }
-                message.getRawMessage().put("calculated_distance", distanceInMeters);
+        // Set the device (operator) location for display purposes
+        if (lastDeviceLocation != null) {
+            message.setPilotLat(lastDeviceLocation.getLatitude());
+            message.setPilotLon(lastDeviceLocation.getLongitude());
+        }
 
-                Log.d(TAG, "  Distance: " + distanceInMeters + "m");
-            }
+        // Calculate distance between user and drone if both coordinates are available
+        if (lastDeviceLocation != null && message.hasCoordinate()) {
+            float distanceInMeters = lastDeviceLocation.distanceTo(message.getCoordinate());
 
+            // Store the calculated distance in the message
+            message.putExtra("calculated_distance", distanceInMeters);
 
-            // Process Rebel detection
-            if (RebelHistoryManager != null) {
-                // Run hound Rebel scanning on the message
-                RebelScanner RebelScanner = new RebelScanner();
-                List<RebelScanner.RebelDetection> detections = RebelScanner.scanMessage(message);
+            Log.d(TAG, "  Distance: " + distanceInMeters + "m");
+        }
 
-                // If Rebels detected, log and handle them
-                if (!detections.isEmpty()) {
-                    Log.w(TAG, "Rebel detections found for " + message.getUid() + ": " + detections.size());
-                    for (RebelScanner.RebelDetection detection : detections) {
-                        Log.w(TAG, "Rebel: " + detection.getType() + " - " + detection.getDetails() +
-                                " (Confidence: " + detection.getConfidence() + ")");
-                    }
-                }
 
-                // Process through history manager (which handles notifications and storage)
-                RebelHistoryManager.processMessage(message);
+        // Process Rebel detection
+        if (RebelHistoryManager != null) {
+            // Scan once and hand the same result to the history manager
+            List<RebelScanner.RebelDetection> detections = RebelScanner.getInstance().scanMessage(message);
+
+            // If Rebels detected, log and handle them
+            if (!detections.isEmpty()) {
+                Log.w(TAG, "Rebel detections found for " + message.getUid() + ": " + detections.size());
+                for (RebelScanner.RebelDetection detection : detections) {
+                    Log.w(TAG, "Rebel: " + detection.getType() + " - " + detection.getDetails() +
+                            " (Confidence: " + detection.getConfidence() + ")");
+                }
             }
 
+            // Process through history manager (which handles notifications and storage)
+            RebelHistoryManager.processMessage(message, detections);
+        }
 
-            // Broadcast the enhanced telemetry message
-            Intent telemetryIntent = new Intent("com.rootdown.dragonsync.TELEMETRY");
-            telemetryIntent.setPackage(getPackageName());
-            telemetryIntent.putExtra("parsed_message", message);
-            telemetryIntent.putExtra("raw_message", "Onboard detection: " + source);
-            sendBroadcast(telemetryIntent);
 
-            Log.d(TAG, "Broadcast telemetry message for: " + message.getUid());
-        } else {
-            Log.d(TAG, "Throttling duplicate detection for: " + uniqueKey);
-        }
+        // Broadcast the enhanced telemetry message
+        Intent telemetryIntent = new Intent("com.rootdown.dragonsync.TELEMETRY");
+        telemetryIntent.setPackage(getPackageName());
+        telemetryIntent.putExtra("parsed_message", message);
+        telemetryIntent.putExtra("raw_message", "Onboard detection: " + source);
+        // Detections don't survive parceling; tell receivers this message was already stored
+        telemetryIntent.putExtra("rebel_scanned", RebelHistoryManager != null);
+        sendBroadcast(telemetryIntent);
+
+        Log.d(TAG, "Broadcast telemetry message for: " + message.getUid());
     }
 
-    private CoTMessage convertToCoTMessage(String messageType, JSONObject messageData, String source) {
+    private CoTMessage convertToCoTMessage(DetectionEvent event, String source, String overrideUid) {
         CoTMessage message = new CoTMessage();
-        Log.d(TAG, "Converting message type: " + messageType + " with data: " + messageData.toString());
 
-        try {
-            // Set common transport fields
-            if (messageData.has("MAC")) {
-                message.setMac(messageData.getString("MAC"));
-            }
-            if (messageData.has("RSSI")) {
-                message.setRssi(messageData.getInt("RSSI"));
-            }
-            message.setType(source + "_ONBOARD");
-
-            // Use override UID if provided, otherwise fall back to message-specific logic
-            String overrideUid = messageData.optString("OVERRIDE_UID", null);
+        // Set common transport fields
+        if (event.mac != null) {
+            message.setMac(event.mac);
+        }
+        // 0 stands for "not measured", as with NaN discovery
+        if (event.rssi != 0) {
+            message.setRssi(event.rssi);
+        }
+        message.setType(source + "_ONBOARD");
 
-            switch (messageType) {
-                case "Basic ID":
-                    convertBasicIdMessage(message, messageData, overrideUid);
-                    break;
+        // Use override UID if provided, otherwise fall back to message-specific logic
+        switch (event.type) {
+            case BASIC_ID:
+                convertBasicIdMessage(message, event, overrideUid);
+                break;
 
-                case "Location/Vector Message":
-                    convertLocationMessage(message, messageData, overrideUid);
-                    break;
+            case LOCATION:
+                convertLocationMessage(message, event, overrideUid);
+                break;
 
-                case "Self-ID Message":
-                    convertSelfIdMessage(message, messageData, overrideUid);
-                    break;
+            case SELF_ID:
+                convertSelfIdMessage(message, event, overrideUid);
+                break;
 
-                case "System Message":
-                    convertSystemMessage(message, messageData, overrideUid);
-                    break;
+            case SYSTEM:
+                convertSystemMessage(message, event, overrideUid);
+                break;
 
-                case "Operator ID Message":
-                    convertOperatorIdMessage(message, messageData, overrideUid);
-                    break;
+            case OPERATOR_ID:
+                convertOperatorIdMessage(message, event, overrideUid);
+                break;
 
-                case "Authentication Message":
-                case "Auth Message":
-                    convertAuthMessage(message, messageData, overrideUid);
-                    break;
+            case AUTH:
+                convertAuthMessage(message, event, overrideUid);
+                break;
 
-                default:
-                    Log.w(TAG, "Unknown message type: " + messageType);
-                    return null;
-            }
+            default:
+                Log.w(TAG, "Unknown message type: " + event.type);
+                return null;
+        }
 
-            // Validate coordinates if present
-            if (message.getLat() != null && message.getLon() != null) {
-                if (!isValidCoordinate(message.getLat(), message.getLon())) {
-                    Log.w(TAG, "Invalid coordinates detected, clearing: " + message.getLat() + ", " + message.getLon());
-                    message.setLat(null);
-                    message.setLon(null);
-                }
-            }
+        // A mapped drone ID is the serial from this MAC's Basic ID or Self-ID, so every message
+        // type carries it as the RID that links the drone's observations into one track
+        if (overrideUid != null) {
+            message.setId(overrideUid);
+        }
 
-            // Store raw message data
-            Map<String, Object> rawData = new HashMap<>();
-            Iterator<String> keys = messageData.keys();
-            while (keys.hasNext()) {
-                String key = keys.next();
-                rawData.put(key, messageData.get(key));
+        // Validate coordinates if present
+        if (message.getLat() != null && message.getLon() != null) {
+            if (!isValidCoordinate(message.getLatValue(), message.getLonValue())) {
+                Log.w(TAG, "Invalid coordinates detected, clearing: " + message.getLat() + ", " + message.getLon());
+                message.setLat(null);
+                message.setLon(null);
             }
-            message.setRawMessage(rawData);
-
-            return message;
-
-        } catch (JSONException e) {
-            Log.e(TAG, "Error converting drone data: " + e.getMessage(), e);
-            return null;
         }
+
+        return message;
     }
 
-    private boolean isValidCoordinate(String latStr, String lonStr) {
-        try {
-            double lat = Double.parseDouble(latStr);
-            double lon = Double.parseDouble(lonStr);
+    private boolean isValidCoordinate(double lat, double lon) {
+        // NaN fails every comparison, so unparseable values are rejected here too
+        return lat >= -90.0 && lat <= 90.0 && lon >= -180.0 && lon <= 180.0 &&
+                !(lat == 0.0 && lon == 0.0); // Reject null island
+    }
 
-            // Check if coordinates are within valid Earth bounds
-            return lat >= -90.0 && lat <= 90.0 && lon >= -180.0 && lon <= 180.0 &&
-                    !(lat == 0.0 && lon == 0.0); // Reject null island
-        } catch (NumberFormatException e) {
-            return false;
-        }
+    private static String uidOrMac(DetectionEvent event, String fallback) {
+        return event.mac != null ? event.mac : fallback;
     }
 
-    private void convertBasicIdMessage(CoTMessage message, JSONObject messageData, String overrideUid) throws JSONException {
+    private void convertBasicIdMessage(CoTMessage message, DetectionEvent event, String overrideUid) {
         if (overrideUid != null) {
             message.setUid(overrideUid);
-        } else if (messageData.has("id")) {
-            String idValue = messageData.getString("id");
-            if (idValue.matches("^[A-Z0-9]+$") && !idValue.matches("^0+$") && idValue.length() >= 6) {
-                message.setUid(idValue);
-            } else {
-                message.setUid(messageData.optString("MAC", "UNKNOWN_BASIC"));
-            }
+        } else if (SerialIds.isSerialId(event.uasId)) {
+            message.setUid(event.uasId);
+            message.setId(event.uasId);
         } else {
-            message.setUid(messageData.optString("MAC", "UNKNOWN_BASIC"));
-        }
-
-        if (messageData.has("ua_type")) {
-            String uaTypeStr = messageData.getString("ua_type");
-            DroneSignature.IdInfo.UAType uaType = mapUAType(uaTypeStr);
-            message.setUaType(uaType);
+            message.setUid(uidOrMac(event, "UNKNOWN_BASIC"));
         }
 
-        if (messageData.has("id_type")) {
-            message.setIdType(messageData.getString("id_type"));
+        if (event.uaType >= 0) {
+            message.setUaType(mapUAType(event.uaType));
         }
-        if (messageData.has("description")) {
-            message.setDescription(messageData.getString("description"));
+        if (event.idType >= 0) {
+            message.setIdType(event.getIdTypeLabel());
         }
-        if (messageData.has("manufacturer")) {
-            message.setManufacturer(messageData.getString("manufacturer"));
+        if (event.manufacturer != null) {
+            message.setManufacturer(event.manufacturer);
         }
     }
 
-    private void convertLocationMessage(CoTMessage message, JSONObject messageData, String overrideUid) throws JSONException {
+    private void convertLocationMessage(CoTMessage message, DetectionEvent event, String overrideUid) {
         // Use override UID first, then fallback to MAC
         if (overrideUid != null) {
             message.setUid(overrideUid);
         } else {
-            message.setUid(messageData.optString("MAC", "UNKNOWN_LOCATION"));
+            message.setUid(uidOrMac(event, "UNKNOWN_LOCATION"));
         }
 
-        if (messageData.has("latitude") && messageData.has("longitude")) {
-            double lat = messageData.optDouble("latitude", 0);
-            double lon = messageData.optDouble("longitude", 0);
-
-            if (lat != 0 || lon != 0) {
-                message.setLat(String.valueOf(lat));
-                message.setLon(String.valueOf(lon));
-            }
+        // The decoder leaves unknown fields NaN, including the 0, 0 "no position" encoding
+        if (!Double.isNaN(event.latitude) && !Double.isNaN(event.longitude)) {
+            message.setLat(event.latitude);
+            message.setLon(event.longitude);
         }
-
-        // Parse other location fields with unit stripping
-        parseLocationField(message, messageData, "speed", message::setSpeed);
-        parseLocationField(message, messageData, "vert_speed", message::setVspeed);
-        parseLocationField(message, messageData, "geodetic_altitude", message::setAlt);
-        parseLocationField(message, messageData, "height_agl", message::setHeight);
-
-        if (messageData.has("direction")) {
-            message.setDirection(String.valueOf(messageData.get("direction")));
+        if (!Double.isNaN(event.speed)) {
+            message.setSpeed(event.speed);
+        }
+        if (!Double.isNaN(event.verticalSpeed)) {
+            message.setVspeed(event.verticalSpeed);
+        }
+        if (!Double.isNaN(event.geodeticAltitude)) {
+            message.setAlt(event.geodeticAltitude);
+        }
+        if (!Double.isNaN(event.height)) {
+            message.setHeight(event.height);
+        }
+        if (!Double.isNaN(event.direction)) {
+            message.setDirection(event.direction);
         }
 
-        message.setTimestamp(String.valueOf(System.currentTimeMillis()));
+        message.setTimestamp(String.valueOf(event.timestampMillis));
     }
 
-    private void convertSelfIdMessage(CoTMessage message, JSONObject messageData, String overrideUid) throws JSONException {
+    private void convertSelfIdMessage(CoTMessage message, DetectionEvent event, String overrideUid) {
+        String selfIdText = event.selfIdText;
         if (overrideUid != null) {
             message.setUid(overrideUid);
-        } else if (messageData.has("text")) {
-            String selfIdText = messageData.getString("text");
-
+        } else {
             // Extract drone ID from Self-ID text if it looks like a valid drone ID
-            if (selfIdText.length() >= 10 && selfIdText.matches(".*[A-Z0-9]{10,}.*")) {
-                // Remove any leading digits and extract the alphanumeric part
-                String extractedId = selfIdText.replaceAll("^\\d+", "").trim();
-                if (extractedId.length() >= 6 && extractedId.matches("^[A-Z0-9]+$")) {
-                    message.setUid(extractedId);
-                    Log.d(TAG, "Extracted drone ID from Self-ID text: " + extractedId);
-                } else {
-                    message.setUid(messageData.optString("MAC", "UNKNOWN_SELFID"));
-                }
+            String extractedId = SerialIds.extractSelfIdSerial(selfIdText);
+            if (extractedId != null) {
+                message.setUid(extractedId);
+                message.setId(extractedId);
+                Log.d(TAG, "Extracted drone ID from Self-ID text: " + extractedId);
             } else {
-                message.setUid(messageData.optString("MAC", "UNKNOWN_SELFID"));
+                message.setUid(uidOrMac(event, "UNKNOWN_SELFID"));
             }
-        } else {
-            message.setUid(messageData.optString("MAC", "UNKNOWN_SELFID"));
         }
 
-        if (messageData.has("text")) {
-            String selfIdText = messageData.getString("text");
+        if (selfIdText != null) {
             message.setSelfIDText(selfIdText);
 
             if (message.getDescription() == null || message.getDescription().isEmpty()) {
@@ -561,117 +557,77 @@ public class OnboardDetectionService extends Service {
             }
         }
 
-        if (messageData.has("description_type")) {
-            message.setSelfIdType(String.valueOf(messageData.get("description_type")));
+        if (event.descriptionType >= 0) {
+            message.setSelfIdType(event.getDescriptionTypeLabel());
         }
     }
 
-    private void convertSystemMessage(CoTMessage message, JSONObject messageData, String overrideUid) throws JSONException {
+    private void convertSystemMessage(CoTMessage message, DetectionEvent event, String overrideUid) {
         if (overrideUid != null) {
             message.setUid(overrideUid);
         } else {
-            message.setUid(messageData.optString("MAC", "UNKNOWN_SYSTEM"));
+            message.setUid(uidOrMac(event, "UNKNOWN_SYSTEM"));
         }
 
-        if (messageData.has("operator_lat") && messageData.has("operator_lon")) {
-            message.setPilotLat(String.valueOf(messageData.getDouble("operator_lat")));
-            message.setPilotLon(String.valueOf(messageData.getDouble("operator_lon")));
+        if (!Double.isNaN(event.operatorLatitude) && !Double.isNaN(event.operatorLongitude)) {
+            message.setPilotLat(event.operatorLatitude);
+            message.setPilotLon(event.operatorLongitude);
         }
 
-        if (messageData.has("operator_altitude_geo")) {
-            parseLocationField(message, messageData, "operator_altitude_geo",
-                    value -> {
-                        if (message.getRawMessage() == null) {
-                            message.setRawMessage(new HashMap<>());
-                        }
-                        message.getRawMessage().put("operator_altitude_geo", value);
-                    });
+        if (!Double.isNaN(event.operatorAltitude)) {
+            message.setOperatorAltGeo(String.valueOf(event.operatorAltitude));
         }
     }
 
-    private void convertOperatorIdMessage(CoTMessage message, JSONObject messageData, String overrideUid) throws JSONException {
+    private void convertOperatorIdMessage(CoTMessage message, DetectionEvent event, String overrideUid) {
         if (overrideUid != null) {
             message.setUid(overrideUid);
-        } else if (messageData.has("operator_id")) {
-            String operatorId = messageData.getString("operator_id");
-            message.setOperatorId(operatorId);
-            message.setUid(operatorId);
+        } else if (event.operatorId != null) {
+            message.setOperatorId(event.operatorId);
+            message.setUid(event.operatorId);
         } else {
-            message.setUid(messageData.optString("MAC", "UNKNOWN_OPERATOR"));
+            message.setUid(uidOrMac(event, "UNKNOWN_OPERATOR"));
         }
 
-        if (messageData.has("operator_id_type")) {
-            message.setOperatorIdType(String.valueOf(messageData.get("operator_id_type")));
+        if (event.operatorIdType >= 0) {
+            message.setOperatorIdType(event.getOperatorIdTypeLabel());
         }
     }
 
-    private void convertAuthMessage(CoTMessage message, JSONObject messageData, String overrideUid) throws JSONException {
+    private void convertAuthMessage(CoTMessage message, DetectionEvent event, String overrideUid) {
         // Use override UID if available, otherwise fall back to MAC
         if (overrideUid != null) {
             message.setUid(overrideUid);
         } else {
-            message.setUid(messageData.optString("MAC", "UNKNOWN_AUTH"));
+            message.setUid(uidOrMac(event, "UNKNOWN_AUTH"));
             Log.d(TAG, "Auth message using MAC fallback: " + message.getUid());
         }
 
-        if (messageData.has("auth_type")) {
-            message.setAuthType(String.valueOf(messageData.get("auth_type")));
+        if (event.authType >= 0) {
+            message.setAuthType(String.valueOf(event.authType));
         }
-        if (messageData.has("page_number")) {
-            message.setAuthPage(String.valueOf(messageData.get("page_number")));
+        if (event.authPage >= 0) {
+            message.setAuthPage(String.valueOf(event.authPage));
         }
-        if (messageData.has("last_page_index")) {
-            message.setAuthLength(String.valueOf(messageData.get("last_page_index")));
+        // Only page 0 carries the page count and timestamp
+        if (event.authLastPageIndex >= 0) {
+            message.setAuthLength(String.valueOf(event.authLastPageIndex));
         }
-        if (messageData.has("timestamp_raw")) {
-            message.setAuthTimestamp(String.valueOf(messageData.get("timestamp_raw")));
+        if (event.authTimestamp >= 0) {
+            message.setAuthTimestamp(String.valueOf(event.authTimestamp));
         }
-        if (messageData.has("auth_data")) {
-            message.setAuthData(messageData.getString("auth_data"));
+        if (event.authData != null) {
+            message.setAuthData(event.authData);
         }
 
         message.setDescription("Authenticated Drone");
     }
 
-    private void parseLocationField(CoTMessage message, JSONObject messageData, String fieldName,
-                                    java.util.function.Consumer<String> setter) {
-        try {
-            if (messageData.has(fieldName)) {
-                String valueStr = messageData.getString(fieldName);
-                if (valueStr.contains(" ")) {
-                    valueStr = valueStr.split(" ")[0]; // Strip units
-                }
-                setter.accept(valueStr);
-            }
-        } catch (JSONException e) {
-            Log.w(TAG, "Error parsing field " + fieldName + ": " + e.getMessage());
-        }
-    }
+    // F3411 UA type codes are in the same order as UAType
+    private static final DroneSignature.IdInfo.UAType[] UA_TYPES = DroneSignature.IdInfo.UAType.values();
 
-    private DroneSignature.IdInfo.UAType mapUAType(String uaTypeStr) {
-        if (uaTypeStr == null || uaTypeStr.isEmpty())
-            return DroneSignature.IdInfo.UAType.OTHER;
-
-        if (uaTypeStr.contains("Helicopter") || uaTypeStr.contains("Multirotor"))
-            return DroneSignature.IdInfo.UAType.HELICOPTER;
-        else if (uaTypeStr.contains("Aeroplane") || uaTypeStr.contains("Airplane"))
-            return DroneSignature.IdInfo.UAType.AEROPLANE;
-        else if (uaTypeStr.contains("Glider"))
-            return DroneSignature.IdInfo.UAType.GLIDER;
-        else if (uaTypeStr.contains("VTOL"))
-            return DroneSignature.IdInfo.UAType.HYBRID_LIFT;
-        else if (uaTypeStr.contains("Airship"))
-            return DroneSignature.IdInfo.UAType.AIRSHIP;
-        else if (uaTypeStr.contains("Free Balloon"))
-            return DroneSignature.IdInfo.UAType.FREE_BALLOON;
-        else if (uaTypeStr.contains("Captive Balloon"))
-            return DroneSignature.IdInfo.UAType.CAPTIVE;
-        else if (uaTypeStr.contains("Rocket"))
-            return DroneSignature.IdInfo.UAType.ROCKET;
-        else if (uaTypeStr.equals("None"))
-            return DroneSignature.IdInfo.UAType.NONE;
-
-        return DroneSignature.IdInfo.UAType.OTHER;
+    private DroneSignature.IdInfo.UAType mapUAType(int uaType) {
+        return uaType >= 0 && uaType < UA_TYPES.length ? UA_TYPES[uaType] : DroneSignature.IdInfo.UAType.OTHER;
     }
 
     private boolean hasBluetoothPermissions() {
@@ -691,100 +647,52 @@ public class OnboardDetectionService extends Service {
                 ActivityCompat.checkSelfPermission(this, android.Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED;
     }
 
-    private void addDeviceLocationToData(JSONArray droneData) throws JSONException {
-        // Look for a System Message object to add device location
-        boolean foundSystemMessage = false;
-        for (int i = 0; i < droneData.length(); i++) {
-            JSONObject item = droneData.getJSONObject(i);
-            if (item.has("System Message")) {
-                JSONObject sysMsg = item.getJSONObject("System Message");
-                sysMsg.put("operator_lat", lastDeviceLocation.getLatitude());
-                sysMsg.put("operator_lon", lastDeviceLocation.getLongitude());
-                if (lastDeviceLocation.hasAltitude()) {
-                    sysMsg.put("operator_altitude_geo", lastDeviceLocation.getAltitude());
-                }
-                foundSystemMessage = true;
-                break;
-            }
-        }
+    // Records every hit so drones without GPS can be located from RSSI along the device's track
+    private void recordRssiObservation(CoTMessage message, String uid, long now) {
+        if (!settings.isLocationEstimationEnabled()) return;
 
-        // If no System Message found, create one
-//        if (!foundSystemMessage) {
-//            JSONObject systemObj = new JSONObject();
-//            JSONObject systemMessage = new JSONObject();
-//            systemObj.put("System Message", systemMessage);
-//
-//            systemMessage.put("operator_lat", lastDeviceLocation.getLatitude());
-//            systemMessage.put("operator_lon", lastDeviceLocation.getLongitude());
-//            if (lastDeviceLocation.hasAltitude()) {
-//                systemMessage.put("operator_altitude_geo", lastDeviceLocation.getAltitude());
-//            }
-//            systemMessage.put("MAC", "device_" + System.currentTimeMillis());
-//            systemMessage.put("RSSI", 0);
-//
-//            droneData.put(systemObj);
-//        }
+        RssiLocator locator = rssiLocators.get(uid);
+        if (locator == null) {
+            locator = new RssiLocator();
+            rssiLocators.put(uid, locator);
+        }
+        if (message.hasCoordinate()) {
+            locator.onSelfReportedPosition(now);
+            return;
+        }
+        Location device = lastDeviceLocation;
+        if (device != null && message.getRssi() != null) {
+            locator.addObservation(device.getLatitude(), device.getLongitude(), message.getRssi(), now);
+        }
     }
 
     // Estimate drone location based on RSSI and device location - For drones without any GPS
     private void estimateDroneLocation(CoTMessage message) {
-        if (message.getRssi() == null || lastDeviceLocation == null) return;
+        long now = System.currentTimeMillis();
+        RssiLocator locator = rssiLocators.get(message.getUid());
+        if (locator == null || locator.hasRecentSelfReport(now, SELF_REPORT_HOLD_MS)) return;
 
-        if (!settings.isLocationEstimationEnabled()) {
-            return;
-        }
-
-        // Simple distance estimation based on RSSI
-        // This is a very basic model and could be improved
-        // RSSI = -20 * log10(distance) - 41  (simplified free space path loss model)
-
-        int rssi = message.getRssi();
-        double distance = Math.pow(10, ((-rssi - 41) / 20.0)); // in meters
-
-        // Cap the distance to something reasonable based on BLE/WiFi range
-        distance = Math.min(distance, 300); // Max 300 meters
-
-        // Generate random angle if we don't have previous data
-        double bearing = Math.random() * 360; // Random direction
-
-        // Calculate new position
-        double lat = lastDeviceLocation.getLatitude();
-        double lon = lastDeviceLocation.getLongitude();
-
-        // Convert distance and bearing to lat/lon change
-        // This is a simplified calculation and doesn't account for Earth's curvature
-        // but should be good enough for short distances
-        double latChange = distance * Math.cos(Math.toRadians(bearing)) / 111111.0;
-        double lonChange = distance * Math.sin(Math.toRadians(bearing)) /
-                (111111.0 * Math.cos(Math.toRadians(lat)));
+        RssiLocator.Estimate estimate = locator.getEstimate(now);
+        if (estimate == null) return;
 
-        // Set drone location
-        message.setLat(String.valueOf(lat + latChange));
-        message.setLon(String.valueOf(lon + lonChange));
+        message.putExtra("estimated_distance", estimate.rangeMeters);
+        message.putExtra("estimate_observations", estimate.observations);
 
-        // Generate a reasonable altitude (10-120 meters above ground)
-        double altitude = 0;
-        if (lastDeviceLocation.hasAltitude()) {
-            altitude = lastDeviceLocation.getAltitude() + 10 + Math.random() * 110;
-        } else {
-            altitude = 100; // Default 100m
+        if (!estimate.hasPosition) {
+            // Not enough receiver movement yet; leave the drone off the map rather than guess a bearing
+            Log.d(TAG, "Range-only estimate for " + message.getUid() + ": " +
+                    Math.round(estimate.rangeMeters) + "m from " + estimate.observations + " observations");
+            return;
         }
-        message.setAlt(String.valueOf(altitude));
 
-        // Set estimated height above ground
-        message.setHeight(String.valueOf(10 + Math.random() * 110));
-
-        // Tag as estimated location
-        Map<String, Object> rawData = message.getRawMessage();
-        if (rawData == null) {
-            rawData = new HashMap<>();
-            message.setRawMessage(rawData);
-        }
-        rawData.put("location_estimated", true);
-        rawData.put("estimated_distance", distance);
+        message.setLat(estimate.lat);
+        message.setLon(estimate.lon);
+        message.setLocationEstimate(estimate.semiMajorMeters, estimate.semiMinorMeters, estimate.orientationDegrees);
 
-        Log.d(TAG, "Estimated drone location: " + (lat + latChange) + ", " + (lon + lonChange) +
-                " (distance: " + distance + "m, bearing: " + bearing + "°)");
+        Log.d(TAG, "Estimated drone location: " + estimate.lat + ", " + estimate.lon +
+                " (95% ellipse " + Math.round(estimate.semiMajorMeters) + "x" + Math.round(estimate.semiMinorMeters) +
+                "m at " + Math.round(estimate.orientationDegrees) + "°, path loss " +
+                String.format(Locale.US, "%.1f dBm / n=%.2f", estimate.intercept, estimate.exponent) + ")");
     }
 
     private Notification createNotification() {
@@ -825,6 +733,21 @@ public class OnboardDetectionService extends Service {
             wifiScanner.stopScanning();
         }
 
+        synchronized (this) {
+            if (emitHandler != null) {
+                emitHandler.removeCallbacks(flushRunnable);
+                emitHandler = null;
+            }
+            flushScheduled = false;
+            Log.d(TAG, "Emit limiter: " + emitLimiter.describe());
+            emitLimiter.clear();
+            rssiLocators.clear();
+        }
+        if (emitThread != null) {
+            emitThread.quitSafely();
+            emitThread = null;
+        }
+
         // Update settings to reflect that we're no longer listening
         settings.setListening(false);
         isRunning = false;
@@ -0,0 +1,244 @@
+package com.rootdown.dragonsync.network;
+
+import android.util.Log;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Decodes ASTM F3411 Remote ID payloads straight into pooled DetectionEvents.
+ *
+ * Every message is 25 bytes: a header byte (type in the high nibble, protocol version in the
+ * low) and 24 bytes of fields at fixed offsets. A message pack (type 0xF) holds a size byte, a
+ * count byte and up to 9 messages. Transports wrap these differently:
+ *  - Bluetooth service data: app code 0x0D and a counter byte, then one message (legacy
+ *    advertising) or a pack (extended advertising).
+ *  - Wi-Fi beacon vendor element and NaN service info: a counter byte, then a pack. Beacon
+ *    payloads arrive with the FA 0B BC 0D OUI and type already stripped, but it is skipped here
+ *    when present.
+ *
+ * ID and text fields go through a small direct-mapped cache keyed on their bytes, so a drone
+ * repeating the same serial doesn't allocate a new String per frame. Not thread-safe; each
+ * scanner owns one and uses it on its ingest thread.
+ */
+final class OpenDroneIdDecoder {
+    private static final String TAG = "OpenDroneIdDecoder";
+
+    static final int MESSAGE_SIZE = 25;
+    private static final int MAX_PACK_MESSAGES = 9;
+    private static final int BLE_APP_CODE = 0x0D;
+    private static final int MESSAGE_TYPE_PACK = 0xF;
+
+    private static final int ID_LENGTH = 20;
+    private static final int TEXT_LENGTH = 23;
+    private static final int AUTH_PAGE0_DATA_LENGTH = 17;
+    private static final int AUTH_PAGE_DATA_LENGTH = 23;
+    private static final double LAT_LON_MULTIPLIER = 1e-7;
+
+    // Slots in the String cache; a power of two
+    private static final int STRING_CACHE_SLOTS = 64;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final byte[][] cachedBytes = new byte[STRING_CACHE_SLOTS][];
+    private final String[] cachedStrings = new String[STRING_CACHE_SLOTS];
+
+    // Returns the number of events appended to out
+    int decodeBluetooth(byte[] data, String mac, int rssi, long timestampMillis, DetectionBatch out) {
+        int offset = 0;
+        if (data.length > 0 && (data[0] & 0xFF) == BLE_APP_CODE) {
+            offset = 2; // app code and message counter
+        }
+        return decodeMessages(data, offset, mac, rssi, timestampMillis, out);
+    }
+
+    int decodeWiFi(byte[] data, String mac, int rssi, long timestampMillis, DetectionBatch out) {
+        int offset = 0;
+        if (data.length >= 4 && (data[0] & 0xFF) == 0xFA && (data[1] & 0xFF) == 0x0B &&
+                (data[2] & 0xFF) == 0xBC && (data[3] & 0xFF) == 0x0D) {
+            offset = 4;
+        }
+        // A counter byte precedes the pack unless the sender left it out
+        if (!isPackHeader(data, offset)) {
+            offset++;
+        }
+        return decodeMessages(data, offset, mac, rssi, timestampMillis, out);
+    }
+
+    private static boolean isPackHeader(byte[] data, int offset) {
+        return data.length >= offset + 3 &&
+                ((data[offset] & 0xFF) >> 4) == MESSAGE_TYPE_PACK &&
+                (data[offset + 1] & 0xFF) == MESSAGE_SIZE;
+    }
+
+    private int decodeMessages(byte[] data, int offset, String mac, int rssi, long timestampMillis,
+                               DetectionBatch out) {
+        if (data.length < offset + MESSAGE_SIZE) return 0;
+
+        if (((data[offset] & 0xFF) >> 4) != MESSAGE_TYPE_PACK) {
+            return decodeMessage(data, offset, mac, rssi, timestampMillis, out) ? 1 : 0;
+        }
+
+        int size = data[offset + 1] & 0xFF;
+        int count = data[offset + 2] & 0xFF;
+        if (size != MESSAGE_SIZE || count > MAX_PACK_MESSAGES) {
+            Log.w(TAG, "Malformed message pack from " + mac + ": size " + size + ", count " + count);
+            return 0;
+        }
+        int decoded = 0;
+        int start = offset + 3;
+        for (int i = 0; i < count && start + MESSAGE_SIZE <= data.length; i++, start += MESSAGE_SIZE) {
+            if (decodeMessage(data, start, mac, rssi, timestampMillis, out)) {
+                decoded++;
+            }
+        }
+        return decoded;
+    }
+
+    private boolean decodeMessage(byte[] data, int offset, String mac, int rssi, long timestampMillis,
+                                  DetectionBatch out) {
+        DetectionEvent.MessageType type = DetectionEvent.MessageType.fromCode((data[offset] & 0xFF) >> 4);
+        if (type == null) return false;
+
+        DetectionEvent event = out.obtain();
+        event.type = type;
+        event.mac = mac;
+        event.rssi = rssi;
+        event.timestampMillis = timestampMillis;
+
+        int body = offset + 1;
+        switch (type) {
+            case BASIC_ID:
+                event.idType = (data[body] & 0xFF) >> 4;
+                event.uaType = data[body] & 0x0F;
+                event.uasId = ascii(data, body + 1, ID_LENGTH);
+                break;
+            case LOCATION:
+                decodeLocation(data, body, event);
+                break;
+            case AUTH:
+                decodeAuth(data, body, event);
+                break;
+            case SELF_ID:
+                event.descriptionType = data[body] & 0xFF;
+                event.selfIdText = ascii(data, body + 1, TEXT_LENGTH);
+                break;
+            case SYSTEM:
+                decodeCoordinates(data, body + 1, event, true);
+                event.operatorAltitude = altitude(data, body + 17);
+                break;
+            case OPERATOR_ID:
+                event.operatorIdType = data[body] & 0xFF;
+                event.operatorId = ascii(data, body + 1, ID_LENGTH);
+                break;
+        }
+        return true;
+    }
+
+    private void decodeLocation(byte[] data, int body, DetectionEvent event) {
+        int flags = data[body] & 0xFF;
+        event.status = flags >> 4;
+
+        int direction = (data[body + 1] & 0xFF) + ((flags & 0x02) != 0 ? 180 : 0);
+        event.direction = direction <= 360 ? direction : Double.NaN;
+
+        int speed = data[body + 2] & 0xFF;
+        if ((flags & 0x01) == 0) {
+            event.speed = speed * 0.25;
+        } else if (speed != 255) {
+            event.speed = speed * 0.75 + 255 * 0.25;
+        }
+
+        int verticalSpeed = data[body + 3];
+        if (verticalSpeed != 126) {
+            event.verticalSpeed = verticalSpeed * 0.5;
+        }
+
+        decodeCoordinates(data, body + 4, event, false);
+        // Pressure altitude at body + 12 is not used
+        event.geodeticAltitude = altitude(data, body + 14);
+        event.height = altitude(data, body + 16);
+    }
+
+    private void decodeAuth(byte[] data, int body, DetectionEvent event) {
+        event.authType = (data[body] & 0xFF) >> 4;
+        event.authPage = data[body] & 0x0F;
+        if (event.authPage == 0) {
+            event.authLastPageIndex = data[body + 1] & 0xFF;
+            event.authTimestamp = readInt(data, body + 3) & 0xFFFFFFFFL;
+            event.authData = hex(data, body + 7, AUTH_PAGE0_DATA_LENGTH);
+        } else {
+            event.authData = hex(data, body + 1, AUTH_PAGE_DATA_LENGTH);
+        }
+    }
+
+    // 0, 0 is the encoding for "no position" and leaves the fields NaN
+    private static void decodeCoordinates(byte[] data, int offset, DetectionEvent event, boolean operator) {
+        int lat = readInt(data, offset);
+        int lon = readInt(data, offset + 4);
+        if (lat == 0 && lon == 0) return;
+        if (operator) {
+            event.operatorLatitude = lat * LAT_LON_MULTIPLIER;
+            event.operatorLongitude = lon * LAT_LON_MULTIPLIER;
+        } else {
+            event.latitude = lat * LAT_LON_MULTIPLIER;
+            event.longitude = lon * LAT_LON_MULTIPLIER;
+        }
+    }
+
+    // Altitudes are half metres offset by -1000 m; 0 means unknown
+    private static double altitude(byte[] data, int offset) {
+        int raw = (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+        return raw == 0 ? Double.NaN : raw * 0.5 - 1000;
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) |
+                (data[offset + 1] & 0xFF) << 8 |
+                (data[offset + 2] & 0xFF) << 16 |
+                (data[offset + 3] & 0xFF) << 24;
+    }
+
+    // NUL-terminated, space-padded text field; null when empty
+    private String ascii(byte[] data, int offset, int length) {
+        int start = offset;
+        int end = offset;
+        int limit = offset + length;
+        while (end < limit && data[end] != 0) end++;
+        while (start < end && (data[start] & 0xFF) <= ' ') start++;
+        while (end > start && (data[end - 1] & 0xFF) <= ' ') end--;
+        if (start == end) return null;
+
+        int hash = 0x811C9DC5;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ (data[i] & 0xFF)) * 0x01000193;
+        }
+        int slot = (hash ^ (hash >>> 16)) & (STRING_CACHE_SLOTS - 1);
+
+        byte[] cached = cachedBytes[slot];
+        if (cached != null && matches(cached, data, start, end)) {
+            return cachedStrings[slot];
+        }
+        String value = new String(data, start, end - start, StandardCharsets.UTF_8);
+        cachedBytes[slot] = Arrays.copyOfRange(data, start, end);
+        cachedStrings[slot] = value;
+        return value;
+    }
+
+    private static boolean matches(byte[] cached, byte[] data, int start, int end) {
+        if (cached.length != end - start) return false;
+        for (int i = 0; i < cached.length; i++) {
+            if (cached[i] != data[start + i]) return false;
+        }
+        return true;
+    }
+
+    private static String hex(byte[] data, int offset, int length) {
+        char[] chars = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            int b = data[offset + i] & 0xFF;
+            chars[i * 2] = HEX_DIGITS[b >> 4];
+            chars[i * 2 + 1] = HEX_DIGITS[b & 0x0F];
+        }
+        return new String(chars);
+    }
+}
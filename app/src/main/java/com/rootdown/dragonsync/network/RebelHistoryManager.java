@@ -27,19 +27,21 @@ import java.util.stream.Collectors;
 public class RebelHistoryManager {
     private static final String TAG = "RebelHistoryManager";
     private final Context context;
-    private final RebelScanner RebelScanner;
     private final DroneStorage droneStorage;
     private final Settings settings;
 
     public RebelHistoryManager(Context context) {
         this.context = context;
-        this.RebelScanner = new RebelScanner();
         this.droneStorage = DroneStorage.getInstance(context);
         this.settings = Settings.getInstance(context);
     }
 
     public void processMessage(CoTMessage message) {
-        List<RebelScanner.RebelDetection> RebelDetections = RebelScanner.scanMessage(message);
+        processMessage(message, RebelScanner.getInstance().scanMessage(message));
+    }
+
+    // Stores and notifies detections the caller already scanned for this message
+    public void processMessage(CoTMessage message, List<RebelScanner.RebelDetection> RebelDetections) {
         if (!RebelDetections.isEmpty()) {
             DroneHistoryEntry entry = new DroneHistoryEntry(message, RebelDetections);
             storeRebelEntry(entry);
@@ -209,7 +211,8 @@ public class RebelHistoryManager {
             this.detectionSource = message.getType();
             this.isSpoofed = message.isSpoofed();
             this.RebelDetections = Rebels != null ? new ArrayList<>(Rebels) : new ArrayList<>();
-            this.rawData = message.getRawMessage() != null ? new HashMap<>(message.getRawMessage()) : new HashMap<>();
+            // getRawMessage() builds a fresh map, no need to copy it again
+            this.rawData = message.getRawMessage();
         }
 
         public DroneHistoryEntry(String id, String droneId, String mac, long timestamp, Location location, Integer rssi, String detectionSource, boolean isSpoofed, List<RebelScanner.RebelDetection> RebelDetections, Map<String, Object> rawData) {
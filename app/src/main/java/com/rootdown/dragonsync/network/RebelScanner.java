@@ -7,12 +7,24 @@ import com.rootdown.dragonsync.utils.Constants;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Scans messages for attack tools, rogue access points and spoofed drones. The scanner holds no
+ * per-message state, only constant lookup tables, so one shared instance serves every thread.
+ */
 public class RebelScanner {
     private static final String TAG = "RebelScanner";
+    private static final RebelScanner INSTANCE = new RebelScanner();
+
+    public static RebelScanner getInstance() {
+        return INSTANCE;
+    }
+
+    private RebelScanner() {}
 
     public enum RebelType {
         WIFI_PINEAPPLE_NANO("WiFi Pineapple Nano"),
@@ -266,9 +278,7 @@ public class RebelScanner {
     }
 
     public List<RebelDetection> scanMessage(CoTMessage message) {
-        // Use your existing scanForRebels method with an empty historical list
-        List<CoTMessage> emptyHistorical = new ArrayList<>();
-        return scanForRebels(message, emptyHistorical);
+        return scanForRebels(message, Collections.emptyList());
     }
     private List<RebelDetection> detectKnownPlatforms(CoTMessage message) {
         List<RebelDetection> detections = new ArrayList<>();
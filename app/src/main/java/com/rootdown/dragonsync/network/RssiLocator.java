@@ -0,0 +1,317 @@
+package com.rootdown.dragonsync.network;
+
+/**
+ * Locates one drone that reports no position from RSSI observations taken as the device moves.
+ * Each observation is the receiver position, RSSI and time; the model is
+ *
+ *   rssi = A - 10 n log10(d),   d = sqrt(dx^2 + dy^2 + ASSUMED_HEIGHT^2)
+ *
+ * and the drone's east/north position, the 1 m intercept A and the path-loss exponent n are
+ * fitted together by weighted least squares (a few Gauss-Newton steps per observation, starting
+ * from the previous fit). Weak priors keep A and n near free-space values and the position near
+ * the receiver track until the geometry says otherwise. The inverse normal matrix gives the
+ * position covariance, reported as a 95% error ellipse.
+ *
+ * Observations live in a ring of WINDOW entries, so an update costs the same however long the
+ * drone has been tracked. A stationary receiver only ever learns the range, so a position is
+ * published only once the receiver has moved MIN_BASELINE_M and the ellipse is small enough.
+ *
+ * Not thread-safe; OnboardDetectionService calls it under its lock. Times are
+ * System.currentTimeMillis().
+ */
+class RssiLocator {
+    private static final double EARTH_RADIUS_METERS = 6371000.0;
+    private static final double LN10 = Math.log(10);
+
+    private static final int WINDOW = 32;
+    private static final int PARAMS = 4; // east, north, A, n
+    // Observations older than this carry no weight; recency weight halves every OBSERVATION_HALF_LIFE
+    private static final long MAX_OBSERVATION_AGE_MS = 300_000;
+    private static final double OBSERVATION_HALF_LIFE_MS = 90_000;
+    // Hits this close in time and space are averaged into one observation
+    private static final long MERGE_WINDOW_MS = 1_000;
+    private static final double MERGE_DISTANCE_M = 3.0;
+
+    private static final double ASSUMED_HEIGHT_M = 30.0;
+    private static final double RSSI_NOISE_VARIANCE = 36.0; // 6 dB shadowing
+    // Free-space priors matching the old fixed model, RSSI = -20 log10(d) - 41
+    private static final double PRIOR_INTERCEPT = -41.0;
+    private static final double PRIOR_INTERCEPT_VARIANCE = 100.0;
+    private static final double PRIOR_EXPONENT = 2.0;
+    private static final double PRIOR_EXPONENT_VARIANCE = 0.36;
+    private static final double PRIOR_POSITION_VARIANCE = 500.0 * 500.0;
+    private static final double MIN_EXPONENT = 1.5;
+    private static final double MAX_EXPONENT = 4.5;
+    private static final double MAX_STEP_M = 200.0;
+    private static final int ITERATIONS = 3;
+
+    private static final int MIN_OBSERVATIONS = 6;
+    private static final double MIN_BASELINE_M = 15.0;
+    private static final double MAX_PUBLISHED_ERROR_M = 250.0;
+    // sqrt of the chi-square 95% quantile for two degrees of freedom
+    private static final double ELLIPSE_95 = 2.4477;
+
+    static final class Estimate {
+        // False while only the range is known; lat and lon are then NaN
+        final boolean hasPosition;
+        final double lat;
+        final double lon;
+        // Range from the latest receiver position under the fitted path loss
+        final double rangeMeters;
+        // 95% error ellipse: semi-axes in metres, major axis bearing in degrees from north
+        final double semiMajorMeters;
+        final double semiMinorMeters;
+        final double orientationDegrees;
+        final double intercept;
+        final double exponent;
+        final int observations;
+
+        Estimate(boolean hasPosition, double lat, double lon, double rangeMeters, double semiMajorMeters,
+                 double semiMinorMeters, double orientationDegrees, double intercept, double exponent,
+                 int observations) {
+            this.hasPosition = hasPosition;
+            this.lat = lat;
+            this.lon = lon;
+            this.rangeMeters = rangeMeters;
+            this.semiMajorMeters = semiMajorMeters;
+            this.semiMinorMeters = semiMinorMeters;
+            this.orientationDegrees = orientationDegrees;
+            this.intercept = intercept;
+            this.exponent = exponent;
+            this.observations = observations;
+        }
+    }
+
+    // Observation ring, receiver positions in metres east/north of the reference point
+    private final double[] obsEast = new double[WINDOW];
+    private final double[] obsNorth = new double[WINDOW];
+    private final double[] obsRssi = new double[WINDOW];
+    private final int[] obsMerged = new int[WINDOW];
+    private final long[] obsTime = new long[WINDOW];
+    private int head;
+    private int count;
+
+    private boolean hasReference;
+    private double refLat;
+    private double refLon;
+    private double metersPerDegLon;
+
+    // Fitted parameters and the inverse normal matrix of the last fit
+    private final double[] theta = new double[PARAMS];
+    private final double[][] covariance = new double[PARAMS][PARAMS];
+    private boolean fitted;
+
+    private long selfReportedMillis = Long.MIN_VALUE / 2;
+
+    // Scratch for the normal equations
+    private final double[][] normal = new double[PARAMS][PARAMS + PARAMS];
+    private final double[] gradient = new double[PARAMS];
+    private final double[] jacobian = new double[PARAMS];
+
+    // The drone reported its own position; estimates are not needed while that continues
+    void onSelfReportedPosition(long nowMillis) {
+        selfReportedMillis = nowMillis;
+    }
+
+    boolean hasRecentSelfReport(long nowMillis, long withinMillis) {
+        return nowMillis - selfReportedMillis <= withinMillis;
+    }
+
+    void addObservation(double rxLat, double rxLon, int rssi, long nowMillis) {
+        if (!hasReference) {
+            hasReference = true;
+            refLat = rxLat;
+            refLon = rxLon;
+            metersPerDegLon = Math.toRadians(1) * EARTH_RADIUS_METERS * Math.cos(Math.toRadians(rxLat));
+        }
+        double east = (rxLon - refLon) * metersPerDegLon;
+        double north = Math.toRadians(rxLat - refLat) * EARTH_RADIUS_METERS;
+
+        int last = (head + WINDOW - 1) % WINDOW;
+        if (count > 0 && nowMillis - obsTime[last] <= MERGE_WINDOW_MS
+                && Math.hypot(east - obsEast[last], north - obsNorth[last]) <= MERGE_DISTANCE_M) {
+            // Same spot and moment: average rather than let one burst fill the window
+            int merged = ++obsMerged[last];
+            obsRssi[last] += (rssi - obsRssi[last]) / merged;
+        } else {
+            obsEast[head] = east;
+            obsNorth[head] = north;
+            obsRssi[head] = rssi;
+            obsMerged[head] = 1;
+            obsTime[head] = nowMillis;
+            head = (head + 1) % WINDOW;
+            if (count < WINDOW) count++;
+        }
+
+        if (!fitted) initialize();
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (!step(nowMillis)) break;
+        }
+    }
+
+    Estimate getEstimate(long nowMillis) {
+        if (!fitted || count == 0) return null;
+
+        int last = (head + WINDOW - 1) % WINDOW;
+        double slant = distance(last);
+        double range = Math.sqrt(Math.max(0, slant * slant - ASSUMED_HEIGHT_M * ASSUMED_HEIGHT_M));
+
+        // Eigen-decomposition of the 2x2 position covariance
+        double a = covariance[0][0];
+        double b = covariance[0][1];
+        double c = covariance[1][1];
+        double mean = (a + c) / 2;
+        double spread = Math.sqrt((a - c) * (a - c) / 4 + b * b);
+        double major = ELLIPSE_95 * Math.sqrt(Math.max(0, mean + spread));
+        double minor = ELLIPSE_95 * Math.sqrt(Math.max(0, mean - spread));
+        // Major axis angle from east, counter-clockwise, turned into a compass bearing
+        double axis = Math.toDegrees(0.5 * Math.atan2(2 * b, a - c));
+        double bearing = ((90 - axis) % 180 + 180) % 180;
+
+        int active = getActiveCount(nowMillis);
+        boolean publish = active >= MIN_OBSERVATIONS && getBaseline() >= MIN_BASELINE_M
+                && major <= MAX_PUBLISHED_ERROR_M;
+        double lat = Double.NaN;
+        double lon = Double.NaN;
+        if (publish) {
+            lat = refLat + Math.toDegrees(theta[1] / EARTH_RADIUS_METERS);
+            lon = refLon + theta[0] / metersPerDegLon;
+        }
+        return new Estimate(publish, lat, lon, range, major, minor, bearing, theta[2], theta[3], active);
+    }
+
+    // Starts at the receiver centroid weighted by received power, offset so the gradient is non-zero
+    private void initialize() {
+        double weightSum = 0;
+        double east = 0;
+        double north = 0;
+        for (int k = 0; k < count; k++) {
+            double w = Math.pow(10, obsRssi[k] / 10);
+            east += w * obsEast[k];
+            north += w * obsNorth[k];
+            weightSum += w;
+        }
+        theta[0] = east / weightSum + 1.0;
+        theta[1] = north / weightSum + 1.0;
+        theta[2] = PRIOR_INTERCEPT;
+        theta[3] = PRIOR_EXPONENT;
+        fitted = true;
+    }
+
+    // One damped Gauss-Newton step; false when the normal matrix is singular
+    private boolean step(long nowMillis) {
+        for (int r = 0; r < PARAMS; r++) {
+            gradient[r] = 0;
+            for (int c = 0; c < PARAMS + PARAMS; c++) normal[r][c] = 0;
+        }
+
+        double centroidEast = 0;
+        double centroidNorth = 0;
+        double weightSum = 0;
+        for (int k = 0; k < count; k++) {
+            long age = nowMillis - obsTime[k];
+            if (age > MAX_OBSERVATION_AGE_MS) continue;
+            double w = obsMerged[k] * Math.pow(0.5, age / OBSERVATION_HALF_LIFE_MS) / RSSI_NOISE_VARIANCE;
+
+            double d = distance(k);
+            double logD = Math.log10(d);
+            double residual = obsRssi[k] - (theta[2] - 10 * theta[3] * logD);
+            double slope = -10 * theta[3] / (LN10 * d * d);
+            jacobian[0] = slope * (theta[0] - obsEast[k]);
+            jacobian[1] = slope * (theta[1] - obsNorth[k]);
+            jacobian[2] = 1;
+            jacobian[3] = -10 * logD;
+            for (int r = 0; r < PARAMS; r++) {
+                gradient[r] += w * jacobian[r] * residual;
+                for (int c = 0; c < PARAMS; c++) normal[r][c] += w * jacobian[r] * jacobian[c];
+            }
+
+            centroidEast += w * obsEast[k];
+            centroidNorth += w * obsNorth[k];
+            weightSum += w;
+        }
+        if (weightSum == 0) return false;
+
+        // Priors as pseudo-observations on each parameter
+        addPrior(0, centroidEast / weightSum, PRIOR_POSITION_VARIANCE);
+        addPrior(1, centroidNorth / weightSum, PRIOR_POSITION_VARIANCE);
+        addPrior(2, PRIOR_INTERCEPT, PRIOR_INTERCEPT_VARIANCE);
+        addPrior(3, PRIOR_EXPONENT, PRIOR_EXPONENT_VARIANCE);
+
+        if (!invertNormal()) return false;
+
+        double stepEast = 0;
+        double stepNorth = 0;
+        for (int r = 0; r < PARAMS; r++) {
+            double delta = 0;
+            for (int c = 0; c < PARAMS; c++) delta += covariance[r][c] * gradient[c];
+            if (r == 0) stepEast = delta;
+            else if (r == 1) stepNorth = delta;
+            else theta[r] += delta;
+        }
+        double stepLength = Math.hypot(stepEast, stepNorth);
+        double scale = stepLength > MAX_STEP_M ? MAX_STEP_M / stepLength : 1;
+        theta[0] += stepEast * scale;
+        theta[1] += stepNorth * scale;
+        theta[3] = Math.max(MIN_EXPONENT, Math.min(MAX_EXPONENT, theta[3]));
+        return true;
+    }
+
+    private void addPrior(int param, double mean, double variance) {
+        normal[param][param] += 1 / variance;
+        gradient[param] += (mean - theta[param]) / variance;
+    }
+
+    // Gauss-Jordan with partial pivoting on [normal | I]; leaves the inverse in covariance
+    private boolean invertNormal() {
+        for (int r = 0; r < PARAMS; r++) {
+            for (int c = 0; c < PARAMS; c++) normal[r][PARAMS + c] = r == c ? 1 : 0;
+        }
+        for (int col = 0; col < PARAMS; col++) {
+            int pivot = col;
+            for (int r = col + 1; r < PARAMS; r++) {
+                if (Math.abs(normal[r][col]) > Math.abs(normal[pivot][col])) pivot = r;
+            }
+            if (Math.abs(normal[pivot][col]) < 1e-12) return false;
+            double[] swap = normal[col];
+            normal[col] = normal[pivot];
+            normal[pivot] = swap;
+
+            double inv = 1 / normal[col][col];
+            for (int c = 0; c < PARAMS + PARAMS; c++) normal[col][c] *= inv;
+            for (int r = 0; r < PARAMS; r++) {
+                if (r == col || normal[r][col] == 0) continue;
+                double factor = normal[r][col];
+                for (int c = 0; c < PARAMS + PARAMS; c++) normal[r][c] -= factor * normal[col][c];
+            }
+        }
+        for (int r = 0; r < PARAMS; r++) {
+            System.arraycopy(normal[r], PARAMS, covariance[r], 0, PARAMS);
+        }
+        return true;
+    }
+
+    private double distance(int k) {
+        double dx = theta[0] - obsEast[k];
+        double dy = theta[1] - obsNorth[k];
+        return Math.sqrt(dx * dx + dy * dy + ASSUMED_HEIGHT_M * ASSUMED_HEIGHT_M);
+    }
+
+    private int getActiveCount(long nowMillis) {
+        int active = 0;
+        for (int k = 0; k < count; k++) {
+            if (nowMillis - obsTime[k] <= MAX_OBSERVATION_AGE_MS) active++;
+        }
+        return active;
+    }
+
+    // Largest distance of a receiver position from the oldest one in the window
+    private double getBaseline() {
+        double baseline = 0;
+        int first = count < WINDOW ? 0 : head;
+        for (int k = 0; k < count; k++) {
+            baseline = Math.max(baseline, Math.hypot(obsEast[k] - obsEast[first], obsNorth[k] - obsNorth[first]));
+        }
+        return baseline;
+    }
+}
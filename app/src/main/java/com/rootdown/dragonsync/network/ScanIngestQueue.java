@@ -0,0 +1,162 @@
+package com.rootdown.dragonsync.network;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+
+/**
+ * Hands raw Remote ID frames from radio callbacks to a scanner's own processing thread. The
+ * callback only copies the payload, address and RSSI into a bounded queue, or hands over a
+ * result whose payload still has to be dug out of it (WiFi scan results); the thread then
+ * drains everything that has accumulated in one pass and decodes it, so parsing stays off the
+ * main looper. When the queue is full the oldest frame is dropped, since a newer advert from
+ * the same drone supersedes it.
+ *
+ * offer may be called from any thread; the decoder runs on the processing thread only. stop
+ * waits for a drain in progress, so a queue restarted straight away never has two threads in
+ * the decoder.
+ */
+class ScanIngestQueue {
+    private static final String TAG = "ScanIngestQueue";
+    // Bound on how long stop blocks for an in-flight drain; one frame is well under this
+    private static final long STOP_TIMEOUT_MS = 1_000;
+
+    interface FrameDecoder {
+        void decode(RawFrame frame);
+    }
+
+    static final class RawFrame {
+        // Null for frames identified by name only
+        final byte[] payload;
+        final String address;
+        final int rssi;
+        // Advertised device name, when the frame was matched by name
+        final String name;
+        // Wall-clock time the radio callback delivered the frame
+        final long receivedMillis;
+        // Radio results the decoder unpacks itself; null for payload frames
+        final Object results;
+
+        RawFrame(byte[] payload, String address, int rssi, String name, long receivedMillis, Object results) {
+            this.payload = payload;
+            this.address = address;
+            this.rssi = rssi;
+            this.name = name;
+            this.receivedMillis = receivedMillis;
+            this.results = results;
+        }
+    }
+
+    private final String name;
+    private final int capacity;
+    private final FrameDecoder decoder;
+    private final ArrayDeque<RawFrame> queue;
+    private final Runnable drainRunnable = this::drain;
+
+    // Read without the lock by drain to notice a stop between frames
+    private volatile HandlerThread thread;
+    private Handler handler;
+    private boolean drainScheduled;
+
+    private long offered;
+    private long dropped;
+    private long batches;
+    private int largestBatch;
+
+    ScanIngestQueue(String name, int capacity, FrameDecoder decoder) {
+        this.name = name;
+        this.capacity = capacity;
+        this.decoder = decoder;
+        this.queue = new ArrayDeque<>(capacity);
+    }
+
+    synchronized void start() {
+        if (thread != null) return;
+        thread = new HandlerThread(name, Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+    }
+
+    // Returns false when the queue is not running
+    boolean offer(byte[] payload, String address, int rssi, String deviceName) {
+        return enqueue(new RawFrame(payload, address, rssi, deviceName, System.currentTimeMillis(), null));
+    }
+
+    // Queues results for the decoder to extract frames from; the caller must not touch them after
+    boolean offerResults(Object results) {
+        return enqueue(new RawFrame(null, null, 0, null, System.currentTimeMillis(), results));
+    }
+
+    private synchronized boolean enqueue(RawFrame frame) {
+        if (handler == null) return false;
+        if (queue.size() >= capacity) {
+            queue.pollFirst();
+            dropped++;
+        }
+        queue.addLast(frame);
+        offered++;
+        if (!drainScheduled) {
+            drainScheduled = true;
+            handler.post(drainRunnable);
+        }
+        return true;
+    }
+
+    private void drain() {
+        RawFrame[] batch;
+        synchronized (this) {
+            drainScheduled = false;
+            batch = queue.toArray(new RawFrame[0]);
+            queue.clear();
+            batches++;
+            largestBatch = Math.max(largestBatch, batch.length);
+        }
+        for (RawFrame frame : batch) {
+            // Stopped mid-batch: drop the rest like any other pending frame
+            if (thread != Thread.currentThread()) break;
+            try {
+                decoder.decode(frame);
+            } catch (Exception e) {
+                Log.e(TAG, name + ": error decoding frame from " + frame.address + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Pending frames are discarded; a drain already running stops after its current frame and
+    // is waited for. The lock is released first, since drain takes it.
+    void stop() {
+        HandlerThread stopped;
+        synchronized (this) {
+            if (thread == null) return;
+            stopped = thread;
+            handler.removeCallbacks(drainRunnable);
+            stopped.quitSafely();
+            thread = null;
+            handler = null;
+            queue.clear();
+            drainScheduled = false;
+        }
+
+        // A listener stopping its own scanner is already past the decoder
+        if (stopped != Thread.currentThread()) {
+            try {
+                stopped.join(STOP_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (stopped.isAlive()) {
+                Log.w(TAG, name + ": drain still running " + STOP_TIMEOUT_MS + " ms after stop");
+            }
+        }
+        Log.d(TAG, name + " stopped: " + describe());
+    }
+
+    synchronized String describe() {
+        return String.format(Locale.US, "offered %d, dropped %d, batches %d, largest batch %d",
+                offered, dropped, batches, largestBatch);
+    }
+}
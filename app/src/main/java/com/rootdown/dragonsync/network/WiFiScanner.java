@@ -20,44 +20,54 @@ import android.net.wifi.aware.WifiAwareSession;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.core.app.ActivityCompat;
 
-import com.rootdown.dragonsync.utils.DroneDataParser;
-
-import org.json.JSONArray;
-import org.json.JSONObject;
-
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 public class WiFiScanner {
     private static final String TAG = "WiFiScanner";
 
-    private static final long AGGRESSIVE_SCAN_INTERVAL = 100; // 100ms instead of 3000ms
-    private static final long NORMAL_SCAN_INTERVAL = 500; // 500ms fallback
+    // Floor for re-posting the scan runnable when the scheduler has nothing pending
+    private static final long MIN_SCHEDULER_POLL_MS = 1000;
 
     private static final int CID_LENGTH = 3;
     private static final int[] ASD_STAN_CID = {0xFA, 0x0B, 0xBC}; // ASD-STAN owned identifier
     private static final int VENDOR_TYPE_VALUE = 0x0D; // OpenDroneID vendor type
     private static final int VENDOR_SPECIFIC_IE_ID = 221;
     private static final String OPENDRONEID_NAN_SERVICE_NAME = "org.opendroneid.remoteid";
-
-    private static final int MAX_CONSECUTIVE_FAILURES = 3;
-    private static final long THROTTLE_BACKOFF_TIME = 30000; // 30 seconds instead of 120
-    private final AtomicBoolean isThrottled = new AtomicBoolean(false);
+    // Address given to NaN frames; discovery exposes only a per-session peer ID
+    static final String NAN_ADDRESS_PREFIX = "NaN-";
+    // The Aware attach and subscription outlive a stop by this long, so a restart reuses them
+    private static final long NAN_SESSION_LINGER_MS = 60_000;
+    // Wait before re-subscribing on a live attach after the subscription ends or fails
+    private static final long NAN_RESUBSCRIBE_DELAY_MS = 5_000;
+
+    // BSSIDs not seen for this long are forgotten by the scan dedup (ScanResult.timestamp is in µs)
+    private static final long DEDUP_RETENTION_MICROS = 5 * 60 * 1_000_000L;
+    private static final int DEDUP_PRUNE_THRESHOLD = 512;
+    // Frames waiting for the ingest thread; one scan rarely holds more than a few dozen beacons
+    private static final int INGEST_QUEUE_CAPACITY = 256;
 
     private final Context context;
     private final WifiManager wifiManager;
     private final WifiAwareManager wifiAwareManager;
     private final OnDroneDetectedListener listener;
-    private final DroneDataParser dataParser;
+    // Both used on the ingest thread only
+    private final OpenDroneIdDecoder decoder = new OpenDroneIdDecoder();
+    private final DetectionBatch batch = new DetectionBatch();
     private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ScanIngestQueue ingestQueue =
+            new ScanIngestQueue("WiFiIngest", INGEST_QUEUE_CAPACITY, this::decodeFrame);
 
     // Scanning state
     private boolean isBeaconScanning = false;
@@ -66,32 +76,53 @@ public class WiFiScanner {
     private BroadcastReceiver wifiScanReceiver;
     private IntentFilter wifiScanFilter;
 
-    private long currentScanInterval = AGGRESSIVE_SCAN_INTERVAL;
-    private int consecutiveFailures = 0;
-    private int successfulScans = 0;
+    // Android 9+ throttles foreground apps to 4 scans per 2 minutes
+    private final WifiScanScheduler scanScheduler =
+            new WifiScanScheduler(Build.VERSION.SDK_INT >= Build.VERSION_CODES.P);
+
+    // Android returns cached results across scans; BSSID -> newest ScanResult.timestamp already
+    // processed, so each beacon frame is parsed once. Main thread only
+    private final HashMap<String, Long> processedBeacons = new HashMap<>();
+    private long newestBeaconMicros = 0;
+    private int lastScanSkipped = 0;
+    private long totalSkipped = 0;
     private final Runnable scanRunnable = new Runnable() {
         @Override
         public void run() {
-            if (isBeaconScanning && !isThrottled.get()) {
-                performWifiScan();
-                handler.postDelayed(this, currentScanInterval);
+            if (!isBeaconScanning) return;
+
+            long now = SystemClock.elapsedRealtime();
+            if (scanScheduler.getNextScanDelay(now) == 0) {
+                performWifiScan(now);
+            }
+            if (scanScheduler.isBudgetExhausted(now)) {
+                leanOnNaN();
             }
+            handler.postDelayed(this, Math.max(scanScheduler.getNextScanDelay(now), MIN_SCHEDULER_POLL_MS));
         }
     };
 
-    // NaN components
+    // NaN components; main thread only. The sessions are kept across stop/start and released
+    // once NaN has been unwanted for NAN_SESSION_LINGER_MS
     private WifiAwareSession wifiAwareSession;
     private SubscribeDiscoverySession subscribeSession;
+    // True between startNaNScanning and stopNaNScanning
+    private boolean nanRequested = false;
+    // An attach or subscribe is in flight
+    private boolean nanPending = false;
+    private BroadcastReceiver awareStateReceiver;
+    private final Runnable releaseNaNRunnable = this::releaseNaN;
+    private final Runnable resubscribeNaNRunnable = this::resubscribeNaN;
 
     public interface OnDroneDetectedListener {
-        void onDroneDetected(JSONArray droneData);
+        // Called on the ingest thread; the batch and its events are reused once this returns
+        void onDroneDetected(DetectionBatch batch);
         void onError(String error);
     }
 
     public WiFiScanner(Context context, OnDroneDetectedListener listener) {
         this.context = context;
         this.listener = listener;
-        this.dataParser = new DroneDataParser();
 
         wifiManager = (WifiManager) context.getApplicationContext().getSystemService(Context.WIFI_SERVICE);
 
@@ -118,6 +149,7 @@ public class WiFiScanner {
         }
 
         boolean success = false;
+        ingestQueue.start();
 
         if (wifiManager != null && !wifiManager.isWifiEnabled()) {
             Log.d(TAG, "Enabling WiFi for optimal scanning");
@@ -127,7 +159,7 @@ public class WiFiScanner {
         // Start beacon scanning
         if (startBeaconScanning()) {
             success = true;
-            Log.d(TAG, "WiFi beacon scanning started with aggressive timing");
+            Log.d(TAG, "WiFi beacon scanning started with adaptive timing");
         }
 
         // Start NaN scanning
@@ -137,6 +169,7 @@ public class WiFiScanner {
         }
 
         if (!success) {
+            ingestQueue.stop();
             listener.onError("Failed to start WiFi scanning");
         }
 
@@ -145,7 +178,7 @@ public class WiFiScanner {
     }
 
     private boolean startBeaconScanning() {
-        if (wifiManager == null || isThrottled.get()) {
+        if (wifiManager == null) {
             return false;
         }
 
@@ -173,25 +206,16 @@ public class WiFiScanner {
         return true;
     }
 
-    private boolean performWifiScan() {
+    private boolean performWifiScan(long nowMillis) {
         if (wifiManager == null) return false;
 
         try {
             boolean started = wifiManager.startScan();
-            if (started) {
-                successfulScans++;
-                consecutiveFailures = 0;
-
-                if (successfulScans > 10 && currentScanInterval > AGGRESSIVE_SCAN_INTERVAL) {
-                    currentScanInterval = AGGRESSIVE_SCAN_INTERVAL;
-                    Log.d(TAG, "Switching to aggressive scan timing");
-                }
-
-                return true;
-            } else {
-                handleScanFailure();
-                return false;
+            scanScheduler.onScanRequested(nowMillis, started);
+            if (!started) {
+                Log.d(TAG, "Scan request rejected by platform throttle");
             }
+            return started;
         } catch (SecurityException e) {
             Log.e(TAG, "Security exception during WiFi scan: " + e.getMessage());
             listener.onError("WiFi scan permission denied");
@@ -199,28 +223,38 @@ public class WiFiScanner {
         }
     }
 
-    private void handleScanFailure() {
-        consecutiveFailures++;
-
-        if (consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
-            Log.w(TAG, "Scan throttling detected - implementing backoff strategy");
-            isThrottled.set(true);
-            currentScanInterval = NORMAL_SCAN_INTERVAL;
-
-            handler.postDelayed(() -> {
-                isThrottled.set(false);
-                consecutiveFailures = 0;
-                Log.d(TAG, "Throttling backoff complete, resuming scanning");
-            }, THROTTLE_BACKOFF_TIME);
+    // With the scan budget spent, NaN and passively delivered results carry detection
+    private void leanOnNaN() {
+        if (isNaNSupported && !isNaNScanning && !nanPending && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            if (startNaNScanning()) {
+                Log.d(TAG, "Scan budget exhausted, restarted WiFi NaN subscription");
+            }
         }
     }
 
+    // Reuses whatever part of the attach/subscribe chain is still alive from the last cycle
     @TargetApi(Build.VERSION_CODES.O)
     private boolean startNaNScanning() {
-        if (!isNaNSupported || wifiAwareManager == null || isNaNScanning) {
+        if (!isNaNSupported || wifiAwareManager == null) {
             return false;
         }
 
+        handler.removeCallbacks(releaseNaNRunnable);
+        nanRequested = true;
+        registerAwareStateReceiver();
+
+        if (subscribeSession != null) {
+            isNaNScanning = true;
+            Log.d(TAG, "Reusing WiFi NaN subscription");
+            return true;
+        }
+        if (nanPending) {
+            return true;
+        }
+        if (wifiAwareSession != null) {
+            return subscribeNaN();
+        }
+
         if (!wifiAwareManager.isAvailable()) {
             Log.w(TAG, "WiFi Aware currently unavailable");
             return false;
@@ -228,6 +262,7 @@ public class WiFiScanner {
 
         try {
             wifiAwareManager.attach(attachCallback, identityChangedListener, null);
+            nanPending = true;
             return true;
         } catch (SecurityException e) {
             Log.e(TAG, "Security exception starting WiFi NaN: " + e.getMessage());
@@ -235,24 +270,81 @@ public class WiFiScanner {
         }
     }
 
+    @TargetApi(Build.VERSION_CODES.O)
+    private boolean subscribeNaN() {
+        SubscribeConfig config = new SubscribeConfig.Builder()
+                .setServiceName(OPENDRONEID_NAN_SERVICE_NAME)
+                .setSubscribeType(SubscribeConfig.SUBSCRIBE_TYPE_PASSIVE)
+                .build();
+        try {
+            wifiAwareSession.subscribe(config, discoveryCallback, null);
+            nanPending = true;
+            return true;
+        } catch (SecurityException e) {
+            Log.e(TAG, "Security exception subscribing to WiFi NaN: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.O)
+    private void resubscribeNaN() {
+        if (nanRequested && subscribeSession == null && !nanPending && wifiAwareSession != null) {
+            subscribeNaN();
+        }
+    }
+
+    // Aware going down invalidates both sessions; bring them back when it returns
+    @TargetApi(Build.VERSION_CODES.O)
+    private void registerAwareStateReceiver() {
+        if (awareStateReceiver != null) return;
+        awareStateReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                if (wifiAwareManager.isAvailable()) {
+                    if (nanRequested && !isNaNScanning && !nanPending) {
+                        Log.d(TAG, "WiFi Aware available again, resubscribing");
+                        startNaNScanning();
+                    }
+                } else {
+                    Log.w(TAG, "WiFi Aware became unavailable");
+                    closeNaNSessions();
+                }
+            }
+        };
+        IntentFilter filter = new IntentFilter(WifiAwareManager.ACTION_WIFI_AWARE_STATE_CHANGED);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            context.registerReceiver(awareStateReceiver, filter, Context.RECEIVER_NOT_EXPORTED);
+        } else {
+            context.registerReceiver(awareStateReceiver, filter);
+        }
+    }
+
+    // Discovery reports a peer ID, not a MAC, stable for the life of the subscription
+    private static String nanAddress(PeerHandle peerHandle) {
+        return NAN_ADDRESS_PREFIX + peerHandle.hashCode();
+    }
+
     private void setupWifiBeaconReceiver() {
         wifiScanReceiver = new BroadcastReceiver() {
             @Override
             public void onReceive(Context context, Intent intent) {
                 boolean success = intent.getBooleanExtra(WifiManager.EXTRA_RESULTS_UPDATED, false);
 
+                // Also fires for scans made by the system or other apps, which cost us no budget
+                scanScheduler.onScanResults(success);
                 if (success && WifiManager.SCAN_RESULTS_AVAILABLE_ACTION.equals(intent.getAction())) {
-                    processBeaconScanResults();
-                } else {
-                    handleScanFailure();
+                    offerBeaconScanResults();
                 }
+                Log.d(TAG, "WiFi scan metrics: " + scanScheduler.describe());
             }
         };
 
         wifiScanFilter = new IntentFilter(WifiManager.SCAN_RESULTS_AVAILABLE_ACTION);
     }
 
-    private void processBeaconScanResults() {
+    // Main thread: drops weak and already-handled results and hands the rest to the ingest
+    // thread, which digs the vendor IEs out of them
+    private void offerBeaconScanResults() {
         if (wifiManager == null) return;
 
         if (ActivityCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION)
@@ -264,9 +356,27 @@ public class WiFiScanner {
             List<ScanResult> results = wifiManager.getScanResults();
             if (results == null) return;
 
+            List<ScanResult> fresh = new ArrayList<>();
+            int skipped = 0;
             for (ScanResult scanResult : results) {
                 if (scanResult.level < -90) continue; // Skip very weak signals
-                processBeaconResult(scanResult);
+                if (isAlreadyProcessed(scanResult)) {
+                    skipped++;
+                    continue;
+                }
+                fresh.add(scanResult);
+            }
+            if (!fresh.isEmpty()) {
+                ingestQueue.offerResults(fresh);
+            }
+
+            lastScanSkipped = skipped;
+            totalSkipped += skipped;
+            if (skipped > 0) {
+                Log.d(TAG, "Skipped " + skipped + " of " + results.size() + " cached scan results");
+            }
+            if (processedBeacons.size() > DEDUP_PRUNE_THRESHOLD) {
+                pruneProcessedBeacons();
             }
 
         } catch (SecurityException e) {
@@ -274,34 +384,58 @@ public class WiFiScanner {
         }
     }
 
-    private void processBeaconResult(ScanResult scanResult) {
+    // Records the result's timestamp; true when this BSSID's frame was already handled
+    private boolean isAlreadyProcessed(ScanResult scanResult) {
+        if (scanResult.BSSID == null) return false;
+
+        Long processed = processedBeacons.get(scanResult.BSSID);
+        if (processed != null && scanResult.timestamp <= processed) return true;
+
+        processedBeacons.put(scanResult.BSSID, scanResult.timestamp);
+        if (scanResult.timestamp > newestBeaconMicros) newestBeaconMicros = scanResult.timestamp;
+        return false;
+    }
+
+    private void pruneProcessedBeacons() {
+        long cutoff = newestBeaconMicros - DEDUP_RETENTION_MICROS;
+        Iterator<Long> it = processedBeacons.values().iterator();
+        while (it.hasNext()) {
+            if (it.next() < cutoff) it.remove();
+        }
+    }
+
+    // Ingest thread; returns how many Remote ID beacons the result carried
+    private int processBeaconResult(ScanResult scanResult, long receivedMillis) {
+        int found = 0;
         try {
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
                 // Android 11+ - use public API
                 for (ScanResult.InformationElement element : scanResult.getInformationElements()) {
                     if (element != null && element.getId() == VENDOR_SPECIFIC_IE_ID) {
                         ByteBuffer buf = element.getBytes();
-                        if (buf != null && buf.remaining() >= 4) {
-                            processRemoteIdVendorIE(scanResult, buf);
+                        if (buf != null && buf.remaining() >= 4 && processRemoteIdVendorIE(scanResult, buf, receivedMillis)) {
+                            found++;
                         }
                     }
                 }
             } else {
                 // Android 6-10 - use reflection for hidden API
-                processInformationElementsReflection(scanResult);
+                found = processInformationElementsReflection(scanResult, receivedMillis);
             }
         } catch (Exception e) {
             Log.e(TAG, "Error processing beacon result: " + e.getMessage());
         }
+        return found;
     }
 
-    private void processInformationElementsReflection(ScanResult scanResult) {
+    private int processInformationElementsReflection(ScanResult scanResult, long receivedMillis) {
+        int found = 0;
         try {
             java.lang.reflect.Field field = ScanResult.class.getDeclaredField("informationElements");
             field.setAccessible(true);
             ScanResult.InformationElement[] elements = (ScanResult.InformationElement[]) field.get(scanResult);
 
-            if (elements == null) return;
+            if (elements == null) return 0;
 
             for (ScanResult.InformationElement element : elements) {
                 if (element == null) continue;
@@ -317,17 +451,19 @@ public class WiFiScanner {
 
                     if (data != null && data.length >= 4) {
                         ByteBuffer buf = ByteBuffer.wrap(data).asReadOnlyBuffer();
-                        processRemoteIdVendorIE(scanResult, buf);
+                        if (processRemoteIdVendorIE(scanResult, buf, receivedMillis)) found++;
                     }
                 }
             }
         } catch (Exception e) {
             Log.e(TAG, "Reflection access failed: " + e.getMessage());
         }
+        return found;
     }
 
-    private void processRemoteIdVendorIE(ScanResult scanResult, ByteBuffer buffer) {
-        if (buffer == null || buffer.remaining() < (CID_LENGTH + 1)) return;
+    // True when the IE was an OpenDroneID beacon; its messages go straight to the decoder
+    private boolean processRemoteIdVendorIE(ScanResult scanResult, ByteBuffer buffer, long receivedMillis) {
+        if (buffer == null || buffer.remaining() < (CID_LENGTH + 1)) return false;
 
         buffer.rewind();
         buffer.order(ByteOrder.LITTLE_ENDIAN);
@@ -341,7 +477,7 @@ public class WiFiScanner {
                 (cidBytes[1] & 0xFF) != ASD_STAN_CID[1] ||
                 (cidBytes[2] & 0xFF) != ASD_STAN_CID[2] ||
                 (vendorType & 0xFF) != VENDOR_TYPE_VALUE) {
-            return; // Not OpenDroneID data
+            return false; // Not OpenDroneID data
         }
 
         // Extract Remote ID payload
@@ -352,67 +488,93 @@ public class WiFiScanner {
                 ", data length: " + beaconData.length +
                 ", RSSI: " + scanResult.level + "dBm");
 
-        try {
-            JSONArray droneData = dataParser.parseWiFiBeaconData(beaconData, scanResult.BSSID, scanResult.level);
-            if (droneData.length() > 0) {
-                listener.onDroneDetected(droneData);
-                Log.d(TAG, "✅ Successfully parsed OpenDroneID WiFi beacon");
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error parsing OpenDroneID data: " + e.getMessage());
+        decode(beaconData, scanResult.BSSID, scanResult.level, receivedMillis);
+        return true;
+    }
+
+    // Ingest thread: NaN frames carry a payload, beacon scans hand over their fresh results
+    @SuppressWarnings("unchecked")
+    private void decodeFrame(ScanIngestQueue.RawFrame frame) {
+        if (frame.results == null) {
+            decode(frame.payload, frame.address, frame.rssi, frame.receivedMillis);
+            return;
+        }
+
+        int found = 0;
+        for (ScanResult scanResult : (List<ScanResult>) frame.results) {
+            found += processBeaconResult(scanResult, frame.receivedMillis);
+        }
+        if (found > 0) {
+            // The scheduler is main-thread only
+            int detections = found;
+            handler.post(() -> scanScheduler.onRemoteIdDetections(SystemClock.elapsedRealtime(), detections));
         }
     }
 
-    // WiFi NaN callbacks
+    // Beacon and NaN payloads carry the same OpenDroneID message pack
+    private void decode(byte[] payload, String address, int rssi, long receivedMillis) {
+        batch.clear();
+        if (decoder.decodeWiFi(payload, address, rssi, receivedMillis, batch) > 0) {
+            listener.onDroneDetected(batch);
+        }
+        batch.clear();
+    }
+
+    // WiFi NaN callbacks, delivered on the main thread
     @TargetApi(Build.VERSION_CODES.O)
     private final AttachCallback attachCallback = new AttachCallback() {
         @Override
         public void onAttached(WifiAwareSession session) {
+            nanPending = false;
             wifiAwareSession = session;
-            SubscribeConfig config = new SubscribeConfig.Builder()
-                    .setServiceName(OPENDRONEID_NAN_SERVICE_NAME)
-                    .build();
-
-            try {
-                wifiAwareSession.subscribe(config, new DiscoverySessionCallback() {
-                    @Override
-                    public void onSubscribeStarted(@NonNull SubscribeDiscoverySession session) {
-                        subscribeSession = session;
-                        isNaNScanning = true;
-                        Log.i(TAG, "✅ WiFi NaN OpenDroneID subscription active");
-                    }
+            if (nanRequested) {
+                subscribeNaN();
+            } else {
+                // Stopped while attaching; keep it for the linger period like any other
+                handler.postDelayed(releaseNaNRunnable, NAN_SESSION_LINGER_MS);
+            }
+        }
 
-                    @Override
-                    public void onServiceDiscovered(PeerHandle peerHandle, byte[] serviceSpecificInfo, List<byte[]> matchFilter) {
-                        Log.i(TAG, "🎯 WiFi NaN OpenDroneID service discovered, data: " + serviceSpecificInfo.length + " bytes");
-
-                        try {
-                            JSONArray droneData = dataParser.parseWiFiBeaconData(serviceSpecificInfo,
-                                    "NaN-" + peerHandle.hashCode(), 0);
-                            if (droneData.length() > 0) {
-                                listener.onDroneDetected(droneData);
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error parsing WiFi NaN data: " + e.getMessage());
-                        }
-                    }
+        @Override
+        public void onAttachFailed() {
+            nanPending = false;
+            Log.e(TAG, "WiFi NaN attach failed");
+        }
+    };
 
-                    @Override
-                    public void onSessionTerminated() {
-                        subscribeSession = null;
-                        isNaNScanning = false;
-                        Log.w(TAG, "WiFi NaN session terminated");
-                    }
-                }, null);
+    @TargetApi(Build.VERSION_CODES.O)
+    private final DiscoverySessionCallback discoveryCallback = new DiscoverySessionCallback() {
+        @Override
+        public void onSubscribeStarted(@NonNull SubscribeDiscoverySession session) {
+            nanPending = false;
+            subscribeSession = session;
+            isNaNScanning = nanRequested;
+            Log.i(TAG, "✅ WiFi NaN OpenDroneID subscription active");
+        }
 
-            } catch (SecurityException e) {
-                Log.e(TAG, "Security exception subscribing to WiFi NaN: " + e.getMessage());
+        @Override
+        public void onServiceDiscovered(PeerHandle peerHandle, byte[] serviceSpecificInfo, List<byte[]> matchFilter) {
+            // A lingering subscription still discovers; nothing is ingested until restarted
+            if (!isNaNScanning || serviceSpecificInfo == null || serviceSpecificInfo.length == 0) {
+                return;
             }
+            // The payload is a counter byte and a message pack, decoded on the ingest thread
+            ingestQueue.offer(serviceSpecificInfo, nanAddress(peerHandle), 0, null);
         }
 
         @Override
-        public void onAttachFailed() {
-            Log.e(TAG, "WiFi NaN attach failed");
+        public void onSessionConfigFailed() {
+            nanPending = false;
+            Log.w(TAG, "WiFi NaN subscribe failed");
+            handler.postDelayed(resubscribeNaNRunnable, NAN_RESUBSCRIBE_DELAY_MS);
+        }
+
+        @Override
+        public void onSessionTerminated() {
+            subscribeSession = null;
+            isNaNScanning = false;
+            Log.w(TAG, "WiFi NaN session terminated");
+            handler.postDelayed(resubscribeNaNRunnable, NAN_RESUBSCRIBE_DELAY_MS);
         }
     };
 
@@ -435,11 +597,41 @@ public class WiFiScanner {
         }
 
         stopNaNScanning();
+        ingestQueue.stop();
+        processedBeacons.clear();
+        newestBeaconMicros = 0;
         Log.d(TAG, "WiFi scanning stopped");
     }
 
+    // Stops ingesting NaN frames but leaves the sessions up for a quick restart
     @TargetApi(Build.VERSION_CODES.O)
     private void stopNaNScanning() {
+        nanRequested = false;
+        isNaNScanning = false;
+        handler.removeCallbacks(resubscribeNaNRunnable);
+        handler.removeCallbacks(releaseNaNRunnable);
+        if (wifiAwareSession != null || nanPending) {
+            handler.postDelayed(releaseNaNRunnable, NAN_SESSION_LINGER_MS);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.O)
+    private void releaseNaN() {
+        if (nanRequested) return;
+        closeNaNSessions();
+        if (awareStateReceiver != null) {
+            try {
+                context.unregisterReceiver(awareStateReceiver);
+            } catch (IllegalArgumentException e) {
+                // Receiver not registered
+            }
+            awareStateReceiver = null;
+        }
+        Log.d(TAG, "WiFi NaN sessions released");
+    }
+
+    @TargetApi(Build.VERSION_CODES.O)
+    private void closeNaNSessions() {
         if (subscribeSession != null) {
             subscribeSession.close();
             subscribeSession = null;
@@ -451,6 +643,7 @@ public class WiFiScanner {
         }
 
         isNaNScanning = false;
+        nanPending = false;
     }
 
     private boolean hasRequiredPermissions() {
@@ -470,14 +663,17 @@ public class WiFiScanner {
     public boolean isBeaconScanningActive() { return isBeaconScanning; }
     public boolean isNaNScanningActive() { return isNaNScanning; }
     public boolean isNaNSupported() { return isNaNSupported; }
-    public boolean isCurrentlyThrottled() { return isThrottled.get(); }
+    public boolean isCurrentlyThrottled() { return scanScheduler.isBudgetExhausted(SystemClock.elapsedRealtime()); }
+    public WifiScanScheduler getScanScheduler() { return scanScheduler; }
+    public int getLastScanSkippedCount() { return lastScanSkipped; }
+    public long getTotalSkippedCount() { return totalSkipped; }
 
     public void getScanStats() {
-        Log.d(TAG, "WiFi Scan Stats - Success: " + successfulScans +
-                ", Failures: " + consecutiveFailures +
-                ", Interval: " + currentScanInterval + "ms" +
-                ", Throttled: " + isThrottled.get() +
+        Log.d(TAG, "WiFi Scan Stats - " + scanScheduler.describe() +
+                ", Skipped: " + lastScanSkipped + " last scan / " + totalSkipped + " total" +
+                ", Throttled: " + isCurrentlyThrottled() +
                 ", Beacon: " + isBeaconScanning +
-                ", NaN: " + isNaNScanning);
+                ", NaN: " + isNaNScanning +
+                ", Ingest: " + ingestQueue.describe());
     }
 }
\ No newline at end of file
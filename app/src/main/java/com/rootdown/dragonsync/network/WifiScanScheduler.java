@@ -0,0 +1,131 @@
+package com.rootdown.dragonsync.network;
+
+import java.util.Locale;
+
+/**
+ * Decides when WiFiScanner may call startScan. On Android 9+ a foreground app gets
+ * SCAN_BUDGET scans per BUDGET_WINDOW_MS and further requests are rejected, so the scheduler
+ * keeps the issue times of the last SCAN_BUDGET scans and paces idle scans to use all but one
+ * slot of that budget. The reserved slot goes on a quick follow-up once a scan turns up Remote
+ * ID beacons, and while detections continue the remaining budget is spent at the minimum
+ * spacing. Once the budget is spent, detection relies on NaN and on passive results from scans
+ * made by the system or other apps.
+ *
+ * Main thread only. Times are SystemClock.elapsedRealtime() milliseconds.
+ */
+public class WifiScanScheduler {
+    public static final int SCAN_BUDGET = 4;
+    public static final long BUDGET_WINDOW_MS = 120_000;
+
+    // A scan takes a few seconds to complete; asking sooner only collides with it
+    private static final long MIN_SCAN_SPACING_MS = 3_000;
+    // Spacing without a platform budget (before Android 9) when nothing has been found lately
+    private static final long UNTHROTTLED_IDLE_SPACING_MS = 10_000;
+    // A scan that found Remote ID keeps the schedule in burst mode for this long
+    private static final long HOT_WINDOW_MS = 30_000;
+
+    private final boolean throttled;
+    private final long[] issued = new long[SCAN_BUDGET];
+    private int issuedHead;
+    private int issuedCount;
+    private long lastIssuedMillis = Long.MIN_VALUE / 2;
+    private long lastDetectionMillis = Long.MIN_VALUE / 2;
+    private long blockedUntilMillis;
+
+    private long scansIssued;
+    private long scansRejected;
+    private long scansSucceeded;
+    private long scansFailed;
+    private long scansWithDetections;
+    private long detections;
+
+    public WifiScanScheduler(boolean platformThrottled) {
+        this.throttled = platformThrottled;
+    }
+
+    // Milliseconds until the next startScan should be attempted; 0 when one is due now
+    public long getNextScanDelay(long nowMillis) {
+        long due;
+        if (!throttled) {
+            due = lastIssuedMillis + (isHot(nowMillis) ? MIN_SCAN_SPACING_MS : UNTHROTTLED_IDLE_SPACING_MS);
+        } else if (getScansInWindow(nowMillis) >= SCAN_BUDGET) {
+            // Wait for the oldest scan in the window to age out
+            due = issued[issuedHead] + BUDGET_WINDOW_MS;
+        } else if (isHot(nowMillis)) {
+            due = lastIssuedMillis + MIN_SCAN_SPACING_MS;
+        } else {
+            due = lastIssuedMillis + BUDGET_WINDOW_MS / (SCAN_BUDGET - 1);
+        }
+        due = Math.max(due, Math.max(blockedUntilMillis, lastIssuedMillis + MIN_SCAN_SPACING_MS));
+        return Math.max(0, due - nowMillis);
+    }
+
+    public boolean isBudgetExhausted(long nowMillis) {
+        return nowMillis < blockedUntilMillis || (throttled && getScansInWindow(nowMillis) >= SCAN_BUDGET);
+    }
+
+    // accepted is startScan's return value
+    public void onScanRequested(long nowMillis, boolean accepted) {
+        if (!accepted) {
+            // The platform's count disagrees with ours (e.g. another component scanned); back
+            // off for one budget slot rather than retrying into the throttle
+            scansRejected++;
+            blockedUntilMillis = nowMillis + BUDGET_WINDOW_MS / SCAN_BUDGET;
+            return;
+        }
+        scansIssued++;
+        lastIssuedMillis = nowMillis;
+        issued[issuedHead] = nowMillis;
+        issuedHead = (issuedHead + 1) % SCAN_BUDGET;
+        if (issuedCount < SCAN_BUDGET) issuedCount++;
+    }
+
+    // Called for each scan-results broadcast, including passive ones; updated is EXTRA_RESULTS_UPDATED
+    public void onScanResults(boolean updated) {
+        if (updated) {
+            scansSucceeded++;
+        } else {
+            scansFailed++;
+        }
+    }
+
+    // Called once the results of one broadcast have been decoded, which happens off the main
+    // thread, so it lands a moment after onScanResults
+    public void onRemoteIdDetections(long nowMillis, int remoteIdDetections) {
+        if (remoteIdDetections > 0) {
+            scansWithDetections++;
+            detections += remoteIdDetections;
+            lastDetectionMillis = nowMillis;
+        }
+    }
+
+    private boolean isHot(long nowMillis) {
+        return nowMillis - lastDetectionMillis <= HOT_WINDOW_MS;
+    }
+
+    private int getScansInWindow(long nowMillis) {
+        int inWindow = 0;
+        for (int i = 0; i < issuedCount; i++) {
+            if (nowMillis - issued[i] < BUDGET_WINDOW_MS) inWindow++;
+        }
+        return inWindow;
+    }
+
+    public long getScansIssued() { return scansIssued; }
+    public long getScansRejected() { return scansRejected; }
+    public long getScansSucceeded() { return scansSucceeded; }
+    public long getScansFailed() { return scansFailed; }
+    public long getDetections() { return detections; }
+
+    // Share of completed scans that yielded at least one Remote ID beacon
+    public double getDetectionYield() {
+        long completed = scansSucceeded + scansFailed;
+        return completed > 0 ? (double) scansWithDetections / completed : 0;
+    }
+
+    public String describe() {
+        return String.format(Locale.US,
+                "issued %d, rejected %d, succeeded %d, failed %d, detections %d, yield %.0f%%",
+                scansIssued, scansRejected, scansSucceeded, scansFailed, detections, getDetectionYield() * 100);
+    }
+}
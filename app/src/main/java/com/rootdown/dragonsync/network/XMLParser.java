@@ -10,6 +10,8 @@ import com.google.gson.JsonParser;
 import com.rootdown.dragonsync.models.CoTMessage;
 import com.rootdown.dragonsync.models.DroneSignature;
 import com.rootdown.dragonsync.models.StatusMessage;
+import com.rootdown.dragonsync.utils.CoTTimeParser;
+import com.rootdown.dragonsync.utils.NumberScanner;
 
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
@@ -17,7 +19,9 @@ import org.xmlpull.v1.XmlPullParserException;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class XMLParser {
@@ -46,7 +50,7 @@ public class XMLParser {
 
         // First check if this is XML (multicast mode)
         if (message.trim().startsWith("<")) {
-            return parseXML(message);
+            return withRawSource(parseXML(message), message);
         }
 
         // Not XML, so it's JSON (ZMQ mode)
@@ -55,10 +59,10 @@ public class XMLParser {
 
             if (jsonElement.isJsonObject()) {
                 // ESP32 format (single JSON object)
-                return parseESP32Format(jsonElement.getAsJsonObject());
+                return withRawSource(parseESP32Format(jsonElement.getAsJsonObject()), message);
             } else if (jsonElement.isJsonArray()) {
                 // DJI/BT/WiFi format (array of JSON objects)
-                return parseDroneArrayFormat(jsonElement.getAsJsonArray());
+                return withRawSource(parseDroneArrayFormat(jsonElement.getAsJsonArray()), message);
             } else {
                 Log.e(TAG, "Unexpected JSON format, neither object nor array");
                 result.error = "Unexpected JSON format";
@@ -71,6 +75,122 @@ public class XMLParser {
         return result;
     }
 
+    /**
+     * Parses every CoT event or top-level JSON document in a frame. Sensors may batch several
+     * drones into one datagram or ZMQ frame, so each event/document gets its own result.
+     */
+    public List<ParseResult> parseAll(String message) {
+        List<ParseResult> results = new ArrayList<>();
+        if (message == null) return results;
+
+        int[] bounds = isXml(message) ? findEventBounds(message) : findJsonDocumentBounds(message);
+        int count = bounds.length / 2;
+
+        // Single event/document (the common case): parse the frame as-is without copying it
+        if (count <= 1) {
+            results.add(parse(message));
+            return results;
+        }
+
+        for (int i = 0; i < count; i++) {
+            results.add(parse(message.substring(bounds[2 * i], bounds[2 * i + 1])));
+        }
+        Log.d(TAG, "Split frame into " + count + " messages");
+        return results;
+    }
+
+    private boolean isXml(String message) {
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (!Character.isWhitespace(c)) return c == '<';
+        }
+        return false;
+    }
+
+    // Start/end offsets of each <event> element, flattened into pairs
+    private int[] findEventBounds(String xml) {
+        int[] bounds = new int[8];
+        int size = 0;
+        int from = 0;
+        int start;
+        while ((start = indexOfEventStart(xml, from)) >= 0) {
+            int tagEnd = xml.indexOf('>', start);
+            if (tagEnd < 0) break;
+
+            int end;
+            if (xml.charAt(tagEnd - 1) == '/') {
+                end = tagEnd + 1; // <event ... />
+            } else {
+                int close = xml.indexOf("</event>", tagEnd);
+                end = close >= 0 ? close + "</event>".length() : xml.length();
+            }
+
+            if (size == bounds.length) bounds = Arrays.copyOf(bounds, size * 2);
+            bounds[size++] = start;
+            bounds[size++] = end;
+            from = end;
+        }
+        return Arrays.copyOf(bounds, size);
+    }
+
+    private int indexOfEventStart(String xml, int from) {
+        int start = xml.indexOf("<event", from);
+        while (start >= 0) {
+            int next = start + "<event".length();
+            if (next < xml.length()) {
+                char c = xml.charAt(next);
+                if (Character.isWhitespace(c) || c == '>' || c == '/') return start;
+            }
+            start = xml.indexOf("<event", next);
+        }
+        return -1;
+    }
+
+    // Start/end offsets of each top-level JSON object or array in concatenated/NDJSON input
+    private int[] findJsonDocumentBounds(String json) {
+        int[] bounds = new int[8];
+        int size = 0;
+        int depth = 0;
+        int start = -1;
+        boolean inString = false;
+        boolean escaped = false;
+
+        for (int i = 0; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+
+            if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                if (depth++ == 0) start = i;
+            } else if ((c == '}' || c == ']') && depth > 0) {
+                if (--depth == 0) {
+                    if (size == bounds.length) bounds = Arrays.copyOf(bounds, size * 2);
+                    bounds[size++] = start;
+                    bounds[size++] = i + 1;
+                }
+            }
+        }
+        return Arrays.copyOf(bounds, size);
+    }
+
+    // Keep a reference to the original payload so the raw map can be built on demand
+    private ParseResult withRawSource(ParseResult result, String source) {
+        if (result.cotMessage != null) {
+            result.cotMessage.setRawSource(source);
+        }
+        return result;
+    }
+
     private void extractStatusFromRemarks(String remarks, CoTMessage cotMessage, ParseResult result) {
         if (remarks == null || remarks.isEmpty()) return;
 
@@ -90,12 +210,9 @@ public class XMLParser {
             int cpuStart = remarks.indexOf("CPU Usage:") + 11;
             int cpuEnd = remarks.indexOf("%", cpuStart);
             if (cpuEnd > cpuStart) {
-                String cpuStr = remarks.substring(cpuStart, cpuEnd).trim();
-                try {
-                    double cpuUsage = Double.parseDouble(cpuStr);
+                double cpuUsage = NumberScanner.parseDouble(remarks, cpuStart, cpuEnd);
+                if (!Double.isNaN(cpuUsage)) {
                     stats.setCpuUsage(cpuUsage);
-                } catch (NumberFormatException e) {
-                    Log.e(TAG, "Failed to parse CPU usage: " + cpuStr);
                 }
             }
         }
@@ -105,12 +222,9 @@ public class XMLParser {
             int memTotalStart = remarks.indexOf("Memory Total:") + 13;
             int memTotalEnd = remarks.indexOf("MB", memTotalStart);
             if (memTotalEnd > memTotalStart) {
-                String memTotalStr = remarks.substring(memTotalStart, memTotalEnd).trim();
-                try {
-                    long memoryTotal = (long)(Double.parseDouble(memTotalStr) * 1024 * 1024); // Convert MB to bytes
-                    memory.setTotal(memoryTotal);
-                } catch (NumberFormatException e) {
-                    Log.e(TAG, "Failed to parse Memory Total: " + memTotalStr);
+                double memTotalMb = NumberScanner.parseDouble(remarks, memTotalStart, memTotalEnd);
+                if (!Double.isNaN(memTotalMb)) {
+                    memory.setTotal((long)(memTotalMb * 1024 * 1024)); // Convert MB to bytes
                 }
             }
         }
@@ -120,17 +234,13 @@ public class XMLParser {
             int memAvailStart = remarks.indexOf("Memory Available:") + 17;
             int memAvailEnd = remarks.indexOf("MB", memAvailStart);
             if (memAvailEnd > memAvailStart) {
-                String memAvailStr = remarks.substring(memAvailStart, memAvailEnd).trim();
-                try {
-                    long memoryAvailable = (long)(Double.parseDouble(memAvailStr) * 1024 * 1024); // Convert MB to bytes
-                    // Calculate used memory
-                    if (memory.getTotal() > 0) {
-                        memory.setUsed(memory.getTotal() - memoryAvailable);
-                        memory.setFree(memoryAvailable);
-                        memory.setPercent((double) memory.getUsed() / memory.getTotal());
-                    }
-                } catch (NumberFormatException e) {
-                    Log.e(TAG, "Failed to parse Memory Available: " + memAvailStr);
+                double memAvailMb = NumberScanner.parseDouble(remarks, memAvailStart, memAvailEnd);
+                // Calculate used memory
+                if (!Double.isNaN(memAvailMb) && memory.getTotal() > 0) {
+                    long memoryAvailable = (long)(memAvailMb * 1024 * 1024); // Convert MB to bytes
+                    memory.setUsed(memory.getTotal() - memoryAvailable);
+                    memory.setFree(memoryAvailable);
+                    memory.setPercent((double) memory.getUsed() / memory.getTotal());
                 }
             }
         }
@@ -142,21 +252,19 @@ public class XMLParser {
             int diskUsedStart = remarks.indexOf("Disk Used:") + 10;
             int diskUsedEnd = remarks.indexOf("MB", diskUsedStart);
 
-            try {
-                if (diskTotalEnd > diskTotalStart && diskUsedEnd > diskUsedStart) {
-                    String diskTotalStr = remarks.substring(diskTotalStart, diskTotalEnd).trim();
-                    String diskUsedStr = remarks.substring(diskUsedStart, diskUsedEnd).trim();
+            if (diskTotalEnd > diskTotalStart && diskUsedEnd > diskUsedStart) {
+                double diskTotalMb = NumberScanner.parseDouble(remarks, diskTotalStart, diskTotalEnd);
+                double diskUsedMb = NumberScanner.parseDouble(remarks, diskUsedStart, diskUsedEnd);
 
+                if (!Double.isNaN(diskTotalMb) && !Double.isNaN(diskUsedMb)) {
                     StatusMessage.SystemStats.DiskStats disk = new StatusMessage.SystemStats.DiskStats();
-                    disk.total = (long)(Double.parseDouble(diskTotalStr) * 1024 * 1024); // Convert MB to bytes
-                    disk.used = (long)(Double.parseDouble(diskUsedStr) * 1024 * 1024); // Convert MB to bytes
+                    disk.total = (long)(diskTotalMb * 1024 * 1024); // Convert MB to bytes
+                    disk.used = (long)(diskUsedMb * 1024 * 1024); // Convert MB to bytes
                     disk.free = disk.total - disk.used;
                     disk.percent = (double) disk.used / disk.total;
 
                     stats.setDisk(disk);
                 }
-            } catch (NumberFormatException e) {
-                Log.e(TAG, "Failed to parse disk information");
             }
         }
 
@@ -165,12 +273,9 @@ public class XMLParser {
             int tempStart = remarks.indexOf("Temperature:") + 12;
             int tempEnd = remarks.indexOf("°C", tempStart);
             if (tempEnd > tempStart) {
-                String tempStr = remarks.substring(tempStart, tempEnd).trim();
-                try {
-                    double temperature = Double.parseDouble(tempStr);
+                double temperature = NumberScanner.parseDouble(remarks, tempStart, tempEnd);
+                if (!Double.isNaN(temperature)) {
                     stats.setTemperature(temperature);
-                } catch (NumberFormatException e) {
-                    Log.e(TAG, "Failed to parse Temperature: " + tempStr);
                 }
             }
         }
@@ -185,51 +290,27 @@ public class XMLParser {
             if (uptimeEnd == -1) uptimeEnd = remarks.indexOf("hours", uptimeStart);
             if (uptimeEnd == -1) uptimeEnd = remarks.indexOf("hour", uptimeStart);
             if (uptimeEnd > uptimeStart) {
-                String uptimeStr = remarks.substring(uptimeStart, uptimeEnd).trim();
-                try {
-                    double uptime = Double.parseDouble(uptimeStr);
+                double uptime = NumberScanner.parseDouble(remarks, uptimeStart, uptimeEnd);
+                if (!Double.isNaN(uptime)) {
                     // Convert to seconds if needed based on unit
-                    if (remarks.substring(uptimeEnd).trim().startsWith("minute")) {
+                    if (remarks.startsWith("minute", uptimeEnd)) {
                         uptime *= 60;
-                    } else if (remarks.substring(uptimeEnd).trim().startsWith("hour")) {
+                    } else if (remarks.startsWith("hour", uptimeEnd)) {
                         uptime *= 3600;
                     }
                     stats.setUptime(uptime);
-                } catch (NumberFormatException e) {
-                    Log.e(TAG, "Failed to parse Uptime: " + uptimeStr);
                 }
             }
         }
 
         // Parse Pluto Temperature
         if (remarks.contains("Pluto Temp:")) {
-            Log.d(TAG, "Found Pluto Temp in remarks");
             int plutoTempStart = remarks.indexOf("Pluto Temp:") + 11;
+            double plutoTemp = NumberScanner.parseDouble(remarks, plutoTempStart, remarks.length());
 
-            // Skip whitespace
-            while (plutoTempStart < remarks.length() && Character.isWhitespace(remarks.charAt(plutoTempStart))) {
-                plutoTempStart++;
-            }
-
-            int plutoTempEnd = plutoTempStart;
-
-            // Find the end of the number
-            while (plutoTempEnd < remarks.length() &&
-                    Character.isDigit(remarks.charAt(plutoTempEnd))) {
-                plutoTempEnd++;
-            }
-
-            if (plutoTempEnd > plutoTempStart) {
-                String plutoTempStr = remarks.substring(plutoTempStart, plutoTempEnd).trim();
-                Log.d(TAG, "Extracted Pluto Temp string: '" + plutoTempStr + "'");
-
-                try {
-                    double plutoTemp = Double.parseDouble(plutoTempStr);
-                    antStats.setPlutoTemp(plutoTemp);
-                    Log.d(TAG, "Successfully parsed Pluto Temp: " + plutoTemp);
-                } catch (NumberFormatException e) {
-                    Log.e(TAG, "Failed to parse Pluto Temp: " + plutoTempStr + ", Error: " + e.getMessage());
-                }
+            if (!Double.isNaN(plutoTemp)) {
+                antStats.setPlutoTemp(plutoTemp);
+                Log.d(TAG, "Parsed Pluto Temp: " + plutoTemp);
             } else {
                 Log.d(TAG, "No valid Pluto Temp value found after the label");
             }
@@ -239,33 +320,12 @@ public class XMLParser {
 
         // Parse Zynq Temperature
         if (remarks.contains("Zynq Temp:")) {
-            Log.d(TAG, "Found Zynq Temp in remarks");
             int zynqTempStart = remarks.indexOf("Zynq Temp:") + 10;
+            double zynqTemp = NumberScanner.parseDouble(remarks, zynqTempStart, remarks.length());
 
-            // Skip whitespace
-            while (zynqTempStart < remarks.length() && Character.isWhitespace(remarks.charAt(zynqTempStart))) {
-                zynqTempStart++;
-            }
-
-            int zynqTempEnd = zynqTempStart;
-
-            // Find the end of the number
-            while (zynqTempEnd < remarks.length() &&
-                    Character.isDigit(remarks.charAt(zynqTempEnd))) {
-                zynqTempEnd++;
-            }
-
-            if (zynqTempEnd > zynqTempStart) {
-                String zynqTempStr = remarks.substring(zynqTempStart, zynqTempEnd).trim();
-                Log.d(TAG, "Extracted Zynq Temp string: '" + zynqTempStr + "'");
-
-                try {
-                    double zynqTemp = Double.parseDouble(zynqTempStr);
-                    antStats.setZynqTemp(zynqTemp);
-                    Log.d(TAG, "Successfully parsed Zynq Temp: " + zynqTemp);
-                } catch (NumberFormatException e) {
-                    Log.e(TAG, "Failed to parse Zynq Temp: " + zynqTempStr + ", Error: " + e.getMessage());
-                }
+            if (!Double.isNaN(zynqTemp)) {
+                antStats.setZynqTemp(zynqTemp);
+                Log.d(TAG, "Parsed Zynq Temp: " + zynqTemp);
             } else {
                 Log.d(TAG, "No valid Zynq Temp value found after the label");
             }
@@ -290,25 +350,17 @@ public class XMLParser {
         }
 
         // Add GPS data from the CoT message
-        if (cotMessage.getCoordinate() != null) {
+        if (cotMessage.hasCoordinate()) {
             StatusMessage.GPSData gpsData = new StatusMessage.GPSData();
-            gpsData.setLatitude(cotMessage.getCoordinate().getLatitude());
-            gpsData.setLongitude(cotMessage.getCoordinate().getLongitude());
+            gpsData.setLatitude(cotMessage.getLatValue());
+            gpsData.setLongitude(cotMessage.getLonValue());
 
-            if (cotMessage.getAlt() != null && !cotMessage.getAlt().isEmpty()) {
-                try {
-                    gpsData.setAltitude(Double.parseDouble(cotMessage.getAlt()));
-                } catch (NumberFormatException e) {
-                    // Ignore parse errors TODO - sometime
-                }
+            if (!Double.isNaN(cotMessage.getAltValue())) {
+                gpsData.setAltitude(cotMessage.getAltValue());
             }
 
-            if (cotMessage.getSpeed() != null && !cotMessage.getSpeed().isEmpty()) {
-                try {
-                    gpsData.setSpeed(Double.parseDouble(cotMessage.getSpeed()));
-                } catch (NumberFormatException e) {
-                    // Ignore parse errors TODO - lowpri
-                }
+            if (!Double.isNaN(cotMessage.getSpeedValue())) {
+                gpsData.setSpeed(cotMessage.getSpeedValue());
             }
 
             statusMessage.setGpsData(gpsData);
@@ -370,7 +422,6 @@ public class XMLParser {
 
 
         CoTMessage cotMessage = new CoTMessage();
-        Map<String, Object> rawData = new HashMap<>();
 
         // Basic ID info
         if (json.has("Basic ID")) {
@@ -378,22 +429,18 @@ public class XMLParser {
             if (basicId.has("id")) {
                 String id = basicId.get("id").getAsString();
                 cotMessage.setUid(id);
-                rawData.put("uid", id);
             }
             if (basicId.has("MAC")) {
                 String mac = basicId.get("MAC").getAsString();
                 cotMessage.setMac(mac);
-                rawData.put("mac", mac);
 
                 // Detect manufacturer from MAC
                 String manufacturer = findManufacturer(mac);
                 cotMessage.setManufacturer(manufacturer);
-                rawData.put("manufacturer", manufacturer);
             }
             if (basicId.has("id_type")) {
                 String idType = basicId.get("id_type").getAsString();
                 cotMessage.setIdType(idType);
-                rawData.put("idType", idType);
             }
 
             // Map ua_type if present
@@ -402,7 +449,6 @@ public class XMLParser {
                     int uaTypeValue = basicId.get("ua_type").getAsInt();
                     DroneSignature.IdInfo.UAType uaType = mapUAType(uaTypeValue);
                     cotMessage.setUaType(uaType);
-                    rawData.put("uaType", uaType);
                 } catch (Exception e) {
                     Log.w(TAG, "Failed to parse UA type: " + e.getMessage());
                 }
@@ -413,69 +459,49 @@ public class XMLParser {
         if (json.has("Location/Vector Message")) {
             JsonObject locationVector = json.getAsJsonObject("Location/Vector Message");
             if (locationVector.has("latitude")) {
-                String lat = String.valueOf(locationVector.get("latitude").getAsDouble());
-                cotMessage.setLat(lat);
-                rawData.put("lat", lat);
+                cotMessage.setLat(locationVector.get("latitude").getAsDouble());
             }
             if (locationVector.has("longitude")) {
-                String lon = String.valueOf(locationVector.get("longitude").getAsDouble());
-                cotMessage.setLon(lon);
-                rawData.put("lon", lon);
+                cotMessage.setLon(locationVector.get("longitude").getAsDouble());
             }
             if (locationVector.has("speed")) {
-                String speed = String.valueOf(locationVector.get("speed").getAsDouble());
-                cotMessage.setSpeed(speed);
-                rawData.put("speed", speed);
+                cotMessage.setSpeed(locationVector.get("speed").getAsDouble());
             }
             if (locationVector.has("vert_speed")) {
-                String vspeed = String.valueOf(locationVector.get("vert_speed").getAsDouble());
-                cotMessage.setVspeed(vspeed);
-                rawData.put("vspeed", vspeed);
+                cotMessage.setVspeed(locationVector.get("vert_speed").getAsDouble());
             }
             if (locationVector.has("geodetic_altitude")) {
-                String alt = String.valueOf(locationVector.get("geodetic_altitude").getAsDouble());
-                cotMessage.setAlt(alt);
-                rawData.put("alt", alt);
+                cotMessage.setAlt(locationVector.get("geodetic_altitude").getAsDouble());
             }
             if (locationVector.has("height_agl")) {
-                String height = String.valueOf(locationVector.get("height_agl").getAsDouble());
-                cotMessage.setHeight(height);
-                rawData.put("height", height);
+                cotMessage.setHeight(locationVector.get("height_agl").getAsDouble());
             }
             if (locationVector.has("direction")) {
-                String direction = String.valueOf(locationVector.get("direction").getAsDouble());
-                cotMessage.setDirection(direction);
-                rawData.put("direction", direction);
+                cotMessage.setDirection(locationVector.get("direction").getAsDouble());
             }
             if (locationVector.has("status")) {
                 String status = String.valueOf(locationVector.get("status").getAsInt());
                 cotMessage.setStatus(status);
-                rawData.put("status", status);
             }
             if (locationVector.has("horiz_acc")) {
                 String horizAcc = String.valueOf(locationVector.get("horiz_acc").getAsInt());
                 cotMessage.setHorizontalAccuracy(horizAcc);
-                rawData.put("horizontal_accuracy", horizAcc);
             }
             if (locationVector.has("vert_acc")) {
                 String vertAcc = String.valueOf(locationVector.get("vert_acc").getAsInt());
                 cotMessage.setVerticalAccuracy(vertAcc);
-                rawData.put("vertical_accuracy", vertAcc);
             }
             if (locationVector.has("baro_acc")) {
                 String baroAcc = String.valueOf(locationVector.get("baro_acc").getAsInt());
                 cotMessage.setBaroAccuracy(baroAcc);
-                rawData.put("baro_accuracy", baroAcc);
             }
             if (locationVector.has("speed_acc")) {
                 String speedAcc = String.valueOf(locationVector.get("speed_acc").getAsInt());
                 cotMessage.setSpeedAccuracy(speedAcc);
-                rawData.put("speed_accuracy", speedAcc);
             }
             if (locationVector.has("timestamp")) {
                 String timestamp = String.valueOf(locationVector.get("timestamp").getAsLong());
                 cotMessage.setTimestamp(timestamp);
-                rawData.put("timestamp", timestamp);
             }
         }
 
@@ -485,17 +511,14 @@ public class XMLParser {
             if (selfId.has("text")) {
                 String text = selfId.get("text").getAsString();
                 cotMessage.setSelfIDText(text);
-                rawData.put("selfIDText", text);
             }
             if (selfId.has("description")) {
                 String description = selfId.get("description").getAsString();
                 cotMessage.setDescription(description);
-                rawData.put("description", description);
             }
             if (selfId.has("description_type")) {
                 String selfIdType = String.valueOf(selfId.get("description_type").getAsInt());
                 cotMessage.setSelfIdType(selfIdType);
-                rawData.put("selfIdType", selfIdType);
             }
         }
 
@@ -505,54 +528,44 @@ public class XMLParser {
             if (sysMsg.has("operator_lat")) {
                 String pilotLat = String.valueOf(sysMsg.get("operator_lat").getAsDouble());
                 cotMessage.setPilotLat(pilotLat);
-                rawData.put("pilotLat", pilotLat);
             }
             if (sysMsg.has("operator_lon")) {
                 String pilotLon = String.valueOf(sysMsg.get("operator_lon").getAsDouble());
                 cotMessage.setPilotLon(pilotLon);
-                rawData.put("pilotLon", pilotLon);
             }
             // Check for home location (primarily for DJI)
             if (sysMsg.has("home_lat")) {
                 String homeLat = String.valueOf(sysMsg.get("home_lat").getAsDouble());
                 cotMessage.setHomeLat(homeLat);
-                rawData.put("homeLat", homeLat);
             }
             if (sysMsg.has("home_lon")) {
                 String homeLon = String.valueOf(sysMsg.get("home_lon").getAsDouble());
                 cotMessage.setHomeLon(homeLon);
-                rawData.put("homeLon", homeLon);
             }
             // Additional system message data
             if (sysMsg.has("area_count")) {
                 String areaCount = String.valueOf(sysMsg.get("area_count").getAsInt());
                 cotMessage.setAreaCount(areaCount);
-                rawData.put("area_count", areaCount);
             }
             if (sysMsg.has("area_radius")) {
                 String areaRadius = String.valueOf(sysMsg.get("area_radius").getAsInt());
                 cotMessage.setAreaRadius(areaRadius);
-                rawData.put("area_radius", areaRadius);
             }
             if (sysMsg.has("area_ceiling")) {
                 String areaCeiling = String.valueOf(sysMsg.get("area_ceiling").getAsInt());
                 cotMessage.setAreaCeiling(areaCeiling);
-                rawData.put("area_ceiling", areaCeiling);
             }
             if (sysMsg.has("area_floor")) {
                 String areaFloor = String.valueOf(sysMsg.get("area_floor").getAsInt());
                 cotMessage.setAreaFloor(areaFloor);
-                rawData.put("area_floor", areaFloor);
             }
             if (sysMsg.has("operator_alt_geo")) {
                 String operatorAltGeo = String.valueOf(sysMsg.get("operator_alt_geo").getAsInt());
                 cotMessage.setOperatorAltGeo(operatorAltGeo);
-                rawData.put("operatorAltGeo", operatorAltGeo);
             }
             if (sysMsg.has("classification")) {
                 String classification = String.valueOf(sysMsg.get("classification").getAsInt());
                 cotMessage.setClassification(classification);
-                rawData.put("classification", classification);
             }
         }
 
@@ -562,27 +575,22 @@ public class XMLParser {
             if (authMsg.has("type")) {
                 String authType = String.valueOf(authMsg.get("type").getAsInt());
                 cotMessage.setAuthType(authType);
-                rawData.put("authType", authType);
             }
             if (authMsg.has("page")) {
                 String authPage = String.valueOf(authMsg.get("page").getAsInt());
                 cotMessage.setAuthPage(authPage);
-                rawData.put("authPage", authPage);
             }
             if (authMsg.has("length")) {
                 String authLength = String.valueOf(authMsg.get("length").getAsInt());
                 cotMessage.setAuthLength(authLength);
-                rawData.put("authLength", authLength);
             }
             if (authMsg.has("timestamp")) {
                 String authTimestamp = String.valueOf(authMsg.get("timestamp").getAsLong());
                 cotMessage.setAuthTimestamp(authTimestamp);
-                rawData.put("authTimestamp", authTimestamp);
             }
             if (authMsg.has("data")) {
                 String authData = authMsg.get("data").getAsString();
                 cotMessage.setAuthData(authData);
-                rawData.put("authData", authData);
             }
         }
 
@@ -590,23 +598,17 @@ public class XMLParser {
         if (json.has("index")) {
             String index = String.valueOf(json.get("index").getAsInt());
             cotMessage.setIndex(index);
-            rawData.put("index", index);
         }
         if (json.has("runtime")) {
             String runtime = String.valueOf(json.get("runtime").getAsInt());
             cotMessage.setRuntime(runtime);
-            rawData.put("runtime", runtime);
         }
 
         // Check if we have any signal source info to add
         if (cotMessage.getMac() != null && !cotMessage.getMac().isEmpty() && cotMessage.getRssi() != null) {
             long timestamp = System.currentTimeMillis();
-            try {
-                if (cotMessage.getTimestamp() != null) {
-                    timestamp = Long.parseLong(cotMessage.getTimestamp());
-                }
-            } catch (NumberFormatException e) {
-                // Use current timestamp as fallback
+            if (cotMessage.getTimestampMillis() != CoTTimeParser.UNPARSED) {
+                timestamp = cotMessage.getTimestampMillis();
             }
 
             CoTMessage.SignalSource source = new CoTMessage.SignalSource(
@@ -618,8 +620,6 @@ public class XMLParser {
             cotMessage.getSignalSources().add(source);
         }
 
-        // Store the raw data for future access
-        cotMessage.setRawMessage(rawData);
         result.cotMessage = cotMessage;
 
         return result;
@@ -628,7 +628,6 @@ public class XMLParser {
     private ParseResult parseDroneArrayFormat(JsonArray jsonArray) {
         ParseResult result = new ParseResult();
         CoTMessage cotMessage = new CoTMessage();
-        Map<String, Object> rawData = new HashMap<>();
 
         // Process each element in the array
         for (JsonElement element : jsonArray) {
@@ -642,32 +641,26 @@ public class XMLParser {
                 if (basicId.has("id")) {
                     String id = basicId.get("id").getAsString();
                     cotMessage.setUid(id);
-                    rawData.put("uid", id);
                 }
                 if (basicId.has("MAC")) {
                     String mac = basicId.get("MAC").getAsString();
                     cotMessage.setMac(mac);
-                    rawData.put("mac", mac);
 
                     // Detect manufacturer
                     String manufacturer = findManufacturer(mac);
                     cotMessage.setManufacturer(manufacturer);
-                    rawData.put("manufacturer", manufacturer);
                 }
                 if (basicId.has("RSSI")) {
                     Integer rssi = basicId.get("RSSI").getAsInt();
                     cotMessage.setRssi(rssi);
-                    rawData.put("rssi", rssi);
                 }
                 if (basicId.has("id_type")) {
                     String idType = basicId.get("id_type").getAsString();
                     cotMessage.setIdType(idType);
-                    rawData.put("idType", idType);
                 }
                 if (basicId.has("description")) {
                     String description = basicId.get("description").getAsString();
                     cotMessage.setDescription(description);
-                    rawData.put("description", description);
                 }
                 if (basicId.has("ua_type")) {
                     if (basicId.get("ua_type").isJsonPrimitive()) {
@@ -680,7 +673,6 @@ public class XMLParser {
                             String uaTypeStr = basicId.get("ua_type").getAsString();
                             cotMessage.setUaType(mapUATypeFromString(uaTypeStr));
                         }
-                        rawData.put("uaType", cotMessage.getUaType());
                     }
                 }
 
@@ -705,13 +697,10 @@ public class XMLParser {
                     JsonElement latElement = locationVector.get("latitude");
                     if (latElement.isJsonPrimitive()) {
                         if (latElement.getAsJsonPrimitive().isNumber()) {
-                            String lat = String.valueOf(latElement.getAsDouble());
-                            cotMessage.setLat(lat);
-                            rawData.put("lat", lat);
+                            cotMessage.setLat(latElement.getAsDouble());
                         } else {
                             String lat = latElement.getAsString();
                             cotMessage.setLat(lat);
-                            rawData.put("lat", lat);
                         }
                     }
                 }
@@ -721,13 +710,10 @@ public class XMLParser {
                     JsonElement lonElement = locationVector.get("longitude");
                     if (lonElement.isJsonPrimitive()) {
                         if (lonElement.getAsJsonPrimitive().isNumber()) {
-                            String lon = String.valueOf(lonElement.getAsDouble());
-                            cotMessage.setLon(lon);
-                            rawData.put("lon", lon);
+                            cotMessage.setLon(lonElement.getAsDouble());
                         } else {
                             String lon = lonElement.getAsString();
                             cotMessage.setLon(lon);
-                            rawData.put("lon", lon);
                         }
                     }
                 }
@@ -737,16 +723,9 @@ public class XMLParser {
                     JsonElement speedElement = locationVector.get("speed");
                     if (speedElement.isJsonPrimitive()) {
                         if (speedElement.getAsJsonPrimitive().isNumber()) {
-                            String speed = String.valueOf(speedElement.getAsDouble());
-                            cotMessage.setSpeed(speed);
-                            rawData.put("speed", speed);
+                            cotMessage.setSpeed(speedElement.getAsDouble());
                         } else {
-                            String speedStr = speedElement.getAsString();
-                            if (speedStr.contains(" ")) {
-                                speedStr = speedStr.split(" ")[0]; // Extract numeric part
-                            }
-                            cotMessage.setSpeed(speedStr);
-                            rawData.put("speed", speedStr);
+                            cotMessage.setSpeed(NumberScanner.parseDouble(speedElement.getAsString()));
                         }
                     }
                 }
@@ -756,16 +735,9 @@ public class XMLParser {
                     JsonElement vspeedElement = locationVector.get("vert_speed");
                     if (vspeedElement.isJsonPrimitive()) {
                         if (vspeedElement.getAsJsonPrimitive().isNumber()) {
-                            String vspeed = String.valueOf(vspeedElement.getAsDouble());
-                            cotMessage.setVspeed(vspeed);
-                            rawData.put("vspeed", vspeed);
+                            cotMessage.setVspeed(vspeedElement.getAsDouble());
                         } else {
-                            String vspeedStr = vspeedElement.getAsString();
-                            if (vspeedStr.contains(" ")) {
-                                vspeedStr = vspeedStr.split(" ")[0]; // Extract numeric part
-                            }
-                            cotMessage.setVspeed(vspeedStr);
-                            rawData.put("vspeed", vspeedStr);
+                            cotMessage.setVspeed(NumberScanner.parseDouble(vspeedElement.getAsString()));
                         }
                     }
                 }
@@ -775,16 +747,9 @@ public class XMLParser {
                     JsonElement altElement = locationVector.get("geodetic_altitude");
                     if (altElement.isJsonPrimitive()) {
                         if (altElement.getAsJsonPrimitive().isNumber()) {
-                            String alt = String.valueOf(altElement.getAsDouble());
-                            cotMessage.setAlt(alt);
-                            rawData.put("alt", alt);
+                            cotMessage.setAlt(altElement.getAsDouble());
                         } else {
-                            String altStr = altElement.getAsString();
-                            if (altStr.contains(" ")) {
-                                altStr = altStr.split(" ")[0]; // Extract numeric part
-                            }
-                            cotMessage.setAlt(altStr);
-                            rawData.put("alt", altStr);
+                            cotMessage.setAlt(NumberScanner.parseDouble(altElement.getAsString()));
                         }
                     }
                 }
@@ -794,16 +759,9 @@ public class XMLParser {
                     JsonElement heightElement = locationVector.get("height_agl");
                     if (heightElement.isJsonPrimitive()) {
                         if (heightElement.getAsJsonPrimitive().isNumber()) {
-                            String height = String.valueOf(heightElement.getAsDouble());
-                            cotMessage.setHeight(height);
-                            rawData.put("height", height);
+                            cotMessage.setHeight(heightElement.getAsDouble());
                         } else {
-                            String heightStr = heightElement.getAsString();
-                            if (heightStr.contains(" ")) {
-                                heightStr = heightStr.split(" ")[0]; // Extract numeric part
-                            }
-                            cotMessage.setHeight(heightStr);
-                            rawData.put("height", heightStr);
+                            cotMessage.setHeight(NumberScanner.parseDouble(heightElement.getAsString()));
                         }
                     }
                 }
@@ -815,11 +773,9 @@ public class XMLParser {
                         if (dirElement.getAsJsonPrimitive().isNumber()) {
                             String direction = String.valueOf(dirElement.getAsInt());
                             cotMessage.setDirection(direction);
-                            rawData.put("direction", direction);
                         } else {
                             String direction = dirElement.getAsString();
                             cotMessage.setDirection(direction);
-                            rawData.put("direction", direction);
                         }
                     }
                 }
@@ -828,69 +784,58 @@ public class XMLParser {
                 if (locationVector.has("protocol_version")) {
                     String protocol = locationVector.get("protocol_version").getAsString();
                     cotMessage.setLocationProtocol(protocol);
-                    rawData.put("location_protocol", protocol);
                 }
 
                 if (locationVector.has("op_status")) {
                     String opStatus = locationVector.get("op_status").getAsString();
                     cotMessage.setOpStatus(opStatus);
-                    rawData.put("op_status", opStatus);
                 }
 
                 if (locationVector.has("height_type")) {
                     String heightType = locationVector.get("height_type").getAsString();
                     cotMessage.setHeightType(heightType);
-                    rawData.put("height_type", heightType);
                 }
 
                 if (locationVector.has("ew_dir_segment")) {
                     String ewDirSegment = locationVector.get("ew_dir_segment").getAsString();
                     cotMessage.setEwDirSegment(ewDirSegment);
-                    rawData.put("ew_dir_segment", ewDirSegment);
                 }
 
                 if (locationVector.has("speed_multiplier")) {
                     String speedMultiplier = locationVector.get("speed_multiplier").getAsString();
                     cotMessage.setSpeedMultiplier(speedMultiplier);
-                    rawData.put("speed_multiplier", speedMultiplier);
                 }
 
                 // Process accuracy fields
                 if (locationVector.has("vertical_accuracy")) {
                     String verticalAccuracy = locationVector.get("vertical_accuracy").getAsString();
                     cotMessage.setVerticalAccuracy(verticalAccuracy);
-                    rawData.put("vertical_accuracy", verticalAccuracy);
                 }
 
                 if (locationVector.has("horizontal_accuracy")) {
                     String horizontalAccuracy = locationVector.get("horizontal_accuracy").getAsString();
                     cotMessage.setHorizontalAccuracy(horizontalAccuracy);
-                    rawData.put("horizontal_accuracy", horizontalAccuracy);
                 }
 
                 if (locationVector.has("baro_accuracy")) {
                     String baroAccuracy = locationVector.get("baro_accuracy").getAsString();
                     cotMessage.setBaroAccuracy(baroAccuracy);
-                    rawData.put("baro_accuracy", baroAccuracy);
                 }
 
                 if (locationVector.has("speed_accuracy")) {
                     String speedAccuracy = locationVector.get("speed_accuracy").getAsString();
                     cotMessage.setSpeedAccuracy(speedAccuracy);
-                    rawData.put("speed_accuracy", speedAccuracy);
                 }
 
                 // Process timestamp
                 if (locationVector.has("timestamp")) {
                     String timestamp = locationVector.get("timestamp").getAsString();
                     cotMessage.setTimestamp(timestamp);
-                    rawData.put("timestamp", timestamp);
                 }
 
                 if (locationVector.has("timestamp_accuracy")) {
                     String timestampAccuracy = locationVector.get("timestamp_accuracy").getAsString();
                     cotMessage.setTimestampAccuracy(timestampAccuracy);
-                    rawData.put("timestamp_accuracy", timestampAccuracy);
                 }
             }
 
@@ -900,27 +845,19 @@ public class XMLParser {
                 if (selfId.has("text")) {
                     String text = selfId.get("text").getAsString();
                     cotMessage.setSelfIDText(text);
-                    rawData.put("selfIDText", text);
                 }
 
                 if (selfId.has("text_type")) {
                     String selfIdType = selfId.get("text_type").getAsString();
                     cotMessage.setSelfIdType(selfIdType);
-                    rawData.put("selfIdType", selfIdType);
                 }
 
                 // In some formats, description might also be here
                 if (selfId.has("description")) {
                     String description = selfId.get("description").getAsString();
                     cotMessage.setDescription(description);
-                    rawData.put("description", description);
                 }
 
-                if (selfId.has("protocol_version")) {
-                    // Store protocol version if needed
-                    String protocolVersion = selfId.get("protocol_version").getAsString();
-                    rawData.put("selfIdProtocolVersion", protocolVersion);
-                }
             }
 
             // Process System Message (including operator location)
@@ -933,13 +870,10 @@ public class XMLParser {
                     JsonElement pilotLatElement = sysMsg.get("latitude");
                     if (pilotLatElement.isJsonPrimitive()) {
                         if (pilotLatElement.getAsJsonPrimitive().isNumber()) {
-                            String pilotLat = String.valueOf(pilotLatElement.getAsDouble());
-                            cotMessage.setPilotLat(pilotLat);
-                            rawData.put("pilotLat", pilotLat);
+                            cotMessage.setPilotLat(pilotLatElement.getAsDouble());
                         } else {
                             String pilotLat = pilotLatElement.getAsString();
                             cotMessage.setPilotLat(pilotLat);
-                            rawData.put("pilotLat", pilotLat);
                         }
                     }
                 }
@@ -948,13 +882,10 @@ public class XMLParser {
                     JsonElement pilotLonElement = sysMsg.get("longitude");
                     if (pilotLonElement.isJsonPrimitive()) {
                         if (pilotLonElement.getAsJsonPrimitive().isNumber()) {
-                            String pilotLon = String.valueOf(pilotLonElement.getAsDouble());
-                            cotMessage.setPilotLon(pilotLon);
-                            rawData.put("pilotLon", pilotLon);
+                            cotMessage.setPilotLon(pilotLonElement.getAsDouble());
                         } else {
                             String pilotLon = pilotLonElement.getAsString();
                             cotMessage.setPilotLon(pilotLon);
-                            rawData.put("pilotLon", pilotLon);
                         }
                     }
                 }
@@ -964,13 +895,10 @@ public class XMLParser {
                     JsonElement homeLatElement = sysMsg.get("home_lat");
                     if (homeLatElement.isJsonPrimitive()) {
                         if (homeLatElement.getAsJsonPrimitive().isNumber()) {
-                            String homeLat = String.valueOf(homeLatElement.getAsDouble());
-                            cotMessage.setHomeLat(homeLat);
-                            rawData.put("homeLat", homeLat);
+                            cotMessage.setHomeLat(homeLatElement.getAsDouble());
                         } else {
                             String homeLat = homeLatElement.getAsString();
                             cotMessage.setHomeLat(homeLat);
-                            rawData.put("homeLat", homeLat);
                         }
                     }
                 }
@@ -979,13 +907,10 @@ public class XMLParser {
                     JsonElement homeLonElement = sysMsg.get("home_lon");
                     if (homeLonElement.isJsonPrimitive()) {
                         if (homeLonElement.getAsJsonPrimitive().isNumber()) {
-                            String homeLon = String.valueOf(homeLonElement.getAsDouble());
-                            cotMessage.setHomeLon(homeLon);
-                            rawData.put("homeLon", homeLon);
+                            cotMessage.setHomeLon(homeLonElement.getAsDouble());
                         } else {
                             String homeLon = homeLonElement.getAsString();
                             cotMessage.setHomeLon(homeLon);
-                            rawData.put("homeLon", homeLon);
                         }
                     }
                 }
@@ -994,13 +919,11 @@ public class XMLParser {
                 if (sysMsg.has("operator_location_type")) {
                     String operatorLocationType = sysMsg.get("operator_location_type").getAsString();
                     cotMessage.setOperatorLocationType(operatorLocationType);
-                    rawData.put("operator_location_type", operatorLocationType);
                 }
 
                 if (sysMsg.has("classification_type")) {
                     String classificationType = sysMsg.get("classification_type").getAsString();
                     cotMessage.setClassificationType(classificationType);
-                    rawData.put("classification_type", classificationType);
                 }
 
                 if (sysMsg.has("area_count")) {
@@ -1008,7 +931,6 @@ public class XMLParser {
                     if (areaCountElement.isJsonPrimitive()) {
                         String areaCount = areaCountElement.getAsString();
                         cotMessage.setAreaCount(areaCount);
-                        rawData.put("area_count", areaCount);
                     }
                 }
 
@@ -1017,7 +939,6 @@ public class XMLParser {
                     if (areaRadiusElement.isJsonPrimitive()) {
                         String areaRadius = areaRadiusElement.getAsString();
                         cotMessage.setAreaRadius(areaRadius);
-                        rawData.put("area_radius", areaRadius);
                     }
                 }
 
@@ -1026,7 +947,6 @@ public class XMLParser {
                     if (areaCeilingElement.isJsonPrimitive()) {
                         String areaCeiling = areaCeilingElement.getAsString();
                         cotMessage.setAreaCeiling(areaCeiling);
-                        rawData.put("area_ceiling", areaCeiling);
                     }
                 }
 
@@ -1035,7 +955,6 @@ public class XMLParser {
                     if (areaFloorElement.isJsonPrimitive()) {
                         String areaFloor = areaFloorElement.getAsString();
                         cotMessage.setAreaFloor(areaFloor);
-                        rawData.put("area_floor", areaFloor);
                     }
                 }
 
@@ -1045,16 +964,9 @@ public class XMLParser {
                         // Use this if we don't already have an altitude
                         if (cotMessage.getAlt() == null || cotMessage.getAlt().isEmpty()) {
                             if (altElement.getAsJsonPrimitive().isNumber()) {
-                                String alt = String.valueOf(altElement.getAsDouble());
-                                cotMessage.setAlt(alt);
-                                rawData.put("alt", alt);
+                                cotMessage.setAlt(altElement.getAsDouble());
                             } else {
-                                String altStr = altElement.getAsString();
-                                if (altStr.contains(" ")) {
-                                    altStr = altStr.split(" ")[0];
-                                }
-                                cotMessage.setAlt(altStr);
-                                rawData.put("alt", altStr);
+                                cotMessage.setAlt(NumberScanner.parseDouble(altElement.getAsString()));
                             }
                         }
                     }
@@ -1066,11 +978,9 @@ public class XMLParser {
                         if (sysMsg.has("timestamp_raw")) {
                             String timestamp = String.valueOf(sysMsg.get("timestamp_raw").getAsLong());
                             cotMessage.setTimestamp(timestamp);
-                            rawData.put("timestamp", timestamp);
                         } else {
                             String timestamp = sysMsg.get("timestamp").getAsString();
                             cotMessage.setTimestamp(timestamp);
-                            rawData.put("timestamp", timestamp);
                         }
                     }
                 }
@@ -1082,17 +992,10 @@ public class XMLParser {
                 if (opIdMsg.has("operator_id")) {
                     String operatorId = opIdMsg.get("operator_id").getAsString();
                     cotMessage.setOperatorId(operatorId);
-                    rawData.put("operator_id", operatorId);
                 }
                 if (opIdMsg.has("operator_id_type")) {
                     String operatorIdType = opIdMsg.get("operator_id_type").getAsString();
                     cotMessage.setOperatorIdType(operatorIdType);
-                    rawData.put("operator_id_type", operatorIdType);
-                }
-                if (opIdMsg.has("protocol_version")) {
-                    // Store protocol version if needed
-                    String protocolVersion = opIdMsg.get("protocol_version").getAsString();
-                    rawData.put("operatorIdProtocolVersion", protocolVersion);
                 }
             }
 
@@ -1105,42 +1008,29 @@ public class XMLParser {
                 if (authMsg.has("auth_type")) {
                     String authType = authMsg.get("auth_type").getAsString();
                     cotMessage.setAuthType(authType);
-                    rawData.put("authType", authType);
                 }
                 if (authMsg.has("page_number")) {
                     String authPage = String.valueOf(authMsg.get("page_number").getAsInt());
                     cotMessage.setAuthPage(authPage);
-                    rawData.put("authPage", authPage);
                 }
                 if (authMsg.has("last_page_index")) {
                     String authLength = String.valueOf(authMsg.get("last_page_index").getAsInt());
                     cotMessage.setAuthLength(authLength);
-                    rawData.put("authLength", authLength);
                 }
                 if (authMsg.has("timestamp_raw")) {
                     String authTimestamp = String.valueOf(authMsg.get("timestamp_raw").getAsLong());
                     cotMessage.setAuthTimestamp(authTimestamp);
-                    rawData.put("authTimestamp", authTimestamp);
                 } else if (authMsg.has("timestamp")) {
                     String authTimestamp = authMsg.get("timestamp").getAsString();
                     cotMessage.setAuthTimestamp(authTimestamp);
-                    rawData.put("authTimestamp", authTimestamp);
                 }
                 if (authMsg.has("auth_data")) {
                     String authData = authMsg.get("auth_data").getAsString();
                     cotMessage.setAuthData(authData);
-                    rawData.put("authData", authData);
-                }
-                if (authMsg.has("protocol_version")) {
-                    // Store protocol version if needed
-                    String protocolVersion = authMsg.get("protocol_version").getAsString();
-                    rawData.put("authProtocolVersion", protocolVersion);
                 }
             }
         }
 
-        // Store the raw data for future access
-        cotMessage.setRawMessage(rawData);
         result.cotMessage = cotMessage;
 
         return result;
@@ -1152,8 +1042,6 @@ public class XMLParser {
 
         String currentElement = "";
         ArrayList<String> elementStack = new ArrayList<>();
-        Map<String, String> eventAttributes = new HashMap<>();
-        Map<String, String> pointAttributes = new HashMap<>();
         String remarks = "";
         boolean isStatusNode = false;
 
@@ -1162,7 +1050,6 @@ public class XMLParser {
             int eventType = parser.getEventType();
 
             CoTMessage cotMessage = new CoTMessage();
-            Map<String, Object> rawData = new HashMap<>();
 
             while (eventType != XmlPullParser.END_DOCUMENT) {
                 switch (eventType) {
@@ -1174,7 +1061,6 @@ public class XMLParser {
                             for (int i = 0; i < parser.getAttributeCount(); i++) {
                                 String attrName = parser.getAttributeName(i);
                                 String attrValue = parser.getAttributeValue(i);
-                                eventAttributes.put(attrName, attrValue);
 
                                 // Check if this is a status node based on type
                                 if (attrName.equals("type") && attrValue.equals("b-m-p-s-m")) {
@@ -1190,27 +1076,21 @@ public class XMLParser {
                                             uid = uid.substring(6);
                                         }
                                         cotMessage.setUid(uid);
-                                        rawData.put("uid", uid);
                                     }
                                     case "time" -> {
                                         cotMessage.setTime(attrValue);
-                                        rawData.put("time", attrValue);
                                     }
                                     case "start" -> {
                                         cotMessage.setStart(attrValue);
-                                        rawData.put("start", attrValue);
                                     }
                                     case "stale" -> {
                                         cotMessage.setStale(attrValue);
-                                        rawData.put("stale", attrValue);
                                     }
                                     case "how" -> {
                                         cotMessage.setHow(attrValue);
-                                        rawData.put("how", attrValue);
                                     }
                                     case "type" -> {
                                         cotMessage.setType(attrValue);
-                                        rawData.put("type", attrValue);
                                     }
                                 }
                             }
@@ -1218,31 +1098,24 @@ public class XMLParser {
                             for (int i = 0; i < parser.getAttributeCount(); i++) {
                                 String attrName = parser.getAttributeName(i);
                                 String attrValue = parser.getAttributeValue(i);
-                                pointAttributes.put(attrName, attrValue);
 
                                 // Extract location from point attributes
                                 switch (attrName) {
                                     case "lat" -> {
                                         cotMessage.setLat(attrValue);
-                                        rawData.put("lat", attrValue);
                                     }
                                     case "lon" -> {
                                         cotMessage.setLon(attrValue);
-                                        rawData.put("lon", attrValue);
                                     }
                                     case "hae" -> {
                                         cotMessage.setAlt(attrValue);
-                                        rawData.put("alt", attrValue);
                                         cotMessage.setHae(attrValue);
-                                        rawData.put("hae", attrValue);
                                     }
                                     case "ce" -> {
                                         cotMessage.setCe(attrValue);
-                                        rawData.put("ce", attrValue);
                                     }
                                     case "le" -> {
                                         cotMessage.setLe(attrValue);
-                                        rawData.put("le", attrValue);
                                     }
                                 }
                             }
@@ -1259,7 +1132,7 @@ public class XMLParser {
                     case XmlPullParser.END_TAG:
                         if (parser.getName().equals("remarks") && !remarks.isEmpty()) {
                             // Parse remarks for additional data
-                            parseRemarks(remarks, cotMessage, rawData);
+                            parseRemarks(remarks, cotMessage);
 
                             // Check if this contains status information
                             if (remarks.contains("CPU Usage:") || remarks.contains("Memory Total:") ||
@@ -1274,9 +1147,6 @@ public class XMLParser {
                 eventType = parser.next();
             }
 
-            // Store the raw data and finalize the CoT message
-            cotMessage.setRawMessage(rawData);
-
             // Only set the cotMessage in result if this is not a status node
             if (!isStatusNode || result.statusMessage == null) {
                 result.cotMessage = cotMessage;
@@ -1290,7 +1160,7 @@ public class XMLParser {
         return result;
     }
 
-    private void parseRemarks(String remarks, CoTMessage cotMessage, Map<String, Object> rawData) {
+    private void parseRemarks(String remarks, CoTMessage cotMessage) {
         if (remarks == null || remarks.isEmpty()) return;
 
         // Extract MAC address
@@ -1301,12 +1171,10 @@ public class XMLParser {
             String mac = remarks.substring(macStart, macEnd).trim();
             if (!mac.equals("None")) {
                 cotMessage.setMac(mac);
-                rawData.put("mac", mac);
 
                 // Detect manufacturer
                 String manufacturer = findManufacturer(mac);
                 cotMessage.setManufacturer(manufacturer);
-                rawData.put("manufacturer", manufacturer);
             }
         }
 
@@ -1315,25 +1183,20 @@ public class XMLParser {
             int rssiStart = remarks.indexOf("RSSI:") + 5;
             int rssiEnd = remarks.indexOf("dBm", rssiStart);
             if (rssiEnd > rssiStart) {
-                String rssiStr = remarks.substring(rssiStart, rssiEnd).trim();
-                if (!rssiStr.equals("None")) {
-                    try {
-                        Integer rssi = Integer.parseInt(rssiStr);
-                        cotMessage.setRssi(rssi);
-                        rawData.put("rssi", rssi);
-
-                        // Add signal source if we have MAC
-                        if (cotMessage.getMac() != null && !cotMessage.getMac().isEmpty()) {
-                            CoTMessage.SignalSource source = new CoTMessage.SignalSource(
-                                    cotMessage.getMac(),
-                                    cotMessage.getRssi(),
-                                    CoTMessage.SignalSource.SignalType.UNKNOWN, // Can't determine from XML
-                                    System.currentTimeMillis()
-                            );
-                            cotMessage.getSignalSources().add(source);
-                        }
-                    } catch (NumberFormatException e) {
-                        Log.e(TAG, "Failed to parse RSSI: " + rssiStr);
+                // "None" and other non-numeric values come back as the fallback
+                int rssi = NumberScanner.parseInt(remarks, rssiStart, rssiEnd, Integer.MIN_VALUE);
+                if (rssi != Integer.MIN_VALUE) {
+                    cotMessage.setRssi(rssi);
+
+                    // Add signal source if we have MAC
+                    if (cotMessage.getMac() != null && !cotMessage.getMac().isEmpty()) {
+                        CoTMessage.SignalSource source = new CoTMessage.SignalSource(
+                                cotMessage.getMac(),
+                                cotMessage.getRssi(),
+                                CoTMessage.SignalSource.SignalType.UNKNOWN, // Can't determine from XML
+                                System.currentTimeMillis()
+                        );
+                        cotMessage.getSignalSources().add(source);
                     }
                 }
             }
@@ -1348,7 +1211,6 @@ public class XMLParser {
 
             String selfId = remarks.substring(selfIdStart, selfIdEnd).trim();
             cotMessage.setSelfIDText(selfId);
-            rawData.put("selfIDText", selfId);
         }
 
         // Extract description if not already set
@@ -1358,7 +1220,6 @@ public class XMLParser {
             if (descEnd == -1) descEnd = remarks.length();
             String description = remarks.substring(descStart, descEnd).trim();
             cotMessage.setDescription(description);
-            rawData.put("description", description);
         }
 
         // Extract Location/Vector data
@@ -1375,7 +1236,6 @@ public class XMLParser {
                     if (speedEnd > speedStart) {
                         String speed = locData.substring(speedStart, speedEnd).trim();
                         cotMessage.setSpeed(speed);
-                        rawData.put("speed", speed);
                     }
                 }
 
@@ -1386,7 +1246,6 @@ public class XMLParser {
                     if (vSpeedEnd > vSpeedStart) {
                         String vspeed = locData.substring(vSpeedStart, vSpeedEnd).trim();
                         cotMessage.setVspeed(vspeed);
-                        rawData.put("vspeed", vspeed);
                     }
                 }
 
@@ -1397,7 +1256,6 @@ public class XMLParser {
                     if (altEnd > altStart) {
                         String alt = locData.substring(altStart, altEnd).trim();
                         cotMessage.setAlt(alt);
-                        rawData.put("alt", alt);
                     }
                 }
 
@@ -1408,7 +1266,6 @@ public class XMLParser {
                     if (heightEnd > heightStart) {
                         String height = locData.substring(heightStart, heightEnd).trim();
                         cotMessage.setHeight(height);
-                        rawData.put("height", height);
                     }
                 }
             }
@@ -1429,7 +1286,6 @@ public class XMLParser {
                     if (opLatEnd > opLatStart) {
                         String pilotLat = sysData.substring(opLatStart, opLatEnd).trim();
                         cotMessage.setPilotLat(pilotLat);
-                        rawData.put("pilotLat", pilotLat);
                     }
                 }
 
@@ -1442,7 +1298,6 @@ public class XMLParser {
                     if (opLonEnd > opLonStart) {
                         String pilotLon = sysData.substring(opLonStart, opLonEnd).trim();
                         cotMessage.setPilotLon(pilotLon);
-                        rawData.put("pilotLon", pilotLon);
                     }
                 }
 
@@ -1454,7 +1309,6 @@ public class XMLParser {
                     if (homeLatEnd > homeLatStart) {
                         String homeLat = sysData.substring(homeLatStart, homeLatEnd).trim();
                         cotMessage.setHomeLat(homeLat);
-                        rawData.put("homeLat", homeLat);
                     }
                 }
 
@@ -1467,7 +1321,6 @@ public class XMLParser {
                     if (homeLonEnd > homeLonStart) {
                         String homeLon = sysData.substring(homeLonStart, homeLonEnd).trim();
                         cotMessage.setHomeLon(homeLon);
-                        rawData.put("homeLon", homeLon);
                     }
                 }
             }
@@ -2,15 +2,11 @@ package com.rootdown.dragonsync.network;
 
 import android.util.Log;
 
-import org.json.JSONObject;
-import org.xmlpull.v1.XmlPullParser;
-import org.xmlpull.v1.XmlPullParserFactory;
 import org.zeromq.SocketType;
 import org.zeromq.ZContext;
 import org.zeromq.ZMQ;
 import org.zeromq.ZMQException;
 
-import java.io.StringReader;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -130,10 +126,7 @@ public class ZMQHandler {
                             String message = new String(data);
                             Log.d(TAG, socketType + " received: " + message.substring(0, Math.min(50, message.length())) + "...");
 
-                            if (message.trim().startsWith("<?xml")) {
-                                message = convertXmlToJson(message);
-                            }
-
+                            // XML is passed through as-is; the parser splits batched <event>s
                             if (handler != null) {
                                 handler.onMessage(message);
                             }
@@ -168,39 +161,6 @@ public class ZMQHandler {
         });
     }
 
-    // New function to convert XML to JSON using XmlPullParser
-    private String convertXmlToJson(String xmlString) {
-        try {
-            XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
-            factory.setNamespaceAware(true);
-            XmlPullParser parser = factory.newPullParser();
-            parser.setInput(new StringReader(xmlString));
-            JSONObject json = new JSONObject();
-            String currentTag = null;
-            int eventType = parser.getEventType();
-            while (eventType != XmlPullParser.END_DOCUMENT) {
-                if (eventType == XmlPullParser.START_TAG) {
-                    currentTag = parser.getName();
-                } else if (eventType == XmlPullParser.TEXT) {
-                    if (currentTag != null) {
-                        String text = parser.getText().trim();
-                        if (!text.isEmpty()) {
-                            json.put(currentTag, text);
-                        }
-                    }
-                } else if (eventType == XmlPullParser.END_TAG) {
-                    currentTag = null;
-                }
-                eventType = parser.next();
-            }
-            return json.toString();
-        } catch (Exception e) {
-            Log.e(TAG, "Error converting XML to JSON: " + e.getMessage(), e);
-            return "{}";
-        }
-    }
-
-
     public void sendServiceCommand(String command, CommandCallback callback) {
         if (statusSocket == null || !isConnected.get()) {
             callback.onResult(false, "Not connected");
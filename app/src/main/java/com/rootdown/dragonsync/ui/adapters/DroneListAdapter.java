@@ -21,18 +21,24 @@ import com.google.android.gms.maps.model.MarkerOptions;
 import com.rootdown.dragonsync.R;
 import com.rootdown.dragonsync.models.CoTMessage;
 import com.rootdown.dragonsync.models.DroneSignature;
+import com.rootdown.dragonsync.utils.CoTTimeParser;
 import com.rootdown.dragonsync.utils.Constants;
+import com.rootdown.dragonsync.utils.MacHistory;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 public class DroneListAdapter extends RecyclerView.Adapter<DroneListAdapter.ViewHolder> {
     private List<CoTMessage> messages = new ArrayList<>();
+    private Map<String, MacHistory> macHistory = Collections.emptyMap();
+    private Set<String> lostContactUids = Collections.emptySet();
     private OnDroneClickListener listener;
     private Context context;
 
@@ -180,47 +186,32 @@ public class DroneListAdapter extends RecyclerView.Adapter<DroneListAdapter.View
         }
 
         // Set position
-        if (message.getCoordinate() != null) {
+        if (message.hasCoordinate()) {
             holder.position.setText(String.format(Locale.US, "%.6f, %.6f",
-                    message.getCoordinate().getLatitude(),
-                    message.getCoordinate().getLongitude()));
+                    message.getLatValue(),
+                    message.getLonValue()));
         } else {
             holder.position.setText("Unknown");
         }
 
         // Set altitude
-        if (message.getAlt() != null && !message.getAlt().isEmpty()) {
-            try {
-                double alt = Double.parseDouble(message.getAlt());
-                holder.altitude.setText(String.format(Locale.US, "%.1fm", alt));
-            } catch (NumberFormatException e) {
-                holder.altitude.setText("—");
-            }
+        if (!Double.isNaN(message.getAltValue())) {
+            holder.altitude.setText(String.format(Locale.US, "%.1fm", message.getAltValue()));
         } else {
             holder.altitude.setText("—");
         }
 
         // Set speed
-        if (message.getSpeed() != null && !message.getSpeed().isEmpty()) {
-            try {
-                double speed = Double.parseDouble(message.getSpeed());
-                holder.speed.setText(String.format(Locale.US, "%.1fm/s", speed));
-            } catch (NumberFormatException e) {
-                holder.speed.setText("—");
-            }
+        if (!Double.isNaN(message.getSpeedValue())) {
+            holder.speed.setText(String.format(Locale.US, "%.1fm/s", message.getSpeedValue()));
         } else {
             holder.speed.setText("—");
         }
 
         // Set pilot location
-        if (message.getPilotLat() != null && message.getPilotLon() != null) {
-            try {
-                double lat = Double.parseDouble(message.getPilotLat());
-                double lon = Double.parseDouble(message.getPilotLon());
-                holder.pilotLocation.setText(String.format(Locale.US, "%.2f, %.2f", lat, lon));
-            } catch (NumberFormatException e) {
-                holder.pilotLocation.setText("—");
-            }
+        if (!Double.isNaN(message.getPilotLatValue()) && !Double.isNaN(message.getPilotLonValue())) {
+            holder.pilotLocation.setText(String.format(Locale.US, "%.2f, %.2f",
+                    message.getPilotLatValue(), message.getPilotLonValue()));
         } else {
             holder.pilotLocation.setText("—");
         }
@@ -248,19 +239,21 @@ public class DroneListAdapter extends RecyclerView.Adapter<DroneListAdapter.View
         }
 
         // Set timestamp
-        if (message.getTimestamp() != null && !message.getTimestamp().isEmpty()) {
-            try {
-                long timestamp = Long.parseLong(message.getTimestamp());
-                Date date = new Date(timestamp);
-                SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss", Locale.getDefault());
-                holder.timestamp.setText("Last seen: " + sdf.format(date));
-            } catch (NumberFormatException e) {
-                holder.timestamp.setText("Last seen: Unknown");
-            }
+        if (message.getTimestampMillis() != CoTTimeParser.UNPARSED) {
+            Date date = new Date(message.getTimestampMillis());
+            SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss", Locale.getDefault());
+            holder.timestamp.setText("Last seen: " + sdf.format(date));
         } else {
             holder.timestamp.setText("Last seen: Unknown");
         }
 
+        // A drone past its stale time stays listed, faded, until it is removed
+        boolean lostContact = message.getUid() != null && lostContactUids.contains(message.getUid());
+        holder.itemView.setAlpha(lostContact ? Constants.LOST_CONTACT_ALPHA : 1f);
+        if (lostContact) {
+            holder.timestamp.setText("Lost contact · " + holder.timestamp.getText());
+        }
+
         // Setup MAC randomization warning
         setupMacRandomizationWarning(holder, message);
 
@@ -385,9 +378,9 @@ public class DroneListAdapter extends RecyclerView.Adapter<DroneListAdapter.View
                 holder.macWarningSeparator.setVisibility(View.VISIBLE);
             }
 
-            Set<String> macs = getMacHistoryForDrone(message.getUid());
+            MacHistory macs = getMacHistoryForDrone(message.getUid());
             if (macs != null && holder.macListContainer != null) {
-                for (String mac : macs) {
+                for (String mac : macs.getMacStrings()) {
                     TextView macView = new TextView(context);
                     macView.setText("• " + mac);
                     macView.setTextColor(ContextCompat.getColor(context, R.color.on_surface_medium));
@@ -411,14 +404,12 @@ public class DroneListAdapter extends RecyclerView.Adapter<DroneListAdapter.View
             return false;
         }
 
-        Set<String> macs = getMacHistoryForDrone(message.getUid());
-        return macs != null && macs.size() > 1;
+        MacHistory macs = getMacHistoryForDrone(message.getUid());
+        return macs != null && macs.getTotalSeen() > 1;
     }
 
-    private Set<String> getMacHistoryForDrone(String uid) {
-        // TODO: Implement MAC history tracking
-        // This should connect to your MAC history tracking system
-        return null;
+    private MacHistory getMacHistoryForDrone(String uid) {
+        return uid != null ? macHistory.get(uid) : null;
     }
 
     @Override
@@ -430,4 +421,14 @@ public class DroneListAdapter extends RecyclerView.Adapter<DroneListAdapter.View
         this.messages = newMessages;
         notifyDataSetChanged();
     }
+
+    public void updateMacHistory(Map<String, MacHistory> macHistory) {
+        this.macHistory = macHistory != null ? macHistory : Collections.<String, MacHistory>emptyMap();
+        notifyDataSetChanged();
+    }
+
+    public void updateLostContact(Set<String> lostContactUids) {
+        this.lostContactUids = lostContactUids != null ? lostContactUids : Collections.<String>emptySet();
+        notifyDataSetChanged();
+    }
 }
\ No newline at end of file
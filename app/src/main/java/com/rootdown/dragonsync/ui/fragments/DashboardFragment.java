@@ -272,6 +272,9 @@ public class DashboardFragment extends Fragment {
                         getString(R.string.drone_count_tracked, count)));
 
 
+        cotViewModel.getMacHistory().observe(getViewLifecycleOwner(), droneListAdapter::updateMacHistory);
+        cotViewModel.getLostContactUids().observe(getViewLifecycleOwner(), droneListAdapter::updateLostContact);
+
         cotViewModel.getParsedMessages().observe(getViewLifecycleOwner(), messages -> {
             updateDroneMetrics(messages);
 
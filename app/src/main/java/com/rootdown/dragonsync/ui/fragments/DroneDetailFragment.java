@@ -26,19 +26,23 @@ import com.google.android.gms.maps.model.Gap;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.android.gms.maps.model.PolygonOptions;
 import com.google.android.gms.maps.model.PolylineOptions;
 import com.google.android.material.card.MaterialCardView;
 import com.rootdown.dragonsync.R;
 import com.rootdown.dragonsync.models.CoTMessage;
+import com.rootdown.dragonsync.models.DroneSignature;
+import com.rootdown.dragonsync.utils.CoTTimeParser;
 import com.rootdown.dragonsync.utils.Constants;
+import com.rootdown.dragonsync.utils.MacHistory;
+import com.rootdown.dragonsync.utils.TrackHistory;
+import com.rootdown.dragonsync.utils.TrackHistoryStore;
 import com.rootdown.dragonsync.viewmodels.CoTViewModel;
 
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
 
 public class DroneDetailFragment extends Fragment implements OnMapReadyCallback {
 	private CoTMessage message;
@@ -142,16 +146,11 @@ public class DroneDetailFragment extends Fragment implements OnMapReadyCallback
 		}
 
 		// Last seen (timestamp)
-		if (message.getTimestamp() != null && !message.getTimestamp().isEmpty()) {
-			try {
-				long timestamp = Long.parseLong(message.getTimestamp());
-				Date date = new Date(timestamp);
-				SimpleDateFormat sdf = new SimpleDateFormat(
-						getString(R.string.timestamp_format_pattern), Locale.getDefault());
-				lastSeen.setText(sdf.format(date));
-			} catch (NumberFormatException e) {
-				lastSeen.setText(getString(R.string.timestamp_unknown));
-			}
+		if (message.getTimestampMillis() != CoTTimeParser.UNPARSED) {
+			Date date = new Date(message.getTimestampMillis());
+			SimpleDateFormat sdf = new SimpleDateFormat(
+					getString(R.string.timestamp_format_pattern), Locale.getDefault());
+			lastSeen.setText(sdf.format(date));
 		} else {
 			lastSeen.setText(getString(R.string.timestamp_unknown));
 		}
@@ -200,36 +199,31 @@ public class DroneDetailFragment extends Fragment implements OnMapReadyCallback
 		TextView altitude = view.findViewById(R.id.altitude);
 		TextView speed = view.findViewById(R.id.speed);
 
-		if (message.getCoordinate() != null) {
+		if (message.hasCoordinate() && message.isLocationEstimated()) {
+			position.setText(String.format(Locale.US, "Lat: %.6f, Lon: %.6f\n%s",
+					message.getLatValue(),
+					message.getLonValue(),
+					EstimateEllipse.describe(message)));
+		} else if (message.hasCoordinate()) {
 			position.setText(String.format(Locale.US, "Lat: %.6f, Lon: %.6f",
-					message.getCoordinate().getLatitude(),
-					message.getCoordinate().getLongitude()));
+					message.getLatValue(),
+					message.getLonValue()));
 		} else {
 			position.setText("Position unknown");
 		}
 
 		// Altitude
-		if (message.getAlt() != null && !message.getAlt().isEmpty()) {
-			try {
-				double altValue = Double.parseDouble(message.getAlt());
-				altitude.setText(String.format(Locale.US, "Altitude: %.1f m MSL", altValue));
-				altitude.setVisibility(View.VISIBLE);
-			} catch (NumberFormatException e) {
-				altitude.setVisibility(View.GONE);
-			}
+		if (!Double.isNaN(message.getAltValue())) {
+			altitude.setText(String.format(Locale.US, "Altitude: %.1f m MSL", message.getAltValue()));
+			altitude.setVisibility(View.VISIBLE);
 		} else {
 			altitude.setVisibility(View.GONE);
 		}
 
 		// Speed
-		if (message.getSpeed() != null && !message.getSpeed().isEmpty()) {
-			try {
-				double speedValue = Double.parseDouble(message.getSpeed());
-				speed.setText(String.format(Locale.US, "Speed: %.1f m/s", speedValue));
-				speed.setVisibility(View.VISIBLE);
-			} catch (NumberFormatException e) {
-				speed.setVisibility(View.GONE);
-			}
+		if (!Double.isNaN(message.getSpeedValue())) {
+			speed.setText(String.format(Locale.US, "Speed: %.1f m/s", message.getSpeedValue()));
+			speed.setVisibility(View.VISIBLE);
 		} else {
 			speed.setVisibility(View.GONE);
 		}
@@ -273,6 +267,10 @@ public class DroneDetailFragment extends Fragment implements OnMapReadyCallback
                     String.format("Lat: %s, Lon: %s", message.getLat(), message.getLon()));
         }
 
+        if (message.isLocationEstimated()) {
+            addDetailRow(technicalDetailsContainer, "Location Source", EstimateEllipse.describe(message));
+        }
+
         if (message.getAlt() != null) {
             addDetailRow(technicalDetailsContainer, "Altitude", message.getAlt() + " m");
         }
@@ -407,8 +405,71 @@ public class DroneDetailFragment extends Fragment implements OnMapReadyCallback
             }
         }
 
+        // Recorded samples for this drone
+        TrackHistory history = TrackHistoryStore.getInstance().get(message.getUid());
+        if (history != null && history.size() > 0) {
+            addDetailCategory(technicalDetailsContainer, "Track History");
+            addDetailRow(technicalDetailsContainer, "Samples",
+                    history.size() + " / " + history.getCapacity());
+            addDetailRow(technicalDetailsContainer, "Tracked For",
+                    ((history.getLastTimeMillis() - history.getFirstTimeMillis()) / 1000) + " s");
+            addDetailRow(technicalDetailsContainer, "History Memory",
+                    String.format(Locale.US, "%.1f KB", history.getMemoryBytes() / 1024.0));
+
+            long lastMillis = history.getLastTimeMillis();
+            RssiRange recent = new RssiRange();
+            history.forEachInRange(lastMillis - Constants.RECENT_SIGNAL_WINDOW_MS, lastMillis, recent);
+            if (recent.count > 0) {
+                addDetailRow(technicalDetailsContainer, "RSSI Last Minute",
+                        String.format(Locale.US, "min %.0f / avg %.0f / max %.0f dBm",
+                                recent.min, recent.sum / recent.count, recent.max));
+            }
+        }
+
+        // Running flight statistics for this drone
+        DroneSignature signature = viewModel != null ? viewModel.getSignature(message.getUid()) : null;
+        if (signature != null && signature.getMovement() != null) {
+            DroneSignature.MovementVector movement = signature.getMovement();
+            addDetailCategory(technicalDetailsContainer, "Flight Signature");
+            if (!Double.isNaN(movement.getGroundSpeed())) {
+                addDetailRow(technicalDetailsContainer, "Ground Speed",
+                        String.format(Locale.US, "%.1f m/s", movement.getGroundSpeed()));
+            }
+            if (!Double.isNaN(movement.getHeading())) {
+                addDetailRow(technicalDetailsContainer, "Heading",
+                        String.format(Locale.US, "%.0f°", movement.getHeading()));
+            }
+            if (movement.getClimbRate() != null) {
+                addDetailRow(technicalDetailsContainer, "Climb Rate",
+                        String.format(Locale.US, "%.1f m/s", movement.getClimbRate()));
+            }
+            if (movement.getTurnRate() != null) {
+                addDetailRow(technicalDetailsContainer, "Turn Rate",
+                        String.format(Locale.US, "%.1f°/s", movement.getTurnRate()));
+            }
+            if (signature.getMessageInterval() != null) {
+                addDetailRow(technicalDetailsContainer, "Message Interval",
+                        String.format(Locale.US, "%.2f s", signature.getMessageInterval()));
+            }
+            addDetailRow(technicalDetailsContainer, "Messages", String.valueOf(signature.getMessageCount()));
+
+            DroneSignature.BroadcastPattern pattern = signature.getBroadcastPattern();
+            if (pattern != null && pattern.getIntervalPattern().size() > 1) {
+                addDetailRow(technicalDetailsContainer, "Broadcast Consistency",
+                        String.format(Locale.US, "%.0f%%", pattern.getConsistency() * 100));
+            }
+            if (pattern != null && !pattern.getMessageSequence().isEmpty()) {
+                StringBuilder sequence = new StringBuilder();
+                for (DroneSignature.TransmissionInfo.MessageType type : pattern.getMessageSequence()) {
+                    if (sequence.length() > 0) sequence.append(", ");
+                    sequence.append(type.getDisplayName());
+                }
+                addDetailRow(technicalDetailsContainer, "Recent Transports", sequence.toString());
+            }
+        }
+
         // Raw message data if available
-        if (message.getRawMessage() != null && !message.getRawMessage().isEmpty()) {
+        if (!message.getRawMessage().isEmpty()) {
             addDetailCategory(technicalDetailsContainer, "Raw Message Data");
 
             // Show some key fields from raw data
@@ -473,30 +534,39 @@ public class DroneDetailFragment extends Fragment implements OnMapReadyCallback
         container.addView(divider);
     }
 
+    // Min, mean and max RSSI of the samples it visits
+    private static final class RssiRange implements TrackHistory.SampleVisitor {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        double sum;
+        int count;
+
+        @Override
+        public void visit(double lat, double lon, float alt, float speed, float rssi, long timeMillis) {
+            if (Float.isNaN(rssi)) return;
+            min = Math.min(min, rssi);
+            max = Math.max(max, rssi);
+            sum += rssi;
+            count++;
+        }
+    }
+
 	private void setupMacRandomizationWarning(View view) {
 		MaterialCardView macWarning = view.findViewById(R.id.mac_warning_card);
 		TextView macList = view.findViewById(R.id.mac_list);
 
-		if (viewModel != null && viewModel.getMacHistory().getValue() != null) {
-			String uid = message.getUid();
-			Map<String, Set<String>> macHistory = viewModel.getMacHistory().getValue();
-
-			if (macHistory.containsKey(uid)) {
-				Set<String> macs = macHistory.get(uid);
-				if (macs != null && macs.size() > 1) {
-					macWarning.setVisibility(View.VISIBLE);
+		MacHistory macs = viewModel != null ? viewModel.getMacHistory(message.getUid()) : null;
+		if (macs != null && macs.getTotalSeen() > 1) {
+			macWarning.setVisibility(View.VISIBLE);
 
-					StringBuilder sb = new StringBuilder();
-					for (String mac : macs) {
-						sb.append(mac).append("\n");
-					}
-					macList.setText(sb.toString().trim());
-				} else {
-					macWarning.setVisibility(View.GONE);
-				}
-			} else {
-				macWarning.setVisibility(View.GONE);
+			StringBuilder sb = new StringBuilder();
+			for (String mac : macs.getMacStrings()) {
+				sb.append(mac).append("\n");
+			}
+			if (macs.getTotalSeen() > macs.size()) {
+				sb.append("(+").append(macs.getTotalSeen() - macs.size()).append(" older)");
 			}
+			macList.setText(sb.toString().trim());
 		} else {
 			macWarning.setVisibility(View.GONE);
 		}
@@ -545,6 +615,11 @@ public class DroneDetailFragment extends Fragment implements OnMapReadyCallback
 						.append(source.getRssi())
 						.append(" dBm)");
 
+				// Delivery delay from the sensor, when its timestamp was known
+				if (source.getLatencyMillis() >= 0) {
+					sb.append(" +").append(source.getLatencyMillis()).append(" ms");
+				}
+
 				// Add timestamp if available
 				long timestamp = source.getTimestamp();
 				if (timestamp > 0) {
@@ -592,19 +667,14 @@ public class DroneDetailFragment extends Fragment implements OnMapReadyCallback
 				StringBuilder reasonBuilder = new StringBuilder("Possible spoofing detected: ");
 
 				// Check for unrealistic movements
-				if (message.getCoordinate() != null) {
+				if (message.hasCoordinate()) {
 					reasonBuilder.append("Unusual movement pattern or unrealistic speed detected. ");
 				}
 
 				// If we see multiple MAC addresses, mention that weirdness
-				if (viewModel != null && viewModel.getMacHistory().getValue() != null) {
-					Map<String, Set<String>> macHistory = viewModel.getMacHistory().getValue();
-					if (macHistory.containsKey(message.getUid())) {
-						Set<String> macs = macHistory.get(message.getUid());
-						if (macs != null && macs.size() > 2) {
-							reasonBuilder.append("Multiple MAC addresses observed (").append(macs.size()).append("). ");
-						}
-					}
+				MacHistory macs = viewModel != null ? viewModel.getMacHistory(message.getUid()) : null;
+				if (macs != null && macs.getTotalSeen() > 2) {
+					reasonBuilder.append("Multiple MAC addresses observed (").append(macs.getTotalSeen()).append("). ");
 				}
 				spoofReason.setText(reasonBuilder.toString());
 			}
@@ -614,17 +684,14 @@ public class DroneDetailFragment extends Fragment implements OnMapReadyCallback
 	}
 
     private void updateMap() {
-        if (googleMap == null || message == null || message.getCoordinate() == null) {
+        if (googleMap == null || message == null || !message.hasCoordinate()) {
             return;
         }
 
         // Clear previous markers
         googleMap.clear();
 
-        LatLng position = new LatLng(
-                message.getCoordinate().getLatitude(),
-                message.getCoordinate().getLongitude()
-        );
+        LatLng position = new LatLng(message.getLatValue(), message.getLonValue());
 
         // Add drone marker
         googleMap.addMarker(new MarkerOptions()
@@ -632,63 +699,72 @@ public class DroneDetailFragment extends Fragment implements OnMapReadyCallback
                 .title("Drone: " + message.getUid())
                 .icon(BitmapDescriptorFactory.fromResource(android.R.drawable.ic_menu_send)));
 
+        // Draw the recent part of the recorded flight path
+        TrackHistory history = TrackHistoryStore.getInstance().get(message.getUid());
+        if (history != null) {
+            PolylineOptions path = new PolylineOptions()
+                    .color(Color.BLUE)
+                    .width(2f);
+            long lastMillis = history.getLastTimeMillis();
+            history.forEachInRange(lastMillis - Constants.MAP_TRAIL_WINDOW_MS, lastMillis,
+                    (lat, lon, alt, speed, rssi, timeMillis) -> {
+                        if (!Double.isNaN(lat) && !Double.isNaN(lon)) {
+                            path.add(new LatLng(lat, lon));
+                        }
+                    });
+            googleMap.addPolyline(path);
+        }
+
+        // Where an RSSI-estimated drone could be
+        PolygonOptions ellipse = EstimateEllipse.polygon(message);
+        if (ellipse != null) {
+            googleMap.addPolygon(ellipse);
+        }
 
         // Add home position if available
-        if (message.getHomeLat() != null && message.getHomeLon() != null &&
-                !message.getHomeLat().equals("0.0") && !message.getHomeLon().equals("0.0")) {
-            try {
-                double homeLat = Double.parseDouble(message.getHomeLat());
-                double homeLon = Double.parseDouble(message.getHomeLon());
-
-                LatLng homePos = new LatLng(homeLat, homeLon);
-
-				googleMap.addMarker(new MarkerOptions()
-						.position(homePos)
-						.title("Home")
-						.icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_YELLOW))
-						.anchor(0.5f, 0.5f)
-						.alpha(0.9f)
-						.zIndex(1.0f));
-
-                // Draw line between drone and home
-                googleMap.addPolyline(new PolylineOptions()
-                        .add(position, homePos)
-                        .color(Color.YELLOW)
-                        .width(2f)
-                        .pattern(Arrays.asList(new Dash(20f), new Gap(10f)))); // Dashed line
-            } catch (NumberFormatException e) {
-                // Ignore parse errors
-                Log.d("DroneDetailFragment", "Error parsing home coordinates: " + e.getMessage());
-            }
+        if (message.hasHomeLocation()) {
+            double homeLat = message.getHomeLatValue();
+            double homeLon = message.getHomeLonValue();
+
+            LatLng homePos = new LatLng(homeLat, homeLon);
+
+			googleMap.addMarker(new MarkerOptions()
+					.position(homePos)
+					.title("Home")
+					.icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_YELLOW))
+					.anchor(0.5f, 0.5f)
+					.alpha(0.9f)
+					.zIndex(1.0f));
+
+            // Draw line between drone and home
+            googleMap.addPolyline(new PolylineOptions()
+                    .add(position, homePos)
+                    .color(Color.YELLOW)
+                    .width(2f)
+                    .pattern(Arrays.asList(new Dash(20f), new Gap(10f)))); // Dashed line
         }
 
         // Add operator position if available
-        if (message.getPilotLat() != null && message.getPilotLon() != null &&
-                !message.getPilotLat().equals("0.0") && !message.getPilotLon().equals("0.0")) {
-            try {
-                double pilotLat = Double.parseDouble(message.getPilotLat());
-                double pilotLon = Double.parseDouble(message.getPilotLon());
-
-                LatLng operatorPos = new LatLng(pilotLat, pilotLon);
-
-				googleMap.addMarker(new MarkerOptions()
-						.position(operatorPos)
-						.title("Operator")
-						.icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_GREEN))
-						.anchor(0.5f, 0.5f)
-						.alpha(0.9f)
-						.zIndex(2.0f));
-
-                // Draw line between drone and operator
-                googleMap.addPolyline(new PolylineOptions()
-                        .add(position, operatorPos)
-                        .color(Color.GREEN)
-                        .width(2f)
-                        .pattern(Arrays.asList(new Dot(), new Gap(10f)))); // Dotted line
-            } catch (NumberFormatException e) {
-                // Ignore parse errors
-                Log.d("DroneDetailFragment", "Error parsing operator coordinates: " + e.getMessage());
-            }
+        if (message.hasPilotLocation()) {
+            double pilotLat = message.getPilotLatValue();
+            double pilotLon = message.getPilotLonValue();
+
+            LatLng operatorPos = new LatLng(pilotLat, pilotLon);
+
+			googleMap.addMarker(new MarkerOptions()
+					.position(operatorPos)
+					.title("Operator")
+					.icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_GREEN))
+					.anchor(0.5f, 0.5f)
+					.alpha(0.9f)
+					.zIndex(2.0f));
+
+            // Draw line between drone and operator
+            googleMap.addPolyline(new PolylineOptions()
+                    .add(position, operatorPos)
+                    .color(Color.GREEN)
+                    .width(2f)
+                    .pattern(Arrays.asList(new Dot(), new Gap(10f)))); // Dotted line
         }
 
         // Adjust camera bounds to show all points
@@ -698,29 +774,19 @@ public class DroneDetailFragment extends Fragment implements OnMapReadyCallback
         boolean hasAdditionalPoints = false;
 
         // Add home location to bounds if available
-        if (message.getHomeLat() != null && message.getHomeLon() != null &&
-                !message.getHomeLat().equals("0.0") && !message.getHomeLon().equals("0.0")) {
-            try {
-                double homeLat = Double.parseDouble(message.getHomeLat());
-                double homeLon = Double.parseDouble(message.getHomeLon());
-                boundsBuilder.include(new LatLng(homeLat, homeLon));
-                hasAdditionalPoints = true;
-            } catch (NumberFormatException e) {
-                // Ignore parse errors
-            }
+        if (message.hasHomeLocation()) {
+            double homeLat = message.getHomeLatValue();
+            double homeLon = message.getHomeLonValue();
+            boundsBuilder.include(new LatLng(homeLat, homeLon));
+            hasAdditionalPoints = true;
         }
 
         // Add operator location to bounds if available
-        if (message.getPilotLat() != null && message.getPilotLon() != null &&
-                !message.getPilotLat().equals("0.0") && !message.getPilotLon().equals("0.0")) {
-            try {
-                double pilotLat = Double.parseDouble(message.getPilotLat());
-                double pilotLon = Double.parseDouble(message.getPilotLon());
-                boundsBuilder.include(new LatLng(pilotLat, pilotLon));
-                hasAdditionalPoints = true;
-            } catch (NumberFormatException e) {
-                // Ignore parse errors
-            }
+        if (message.hasPilotLocation()) {
+            double pilotLat = message.getPilotLatValue();
+            double pilotLon = message.getPilotLonValue();
+            boundsBuilder.include(new LatLng(pilotLat, pilotLon));
+            hasAdditionalPoints = true;
         }
 
         // Move camera to fit all points
@@ -745,11 +811,8 @@ public class DroneDetailFragment extends Fragment implements OnMapReadyCallback
 		googleMap = map;
 		googleMap.setMapType(GoogleMap.MAP_TYPE_NORMAL);
 
-		if (message != null && message.getCoordinate() != null) {
-			LatLng position = new LatLng(
-					message.getCoordinate().getLatitude(),
-					message.getCoordinate().getLongitude()
-			);
+		if (message != null && message.hasCoordinate()) {
+			LatLng position = new LatLng(message.getLatValue(), message.getLonValue());
 
 			// Initial setup of markers
 			updateMap();
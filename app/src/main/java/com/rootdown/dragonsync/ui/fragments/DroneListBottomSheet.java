@@ -46,6 +46,8 @@ public class DroneListBottomSheet extends BottomSheetDialogFragment implements D
 
         viewModel.getParsedMessages().observe(getViewLifecycleOwner(),
                 messages -> adapter.updateMessages(messages));
+        viewModel.getMacHistory().observe(getViewLifecycleOwner(), adapter::updateMacHistory);
+        viewModel.getLostContactUids().observe(getViewLifecycleOwner(), adapter::updateLostContact);
     }
 
     @Override
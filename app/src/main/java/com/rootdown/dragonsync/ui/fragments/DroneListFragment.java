@@ -133,6 +133,8 @@ public class DroneListFragment extends Fragment implements DroneListAdapter.OnDr
             applyFilters();
             updateDroneCount();
         });
+        viewModel.getMacHistory().observe(getViewLifecycleOwner(), adapter::updateMacHistory);
+        viewModel.getLostContactUids().observe(getViewLifecycleOwner(), adapter::updateLostContact);
     }
 
     private void setupFilterChips(View view) {
@@ -288,23 +290,8 @@ public class DroneListFragment extends Fragment implements DroneListAdapter.OnDr
     }
 
     private void sortDronesByRecent() {
-        filteredDrones.sort((a, b) -> {
-            String timestampA = a.getTimestamp();
-            String timestampB = b.getTimestamp();
-
-            if (timestampA == null && timestampB == null) return 0;
-            if (timestampA == null) return 1;
-            if (timestampB == null) return -1;
-
-            try {
-                // Most recent first
-                long timeA = Long.parseLong(timestampA);
-                long timeB = Long.parseLong(timestampB);
-                return Long.compare(timeB, timeA);
-            } catch (NumberFormatException e) {
-                return 0;
-            }
-        });
+        // Most recent first; unknown timestamps are 0 and sort last
+        filteredDrones.sort((a, b) -> Long.compare(b.getTimestampMillis(), a.getTimestampMillis()));
 
         adapter.updateMessages(filteredDrones);
     }
@@ -0,0 +1,60 @@
+package com.rootdown.dragonsync.ui.fragments;
+
+import android.graphics.Color;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.PolygonOptions;
+import com.rootdown.dragonsync.models.CoTMessage;
+
+import java.util.Locale;
+
+/**
+ * Map outline and label for the 95% error ellipse of an RSSI-estimated drone position, shared by
+ * the live map and the detail view. Published ellipses are at most a few hundred metres across,
+ * so a flat-earth offset from the centre is accurate enough.
+ */
+final class EstimateEllipse {
+    private static final int POINTS = 48;
+    private static final double METERS_PER_DEGREE_LAT = 111320.0;
+    private static final int STROKE_COLOR = Color.argb(220, 255, 152, 0);
+    private static final int FILL_COLOR = Color.argb(48, 255, 152, 0);
+
+    private EstimateEllipse() {}
+
+    // Null when the message's position isn't an estimate with a known ellipse
+    static PolygonOptions polygon(CoTMessage message) {
+        if (!message.hasEstimateEllipse()) return null;
+
+        double lat = message.getLatValue();
+        double lon = message.getLonValue();
+        double major = message.getEstimateSemiMajorMeters();
+        double minor = message.getEstimateSemiMinorMeters();
+        double bearing = Math.toRadians(Double.isNaN(message.getEstimateBearingDegrees())
+                ? 0 : message.getEstimateBearingDegrees());
+        double sinBearing = Math.sin(bearing);
+        double cosBearing = Math.cos(bearing);
+        double metersPerDegreeLon = METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(lat));
+
+        PolygonOptions polygon = new PolygonOptions()
+                .strokeColor(STROKE_COLOR)
+                .strokeWidth(2f)
+                .fillColor(FILL_COLOR);
+        for (int i = 0; i < POINTS; i++) {
+            double t = 2 * Math.PI * i / POINTS;
+            double alongMajor = major * Math.cos(t);
+            double alongMinor = minor * Math.sin(t);
+            // Major axis points along the bearing, minor axis 90 degrees clockwise of it
+            double east = alongMajor * sinBearing + alongMinor * cosBearing;
+            double north = alongMajor * cosBearing - alongMinor * sinBearing;
+            polygon.add(new LatLng(lat + north / METERS_PER_DEGREE_LAT, lon + east / metersPerDegreeLon));
+        }
+        return polygon;
+    }
+
+    static String describe(CoTMessage message) {
+        if (!message.hasEstimateEllipse()) return "Estimated from RSSI";
+        return String.format(Locale.US, "Estimated from RSSI, 95%% within %.0f x %.0f m at %.0f°",
+                message.getEstimateSemiMajorMeters() * 2, message.getEstimateSemiMinorMeters() * 2,
+                message.getEstimateBearingDegrees());
+    }
+}
@@ -20,24 +20,29 @@ import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.android.gms.maps.model.PolygonOptions;
 import com.google.android.gms.maps.model.PolylineOptions;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.rootdown.dragonsync.R;
 import com.rootdown.dragonsync.models.CoTMessage;
 import com.rootdown.dragonsync.models.ConnectionMode;
+import com.rootdown.dragonsync.utils.Constants;
 import com.rootdown.dragonsync.utils.DeviceLocationManager;
 import com.rootdown.dragonsync.utils.Settings;
+import com.rootdown.dragonsync.utils.TrackHistory;
+import com.rootdown.dragonsync.utils.TrackHistoryStore;
 import com.rootdown.dragonsync.viewmodels.CoTViewModel;
 
 import android.location.Location;
 import android.util.Log;
 import android.widget.TextView;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 public class LiveMapFragment extends Fragment implements OnMapReadyCallback {
     private static final String TAG = "LiveMapFragment";
@@ -49,7 +54,8 @@ public class LiveMapFragment extends Fragment implements OnMapReadyCallback {
     private Map<String, Marker> droneMarkers = new HashMap<>();
     private Map<String, Marker> operatorMarkers = new HashMap<>();
     private Map<String, Marker> homeMarkers = new HashMap<>();
-    private Map<String, List<LatLng>> flightPaths = new HashMap<>();
+    private final TrackHistoryStore historyStore = TrackHistoryStore.getInstance();
+    private Set<String> lostContactUids = Collections.emptySet();
     private boolean userHasMovedMap = false;
     private CoTMessage initialMessage;
 
@@ -138,11 +144,11 @@ public class LiveMapFragment extends Fragment implements OnMapReadyCallback {
 
         observeDrones();
 
-        if (initialMessage != null && initialMessage.getCoordinate() != null) {
+        if (initialMessage != null && initialMessage.hasCoordinate()) {
             googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(
                     new LatLng(
-                            initialMessage.getCoordinate().getLatitude(),
-                            initialMessage.getCoordinate().getLongitude()
+                            initialMessage.getLatValue(),
+                            initialMessage.getLonValue()
                     ),
                     15f
             ));
@@ -193,6 +199,8 @@ public class LiveMapFragment extends Fragment implements OnMapReadyCallback {
     }
 
     private void observeDrones() {
+        // Arrives just before the messages it belongs to, which then redraw the markers
+        viewModel.getLostContactUids().observe(getViewLifecycleOwner(), uids -> lostContactUids = uids);
         viewModel.getParsedMessages().observe(getViewLifecycleOwner(), messages -> {
             updateDroneCount(messages.size());
 
@@ -236,94 +244,91 @@ public class LiveMapFragment extends Fragment implements OnMapReadyCallback {
     }
 
     private void updateDroneOnMap(CoTMessage message) {
-        if (googleMap == null || message == null || message.getCoordinate() == null) {
+        if (googleMap == null || message == null || !message.hasCoordinate()) {
             return;
         }
 
         // Clear previous markers
         googleMap.clear();
 
-        LatLng position = new LatLng(
-                message.getCoordinate().getLatitude(),
-                message.getCoordinate().getLongitude()
-        );
+        LatLng position = new LatLng(message.getLatValue(), message.getLonValue());
 
-        // Add drone marker
+        // Add drone marker, faded once contact is lost
+        boolean lostContact = lostContactUids.contains(message.getUid());
         Marker marker = googleMap.addMarker(new MarkerOptions()
                 .position(position)
-                .title(message.getUid()));
-
-        // Update flight path
-        List<LatLng> path = flightPaths.getOrDefault(message.getUid(), new ArrayList<>());
-        path.add(position);
-        if (path.size() > 200) {
-            path.remove(0);
+                .title(lostContact ? message.getUid() + " (lost contact)" : message.getUid())
+                .alpha(lostContact ? Constants.LOST_CONTACT_ALPHA : 1f));
+
+        // Draw the drone's recent flight path
+        TrackHistory history = historyStore.get(message.getUid());
+        if (history != null) {
+            PolylineOptions path = new PolylineOptions()
+                    .color(Color.BLUE)
+                    .width(2f);
+            long lastMillis = history.getLastTimeMillis();
+            history.forEachInRange(lastMillis - Constants.MAP_TRAIL_WINDOW_MS, lastMillis,
+                    (lat, lon, alt, speed, rssi, timeMillis) -> {
+                        if (!Double.isNaN(lat) && !Double.isNaN(lon)) {
+                            path.add(new LatLng(lat, lon));
+                        }
+                    });
+            googleMap.addPolyline(path);
         }
-        flightPaths.put(message.getUid(), path);
 
-        // Draw flight path - only show the drone's actual path
-        googleMap.addPolyline(new PolylineOptions()
-                .addAll(path)
-                .color(Color.BLUE)
-                .width(2f));
+        // Where an RSSI-estimated drone could be
+        PolygonOptions ellipse = EstimateEllipse.polygon(message);
+        if (ellipse != null) {
+            googleMap.addPolygon(ellipse);
+            if (marker != null) marker.setSnippet(EstimateEllipse.describe(message));
+        }
 
         // Add home position if available
-        if (message.getHomeLat() != null && message.getHomeLon() != null &&
-                !message.getHomeLat().equals("0.0") && !message.getHomeLon().equals("0.0")) {
-            try {
-                LatLng homePos = new LatLng(
-                        Double.parseDouble(message.getHomeLat()),
-                        Double.parseDouble(message.getHomeLon())
-                );
-
-                googleMap.addMarker(new MarkerOptions()
-                        .position(homePos)
-                        .title("Home")
-                        .icon(BitmapDescriptorFactory.defaultMarker(
-                                BitmapDescriptorFactory.HUE_YELLOW)));
-
-                // Draw line between drone and home
-                googleMap.addPolyline(new PolylineOptions()
-                        .add(position, homePos)
-                        .color(Color.YELLOW)
-                        .width(2f));
-            } catch (NumberFormatException e) {
-                // Ignore parse errors
-            }
+        if (message.hasHomeLocation()) {
+            LatLng homePos = new LatLng(
+                    message.getHomeLatValue(),
+                    message.getHomeLonValue()
+            );
+
+            googleMap.addMarker(new MarkerOptions()
+                    .position(homePos)
+                    .title("Home")
+                    .icon(BitmapDescriptorFactory.defaultMarker(
+                            BitmapDescriptorFactory.HUE_YELLOW)));
+
+            // Draw line between drone and home
+            googleMap.addPolyline(new PolylineOptions()
+                    .add(position, homePos)
+                    .color(Color.YELLOW)
+                    .width(2f));
         }
 
         // Add operator position if available
-        if (message.getPilotLat() != null && message.getPilotLon() != null &&
-                !message.getPilotLat().equals("0.0") && !message.getPilotLon().equals("0.0")) {
-            try {
-                LatLng operatorPos = new LatLng(
-                        Double.parseDouble(message.getPilotLat()),
-                        Double.parseDouble(message.getPilotLon())
-                );
-
-                googleMap.addMarker(new MarkerOptions()
-                        .position(operatorPos)
-                        .title("Operator")
-                        .icon(BitmapDescriptorFactory.defaultMarker(
-                                BitmapDescriptorFactory.HUE_GREEN)));
-
-                // Draw line between drone and operator
-                googleMap.addPolyline(new PolylineOptions()
-                        .add(position, operatorPos)
-                        .color(Color.GREEN)
-                        .width(2f));
-            } catch (NumberFormatException e) {
-                // Ignore parse errors
-            }
+        if (message.hasPilotLocation()) {
+            LatLng operatorPos = new LatLng(
+                    message.getPilotLatValue(),
+                    message.getPilotLonValue()
+            );
+
+            googleMap.addMarker(new MarkerOptions()
+                    .position(operatorPos)
+                    .title("Operator")
+                    .icon(BitmapDescriptorFactory.defaultMarker(
+                            BitmapDescriptorFactory.HUE_GREEN)));
+
+            // Draw line between drone and operator
+            googleMap.addPolyline(new PolylineOptions()
+                    .add(position, operatorPos)
+                    .color(Color.GREEN)
+                    .width(2f));
         }
 
         // In onboard mode, we still show the user's location marker but without connecting lines
         if (isOnboardMode && userLocationMarker != null) {
             // Update user marker position (but don't connect it to drone)
             // The drone distance info can still be added to the marker snippet if needed
-            if (message.getRawMessage() != null &&
-                    message.getRawMessage().containsKey("calculated_distance")) {
-                float distance = (float) message.getRawMessage().get("calculated_distance");
+            if (message.getExtra("calculated_distance") instanceof Float) {
+                float distance = (Float) message.getExtra("calculated_distance");
 
                 // Add distance to drone marker snippet
                 String snippet = marker != null && marker.getSnippet() != null ?
@@ -340,35 +345,20 @@ public class LiveMapFragment extends Fragment implements OnMapReadyCallback {
         StringBuilder snippet = new StringBuilder();
 
         // Add altitude if available
-        if (message.getAlt() != null && !message.getAlt().isEmpty()) {
-            try {
-                double alt = Double.parseDouble(message.getAlt());
-                snippet.append(String.format(Locale.US, "Alt: %.1fm", alt));
-            } catch (NumberFormatException e) {
-                // Skip if can't parse
-            }
+        if (!Double.isNaN(message.getAltValue())) {
+            snippet.append(String.format(Locale.US, "Alt: %.1fm", message.getAltValue()));
         }
 
         // Add height if available
-        if (message.getHeight() != null && !message.getHeight().isEmpty()) {
-            try {
-                double height = Double.parseDouble(message.getHeight());
-                if (snippet.length() > 0) snippet.append("\n");
-                snippet.append(String.format(Locale.US, "Height: %.1fm", height));
-            } catch (NumberFormatException e) {
-                // Skip if can't parse
-            }
+        if (!Double.isNaN(message.getHeightValue())) {
+            if (snippet.length() > 0) snippet.append("\n");
+            snippet.append(String.format(Locale.US, "Height: %.1fm", message.getHeightValue()));
         }
 
         // Add speed if available
-        if (message.getSpeed() != null && !message.getSpeed().isEmpty()) {
-            try {
-                double speed = Double.parseDouble(message.getSpeed());
-                if (snippet.length() > 0) snippet.append("\n");
-                snippet.append(String.format(Locale.US, "Speed: %.1fm/s", speed));
-            } catch (NumberFormatException e) {
-                // Skip if can't parse
-            }
+        if (!Double.isNaN(message.getSpeedValue())) {
+            if (snippet.length() > 0) snippet.append("\n");
+            snippet.append(String.format(Locale.US, "Speed: %.1fm/s", message.getSpeedValue()));
         }
 
         // Add RSSI if available
@@ -388,106 +378,86 @@ public class LiveMapFragment extends Fragment implements OnMapReadyCallback {
     }
 
     private void updateOperatorLocation(CoTMessage message) {
-        if (message.getPilotLat() != null && message.getPilotLon() != null &&
-                !message.getPilotLat().equals("0.0") && !message.getPilotLon().equals("0.0")) {
-            try {
-                LatLng operatorPos = new LatLng(
-                        Double.parseDouble(message.getPilotLat()),
-                        Double.parseDouble(message.getPilotLon())
-                );
-
-                // Use a unique ID for the operator marker
-                String operatorMarkerId = message.getUid() + "_operator";
-                Marker operatorMarker = operatorMarkers.get(operatorMarkerId);
-
-                if (operatorMarker == null) {
-                    operatorMarker = googleMap.addMarker(new MarkerOptions()
-                            .position(operatorPos)
-                            .title("Operator for " + message.getUid())
-                            .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_GREEN)));
-                    operatorMarkers.put(operatorMarkerId, operatorMarker);
-                } else {
-                    operatorMarker.setPosition(operatorPos);
-                }
+        if (message.hasPilotLocation()) {
+            LatLng operatorPos = new LatLng(
+                    message.getPilotLatValue(),
+                    message.getPilotLonValue()
+            );
+
+            // Use a unique ID for the operator marker
+            String operatorMarkerId = message.getUid() + "_operator";
+            Marker operatorMarker = operatorMarkers.get(operatorMarkerId);
 
-                // Add info to operator marker
-                operatorMarker.setSnippet("Operator for drone: " + message.getUid());
-            } catch (NumberFormatException e) {
-                // Handle parsing errors silently
+            if (operatorMarker == null) {
+                operatorMarker = googleMap.addMarker(new MarkerOptions()
+                        .position(operatorPos)
+                        .title("Operator for " + message.getUid())
+                        .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_GREEN)));
+                operatorMarkers.put(operatorMarkerId, operatorMarker);
+            } else {
+                operatorMarker.setPosition(operatorPos);
             }
+
+            // Add info to operator marker
+            operatorMarker.setSnippet("Operator for drone: " + message.getUid());
         }
     }
 
     private void updateHomeLocation(CoTMessage message) {
-        if (message.getHomeLat() != null && message.getHomeLon() != null &&
-                !message.getHomeLat().equals("0.0") && !message.getHomeLon().equals("0.0")) {
-            try {
-                LatLng homePos = new LatLng(
-                        Double.parseDouble(message.getHomeLat()),
-                        Double.parseDouble(message.getHomeLon())
-                );
-
-                // Use a unique ID for the home marker
-                String homeMarkerId = message.getUid() + "_home";
-                Marker homeMarker = homeMarkers.get(homeMarkerId);
-
-                if (homeMarker == null) {
-                    homeMarker = googleMap.addMarker(new MarkerOptions()
-                            .position(homePos)
-                            .title("Home for " + message.getUid())
-                            .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_YELLOW)));
-                    homeMarkers.put(homeMarkerId, homeMarker);
-                } else {
-                    homeMarker.setPosition(homePos);
-                }
+        if (message.hasHomeLocation()) {
+            LatLng homePos = new LatLng(
+                    message.getHomeLatValue(),
+                    message.getHomeLonValue()
+            );
 
-                // Add info to home marker
-                homeMarker.setSnippet("Home location for drone: " + message.getUid());
-            } catch (NumberFormatException e) {
-                // Handle parsing errors silently
+            // Use a unique ID for the home marker
+            String homeMarkerId = message.getUid() + "_home";
+            Marker homeMarker = homeMarkers.get(homeMarkerId);
+
+            if (homeMarker == null) {
+                homeMarker = googleMap.addMarker(new MarkerOptions()
+                        .position(homePos)
+                        .title("Home for " + message.getUid())
+                        .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_YELLOW)));
+                homeMarkers.put(homeMarkerId, homeMarker);
+            } else {
+                homeMarker.setPosition(homePos);
             }
+
+            // Add info to home marker
+            homeMarker.setSnippet("Home location for drone: " + message.getUid());
         }
     }
 
     private void drawConnections(CoTMessage message, LatLng dronePosition) {
         // Draw line between drone and operator
-        if (message.getPilotLat() != null && message.getPilotLon() != null &&
-                !message.getPilotLat().equals("0.0") && !message.getPilotLon().equals("0.0")) {
-            try {
-                LatLng operatorPos = new LatLng(
-                        Double.parseDouble(message.getPilotLat()),
-                        Double.parseDouble(message.getPilotLon())
-                );
-
-                googleMap.addPolyline(new PolylineOptions()
-                        .add(dronePosition, operatorPos)
-                        .color(Color.GREEN)
-                        .width(2f)
-                        .pattern(Arrays.asList(
-                                new Dot(), new Gap(10f)))); // Dotted line for operator
-            } catch (NumberFormatException e) {
-                // Skip on parsing errors
-            }
+        if (message.hasPilotLocation()) {
+            LatLng operatorPos = new LatLng(
+                    message.getPilotLatValue(),
+                    message.getPilotLonValue()
+            );
+
+            googleMap.addPolyline(new PolylineOptions()
+                    .add(dronePosition, operatorPos)
+                    .color(Color.GREEN)
+                    .width(2f)
+                    .pattern(Arrays.asList(
+                            new Dot(), new Gap(10f)))); // Dotted line for operator
         }
 
         // Draw line between drone and home
-        if (message.getHomeLat() != null && message.getHomeLon() != null &&
-                !message.getHomeLat().equals("0.0") && !message.getHomeLon().equals("0.0")) {
-            try {
-                LatLng homePos = new LatLng(
-                        Double.parseDouble(message.getHomeLat()),
-                        Double.parseDouble(message.getHomeLon())
-                );
-
-                googleMap.addPolyline(new PolylineOptions()
-                        .add(dronePosition, homePos)
-                        .color(Color.YELLOW)
-                        .width(2f)
-                        .pattern(Arrays.asList(
-                                new Dash(20f), new Gap(10f)))); // Dashed line for home
-            } catch (NumberFormatException e) {
-                // Skip on parsing errors
-            }
+        if (message.hasHomeLocation()) {
+            LatLng homePos = new LatLng(
+                    message.getHomeLatValue(),
+                    message.getHomeLonValue()
+            );
+
+            googleMap.addPolyline(new PolylineOptions()
+                    .add(dronePosition, homePos)
+                    .color(Color.YELLOW)
+                    .width(2f)
+                    .pattern(Arrays.asList(
+                            new Dash(20f), new Gap(10f)))); // Dashed line for home
         }
     }
 
@@ -496,11 +466,8 @@ public class LiveMapFragment extends Fragment implements OnMapReadyCallback {
         boolean hasValidCoordinates = false;
 
         for (CoTMessage message : messages) {
-            if (message.getCoordinate() != null) {
-                builder.include(new LatLng(
-                        message.getCoordinate().getLatitude(),
-                        message.getCoordinate().getLongitude()
-                ));
+            if (message.hasCoordinate()) {
+                builder.include(new LatLng(message.getLatValue(), message.getLonValue()));
                 hasValidCoordinates = true;
             }
         }
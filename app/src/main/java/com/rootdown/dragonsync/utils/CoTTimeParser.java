@@ -0,0 +1,183 @@
+package com.rootdown.dragonsync.utils;
+
+/**
+ * Parser for the fixed CoT time form "yyyy-MM-ddTHH:mm:ss.SSSZ" (fraction and offset optional).
+ * Consecutive messages almost always share the same day and minute, so the epoch for the last
+ * seen "yyyy-MM-ddTHH:mm" prefix is cached and only seconds, millis and zone are parsed per call.
+ */
+public final class CoTTimeParser {
+    private static final int MINUTE_PREFIX_LENGTH = 16; // yyyy-MM-ddTHH:mm
+    private static final int DAY_PREFIX_LENGTH = 10;    // yyyy-MM-dd
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    // Immutable so a reader always sees a matching prefix/epoch pair without locking
+    private static final class CacheEntry {
+        final String prefix;
+        final long epochMillis;
+
+        CacheEntry(String prefix, long epochMillis) {
+            this.prefix = prefix;
+            this.epochMillis = epochMillis;
+        }
+    }
+
+    private static volatile CacheEntry minuteCache;
+    private static volatile CacheEntry dayCache;
+
+    // Returned for timestamps that are neither an ISO-8601 time nor an epoch number
+    public static final long UNPARSED = -1;
+
+    private CoTTimeParser() {}
+
+    /**
+     * Parses either a plain epoch-millis number or a CoT/ISO-8601 time. Returns the fallback
+     * when the value is neither, including relative times such as "28 min 40.0 s".
+     */
+    public static long parseTimestamp(CharSequence text, long fallback) {
+        if (text == null) return fallback;
+        if (text.length() > DAY_PREFIX_LENGTH && text.charAt(4) == '-') {
+            return parse(text, fallback);
+        }
+        return isDigits(text) ? NumberScanner.parseLong(text, fallback) : fallback;
+    }
+
+    // Only digits, ignoring surrounding whitespace
+    private static boolean isDigits(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) end--;
+        if (start == end) return false;
+        for (int i = start; i < end; i++) {
+            if (!isDigit(text.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    public static long parse(CharSequence text, long fallback) {
+        if (text == null || text.length() < 19) return fallback;
+
+        long minuteMillis = minuteEpoch(text);
+        if (minuteMillis == Long.MIN_VALUE) return fallback;
+
+        if (text.charAt(16) != ':') return fallback;
+        int seconds = twoDigits(text, 17);
+        if (seconds < 0 || seconds > 60) return fallback;
+
+        int i = 19;
+        int length = text.length();
+        long millis = 0;
+        if (i < length && text.charAt(i) == '.') {
+            i++;
+            int digits = 0;
+            while (i < length && isDigit(text.charAt(i))) {
+                if (digits < 3) {
+                    millis = millis * 10 + (text.charAt(i) - '0');
+                }
+                digits++;
+                i++;
+            }
+            if (digits == 0) return fallback;
+            for (int d = digits; d < 3; d++) {
+                millis *= 10;
+            }
+        }
+
+        long offsetMillis = 0;
+        if (i < length) {
+            char zone = text.charAt(i);
+            if (zone == 'Z' || zone == 'z') {
+                i++;
+            } else if (zone == '+' || zone == '-') {
+                int hours = twoDigits(text, i + 1);
+                if (hours < 0) return fallback;
+                int minutes = 0;
+                int next = i + 3;
+                if (next < length && text.charAt(next) == ':') next++;
+                if (next + 1 < length) {
+                    minutes = twoDigits(text, next);
+                    if (minutes < 0) return fallback;
+                    next += 2;
+                }
+                offsetMillis = (hours * 60L + minutes) * MILLIS_PER_MINUTE;
+                if (zone == '-') offsetMillis = -offsetMillis;
+                i = next;
+            }
+        }
+        if (i != length) return fallback;
+
+        return minuteMillis + seconds * 1000L + millis - offsetMillis;
+    }
+
+    // Epoch millis of the "yyyy-MM-ddTHH:mm" prefix in UTC, or Long.MIN_VALUE if it is malformed
+    private static long minuteEpoch(CharSequence text) {
+        CacheEntry cached = minuteCache;
+        if (cached != null && prefixMatches(cached.prefix, text, MINUTE_PREFIX_LENGTH)) {
+            return cached.epochMillis;
+        }
+
+        long dayMillis = dayEpoch(text);
+        if (dayMillis == Long.MIN_VALUE) return Long.MIN_VALUE;
+
+        char separator = text.charAt(10);
+        if (separator != 'T' && separator != 't' && separator != ' ') return Long.MIN_VALUE;
+        if (text.charAt(13) != ':') return Long.MIN_VALUE;
+        int hour = twoDigits(text, 11);
+        int minute = twoDigits(text, 14);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) return Long.MIN_VALUE;
+
+        long epochMillis = dayMillis + (hour * 60L + minute) * MILLIS_PER_MINUTE;
+        minuteCache = new CacheEntry(text.subSequence(0, MINUTE_PREFIX_LENGTH).toString(), epochMillis);
+        return epochMillis;
+    }
+
+    private static long dayEpoch(CharSequence text) {
+        CacheEntry cached = dayCache;
+        if (cached != null && prefixMatches(cached.prefix, text, DAY_PREFIX_LENGTH)) {
+            return cached.epochMillis;
+        }
+
+        if (text.charAt(4) != '-' || text.charAt(7) != '-') return Long.MIN_VALUE;
+        int yearHigh = twoDigits(text, 0);
+        int yearLow = twoDigits(text, 2);
+        int month = twoDigits(text, 5);
+        int day = twoDigits(text, 8);
+        if (yearHigh < 0 || yearLow < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return Long.MIN_VALUE;
+        }
+
+        long epochMillis = daysFromCivil(yearHigh * 100 + yearLow, month, day) * MILLIS_PER_DAY;
+        dayCache = new CacheEntry(text.subSequence(0, DAY_PREFIX_LENGTH).toString(), epochMillis);
+        return epochMillis;
+    }
+
+    // Days since 1970-01-01 for a proleptic Gregorian date
+    private static long daysFromCivil(int year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        int era = Math.floorDiv(year, 400);
+        int yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static boolean prefixMatches(String prefix, CharSequence text, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (prefix.charAt(i) != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static int twoDigits(CharSequence text, int index) {
+        if (index + 1 >= text.length()) return -1;
+        char high = text.charAt(index);
+        char low = text.charAt(index + 1);
+        if (!isDigit(high) || !isDigit(low)) return -1;
+        return (high - '0') * 10 + (low - '0');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -31,13 +31,22 @@ public class Constants {
     public static final double MIN_DISTANCE = 10.0;
     public static final double MAX_SPEED_MPS = 150.0;
     public static final double MIN_POSITION_CHANGE = 50.0;
+    // Signature checks wait for this many messages so the running rates have settled
+    public static final int MIN_SIGNATURE_MESSAGES = 5;
+    public static final double MAX_SPEED_MISMATCH_MPS = 20.0;
+    public static final long SPEED_CHECK_WINDOW_MS = 10_000;
+    public static final double MAX_CLIMB_RATE_MPS = 30.0;
     public static final double CONFIDENCE_THRESHOLD = 0.7;
 
     public static final float MARKER_COLOR_DRONE = BitmapDescriptorFactory.HUE_AZURE;
     public static final float MARKER_COLOR_HOME = BitmapDescriptorFactory.HUE_YELLOW;
     public static final float MARKER_COLOR_OPERATOR = BitmapDescriptorFactory.HUE_GREEN;
     public static final float MARKER_COLOR_USER = BitmapDescriptorFactory.HUE_BLUE;
+    // Drones past their stale time are drawn faded until they are removed
+    public static final float LOST_CONTACT_ALPHA = 0.4f;
     public static final int MAX_FLIGHT_PATH_POINTS = 200;
+    public static final long MAP_TRAIL_WINDOW_MS = 5 * 60_000L;
+    public static final long RECENT_SIGNAL_WINDOW_MS = 60_000L;
 
     public static final String PREFS_NAME = "dragonsync_prefs";
     public static final String KEY_CONNECTION_MODE = "connection_mode";
@@ -51,8 +60,17 @@ public class Constants {
     public static final String KEY_ENABLE_PROXIMITY_WARNINGS = "enable_proximity_warnings";
     public static final String KEY_SERIAL_CONSOLE_ENABLED = "serial_console_enabled";
     public static final String KEY_ENABLE_LOCATION_ESTIMATION = "enable_location_estimation";
+    public static final String KEY_TRACK_TTL_SECONDS = "track_ttl_seconds";
 
     public static final int MAX_MESSAGES_CACHE = 1000;
+    public static final long SNAPSHOT_PUBLISH_INTERVAL_MS = 100;
+    public static final int DEFAULT_TRACK_TTL_SECONDS = 60;
+    public static final long MAX_TRACK_TTL_MS = 10 * 60_000L;
+    public static final long STALE_TRACK_REMOVE_AFTER_MS = 60_000L;
+    public static final long TRACK_EXPIRY_TICK_MS = 1000;
+    public static final int MAX_MAC_ALIASES = 16;
+    public static final int MAX_SIGNAL_SOURCES = 8;
+    public static final long POSITION_FUSION_WINDOW_MS = 3000;
     public static final int MAX_HISTORY_ENTRIES = 100;
     public static final int MAX_HOST_HISTORY = 5;
 
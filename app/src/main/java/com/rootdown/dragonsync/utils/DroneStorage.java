@@ -2,20 +2,24 @@ package com.rootdown.dragonsync.utils;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.location.Location;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
 import java.lang.reflect.Type;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class DroneStorage {
     private static DroneStorage instance;
     private final SharedPreferences prefs;
     private final Gson gson;
+    // Encounters are built and written here, off the threads that track drones
+    private final ExecutorService saveExecutor = Executors.newSingleThreadExecutor();
     private static final String PREF_NAME = "drone_encounters";
     private static final String KEY_ENCOUNTERS = "encounters";
 
@@ -23,13 +27,20 @@ public class DroneStorage {
         private String id;
         private Date firstSeen;
         private Date lastSeen;
-        private List<FlightPathPoint> flightPath;
-        private List<SignatureData> signatures;
+        // Flight path and signal samples as parallel primitive arrays, copied straight from the
+        // drone's TrackHistory so nothing is boxed per sample
+        private double[] pathLatitudes;
+        private double[] pathLongitudes;
+        private float[] pathAltitudes;
+        private long[] pathTimestamps;
+        private long[] signalTimestamps;
+        private float[] signalRssi;
+        private float[] signalSpeeds;
         private Map<String, String> metadata;
         private Set<String> macHistory;
 
         public Date getLastSeen() {
-            return null; //TODO do this
+            return lastSeen;
         }
 
         public Date getFirstSeen() {
@@ -40,72 +51,99 @@ public class DroneStorage {
             return id;
         }
 
-        public static class FlightPathPoint {
-            private double latitude;
-            private double longitude;
-            private double altitude;
-            private long timestamp;
-            private Double homeLatitude;
-            private Double homeLongitude;
-
-            public Location getCoordinate() {
-                Location location = new Location("");
-                location.setLatitude(latitude);
-                location.setLongitude(longitude);
-                return location;
-            }
+        // Builds an encounter from every sample in the drone's history
+        public static DroneEncounter fromHistory(String id, TrackHistory history, Set<String> macs) {
+            DroneEncounter encounter = new DroneEncounter();
+            encounter.id = id;
+            encounter.macHistory = macs != null ? new HashSet<>(macs) : new HashSet<>();
+
+            // One walk under the history's lock into capacity-sized arrays, trimmed afterwards
+            HistoryCopy copy = new HistoryCopy(history.getCapacity());
+            history.forEach(copy);
+            encounter.firstSeen = new Date(copy.firstMillis);
+            encounter.lastSeen = new Date(copy.lastMillis);
+            encounter.signalTimestamps = Arrays.copyOf(copy.signalTimestamps, copy.samples);
+            encounter.signalRssi = Arrays.copyOf(copy.signalRssi, copy.samples);
+            encounter.signalSpeeds = Arrays.copyOf(copy.signalSpeeds, copy.samples);
+            encounter.pathLatitudes = Arrays.copyOf(copy.pathLatitudes, copy.points);
+            encounter.pathLongitudes = Arrays.copyOf(copy.pathLongitudes, copy.points);
+            encounter.pathAltitudes = Arrays.copyOf(copy.pathAltitudes, copy.points);
+            encounter.pathTimestamps = Arrays.copyOf(copy.pathTimestamps, copy.points);
+            return encounter;
+        }
 
-            public Location getHomeLocation() {
-                if (homeLatitude == null || homeLongitude == null) return null;
-                Location location = new Location("");
-                location.setLatitude(homeLatitude);
-                location.setLongitude(homeLongitude);
-                return location;
+        private static final class HistoryCopy implements TrackHistory.SampleVisitor {
+            final long[] signalTimestamps;
+            final float[] signalRssi;
+            final float[] signalSpeeds;
+            final double[] pathLatitudes;
+            final double[] pathLongitudes;
+            final float[] pathAltitudes;
+            final long[] pathTimestamps;
+            int samples;
+            int points;
+            long firstMillis;
+            long lastMillis;
+
+            HistoryCopy(int capacity) {
+                signalTimestamps = new long[capacity];
+                signalRssi = new float[capacity];
+                signalSpeeds = new float[capacity];
+                pathLatitudes = new double[capacity];
+                pathLongitudes = new double[capacity];
+                pathAltitudes = new float[capacity];
+                pathTimestamps = new long[capacity];
             }
-        }
 
-        public static class SignatureData {
-            private long timestamp;
-            private double rssi;
-            private double speed;
-            private double height;
-            private String mac;
-            private boolean isValid;
-
-            public SignatureData(long timestamp, double rssi, double speed,
-                                 double height, String mac) {
-                this.timestamp = timestamp;
-                this.rssi = rssi;
-                this.speed = speed;
-                this.height = height;
-                this.mac = mac;
-                this.isValid = rssi != 0 || speed != 0 || height != 0;
+            @Override
+            public void visit(double lat, double lon, float alt, float speed, float rssi, long timeMillis) {
+                if (samples == 0) firstMillis = timeMillis;
+                lastMillis = timeMillis;
+
+                // Gson can't write NaN, so missing values are stored as 0 as before
+                signalTimestamps[samples] = timeMillis;
+                signalRssi[samples] = Float.isNaN(rssi) ? 0 : rssi;
+                signalSpeeds[samples] = Float.isNaN(speed) ? 0 : speed;
+                samples++;
+
+                if (!Double.isNaN(lat) && !Double.isNaN(lon)) {
+                    pathLatitudes[points] = lat;
+                    pathLongitudes[points] = lon;
+                    pathAltitudes[points] = Float.isNaN(alt) ? 0 : alt;
+                    pathTimestamps[points] = timeMillis;
+                    points++;
+                }
             }
         }
 
         // Stats methods
         public double getMaxAltitude() {
-            return flightPath.stream()
-                    .mapToDouble(point -> point.altitude)
-                    .filter(alt -> alt > 0)
-                    .max()
-                    .orElse(0);
+            double max = 0;
+            if (pathAltitudes != null) {
+                for (float alt : pathAltitudes) max = Math.max(max, alt);
+            }
+            return max;
         }
 
         public double getMaxSpeed() {
-            return signatures.stream()
-                    .mapToDouble(sig -> sig.speed)
-                    .filter(speed -> speed > 0)
-                    .max()
-                    .orElse(0);
+            double max = 0;
+            if (signalSpeeds != null) {
+                for (float speed : signalSpeeds) max = Math.max(max, speed);
+            }
+            return max;
         }
 
         public double getAverageRSSI() {
-            return signatures.stream()
-                    .mapToDouble(sig -> sig.rssi)
-                    .filter(rssi -> rssi != 0)
-                    .average()
-                    .orElse(0);
+            if (signalRssi == null) return 0;
+            double sum = 0;
+            int count = 0;
+            for (float rssi : signalRssi) {
+                if (rssi != 0) {
+                    sum += rssi;
+                    count++;
+                }
+            }
+            return count > 0 ? sum / count : 0;
         }
 
         public long getTotalFlightTime() {
@@ -125,13 +163,19 @@ public class DroneStorage {
         return instance;
     }
 
-    public void saveEncounter(DroneEncounter encounter) {
+    public synchronized void saveEncounter(DroneEncounter encounter) {
         Map<String, DroneEncounter> encounters = getEncounters();
         encounters.put(encounter.id, encounter);
         saveEncounters(encounters);
     }
 
-    public void deleteEncounter(String id) {
+    // Copies the history and saves it on the background executor; returns immediately
+    public void saveEncounterAsync(String id, TrackHistory history, MacHistory macs) {
+        saveExecutor.execute(() -> saveEncounter(
+                DroneEncounter.fromHistory(id, history, macs != null ? macs.toSet() : null)));
+    }
+
+    public synchronized void deleteEncounter(String id) {
         Map<String, DroneEncounter> encounters = getEncounters();
         encounters.remove(id);
         saveEncounters(encounters);
@@ -0,0 +1,163 @@
+package com.rootdown.dragonsync.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bounded MAC history of one drone. MACs are packed into the low 48 bits of a long and kept in
+ * small parallel arrays with first- and last-seen times; once full, the least recently seen MAC
+ * is replaced. Counts are plain fields, so the list and detail views can check for
+ * randomization without iterating anything.
+ *
+ * Written by the CoTViewModel writer thread and read by the UI, so access is synchronized on
+ * the instance.
+ */
+public final class MacHistory {
+    public static final long NO_MAC = -1;
+
+    // Locally administered bit of the first octet, set by MAC randomization
+    private static final long LOCALLY_ADMINISTERED = 0x02L << 40;
+
+    private final long[] macs;
+    private final long[] firstSeen;
+    private final long[] lastSeen;
+    private int size;
+    private int totalSeen;
+    private boolean randomized;
+
+    public MacHistory(int capacity) {
+        macs = new long[capacity];
+        firstSeen = new long[capacity];
+        lastSeen = new long[capacity];
+    }
+
+    /**
+     * Records a sighting of the packed MAC. Returns the MAC evicted to make room for it, or
+     * NO_MAC.
+     */
+    public synchronized long record(long mac, long timeMillis) {
+        int lru = 0;
+        for (int i = 0; i < size; i++) {
+            if (macs[i] == mac) {
+                lastSeen[i] = Math.max(lastSeen[i], timeMillis);
+                return NO_MAC;
+            }
+            if (lastSeen[i] < lastSeen[lru]) lru = i;
+        }
+
+        long evicted = NO_MAC;
+        int slot;
+        if (size < macs.length) {
+            slot = size++;
+        } else {
+            slot = lru;
+            evicted = macs[lru];
+        }
+        macs[slot] = mac;
+        firstSeen[slot] = timeMillis;
+        lastSeen[slot] = timeMillis;
+        totalSeen++;
+        if ((mac & LOCALLY_ADMINISTERED) != 0) randomized = true;
+        return evicted;
+    }
+
+    public synchronized boolean contains(long mac) {
+        for (int i = 0; i < size; i++) {
+            if (macs[i] == mac) return true;
+        }
+        return false;
+    }
+
+    // MACs currently retained
+    public synchronized int size() {
+        return size;
+    }
+
+    // Distinct MACs recorded, including evicted ones (a MAC seen again after eviction counts twice)
+    public synchronized int getTotalSeen() {
+        return totalSeen;
+    }
+
+    // True once any recorded MAC had the locally administered bit set
+    public synchronized boolean hasRandomizedMac() {
+        return randomized;
+    }
+
+    public synchronized long getMacAt(int index) {
+        return macs[index];
+    }
+
+    public synchronized long getFirstSeenMillis() {
+        long first = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) first = Math.min(first, firstSeen[i]);
+        return size > 0 ? first : 0;
+    }
+
+    public synchronized long getLastSeenMillis() {
+        long last = 0;
+        for (int i = 0; i < size; i++) last = Math.max(last, lastSeen[i]);
+        return last;
+    }
+
+    // Formatted MACs, most recently seen first
+    public synchronized List<String> getMacStrings() {
+        List<String> result = new ArrayList<>(size);
+        boolean[] taken = new boolean[size];
+        for (int n = 0; n < size; n++) {
+            int newest = -1;
+            for (int i = 0; i < size; i++) {
+                if (!taken[i] && (newest < 0 || lastSeen[i] > lastSeen[newest])) newest = i;
+            }
+            taken[newest] = true;
+            result.add(format(macs[newest]));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public synchronized Set<String> toSet() {
+        Set<String> result = new HashSet<>(size * 2);
+        for (int i = 0; i < size; i++) result.add(format(macs[i]));
+        return result;
+    }
+
+    // Three long arrays plus object and array headers
+    public static long getMemoryBytes(int capacity) {
+        return 48 + 3 * (16 + (long) capacity * 8);
+    }
+
+    /**
+     * Packs "AA:BB:CC:DD:EE:FF" (':' or '-' separated, or twelve bare hex digits, any case) into
+     * a long. Returns NO_MAC for anything else.
+     */
+    public static long pack(String mac) {
+        if (mac == null) return NO_MAC;
+        long value = 0;
+        int digits = 0;
+        for (int i = 0; i < mac.length(); i++) {
+            char c = mac.charAt(i);
+            int nibble = Character.digit(c, 16);
+            if (nibble >= 0) {
+                if (++digits > 12) return NO_MAC;
+                value = (value << 4) | nibble;
+            } else if ((c != ':' && c != '-') || digits == 0 || (digits & 1) != 0) {
+                return NO_MAC;
+            }
+        }
+        return digits == 12 ? value : NO_MAC;
+    }
+
+    // Upper-case, colon separated
+    public static String format(long mac) {
+        char[] out = new char[17];
+        for (int octet = 0; octet < 6; octet++) {
+            int b = (int) (mac >>> (40 - octet * 8)) & 0xFF;
+            out[octet * 3] = Character.toUpperCase(Character.forDigit(b >>> 4, 16));
+            out[octet * 3 + 1] = Character.toUpperCase(Character.forDigit(b & 0xF, 16));
+            if (octet < 5) out[octet * 3 + 2] = ':';
+        }
+        return new String(out);
+    }
+}
@@ -0,0 +1,206 @@
+package com.rootdown.dragonsync.utils;
+
+/**
+ * Allocation-light numeric parsing for telemetry fields. Never throws: malformed input
+ * comes back as {@link #INVALID} (NaN) or the caller's fallback, so the parsers don't
+ * pay for an exception and a log line per bad field.
+ *
+ * Trailing units are ignored, so "45.2 MB", "61°C", "12%" and "3.5 m/s" all scan as
+ * their leading number.
+ */
+public final class NumberScanner {
+    public static final double INVALID = Double.NaN;
+
+    // Powers of ten that are exact in a double; mantissa * or / one of these rounds correctly
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_MANTISSA_DIGITS = 18;
+
+    private NumberScanner() {}
+
+    public static double parseDouble(CharSequence text) {
+        if (text == null) return INVALID;
+        return parseDouble(text, 0, text.length());
+    }
+
+    public static double parseDouble(CharSequence text, int start, int end) {
+        if (text == null) return INVALID;
+        end = Math.min(end, text.length());
+        int i = skipWhitespace(text, Math.max(start, 0), end);
+        if (i >= end) return INVALID;
+
+        int numberStart = i;
+        boolean negative = false;
+        char c = text.charAt(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int droppedDigits = 0;
+        int fractionDigits = 0;
+        boolean sawDigit = false;
+
+        while (i < end && isDigit(c = text.charAt(i))) {
+            sawDigit = true;
+            if (significantDigits < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) significantDigits++;
+            } else {
+                droppedDigits++;
+            }
+            i++;
+        }
+
+        if (i < end && text.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(c = text.charAt(i))) {
+                sawDigit = true;
+                if (significantDigits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) significantDigits++;
+                    fractionDigits++;
+                }
+                i++;
+            }
+        }
+
+        if (!sawDigit) return INVALID;
+
+        int exponent = 0;
+        if (i < end && ((c = text.charAt(i)) == 'e' || c == 'E')) {
+            int j = i + 1;
+            boolean negativeExponent = false;
+            if (j < end && ((c = text.charAt(j)) == '-' || c == '+')) {
+                negativeExponent = c == '-';
+                j++;
+            }
+            if (j < end && isDigit(text.charAt(j))) {
+                while (j < end && isDigit(c = text.charAt(j))) {
+                    if (exponent < 10000) exponent = exponent * 10 + (c - '0');
+                    j++;
+                }
+                if (negativeExponent) exponent = -exponent;
+                i = j;
+            }
+            // Otherwise the 'e' starts a unit suffix and is left alone
+        }
+
+        if (!isNumberEnd(text, i, end)) return INVALID;
+
+        int scale = exponent + droppedDigits - fractionDigits;
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (mantissa < MAX_EXACT_MANTISSA && scale >= -22 && scale <= 22) {
+            value = scale < 0 ? mantissa / POW10[-scale] : mantissa * POW10[scale];
+        } else {
+            // Rare slow path (very long or very large values); syntax was already checked
+            try {
+                value = Math.abs(Double.parseDouble(text.subSequence(numberStart, i).toString()));
+            } catch (NumberFormatException e) {
+                return INVALID;
+            }
+        }
+        return negative ? -value : value;
+    }
+
+    public static double parseDouble(byte[] data, int offset, int length) {
+        if (data == null) return INVALID;
+        return parseDouble(new AsciiSequence(data), offset, offset + length);
+    }
+
+    public static long parseLong(CharSequence text, long fallback) {
+        if (text == null) return fallback;
+        return parseLong(text, 0, text.length(), fallback);
+    }
+
+    public static long parseLong(CharSequence text, int start, int end, long fallback) {
+        if (text == null) return fallback;
+        end = Math.min(end, text.length());
+        int i = skipWhitespace(text, Math.max(start, 0), end);
+        if (i >= end) return fallback;
+
+        boolean negative = false;
+        char c = text.charAt(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+
+        int digitsStart = i;
+        long value = 0;
+        while (i < end && isDigit(c = text.charAt(i))) {
+            if (value > (Long.MAX_VALUE - (c - '0')) / 10) {
+                return fallback; // overflow
+            }
+            value = value * 10 + (c - '0');
+            i++;
+        }
+        if (i == digitsStart || !isNumberEnd(text, i, end)) return fallback;
+        return negative ? -value : value;
+    }
+
+    public static int parseInt(CharSequence text, int fallback) {
+        if (text == null) return fallback;
+        return parseInt(text, 0, text.length(), fallback);
+    }
+
+    public static int parseInt(CharSequence text, int start, int end, int fallback) {
+        long value = parseLong(text, start, end, Long.MIN_VALUE);
+        if (value == Long.MIN_VALUE || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return fallback;
+        }
+        return (int) value;
+    }
+
+    // A number may be followed by whitespace and/or a unit, but not by more number syntax
+    private static boolean isNumberEnd(CharSequence text, int i, int end) {
+        if (i >= end) return true;
+        char c = text.charAt(i);
+        return !isDigit(c) && c != '.' && c != '-' && c != '+';
+    }
+
+    private static int skipWhitespace(CharSequence text, int i, int end) {
+        while (i < end && Character.isWhitespace(text.charAt(i))) i++;
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // Read-only view of ASCII bytes, so byte payloads can be scanned without decoding to a String
+    private static final class AsciiSequence implements CharSequence {
+        private final byte[] data;
+
+        AsciiSequence(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public int length() {
+            return data.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (data[index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(data, start, end - start, java.nio.charset.StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return new String(data, java.nio.charset.StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.rootdown.dragonsync.utils;
+
+/**
+ * Char-loop checks for Remote ID serial numbers. Nothing here compiles a regex or allocates,
+ * except extractSelfIdSerial when it finds an ID to return.
+ *
+ * Two grammars are recognized:
+ *  - ASTM F3411 UAS ID: the Basic ID field holds up to 20 ASCII characters; a serial in it is
+ *    upper-case letters and digits, at least MIN_SERIAL_LENGTH long and not all zeros (an unset
+ *    field reads as zeros or padding).
+ *  - ANSI/CTA-2063-A: a 4 character manufacturer code, one length character ('1'-'9', 'A'-'F'
+ *    for 1 to 15) and that many serial characters. Both parts use digits and upper-case letters
+ *    except 'O' and 'I'. e.g. "1581F5FJD228400PGSKN" is manufacturer 1581 with a 15 character
+ *    serial.
+ */
+public final class SerialIds {
+    public static final int MIN_SERIAL_LENGTH = 6;
+    public static final int MAX_UAS_ID_LENGTH = 20;
+
+    private static final int CTA_MFR_CODE_LENGTH = 4;
+    // Self-ID text only counts as carrying a serial with a run of this many serial characters
+    private static final int MIN_SELF_ID_RUN = 10;
+
+    private SerialIds() {}
+
+    // ASTM F3411 serial-number UAS ID, as carried in the Basic ID message
+    public static boolean isSerialId(CharSequence id) {
+        if (id == null) return false;
+        return isSerialId(id, 0, id.length());
+    }
+
+    public static boolean isSerialId(CharSequence id, int start, int end) {
+        int length = end - start;
+        if (length < MIN_SERIAL_LENGTH || length > MAX_UAS_ID_LENGTH) return false;
+        boolean allZeros = true;
+        for (int i = start; i < end; i++) {
+            char c = id.charAt(i);
+            if (!isSerialChar(c)) return false;
+            if (c != '0') allZeros = false;
+        }
+        return !allZeros;
+    }
+
+    // ANSI/CTA-2063-A physical serial number
+    public static boolean isCta2063Serial(CharSequence id) {
+        if (id == null || id.length() < CTA_MFR_CODE_LENGTH + 2) return false;
+        for (int i = 0; i < CTA_MFR_CODE_LENGTH; i++) {
+            if (!isCtaChar(id.charAt(i))) return false;
+        }
+        int serialLength = ctaLength(id.charAt(CTA_MFR_CODE_LENGTH));
+        int serialStart = CTA_MFR_CODE_LENGTH + 1;
+        if (serialLength <= 0 || id.length() != serialStart + serialLength) return false;
+        for (int i = serialStart; i < id.length(); i++) {
+            if (!isCtaChar(id.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    // Manufacturer code of a CTA-2063-A serial, or null when id isn't one
+    public static String getCtaManufacturerCode(String id) {
+        return isCta2063Serial(id) ? id.substring(0, CTA_MFR_CODE_LENGTH) : null;
+    }
+
+    /**
+     * Serial number embedded in Self-ID text, which some transmitters fill with a digit prefix
+     * followed by the serial. Returns the text with leading digits and surrounding whitespace
+     * removed when it holds a run of at least MIN_SELF_ID_RUN serial characters and the rest is
+     * entirely serial characters, otherwise null.
+     */
+    public static String extractSelfIdSerial(String text) {
+        if (text == null || text.length() < MIN_SELF_ID_RUN) return null;
+        if (longestSerialRun(text) < MIN_SELF_ID_RUN) return null;
+
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) >= '0' && text.charAt(start) <= '9') start++;
+        while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) end--;
+
+        if (end - start < MIN_SERIAL_LENGTH) return null;
+        for (int i = start; i < end; i++) {
+            if (!isSerialChar(text.charAt(i))) return null;
+        }
+        return text.substring(start, end);
+    }
+
+    private static int longestSerialRun(CharSequence text) {
+        int longest = 0;
+        int run = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (isSerialChar(text.charAt(i))) {
+                if (++run > longest) longest = run;
+            } else {
+                run = 0;
+            }
+        }
+        return longest;
+    }
+
+    private static boolean isSerialChar(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isCtaChar(char c) {
+        return isSerialChar(c) && c != 'O' && c != 'I';
+    }
+
+    // Serial length encoded by a CTA-2063-A length character, or -1
+    private static int ctaLength(char c) {
+        if (c >= '1' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+}
@@ -134,6 +134,15 @@ public class Settings {
         editor.putBoolean(Constants.KEY_ENABLE_LOCATION_ESTIMATION, enabled).apply();
     }
 
+    // How long a track without a CoT stale time stays live after its last message
+    public int getTrackTtlSeconds() {
+        return prefs.getInt(Constants.KEY_TRACK_TTL_SECONDS, Constants.DEFAULT_TRACK_TTL_SECONDS);
+    }
+
+    public void setTrackTtlSeconds(int seconds) {
+        editor.putInt(Constants.KEY_TRACK_TTL_SECONDS, seconds).apply();
+    }
+
     // Feature Flags
     public boolean isNotificationsEnabled() {
         return prefs.getBoolean(Constants.KEY_NOTIFICATIONS_ENABLED, true);
@@ -0,0 +1,66 @@
+package com.rootdown.dragonsync.utils;
+
+import android.util.Log;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs submitted tasks one at a time on a dedicated thread, so state owned by the actor is only
+ * ever touched by that thread and needs no locking. Any number of threads may submit; the inbox
+ * is a lock-free queue and the writer parks when it is empty.
+ */
+public class StateActor {
+    private static final String TAG = "StateActor";
+
+    private final ConcurrentLinkedQueue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean parked;
+    private volatile boolean running = true;
+
+    public StateActor(String name) {
+        thread = new Thread(this::runLoop, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void submit(Runnable task) {
+        if (!running) return;
+        inbox.offer(task);
+        // Pairs with the writer setting parked before re-checking the inbox, so no wakeup is lost
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public boolean isWriterThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    private void runLoop() {
+        while (running) {
+            Runnable task = inbox.poll();
+            if (task == null) {
+                parked = true;
+                if (inbox.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+                continue;
+            }
+
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // One bad message must not take the writer thread down with it
+                Log.e(TAG, thread.getName() + " task failed: " + e.getMessage(), e);
+            }
+        }
+        inbox.clear();
+    }
+}
@@ -0,0 +1,126 @@
+package com.rootdown.dragonsync.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel. Scheduling, rescheduling and cancelling are O(1) (timers are intrusive
+ * list nodes, so a reschedule is an unlink and a relink), and advancing only visits the slots
+ * for the ticks that elapsed. Deadlines further out than one lap stay in their slot until their
+ * tick comes round.
+ *
+ * Not thread-safe; callers serialize access.
+ */
+public final class TimerWheel<T> {
+
+    public static final class Timer<T> {
+        private final T owner;
+        private long deadlineTick;
+        private Timer<T> prev;
+        private Timer<T> next;
+        private int slot = -1;
+
+        public Timer(T owner) {
+            this.owner = owner;
+        }
+
+        public T getOwner() { return owner; }
+        public boolean isScheduled() { return slot >= 0; }
+    }
+
+    private final long tickMillis;
+    private final Timer<T>[] heads;
+    private final int mask;
+    private final List<Timer<T>> expired = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, int slotCount, long nowMillis) {
+        if (Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("slotCount must be a power of two: " + slotCount);
+        }
+        this.tickMillis = tickMillis;
+        this.heads = (Timer<T>[]) new Timer<?>[slotCount];
+        this.mask = slotCount - 1;
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    public void schedule(Timer<T> timer, long deadlineMillis) {
+        cancel(timer);
+        // Anything already due fires on the next tick
+        long tick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+        int slot = (int) (tick & mask);
+
+        timer.deadlineTick = tick;
+        timer.slot = slot;
+        timer.prev = null;
+        timer.next = heads[slot];
+        if (heads[slot] != null) heads[slot].prev = timer;
+        heads[slot] = timer;
+        size++;
+    }
+
+    public void cancel(Timer<T> timer) {
+        if (timer.slot < 0) return;
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            heads[timer.slot] = timer.next;
+        }
+        if (timer.next != null) timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+        timer.slot = -1;
+        size--;
+    }
+
+    /**
+     * Fires every timer whose deadline is at or before nowMillis. Expired timers are unscheduled
+     * before the callback runs, so it may reschedule or cancel any timer.
+     */
+    public void advance(long nowMillis, Consumer<T> onExpired) {
+        long targetTick = nowMillis / tickMillis;
+        if (targetTick <= currentTick) return;
+
+        // After a long gap every slot is visited once rather than once per missed tick
+        long steps = Math.min(targetTick - currentTick, heads.length);
+        for (long i = 1; i <= steps; i++) {
+            Timer<T> timer = heads[(int) ((currentTick + i) & mask)];
+            while (timer != null) {
+                Timer<T> next = timer.next;
+                if (timer.deadlineTick <= targetTick) {
+                    cancel(timer);
+                    expired.add(timer);
+                }
+                timer = next;
+            }
+        }
+        currentTick = targetTick;
+
+        for (int i = 0; i < expired.size(); i++) {
+            onExpired.accept(expired.get(i).owner);
+        }
+        expired.clear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (int i = 0; i < heads.length; i++) {
+            Timer<T> timer = heads[i];
+            while (timer != null) {
+                Timer<T> next = timer.next;
+                timer.prev = null;
+                timer.next = null;
+                timer.slot = -1;
+                timer = next;
+            }
+            heads[i] = null;
+        }
+        size = 0;
+    }
+}
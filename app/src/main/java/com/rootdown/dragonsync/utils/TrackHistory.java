@@ -0,0 +1,108 @@
+package com.rootdown.dragonsync.utils;
+
+/**
+ * Fixed-capacity history of one drone's samples, stored as parallel primitive ring buffers so
+ * appending is O(1) with no per-sample allocation and old samples are overwritten in place.
+ * Samples without a position carry NaN lat/lon; missing alt/speed/RSSI are NaN as well.
+ * Times are on the track's own timeline and never decrease from one sample to the next.
+ *
+ * Appends come from the CoTViewModel writer thread and reads from the UI, so access is
+ * synchronized on the instance; the lock is per drone and held only for the copy-free walk.
+ */
+public final class TrackHistory {
+
+    public interface SampleVisitor {
+        void visit(double lat, double lon, float alt, float speed, float rssi, long timeMillis);
+    }
+
+    // Bytes per sample across the parallel arrays: lat, lon, time (8 each); alt, speed, rssi (4 each)
+    private static final int BYTES_PER_SAMPLE = 8 + 8 + 8 + 4 + 4 + 4;
+    // Rough object + six array headers
+    private static final int FIXED_OVERHEAD_BYTES = 32 + 6 * 16;
+
+    private final int capacity;
+    private final double[] lat;
+    private final double[] lon;
+    private final float[] alt;
+    private final float[] speed;
+    private final float[] rssi;
+    private final long[] time;
+    private int head; // next slot to write
+    private int size;
+
+    public TrackHistory(int capacity) {
+        this.capacity = capacity;
+        lat = new double[capacity];
+        lon = new double[capacity];
+        alt = new float[capacity];
+        speed = new float[capacity];
+        rssi = new float[capacity];
+        time = new long[capacity];
+    }
+
+    public synchronized void append(double lat, double lon, float alt, float speed, float rssi, long timeMillis) {
+        int i = head;
+        this.lat[i] = lat;
+        this.lon[i] = lon;
+        this.alt[i] = alt;
+        this.speed[i] = speed;
+        this.rssi[i] = rssi;
+        this.time[i] = timeMillis;
+        head = i + 1 == capacity ? 0 : i + 1;
+        if (size < capacity) size++;
+    }
+
+    // Oldest sample first
+    public synchronized void forEach(SampleVisitor visitor) {
+        int i = head - size;
+        if (i < 0) i += capacity;
+        for (int n = 0; n < size; n++) {
+            visitor.visit(lat[i], lon[i], alt[i], speed[i], rssi[i], time[i]);
+            if (++i == capacity) i = 0;
+        }
+    }
+
+    /**
+     * Visits the samples with fromMillis <= time <= toMillis, oldest first, without copying.
+     * Samples are in time order because each track's timeline never runs backwards, so the walk
+     * starts at the first sample in range and stops at the first one past it.
+     */
+    public synchronized void forEachInRange(long fromMillis, long toMillis, SampleVisitor visitor) {
+        int i = head;
+        int count = 0;
+        while (count < size) {
+            int previous = i == 0 ? capacity - 1 : i - 1;
+            if (time[previous] < fromMillis) break;
+            i = previous;
+            count++;
+        }
+        for (int n = 0; n < count && time[i] <= toMillis; n++) {
+            visitor.visit(lat[i], lon[i], alt[i], speed[i], rssi[i], time[i]);
+            if (++i == capacity) i = 0;
+        }
+    }
+
+    public synchronized long getFirstTimeMillis() {
+        if (size == 0) return 0;
+        int i = head - size;
+        return time[i < 0 ? i + capacity : i];
+    }
+
+    public synchronized long getLastTimeMillis() {
+        if (size == 0) return 0;
+        return time[head == 0 ? capacity - 1 : head - 1];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Buffers are allocated up front, so this does not grow with the number of samples
+    public long getMemoryBytes() {
+        return FIXED_OVERHEAD_BYTES + (long) capacity * BYTES_PER_SAMPLE;
+    }
+}
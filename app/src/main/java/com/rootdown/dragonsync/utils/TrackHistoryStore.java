@@ -0,0 +1,82 @@
+package com.rootdown.dragonsync.utils;
+
+import com.rootdown.dragonsync.models.CoTMessage;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared per-drone sample history keyed by UID, and the one source of it. Written by CoTViewModel
+ * as messages arrive; read by the live map and detail view, the speed spoof check, and encounter
+ * persistence when contact is lost.
+ */
+public final class TrackHistoryStore {
+    private static final TrackHistoryStore instance = new TrackHistoryStore();
+
+    private final ConcurrentHashMap<String, TrackHistory> histories = new ConcurrentHashMap<>();
+
+    private TrackHistoryStore() {
+    }
+
+    public static TrackHistoryStore getInstance() {
+        return instance;
+    }
+
+    public TrackHistory get(String uid) {
+        return uid != null ? histories.get(uid) : null;
+    }
+
+    /**
+     * Appends the message's position, altitude, speed and RSSI at timeMillis on the track's
+     * timeline. includePosition is false when the position was carried over from an earlier
+     * observation; messages with neither a position nor an RSSI are skipped.
+     */
+    public void record(CoTMessage message, boolean includePosition, long timeMillis) {
+        String uid = message.getUid();
+        if (uid == null) return;
+
+        boolean hasPosition = includePosition && message.hasCoordinate();
+        Integer rssi = message.getRssi();
+        if (!hasPosition && rssi == null) return;
+
+        TrackHistory history = histories.get(uid);
+        if (history == null) {
+            history = new TrackHistory(Constants.MAX_FLIGHT_PATH_POINTS);
+            histories.put(uid, history);
+        }
+
+        history.append(
+                hasPosition ? message.getLatValue() : Double.NaN,
+                hasPosition ? message.getLonValue() : Double.NaN,
+                (float) message.getAltValue(),
+                (float) message.getSpeedValue(),
+                rssi != null ? rssi : Float.NaN,
+                timeMillis);
+    }
+
+    // Moves a drone's history to its new UID when its track is re-keyed
+    public void rename(String fromUid, String toUid) {
+        if (fromUid == null || toUid == null || fromUid.equals(toUid)) return;
+        TrackHistory history = histories.remove(fromUid);
+        if (history != null) histories.put(toUid, history);
+    }
+
+    public void remove(String uid) {
+        if (uid != null) histories.remove(uid);
+    }
+
+    public void clear() {
+        histories.clear();
+    }
+
+    public int size() {
+        return histories.size();
+    }
+
+    public long getMemoryBytes() {
+        long total = 0;
+        for (TrackHistory history : histories.values()) {
+            total += history.getMemoryBytes();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,131 @@
+package com.rootdown.dragonsync.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Per-key rate limiter that emits at most one value per window and keeps the newest. The first
+ * value after a quiet window goes out at once (leading edge); later values inside the window
+ * replace each other and the survivor is emitted when the window closes (trailing edge), so
+ * what reaches downstream is always the latest state. Keys with nothing emitted for idleMillis
+ * are evicted by their timer, and at most maxKeys are tracked, least recently offered first
+ * out.
+ *
+ * Window edges and idle expiry ride on a TimerWheel, so advance only visits due keys. Not
+ * thread-safe; callers serialize access.
+ */
+public final class TrailingRateLimiter<K, V> {
+
+    private static final class Entry<K, V> {
+        final K key;
+        final TimerWheel.Timer<Entry<K, V>> timer = new TimerWheel.Timer<>(this);
+        V pending;
+        long lastEmitMillis;
+
+        Entry(K key) {
+            this.key = key;
+        }
+    }
+
+    private final long idleMillis;
+    private final long tickMillis;
+    private final TimerWheel<Entry<K, V>> wheel;
+    private final Map<K, Entry<K, V>> entries;
+    private BiConsumer<K, V> emitter;
+    private long nowMillis;
+
+    private long offered;
+    private long emittedLeading;
+    private long emittedTrailing;
+    private long superseded;
+    private long evictedIdle;
+    private long droppedAtCapacity;
+
+    public TrailingRateLimiter(int maxKeys, long idleMillis, long tickMillis, long nowMillis) {
+        this.idleMillis = idleMillis;
+        this.tickMillis = tickMillis;
+        this.wheel = new TimerWheel<>(tickMillis, 256, nowMillis);
+        this.entries = new LinkedHashMap<K, Entry<K, V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<K, V>> eldest) {
+                if (size() <= maxKeys) return false;
+                wheel.cancel(eldest.getValue().timer);
+                if (eldest.getValue().pending != null) droppedAtCapacity++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Offers the key's newest value. Returns true when it may be emitted now; otherwise it is
+     * held, replacing any value already held, until the key's window closes.
+     */
+    public boolean offer(K key, V value, long windowMillis, long nowMillis) {
+        offered++;
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry<>(key);
+            entry.lastEmitMillis = Long.MIN_VALUE / 2;
+            entries.put(key, entry);
+        }
+
+        if (entry.pending == null && nowMillis - entry.lastEmitMillis >= windowMillis) {
+            entry.lastEmitMillis = nowMillis;
+            emittedLeading++;
+            schedule(entry, nowMillis + idleMillis);
+            return true;
+        }
+
+        if (entry.pending != null) {
+            superseded++;
+        } else {
+            schedule(entry, entry.lastEmitMillis + windowMillis);
+        }
+        entry.pending = value;
+        return false;
+    }
+
+    // Emits every held value whose window has closed and evicts idle keys
+    public void advance(long nowMillis, BiConsumer<K, V> emitter) {
+        this.emitter = emitter;
+        this.nowMillis = nowMillis;
+        wheel.advance(nowMillis, this::onTimer);
+        this.emitter = null;
+    }
+
+    private void onTimer(Entry<K, V> entry) {
+        if (entry.pending == null) {
+            entries.remove(entry.key);
+            evictedIdle++;
+            return;
+        }
+        V value = entry.pending;
+        entry.pending = null;
+        entry.lastEmitMillis = nowMillis;
+        emittedTrailing++;
+        schedule(entry, nowMillis + idleMillis);
+        emitter.accept(entry.key, value);
+    }
+
+    // TimerWheel rounds deadlines down to a tick; round up so no window closes early
+    private void schedule(Entry<K, V> entry, long deadlineMillis) {
+        wheel.schedule(entry.timer, deadlineMillis + tickMillis - 1);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        wheel.clear();
+        entries.clear();
+    }
+
+    public String describe() {
+        return String.format(Locale.US,
+                "keys %d, offered %d, leading %d, trailing %d, superseded %d, idle evictions %d, dropped %d",
+                entries.size(), offered, emittedLeading, emittedTrailing, superseded, evictedIdle, droppedAtCapacity);
+    }
+}
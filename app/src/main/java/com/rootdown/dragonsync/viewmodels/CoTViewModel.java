@@ -7,6 +7,9 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import android.location.Location;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import com.rootdown.dragonsync.models.CoTMessage;
@@ -17,17 +20,28 @@ import com.rootdown.dragonsync.network.XMLParser;
 import com.rootdown.dragonsync.network.ZMQHandler;
 import com.rootdown.dragonsync.utils.Constants;
 import com.rootdown.dragonsync.utils.DeviceLocationManager;
+import com.rootdown.dragonsync.utils.MacHistory;
 import com.rootdown.dragonsync.utils.Settings;
+import com.rootdown.dragonsync.utils.StateActor;
+import com.rootdown.dragonsync.utils.TrackHistoryStore;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class CoTViewModel extends ViewModel {
     private static final String TAG = "CoTViewModel";
+
+    // Called on the writer thread when a track passes its stale time without a newer message
+    public interface LostContactListener {
+        void onLostContact(CoTMessage lastMessage);
+    }
     private final Settings settings;
     private final XMLParser xmlParser;
     private String ssid;
@@ -52,9 +66,35 @@ public class CoTViewModel extends ViewModel {
     }
     private final MutableLiveData<List<CoTMessage>> parsedMessages = new MutableLiveData<>(new ArrayList<>());
     private final MutableLiveData<List<DroneSignature>> droneSignatures = new MutableLiveData<>(new ArrayList<>());
-    private final MutableLiveData<Map<String, Set<String>>> macIdHistory = new MutableLiveData<>(new HashMap<>());
+    private final MutableLiveData<Map<String, MacHistory>> macIdHistory = new MutableLiveData<>(new HashMap<>());
+    private final MutableLiveData<Set<String>> lostContactUids = new MutableLiveData<>(Collections.emptySet());
     private final MutableLiveData<Boolean> isListening = new MutableLiveData<>(false);
-    private final Map<String, Boolean> macProcessing = new HashMap<>();
+
+    // All drone state below is owned by the writer thread; other threads submit to it and
+    // read the published snapshot
+    private final StateActor writer = new StateActor("CoTViewModel-writer");
+    private final DroneRegistry registry = new DroneRegistry();
+    private final TrackFusion fusion = new TrackFusion();
+    private final TrackHistoryStore historyStore = TrackHistoryStore.getInstance();
+    private final RecentTrackSpeed recentTrackSpeed = new RecentTrackSpeed();
+    // Anchors the monotonic arrival clock to wall time, so track timelines read as epoch millis
+    private final long arrivalClockOffsetMillis = System.currentTimeMillis() - SystemClock.elapsedRealtime();
+
+    private long signaturesVersion;
+
+    // Updates are coalesced and published at most once per SNAPSHOT_PUBLISH_INTERVAL_MS
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean publishScheduled = new AtomicBoolean(false);
+    private final Runnable publishRunnable = () -> writer.submit(this::publishSnapshot);
+    private volatile DroneSnapshot snapshot = DroneSnapshot.EMPTY;
+
+    // Expiry ticks only run while some track has a pending expiry
+    private final AtomicBoolean expiryTickScheduled = new AtomicBoolean(false);
+    private final Runnable expiryTickRunnable = () -> writer.submit(this::expireTracks);
+    private final List<LostContactListener> lostContactListeners = new CopyOnWriteArrayList<>();
+    private long publishedMessagesVersion;
+    private long publishedSignaturesVersion;
+    private long publishedMacHistoryVersion;
 
     private ZMQHandler zmqHandler;
     private MulticastHandler multicastHandler;
@@ -136,38 +176,39 @@ public class CoTViewModel extends ViewModel {
     }
 
     private void processIncomingMessage(String message) {
-        XMLParser.ParseResult result = xmlParser.parse(message);
-
-        if (result.error != null) {
-            Log.e(TAG, "Error parsing message: " + result.error);
-            return;
-        }
+        // A frame may carry several events, one per drone
+        for (XMLParser.ParseResult result : xmlParser.parseAll(message)) {
+            if (result.error != null) {
+                Log.e(TAG, "Error parsing message: " + result.error);
+                continue;
+            }
 
-        if (result.cotMessage != null) {
-            Log.d(TAG, "Successfully parsed CoT message with UID: " + result.cotMessage.getUid());
-            updateMessage(result.cotMessage);
-        } else {
-            Log.w(TAG, "No valid message parsed from incoming data");
+            if (result.cotMessage != null) {
+                Log.d(TAG, "Successfully parsed CoT message with UID: " + result.cotMessage.getUid());
+                updateMessage(result.cotMessage);
+            } else {
+                Log.w(TAG, "No valid message parsed from incoming data");
+            }
         }
     }
 
     private void processStatusMessage(String message) {
         // Handle status messages (system stats, etc.)
-        XMLParser.ParseResult result = xmlParser.parse(message);
-
-        if (result.error != null) {
-            Log.e(TAG, "Error parsing status message: " + result.error);
-            return;
-        }
+        for (XMLParser.ParseResult result : xmlParser.parseAll(message)) {
+            if (result.error != null) {
+                Log.e(TAG, "Error parsing status message: " + result.error);
+                continue;
+            }
 
-        if (result.statusMessage != null) {
-            // Here you would typically update a status LiveData object
-            // or broadcast the status message to other components
-            Log.d(TAG, "Successfully parsed status message");
-        } else if (result.cotMessage != null) {
-            // Sometimes status messages might contain drone information too
-            Log.d(TAG, "Status message contained CoT data, updating");
-            updateMessage(result.cotMessage);
+            if (result.statusMessage != null) {
+                // Here you would typically update a status LiveData object
+                // or broadcast the status message to other components
+                Log.d(TAG, "Successfully parsed status message");
+            } else if (result.cotMessage != null) {
+                // Sometimes status messages might contain drone information too
+                Log.d(TAG, "Status message contained CoT data, updating");
+                updateMessage(result.cotMessage);
+            }
         }
     }
 
@@ -184,277 +225,224 @@ public class CoTViewModel extends ViewModel {
             }
         }
 
-        List<CoTMessage> currentMessages = parsedMessages.getValue();
-        if (currentMessages == null) {
-            currentMessages = new ArrayList<>();
+        writer.submit(() -> applyMessage(message));
+    }
+
+    // Writer thread only
+    private void applyMessage(CoTMessage message) {
+        DroneRegistry.Track track = registry.find(message);
+
+        // One UID per physical drone, whichever identifier linked this observation; the first
+        // RID a MAC-keyed track sees re-keys it, history included
+        if (track != null) {
+            String previousUid = track.getMessage().getUid();
+            String uid = registry.resolveUid(track, message);
+            if (previousUid != null && !previousUid.equals(uid)) {
+                Log.d(TAG, "Re-keying track " + previousUid + " as " + uid);
+                historyStore.rename(previousUid, uid);
+            }
+            message.setUid(uid);
         }
 
-        // Update MAC history for this drone
-        updateMacHistory(message);
+        // Rates for the spoof filter and signature are measured on the track's own timeline
+        TrackClock clock = track != null ? track.getClock() : new TrackClock();
+        long sampleMillis = clock.advance(message, arrivalClockOffsetMillis + SystemClock.elapsedRealtime());
 
         // Perform spoof detection if enabled
+        KinematicSpoofDetector detector = null;
         if (settings != null && settings.isSpoofDetectionEnabled()) {
-            performSpoofDetection(message, currentMessages);
+            detector = track != null ? track.getSpoofDetector() : null;
+            if (detector == null) detector = new KinematicSpoofDetector();
+            performSpoofDetection(message, sampleMillis, detector);
         }
 
-        // Find existing message or add new one
-        int existingIndex = findExistingMessageIndex(currentMessages, message);
-        if (existingIndex != -1) {
+        if (track != null) {
             Log.d(TAG, "Updating existing message for UID: " + message.getUid());
-            currentMessages.set(existingIndex, message);
         } else {
             Log.d(TAG, "Adding new message for UID: " + message.getUid());
-            currentMessages.add(message);
         }
 
-        // Limit the list size to avoid memory issues
-        if (currentMessages.size() > Constants.MAX_MESSAGES_CACHE) {
-            currentMessages = new ArrayList<>(
-                    currentMessages.subList(
-                            currentMessages.size() - Constants.MAX_MESSAGES_CACHE,
-                            currentMessages.size()
-                    )
-            );
-            Log.d(TAG, "Trimmed message cache to " + Constants.MAX_MESSAGES_CACHE + " items");
+        // Fold this observation into the track so each physical drone stays a single entry
+        long now = System.currentTimeMillis();
+        boolean ownPosition = fusion.fuse(message, track, now);
+        boolean wasRandomized = track != null && track.getMacHistory().hasRandomizedMac();
+        track = registry.put(message, track, now);
+        if (!wasRandomized && track.getMacHistory().hasRandomizedMac()) {
+            Log.d(TAG, "Detected possible MAC randomization for UID: " + message.getUid());
         }
-
-        // Update the LiveData with a new list to trigger observers
-        parsedMessages.postValue(new ArrayList<>(currentMessages));
-
-        // Update drone signatures based on this message
-        updateDroneSignatures(message);
-    }
-
-    private int findExistingMessageIndex(List<CoTMessage> messages, CoTMessage newMessage) {
-        if (messages == null || newMessage == null || newMessage.getUid() == null) {
-            return -1;
+        track.setClock(clock);
+        if (detector != null) track.setSpoofDetector(detector);
+        if (ownPosition) {
+            fusion.recordPosition(track, message, now);
         }
+        historyStore.record(message, ownPosition, sampleMillis);
 
-        // First try an RID match for ID
-        if (newMessage.getId() != null && !newMessage.getId().isEmpty()) {
-            for (int i = 0; i < messages.size(); i++) {
-                if (newMessage.getId().equals(messages.get(i).getId())) {
-                    return i;
-                }
-            }
+        // Limit the registry size to avoid memory issues; the least recently updated drones go first
+        if (registry.trimTo(Constants.MAX_MESSAGES_CACHE, this::onTrackRemoved) > 0) {
+            Log.d(TAG, "Trimmed message cache to " + Constants.MAX_MESSAGES_CACHE + " items (~" +
+                    registry.getMemoryBytes() / 1024 + " KB of track state)");
         }
 
-        // Then try to match by MAC address if available
-        if (newMessage.getMac() != null && !newMessage.getMac().isEmpty()) {
-            for (int i = 0; i < messages.size(); i++) {
-                if (newMessage.getMac().equals(messages.get(i).getMac())) {
-                    return i;
-                }
-            }
-        }
+        // Update drone signatures based on this message
+        updateDroneSignatures(track, message, ownPosition, now, sampleMillis);
 
-        // Then try to match by UID
-        for (int i = 0; i < messages.size(); i++) {
-            if (newMessage.getUid().equals(messages.get(i).getUid())) {
-                return i;
-            }
-        }
+        registry.scheduleExpiry(track, now + getTrackLifetimeMillis(message));
+        scheduleExpiryTick();
 
-        return -1;
+        schedulePublish();
     }
 
-    private void updateMacHistory(CoTMessage message) {
-        if (message.getMac() == null || message.getMac().isEmpty() || message.getUid() == null) {
-            return;
-        }
-
-        Map<String, Set<String>> history = macIdHistory.getValue();
-        if (history == null) {
-            history = new HashMap<>();
-        }
-
-        // Get or create the set of MACs for this UID
-        Set<String> macs = history.getOrDefault(message.getUid(), new HashSet<>());
-        macs.add(message.getMac());
-
-        // Check for randomized MAC (for spoof detection)
-        if (message.getMac().length() >= 2) {
-            char secondChar = message.getMac().charAt(1);
-            if ("26AE".indexOf(secondChar) != -1) {
-                macProcessing.put(message.getUid(), true);
-                Log.d(TAG, "Detected possible MAC randomization for UID: " + message.getUid());
-            }
+    // The sender's stale - time window when the CoT event carries one, else the configured TTL
+    private long getTrackLifetimeMillis(CoTMessage message) {
+        long staleMillis = message.getStaleMillis();
+        long timeMillis = message.getTimeMillis();
+        if (staleMillis > 0 && timeMillis > 0 && staleMillis > timeMillis) {
+            return Math.min(staleMillis - timeMillis, Constants.MAX_TRACK_TTL_MS);
         }
-
-        history.put(message.getUid(), macs);
-        macIdHistory.postValue(new HashMap<>(history));
+        int ttlSeconds = settings != null ? settings.getTrackTtlSeconds() : Constants.DEFAULT_TRACK_TTL_SECONDS;
+        return ttlSeconds * 1000L;
     }
 
-    private void performSpoofDetection(CoTMessage message, List<CoTMessage> currentMessages) {
-        // Find existing message for this UID if any
-        CoTMessage existingMessage = null;
-        for (CoTMessage msg : currentMessages) {
-            if (msg.getUid().equals(message.getUid())) {
-                existingMessage = msg;
-                break;
-            }
-        }
-
-        if (existingMessage == null) {
-            // No previous message to compare with
-            return;
-        }
-
-        // Check for RSSI consistency in onboard mode
-        if (isOnboardMode && message.getRssi() != null && existingMessage.getRssi() != null) {
-            int rssiDelta = Math.abs(message.getRssi() - existingMessage.getRssi());
-
-            // Get device locations
-            Location currentDeviceLocation = locationManager.getCurrentLocation();
-            Location previousDeviceLocation = null;
-
-            // Try to retrieve previous device location from message metadata
-            if (existingMessage.getRawMessage() != null &&
-                    existingMessage.getRawMessage().containsKey("device_location")) {
-                previousDeviceLocation = (Location) existingMessage.getRawMessage().get("device_location");
-            }
-
-            // If we have both current and previous device locations
-            if (currentDeviceLocation != null && previousDeviceLocation != null) {
-                // Calculate device movement
-                float deviceMovement = currentDeviceLocation.distanceTo(previousDeviceLocation);
-
-                // If device has moved significantly but RSSI hasn't changed proportionally
-                if (deviceMovement > 10 && rssiDelta < 5) {
-                    // Potential spoofing - RSSI should change when you move
-                    Log.w(TAG, "Potential spoofing detected for UID: " + message.getUid() +
-                            " - Device moved " + deviceMovement + "m but RSSI changed only by " +
-                            rssiDelta + " dBm");
-
-                    message.setSpoofed(true);
-                    DroneSignature.SpoofDetectionResult spoofResult =
-                            new DroneSignature.SpoofDetectionResult(0.75,
-                                    "Suspicious RSSI pattern: your device moved but signal strength didn't change");
-                    message.setSpoofingDetails(spoofResult);
-                }
-            }
+    private void onTrackRemoved(DroneRegistry.Track track) {
+        historyStore.remove(track.getMessage().getUid());
+    }
 
-            // Store current device location in message metadata
-            if (currentDeviceLocation != null) {
-                if (message.getRawMessage() == null) {
-                    message.setRawMessage(new HashMap<>());
-                }
-                message.getRawMessage().put("device_location", currentDeviceLocation);
-            }
+    private void scheduleExpiryTick() {
+        if (expiryTickScheduled.compareAndSet(false, true)) {
+            mainHandler.postDelayed(expiryTickRunnable, Constants.TRACK_EXPIRY_TICK_MS);
         }
+    }
 
-        // Compare location, if both messages have valid coordinates
-        if (message.getCoordinate() != null && existingMessage.getCoordinate() != null) {
-            Location newLocation = message.getCoordinate();
-            Location oldLocation = existingMessage.getCoordinate();
-
-            // Calculate distance between points
-            float distance = newLocation.distanceTo(oldLocation);
-
-            // Calculate time difference
-            long timeDiff = 0;
-            try {
-                if (message.getTimestamp() != null && existingMessage.getTimestamp() != null) {
-                    long newTime = Long.parseLong(message.getTimestamp());
-                    long oldTime = Long.parseLong(existingMessage.getTimestamp());
-                    timeDiff = newTime - oldTime;
+    // Writer thread only. First expiry marks the track stale; the second removes it
+    private void expireTracks() {
+        expiryTickScheduled.set(false);
+        long now = System.currentTimeMillis();
+
+        registry.expireDue(now, track -> {
+            CoTMessage message = track.getMessage();
+            if (!track.isStale()) {
+                // The message may already be in a published snapshot, so the flag lives on the
+                // track and reaches readers through the next snapshot
+                registry.markStale(track);
+                registry.scheduleExpiry(track, now + Constants.STALE_TRACK_REMOVE_AFTER_MS);
+                Log.i(TAG, "Lost contact with UID: " + message.getUid());
+                for (LostContactListener listener : lostContactListeners) {
+                    listener.onLostContact(message);
                 }
-            } catch (NumberFormatException e) {
-                // Use a default time difference if parsing fails
-                timeDiff = 1000; // Assume 1 second
+            } else {
+                registry.remove(track.getHandle());
+                onTrackRemoved(track);
+                Log.d(TAG, "Removed stale track for UID: " + message.getUid());
             }
+        });
 
-            // Only check if time difference is positive and reasonable
-            if (timeDiff > 0) {
-                // Calculate speed in m/s
-                float speed = distance / (timeDiff / 1000f);
-
-                // Check if speed exceeds maximum realistic drone speed
-                if (speed > Constants.MAX_SPEED_MPS && distance > Constants.MIN_POSITION_CHANGE) {
-                    // Potential spoofing detected - unrealistic movement
-                    Log.w(TAG, "Potential spoofing detected for UID: " + message.getUid() +
-                            " - Calculated speed: " + speed + " m/s, Distance: " + distance + " m");
-
-                    // Mark as spoofed
-                    message.setSpoofed(true);
-
-                    // Create spoofing details if needed
-                    DroneSignature.SpoofDetectionResult spoofResult = new DroneSignature.SpoofDetectionResult();
-                    message.setSpoofingDetails(spoofResult);
-                }
-            }
+        if (registry.getPendingExpiryCount() > 0) {
+            scheduleExpiryTick();
         }
+        schedulePublish();
+    }
 
-        // Compare RSSI changes if both messages have RSSI values
-        if (message.getRssi() != null && existingMessage.getRssi() != null) {
-            int rssiDelta = Math.abs(message.getRssi() - existingMessage.getRssi());
-
-            if (rssiDelta > Constants.MIN_RSSI_DELTA) {
-                // Large RSSI change might indicate spoofing
-                Log.w(TAG, "Suspicious RSSI change for UID: " + message.getUid() +
-                        " - Delta: " + rssiDelta + " dBm");
-
-                // This alone isn't conclusive, but can contribute to overall confidence
-                if (message.isSpoofed()) {
-                    // Increment confidence if already marked as spoofed
-                    Log.w(TAG, "Multiple spoofing indicators detected for UID: " + message.getUid());
-                }
-            }
+    private void schedulePublish() {
+        if (publishScheduled.compareAndSet(false, true)) {
+            mainHandler.postDelayed(publishRunnable, Constants.SNAPSHOT_PUBLISH_INTERVAL_MS);
         }
     }
 
-    private void updateDroneSignatures(CoTMessage message) {
-        // Get current signatures
-        List<DroneSignature> signatures = droneSignatures.getValue();
-        if (signatures == null) {
-            signatures = new ArrayList<>();
+    // Writer thread only; rebuilds just the parts that changed since the last snapshot
+    private void publishSnapshot() {
+        publishScheduled.set(false);
+
+        boolean messagesChanged = registry.getVersion() != publishedMessagesVersion;
+        boolean signaturesChanged = signaturesVersion != publishedSignaturesVersion;
+        boolean macHistoryChanged = registry.getMacVersion() != publishedMacHistoryVersion;
+        if (!messagesChanged && !signaturesChanged && !macHistoryChanged) return;
+
+        DroneSnapshot previous = snapshot;
+        DroneSnapshot next = new DroneSnapshot(previous.getVersion() + 1,
+                messagesChanged ? registry.getMessages() : previous.getMessages(),
+                signaturesChanged ? registry.getSignatures() : previous.getSignatures(),
+                macHistoryChanged ? registry.getMacHistories() : previous.getMacHistory(),
+                messagesChanged ? registry.getLostContactUids() : previous.getLostContactUids());
+        publishedMessagesVersion = registry.getVersion();
+        publishedSignaturesVersion = signaturesVersion;
+        publishedMacHistoryVersion = registry.getMacVersion();
+
+        snapshot = next;
+        if (messagesChanged) {
+            // Posted ahead of the messages so their observers already see which drones are lost
+            lostContactUids.postValue(next.getLostContactUids());
+            parsedMessages.postValue(next.getMessages());
         }
+        if (signaturesChanged) droneSignatures.postValue(next.getSignatures());
+        if (macHistoryChanged) macIdHistory.postValue(next.getMacHistory());
+    }
 
-        // Find existing signature or create new one
-        DroneSignature existingSignature = null;
-        for (DroneSignature sig : signatures) {
-            if (sig.getPrimaryId() != null &&
-                    sig.getPrimaryId().getId() != null &&
-                    sig.getPrimaryId().getId().equals(message.getUid())) {
-                existingSignature = sig;
-                break;
+    // Scores the message's own observation with the track's kinematic filter before fusion
+    private void performSpoofDetection(CoTMessage message, long sampleMillis, KinematicSpoofDetector detector) {
+        double receiverLat = Double.NaN;
+        double receiverLon = Double.NaN;
+        // Onboard, the receiving antenna is this device
+        if (isOnboardMode && locationManager != null) {
+            Location deviceLocation = locationManager.getCurrentLocation();
+            if (deviceLocation != null) {
+                receiverLat = deviceLocation.getLatitude();
+                receiverLon = deviceLocation.getLongitude();
             }
         }
 
-        if (existingSignature != null) {
-            // Update existing signature
-            updateExistingSignature(existingSignature, message);
-        } else {
-            // Create new signature
-            DroneSignature newSignature = createSignatureFromMessage(message);
-            if (newSignature != null) {
-                signatures.add(newSignature);
-            }
+        double confidence = detector.update(message, sampleMillis, receiverLat, receiverLon);
+        if (detector.isSpoofed()) {
+            DroneSignature.SpoofDetectionResult spoofResult = detector.toResult();
+            Log.w(TAG, "Potential spoofing detected for UID: " + message.getUid() +
+                    " - " + spoofResult.getReason() + " (confidence " + confidence + ")");
+            message.setSpoofed(true);
+            message.setSpoofingDetails(spoofResult);
         }
-
-        // Update the LiveData
-        droneSignatures.postValue(new ArrayList<>(signatures));
     }
 
-    private void updateExistingSignature(DroneSignature signature, CoTMessage message) {
-        // Update signature with new message data
-        // This would update position, movement vector, etc.
+    private void updateDroneSignatures(DroneRegistry.Track track, CoTMessage message, boolean ownPosition,
+                                       long now, long sampleMillis) {
+        SignatureBuilder builder = track.getSignatureBuilder();
+        if (builder == null) {
+            Log.d(TAG, "Creating new drone signature for UID: " + message.getUid());
+            builder = new SignatureBuilder(now);
+            track.setSignatureBuilder(builder);
+        }
+        track.setSignature(builder.update(message, ownPosition, now, sampleMillis));
+        signaturesVersion++;
 
-        // Implementation depends on DroneSignature class structure TODO!
-        // For now, just log that we're updating
-        Log.d(TAG, "Updating drone signature for UID: " + message.getUid());
+        if (settings != null && settings.isSpoofDetectionEnabled()) {
+            checkSignatureConsistency(message, builder, sampleMillis);
+        }
     }
 
-    private DroneSignature createSignatureFromMessage(CoTMessage message) {
-        // Create a new drone signature from the message
-        // This would set all initial signature data
-
-        // Implementation depends on DroneSignature class structure TODO!
-        // For now, just log that we're creating a new signature
-        Log.d(TAG, "Creating new drone signature for UID: " + message.getUid());
+    // Reported kinematics that the track's own movement contradicts
+    private void checkSignatureConsistency(CoTMessage message, SignatureBuilder builder, long sampleMillis) {
+        if (builder.getMessageCount() < Constants.MIN_SIGNATURE_MESSAGES) return;
+
+        // Movement over the recorded path rather than the last step, so one noisy fix can't flag
+        double reportedSpeed = message.getSpeedValue();
+        double derivedSpeed = recentTrackSpeed.measure(historyStore.get(message.getUid()),
+                sampleMillis - Constants.SPEED_CHECK_WINDOW_MS, sampleMillis);
+        if (!Double.isNaN(reportedSpeed) && !Double.isNaN(derivedSpeed)
+                && Math.abs(reportedSpeed - derivedSpeed) > Constants.MAX_SPEED_MISMATCH_MPS) {
+            Log.w(TAG, "Potential spoofing detected for UID: " + message.getUid() +
+                    " - Reported speed " + reportedSpeed + " m/s, track speed " + derivedSpeed + " m/s");
+            message.setSpoofed(true);
+            message.setSpoofingDetails(new DroneSignature.SpoofDetectionResult(0.6, String.format(Locale.US,
+                    "Reported speed %.1f m/s does not match track movement of %.1f m/s",
+                    reportedSpeed, derivedSpeed)));
+            return;
+        }
 
-        // Return null for now as the implementation depends on DroneSignature structure
-        return null;
+        double climbRate = builder.getClimbRate();
+        if (!Double.isNaN(climbRate) && Math.abs(climbRate) > Constants.MAX_CLIMB_RATE_MPS) {
+            Log.w(TAG, "Potential spoofing detected for UID: " + message.getUid() +
+                    " - Climb rate " + climbRate + " m/s");
+            message.setSpoofed(true);
+            message.setSpoofingDetails(new DroneSignature.SpoofDetectionResult(0.6, String.format(Locale.US,
+                    "Unrealistic climb rate of %.1f m/s", climbRate)));
+        }
     }
 
     public void stopListening() {
@@ -470,10 +458,33 @@ public class CoTViewModel extends ViewModel {
     }
 
     public void clearMessages() {
-        parsedMessages.setValue(new ArrayList<>());
-        droneSignatures.setValue(new ArrayList<>());
-        macIdHistory.setValue(new HashMap<>());
-        macProcessing.clear();
+        writer.submit(() -> {
+            registry.clear();
+            historyStore.clear();
+            signaturesVersion++;
+            publishSnapshot();
+        });
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        mainHandler.removeCallbacks(publishRunnable);
+        mainHandler.removeCallbacks(expiryTickRunnable);
+        writer.shutdown();
+    }
+
+    public void addLostContactListener(LostContactListener listener) {
+        lostContactListeners.add(listener);
+    }
+
+    public void removeLostContactListener(LostContactListener listener) {
+        lostContactListeners.remove(listener);
+    }
+
+    // Latest published state; safe to read from any thread
+    public DroneSnapshot getSnapshot() {
+        return snapshot;
     }
 
     // Getters for LiveData
@@ -485,15 +496,30 @@ public class CoTViewModel extends ViewModel {
         return droneSignatures;
     }
 
-    public LiveData<Map<String, Set<String>>> getMacHistory() {
+    // Latest published signature for a drone, or null
+    public DroneSignature getSignature(String uid) {
+        if (uid == null) return null;
+        for (DroneSignature signature : snapshot.getSignatures()) {
+            if (uid.equals(signature.getUid())) return signature;
+        }
+        return null;
+    }
+
+    // Live, synchronized per-UID histories; the map is republished when a drone gains a MAC
+    public LiveData<Map<String, MacHistory>> getMacHistory() {
         return macIdHistory;
     }
 
-    public LiveData<Boolean> getIsListening() {
-        return isListening;
+    public MacHistory getMacHistory(String uid) {
+        return uid != null ? snapshot.getMacHistory().get(uid) : null;
+    }
+
+    // UIDs of drones past their stale time, still listed until they are removed
+    public LiveData<Set<String>> getLostContactUids() {
+        return lostContactUids;
     }
 
-    public Map<String, Boolean> getMacProcessing() {
-        return macProcessing;
+    public LiveData<Boolean> getIsListening() {
+        return isListening;
     }
 }
\ No newline at end of file
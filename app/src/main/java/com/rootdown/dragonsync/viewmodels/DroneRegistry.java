@@ -0,0 +1,357 @@
+package com.rootdown.dragonsync.viewmodels;
+
+import com.rootdown.dragonsync.models.CoTMessage;
+import com.rootdown.dragonsync.models.DroneSignature;
+import com.rootdown.dragonsync.utils.Constants;
+import com.rootdown.dragonsync.utils.LongHashMap;
+import com.rootdown.dragonsync.utils.MacHistory;
+import com.rootdown.dragonsync.utils.TimerWheel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Active drones keyed by a stable track handle, with hash indexes on RID id, MAC, operator ID and
+ * UID so an incoming message resolves to its track in O(1). Lookup precedence is RID id, MAC,
+ * operator ID, then UID; the last three never link a message to a track with a different RID.
+ * When a track's identifiers change (e.g. the MAC rotates while the RID stays constant) the
+ * indexes follow and the handle is kept; recent MACs stay indexed as aliases so observations
+ * from any of them link back to the same track.
+ * Each track also carries an expiry timer on a shared timer wheel.
+ *
+ * Not thread-safe; callers serialize access.
+ */
+public class DroneRegistry {
+
+    public static final class Track {
+        private final int handle;
+        private final TimerWheel.Timer<Track> expiryTimer = new TimerWheel.Timer<>(this);
+        private CoTMessage message;
+        private DroneSignature signature;
+        private SignatureBuilder signatureBuilder;
+        private KinematicSpoofDetector spoofDetector;
+        private TrackClock clock;
+        private String rid;
+        private final MacHistory macs = new MacHistory(Constants.MAX_MAC_ALIASES);
+        private String operatorId;
+        private String uid;
+        private boolean stale;
+        // Last-updated list, least recently updated first
+        private Track lruPrev;
+        private Track lruNext;
+        // Fusion state for the position currently shown on the track
+        private long positionTimeMillis;
+        private double positionErrorMeters = Double.POSITIVE_INFINITY;
+
+        private Track(int handle) {
+            this.handle = handle;
+        }
+
+        public int getHandle() { return handle; }
+        public CoTMessage getMessage() { return message; }
+        public DroneSignature getSignature() { return signature; }
+        public void setSignature(DroneSignature signature) { this.signature = signature; }
+        public boolean isStale() { return stale; }
+        public MacHistory getMacHistory() { return macs; }
+
+        SignatureBuilder getSignatureBuilder() { return signatureBuilder; }
+        void setSignatureBuilder(SignatureBuilder signatureBuilder) { this.signatureBuilder = signatureBuilder; }
+        KinematicSpoofDetector getSpoofDetector() { return spoofDetector; }
+        void setSpoofDetector(KinematicSpoofDetector spoofDetector) { this.spoofDetector = spoofDetector; }
+        TrackClock getClock() { return clock; }
+        void setClock(TrackClock clock) { this.clock = clock; }
+
+        long getPositionTimeMillis() { return positionTimeMillis; }
+        double getPositionErrorMeters() { return positionErrorMeters; }
+        void setPosition(long timeMillis, double errorMeters) {
+            positionTimeMillis = timeMillis;
+            positionErrorMeters = errorMeters;
+        }
+    }
+
+    // Approximate object sizes for getMemoryBytes: a Track with its timer, and one hash map entry
+    // including its boxed or string key
+    private static final int TRACK_BYTES = 120;
+    private static final int MAP_ENTRY_BYTES = 48;
+
+    private final Map<String, Track> byRid = new HashMap<>();
+    // Packed MAC -> track, covering every MAC retained in any track's history
+    private final LongHashMap<Track> byMac = new LongHashMap<>(256);
+    private final Map<String, Track> byOperator = new HashMap<>();
+    private final Map<String, Track> byUid = new HashMap<>();
+    // Insertion order is the order drones were first seen, as in the old message list
+    private final LinkedHashMap<Integer, Track> tracks = new LinkedHashMap<>();
+    // Intrusive list through the tracks in update order, so eviction picks the least recently
+    // updated drone rather than the first one seen
+    private Track lruHead;
+    private Track lruTail;
+    private int nextHandle = 1;
+    // Bumped on every change so publishers can tell whether a new snapshot is needed
+    private long version;
+    // Bumped when a track gains a MAC or tracks go away
+    private long macVersion;
+    private final TimerWheel<Track> expiryWheel = new TimerWheel<>(
+            Constants.TRACK_EXPIRY_TICK_MS, 512, System.currentTimeMillis());
+
+    public Track find(CoTMessage message) {
+        Track track = lookup(byRid, message.getId());
+        if (track == null) track = sameRid(lookupMac(message.getMac()), message);
+        if (track == null) track = sameRid(lookup(byOperator, message.getOperatorId()), message);
+        if (track == null) track = sameRid(lookup(byUid, message.getUid()), message);
+        return track;
+    }
+
+    /**
+     * The UID a message linked to track should carry, so each physical drone keeps one. That is
+     * the track's UID, except when the message brings the first RID to a track linked so far only
+     * by MAC, operator ID or UID: the RID-bearing message's UID (usually the serial) then replaces
+     * one derived from a MAC, and put() moves the UID index with it.
+     */
+    public String resolveUid(Track track, CoTMessage message) {
+        String trackUid = track.message != null ? track.message.getUid() : null;
+        if (trackUid == null) return message.getUid();
+        if (track.rid == null && !isEmpty(message.getId()) && !isEmpty(message.getUid())) {
+            return message.getUid();
+        }
+        return trackUid;
+    }
+
+    public Track get(int handle) {
+        return tracks.get(handle);
+    }
+
+    /**
+     * Stores the message on its track, creating one if none matches, and returns the track.
+     * Pass the result of a prior {@link #find} to skip the second lookup.
+     */
+    public Track put(CoTMessage message, Track track, long nowMillis) {
+        if (track == null || tracks.get(track.handle) != track) {
+            track = find(message);
+        }
+        if (track == null) {
+            track = new Track(nextHandle++);
+            tracks.put(track.handle, track);
+        } else {
+            unlink(track);
+        }
+        linkLast(track);
+
+        track.message = message;
+        track.stale = false;
+        version++;
+        track.rid = reindex(byRid, track, track.rid, message.getId());
+        addMacAlias(track, message.getMac(), nowMillis);
+        track.operatorId = reindex(byOperator, track, track.operatorId, message.getOperatorId());
+        String uid = reindex(byUid, track, track.uid, message.getUid());
+        // MAC histories are published keyed by UID
+        if (track.uid != null && !track.uid.equals(uid)) macVersion++;
+        track.uid = uid;
+        return track;
+    }
+
+    // Drops the least recently updated tracks until at most maxSize remain; returns how many were removed
+    public int trimTo(int maxSize, Consumer<Track> onRemoved) {
+        int removed = 0;
+        while (tracks.size() > maxSize && lruHead != null) {
+            Track track = lruHead;
+            tracks.remove(track.handle);
+            unindex(track);
+            onRemoved.accept(track);
+            removed++;
+        }
+        if (removed > 0) {
+            version++;
+            macVersion++;
+        }
+        return removed;
+    }
+
+    public boolean remove(int handle) {
+        Track track = tracks.remove(handle);
+        if (track == null) return false;
+        unindex(track);
+        version++;
+        macVersion++;
+        return true;
+    }
+
+    public int size() {
+        return tracks.size();
+    }
+
+    public void clear() {
+        tracks.clear();
+        lruHead = null;
+        lruTail = null;
+        byRid.clear();
+        byMac.clear();
+        byOperator.clear();
+        byUid.clear();
+        expiryWheel.clear();
+        version++;
+        macVersion++;
+    }
+
+    // Replaces any pending expiry for the track
+    public void scheduleExpiry(Track track, long deadlineMillis) {
+        expiryWheel.schedule(track.expiryTimer, deadlineMillis);
+    }
+
+    public void markStale(Track track) {
+        if (track.stale) return;
+        track.stale = true;
+        version++;
+    }
+
+    // Hands every track whose expiry is due to onExpired; cost is proportional to elapsed ticks
+    public void expireDue(long nowMillis, Consumer<Track> onExpired) {
+        expiryWheel.advance(nowMillis, onExpired);
+    }
+
+    public int getPendingExpiryCount() {
+        return expiryWheel.size();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Rough footprint of the tracks and indexes, excluding the messages and signatures they hold
+    public long getMemoryBytes() {
+        long bytes = byMac.getMemoryBytes();
+        bytes += (long) tracks.size() * (TRACK_BYTES + MacHistory.getMemoryBytes(Constants.MAX_MAC_ALIASES));
+        bytes += (long) (tracks.size() + byRid.size() + byOperator.size() + byUid.size()) * MAP_ENTRY_BYTES;
+        return bytes;
+    }
+
+    public long getMacVersion() {
+        return macVersion;
+    }
+
+    // Tracks are keyed by their message's UID; the histories are shared, not copied
+    public Map<String, MacHistory> getMacHistories() {
+        Map<String, MacHistory> histories = new HashMap<>();
+        for (Track track : tracks.values()) {
+            if (track.macs.size() > 0 && track.message.getUid() != null) {
+                histories.put(track.message.getUid(), track.macs);
+            }
+        }
+        return Collections.unmodifiableMap(histories);
+    }
+
+    public List<CoTMessage> getMessages() {
+        List<CoTMessage> messages = new ArrayList<>(tracks.size());
+        for (Track track : tracks.values()) {
+            messages.add(track.message);
+        }
+        return Collections.unmodifiableList(messages);
+    }
+
+    // UIDs of tracks that passed their stale time without a newer message
+    public Set<String> getLostContactUids() {
+        Set<String> uids = new HashSet<>();
+        for (Track track : tracks.values()) {
+            if (track.stale && track.message.getUid() != null) uids.add(track.message.getUid());
+        }
+        return uids.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(uids);
+    }
+
+    public List<DroneSignature> getSignatures() {
+        List<DroneSignature> signatures = new ArrayList<>();
+        for (Track track : tracks.values()) {
+            if (track.signature != null) signatures.add(track.signature);
+        }
+        return Collections.unmodifiableList(signatures);
+    }
+
+    private static Track lookup(Map<String, Track> index, String key) {
+        return isEmpty(key) ? null : index.get(key);
+    }
+
+    // Moves the track's entry from oldKey to newKey. A key already claimed by another track is
+    // taken over, since the newest message is the best evidence of who owns an identifier.
+    private static String reindex(Map<String, Track> index, Track track, String oldKey, String newKey) {
+        if (isEmpty(newKey)) return oldKey;
+        if (newKey.equals(oldKey) && index.get(newKey) == track) return oldKey;
+
+        if (oldKey != null && index.get(oldKey) == track) {
+            index.remove(oldKey);
+        }
+        index.put(newKey, track);
+        return newKey;
+    }
+
+    // A MAC can be reused or randomized onto another drone, one operator may fly several and a
+    // UID may be reused, so these keys only link a message whose RID is unknown (find has already
+    // tried it) to a track that has no RID or the same one
+    private static Track sameRid(Track track, CoTMessage message) {
+        if (track == null) return null;
+        String rid = message.getId();
+        return isEmpty(rid) || track.rid == null || track.rid.equals(rid) ? track : null;
+    }
+
+    private Track lookupMac(String mac) {
+        long packed = MacHistory.pack(mac);
+        return packed != MacHistory.NO_MAC ? byMac.get(packed) : null;
+    }
+
+    // The least recently seen alias is dropped once MAX_MAC_ALIASES is reached
+    private void addMacAlias(Track track, String mac, long nowMillis) {
+        long packed = MacHistory.pack(mac);
+        if (packed == MacHistory.NO_MAC) return;
+
+        if (!track.macs.contains(packed)) macVersion++;
+        long dropped = track.macs.record(packed, nowMillis);
+        if (dropped != MacHistory.NO_MAC && byMac.get(dropped) == track) byMac.remove(dropped);
+        byMac.put(packed, track);
+    }
+
+    private void linkLast(Track track) {
+        track.lruPrev = lruTail;
+        track.lruNext = null;
+        if (lruTail != null) {
+            lruTail.lruNext = track;
+        } else {
+            lruHead = track;
+        }
+        lruTail = track;
+    }
+
+    private void unlink(Track track) {
+        if (track.lruPrev != null) {
+            track.lruPrev.lruNext = track.lruNext;
+        } else if (lruHead == track) {
+            lruHead = track.lruNext;
+        }
+        if (track.lruNext != null) {
+            track.lruNext.lruPrev = track.lruPrev;
+        } else if (lruTail == track) {
+            lruTail = track.lruPrev;
+        }
+        track.lruPrev = null;
+        track.lruNext = null;
+    }
+
+    private void unindex(Track track) {
+        unlink(track);
+        expiryWheel.cancel(track.expiryTimer);
+        if (track.rid != null && byRid.get(track.rid) == track) byRid.remove(track.rid);
+        for (int i = 0; i < track.macs.size(); i++) {
+            long mac = track.macs.getMacAt(i);
+            if (byMac.get(mac) == track) byMac.remove(mac);
+        }
+        if (track.operatorId != null && byOperator.get(track.operatorId) == track) byOperator.remove(track.operatorId);
+        if (track.uid != null && byUid.get(track.uid) == track) byUid.remove(track.uid);
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
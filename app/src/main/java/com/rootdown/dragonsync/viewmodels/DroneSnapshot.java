@@ -0,0 +1,44 @@
+package com.rootdown.dragonsync.viewmodels;
+
+import com.rootdown.dragonsync.models.CoTMessage;
+import com.rootdown.dragonsync.models.DroneSignature;
+import com.rootdown.dragonsync.utils.MacHistory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable view of the tracked drones at one version. Parts that did not change since the
+ * previous snapshot are shared with it rather than copied, so publishing is cheap and readers on
+ * any thread can hold on to a snapshot. Per-UID MAC histories are the tracks' own bounded,
+ * synchronized objects and keep updating after publication.
+ */
+public final class DroneSnapshot {
+    public static final DroneSnapshot EMPTY = new DroneSnapshot(0,
+            Collections.emptyList(), Collections.emptyList(), Collections.emptyMap(),
+            Collections.emptySet());
+
+    private final long version;
+    private final List<CoTMessage> messages;
+    private final List<DroneSignature> signatures;
+    private final Map<String, MacHistory> macHistory;
+    private final Set<String> lostContactUids;
+
+    DroneSnapshot(long version, List<CoTMessage> messages, List<DroneSignature> signatures,
+                  Map<String, MacHistory> macHistory, Set<String> lostContactUids) {
+        this.version = version;
+        this.messages = messages;
+        this.signatures = signatures;
+        this.macHistory = macHistory;
+        this.lostContactUids = lostContactUids;
+    }
+
+    public long getVersion() { return version; }
+    public List<CoTMessage> getMessages() { return messages; }
+    public List<DroneSignature> getSignatures() { return signatures; }
+    public Map<String, MacHistory> getMacHistory() { return macHistory; }
+    // Tracks that passed their stale time; a track leaves the set with its next message
+    public Set<String> getLostContactUids() { return lostContactUids; }
+}
@@ -0,0 +1,300 @@
+package com.rootdown.dragonsync.viewmodels;
+
+import com.rootdown.dragonsync.models.CoTMessage;
+import com.rootdown.dragonsync.models.DroneSignature;
+import com.rootdown.dragonsync.utils.Constants;
+
+import java.util.Locale;
+
+/**
+ * Per-track spoof detector. Reported positions feed a constant-velocity Kalman filter on a
+ * local east/north frame (one independent position/velocity filter per axis); the altitude
+ * minus height offset and the RSSI path-loss intercept each feed a scalar filter. Every
+ * innovation is scored against two hypotheses, a genuine drone (innovation within its
+ * covariance) and a spoofed one (innovation from a distribution JUMP_SCALE times wider), and
+ * the log-likelihood ratios accumulate into a decaying log-odds, so the confidence is a
+ * posterior probability rather than a raw threshold.
+ *
+ * State is all primitives: an update allocates nothing and runs in constant time.
+ * Writer thread only.
+ */
+class KinematicSpoofDetector {
+    private static final double EARTH_RADIUS_METERS = 6371000.0;
+    // White-acceleration process noise for a small drone, (m/s^2)^2
+    private static final double ACCEL_VARIANCE = 25.0;
+    // Initial velocity uncertainty, (m/s)^2
+    private static final double INITIAL_VELOCITY_VARIANCE = 225.0;
+    // Horizontal error assumed when the message gives no accuracy, meters
+    private static final double DEFAULT_POSITION_ERROR = 30.0;
+    // Frame is re-centred once the drone is this far from the origin, where the flat-earth
+    // projection starts to distort
+    private static final double MAX_FRAME_RADIUS_METERS = 20000.0;
+    // Longer gaps restart the filters instead of scoring the jump
+    private static final long MAX_GAP_MILLIS = 30_000;
+
+    // Altitude minus height drifts with terrain under the drone; (m^2)/s and m^2
+    private static final double HEIGHT_OFFSET_DRIFT = 1.0;
+    private static final double HEIGHT_OFFSET_NOISE = 9.0;
+
+    // Log-distance path loss: rssi = intercept - 10 * exponent * log10(range)
+    private static final double PATH_LOSS_EXPONENT = 2.0;
+    private static final double RSSI_SHADOWING_VARIANCE = 36.0; // 6 dB
+    private static final double RSSI_INTERCEPT_DRIFT = 0.5;     // dB^2 per second
+    private static final double MIN_RANGE_METERS = 1.0;
+
+    // Spoof hypothesis: innovations JUMP_SCALE times the genuine standard deviation
+    private static final double JUMP_SCALE = 10.0;
+    private static final double LOG_JUMP_SCALE = Math.log(JUMP_SCALE);
+    private static final double JUMP_SHRINK = 1.0 - 1.0 / (JUMP_SCALE * JUMP_SCALE);
+    private static final double PRIOR_LOG_ODDS = Math.log(0.01 / 0.99);
+    // Fraction of accumulated evidence kept per update, so old jumps fade
+    private static final double EVIDENCE_DECAY = 0.8;
+    private static final double MAX_LOG_ODDS = 10.0;
+
+    private static final int CHANNEL_NONE = 0;
+    private static final int CHANNEL_POSITION = 1;
+    private static final int CHANNEL_HEIGHT = 2;
+    private static final int CHANNEL_RSSI = 3;
+
+    // Local frame origin
+    private double originLat = Double.NaN;
+    private double originLon;
+    private double metersPerDegLon;
+
+    // Per axis: position, velocity and covariance [p00 p01; p01 p11]
+    private double east, eastVel, eastP00, eastP01, eastP11;
+    private double north, northVel, northP00, northP01, northP11;
+    private long positionMillis;
+
+    private double heightOffset = Double.NaN;
+    private double heightOffsetVar;
+    private long heightMillis;
+
+    private double rssiIntercept = Double.NaN;
+    private double rssiInterceptVar;
+    private long rssiMillis;
+
+    private double logOdds = PRIOR_LOG_ODDS;
+    private int strongestChannel = CHANNEL_NONE;
+    private double strongestSigma;
+    // Outputs of the last scalarUpdate, kept in fields so an update allocates nothing
+    private double scalarGain;
+    private double scalarPosterior;
+    private double lastNis;
+
+    /**
+     * Scores the message's own observation against the track so far. timeMillis is the sample's
+     * time on the track's TrackClock. receiverLat/Lon locate the receiving antenna for the RSSI
+     * check; pass NaN when unknown. Returns the posterior spoof probability.
+     */
+    double update(CoTMessage message, long timeMillis, double receiverLat, double receiverLon) {
+        double evidence = 0;
+        strongestChannel = CHANNEL_NONE;
+        strongestSigma = 0;
+
+        // An RSSI estimate is derived from the receiver's own track, so it says nothing about
+        // whether the drone's reports are genuine
+        if (message.hasCoordinate() && !message.isLocationEstimated()) {
+            evidence += updatePosition(message, timeMillis);
+            evidence += updateHeight(message, timeMillis);
+            if (message.getRssi() != null && !Double.isNaN(receiverLat) && !Double.isNaN(receiverLon)) {
+                evidence += updateRssi(message, receiverLat, receiverLon, timeMillis);
+            }
+        }
+
+        logOdds = PRIOR_LOG_ODDS + EVIDENCE_DECAY * (logOdds - PRIOR_LOG_ODDS) + evidence;
+        logOdds = Math.max(-MAX_LOG_ODDS, Math.min(MAX_LOG_ODDS, logOdds));
+        return getConfidence();
+    }
+
+    double getConfidence() {
+        return 1.0 / (1.0 + Math.exp(-logOdds));
+    }
+
+    // Builds the result for a flagged message; only called when the confidence crosses the threshold
+    DroneSignature.SpoofDetectionResult toResult() {
+        String reason;
+        switch (strongestChannel) {
+            case CHANNEL_POSITION:
+                reason = String.format(Locale.US,
+                        "Position jump of %.1f sigma is inconsistent with the track's motion", strongestSigma);
+                break;
+            case CHANNEL_HEIGHT:
+                reason = String.format(Locale.US,
+                        "Altitude and height above ground disagree by %.1f sigma", strongestSigma);
+                break;
+            case CHANNEL_RSSI:
+                reason = String.format(Locale.US,
+                        "Signal strength is inconsistent with range by %.1f sigma", strongestSigma);
+                break;
+            default:
+                reason = "Repeated kinematic inconsistencies in recent messages";
+                break;
+        }
+        return new DroneSignature.SpoofDetectionResult(getConfidence(), reason);
+    }
+
+    private double updatePosition(CoTMessage message, long timeMillis) {
+        double lat = message.getLatValue();
+        double lon = message.getLonValue();
+        double error = TrackFusion.horizontalErrorMeters(message);
+        // Accuracy categories are 95% bounds
+        double sigma = Double.isInfinite(error) ? DEFAULT_POSITION_ERROR : Math.max(error / 2.0, 1.0);
+        double r = sigma * sigma;
+
+        if (Double.isNaN(originLat) || timeMillis - positionMillis > MAX_GAP_MILLIS) {
+            setOrigin(lat, lon);
+            resetAxes(r, timeMillis);
+            return 0;
+        }
+
+        double e = (lon - originLon) * metersPerDegLon;
+        double n = Math.toRadians(lat - originLat) * EARTH_RADIUS_METERS;
+        if (Math.abs(e) > MAX_FRAME_RADIUS_METERS || Math.abs(n) > MAX_FRAME_RADIUS_METERS) {
+            // Shift the filter state into a frame centred on this fix
+            east -= e;
+            north -= n;
+            setOrigin(lat, lon);
+            e = 0;
+            n = 0;
+        }
+
+        double dt = Math.max(0, timeMillis - positionMillis) / 1000.0;
+        positionMillis = Math.max(positionMillis, timeMillis);
+
+        double nis = updateEast(e, r, dt) + updateNorth(n, r, dt);
+        // Two degrees of freedom
+        double llr = nis / 2.0 * JUMP_SHRINK - 2.0 * LOG_JUMP_SCALE;
+        noteChannel(CHANNEL_POSITION, nis);
+        return llr;
+    }
+
+    private void setOrigin(double lat, double lon) {
+        originLat = lat;
+        originLon = lon;
+        metersPerDegLon = Math.toRadians(1.0) * EARTH_RADIUS_METERS * Math.cos(Math.toRadians(lat));
+    }
+
+    private void resetAxes(double r, long timeMillis) {
+        east = 0;
+        north = 0;
+        eastVel = 0;
+        northVel = 0;
+        eastP00 = northP00 = r;
+        eastP01 = northP01 = 0;
+        eastP11 = northP11 = INITIAL_VELOCITY_VARIANCE;
+        positionMillis = timeMillis;
+    }
+
+    // Predict then correct one axis; returns the normalized innovation squared
+    private double updateEast(double z, double r, double dt) {
+        if (dt > 0) {
+            east += eastVel * dt;
+            double dt2 = dt * dt;
+            eastP00 += dt * (2 * eastP01 + dt * eastP11) + ACCEL_VARIANCE * dt2 * dt2 / 4;
+            eastP01 += dt * eastP11 + ACCEL_VARIANCE * dt2 * dt / 2;
+            eastP11 += ACCEL_VARIANCE * dt2;
+        }
+        double y = z - east;
+        double s = eastP00 + r;
+        double k0 = eastP00 / s;
+        double k1 = eastP01 / s;
+        east += k0 * y;
+        eastVel += k1 * y;
+        eastP11 -= k1 * eastP01;
+        eastP01 *= 1 - k0;
+        eastP00 *= 1 - k0;
+        return y * y / s;
+    }
+
+    private double updateNorth(double z, double r, double dt) {
+        if (dt > 0) {
+            north += northVel * dt;
+            double dt2 = dt * dt;
+            northP00 += dt * (2 * northP01 + dt * northP11) + ACCEL_VARIANCE * dt2 * dt2 / 4;
+            northP01 += dt * northP11 + ACCEL_VARIANCE * dt2 * dt / 2;
+            northP11 += ACCEL_VARIANCE * dt2;
+        }
+        double y = z - north;
+        double s = northP00 + r;
+        double k0 = northP00 / s;
+        double k1 = northP01 / s;
+        north += k0 * y;
+        northVel += k1 * y;
+        northP11 -= k1 * northP01;
+        northP01 *= 1 - k0;
+        northP00 *= 1 - k0;
+        return y * y / s;
+    }
+
+    // Altitude minus height is the ground (or takeoff) elevation and should barely move
+    private double updateHeight(CoTMessage message, long timeMillis) {
+        double alt = message.getAltValue();
+        double height = message.getHeightValue();
+        if (Double.isNaN(alt) || Double.isNaN(height)) return 0;
+
+        double offset = alt - height;
+        if (Double.isNaN(heightOffset) || timeMillis - heightMillis > MAX_GAP_MILLIS) {
+            heightOffset = offset;
+            heightOffsetVar = HEIGHT_OFFSET_NOISE;
+            heightMillis = timeMillis;
+            return 0;
+        }
+
+        double llr = scalarUpdate(offset, heightOffset, heightOffsetVar,
+                HEIGHT_OFFSET_DRIFT * Math.max(0, timeMillis - heightMillis) / 1000.0, HEIGHT_OFFSET_NOISE);
+        heightOffset += scalarGain * (offset - heightOffset);
+        heightOffsetVar = scalarPosterior;
+        heightMillis = Math.max(heightMillis, timeMillis);
+        noteChannel(CHANNEL_HEIGHT, lastNis);
+        return llr;
+    }
+
+    // The implied path-loss intercept should stay put as range changes
+    private double updateRssi(CoTMessage message, double receiverLat, double receiverLon, long timeMillis) {
+        double de = Math.toRadians(message.getLonValue() - receiverLon) * EARTH_RADIUS_METERS
+                * Math.cos(Math.toRadians(receiverLat));
+        double dn = Math.toRadians(message.getLatValue() - receiverLat) * EARTH_RADIUS_METERS;
+        double range = Math.max(MIN_RANGE_METERS, Math.sqrt(de * de + dn * dn));
+        double intercept = message.getRssi() + 10.0 * PATH_LOSS_EXPONENT * Math.log10(range);
+
+        if (Double.isNaN(rssiIntercept) || timeMillis - rssiMillis > MAX_GAP_MILLIS) {
+            rssiIntercept = intercept;
+            rssiInterceptVar = RSSI_SHADOWING_VARIANCE;
+            rssiMillis = timeMillis;
+            return 0;
+        }
+
+        double llr = scalarUpdate(intercept, rssiIntercept, rssiInterceptVar,
+                RSSI_INTERCEPT_DRIFT * Math.max(0, timeMillis - rssiMillis) / 1000.0, RSSI_SHADOWING_VARIANCE);
+        rssiIntercept += scalarGain * (intercept - rssiIntercept);
+        rssiInterceptVar = scalarPosterior;
+        rssiMillis = Math.max(rssiMillis, timeMillis);
+        noteChannel(CHANNEL_RSSI, lastNis);
+        return llr;
+    }
+
+    // Random-walk scalar filter step; leaves the gain, posterior variance and NIS in fields
+    private double scalarUpdate(double z, double state, double variance, double drift, double noise) {
+        double prior = variance + drift;
+        double s = prior + noise;
+        double y = z - state;
+        scalarGain = prior / s;
+        scalarPosterior = (1 - scalarGain) * prior;
+        lastNis = y * y / s;
+        // One degree of freedom
+        return lastNis / 2.0 * JUMP_SHRINK - LOG_JUMP_SCALE;
+    }
+
+    private void noteChannel(int channel, double nis) {
+        double sigma = Math.sqrt(nis);
+        if (sigma > strongestSigma) {
+            strongestSigma = sigma;
+            strongestChannel = channel;
+        }
+    }
+
+    boolean isSpoofed() {
+        return getConfidence() >= Constants.CONFIDENCE_THRESHOLD;
+    }
+}
@@ -0,0 +1,53 @@
+package com.rootdown.dragonsync.viewmodels;
+
+import com.rootdown.dragonsync.utils.TrackHistory;
+
+/**
+ * Ground speed of a drone over a recent window of its recorded history: the length of the path
+ * through its positioned samples divided by the time they span. Segments are a few seconds
+ * long, so a flat-earth distance is accurate enough.
+ *
+ * Reused for every check; writer thread only.
+ */
+final class RecentTrackSpeed implements TrackHistory.SampleVisitor {
+    private static final double EARTH_RADIUS_METERS = 6371000.0;
+    // Shorter spans make GPS jitter look like speed
+    private static final long MIN_SPAN_MILLIS = 2000;
+    private static final int MIN_POINTS = 3;
+
+    private double lastLat;
+    private double lastLon;
+    private long firstMillis;
+    private long lastMillis;
+    private double pathMeters;
+    private int points;
+
+    // Meters per second over the samples in [fromMillis, toMillis], or NaN when too few
+    double measure(TrackHistory history, long fromMillis, long toMillis) {
+        points = 0;
+        pathMeters = 0;
+        if (history == null) return Double.NaN;
+
+        history.forEachInRange(fromMillis, toMillis, this);
+        long spanMillis = lastMillis - firstMillis;
+        if (points < MIN_POINTS || spanMillis < MIN_SPAN_MILLIS) return Double.NaN;
+        return pathMeters / (spanMillis / 1000.0);
+    }
+
+    @Override
+    public void visit(double lat, double lon, float alt, float speed, float rssi, long timeMillis) {
+        if (Double.isNaN(lat) || Double.isNaN(lon)) return;
+
+        if (points == 0) {
+            firstMillis = timeMillis;
+        } else {
+            double north = Math.toRadians(lat - lastLat);
+            double east = Math.toRadians(lon - lastLon) * Math.cos(Math.toRadians((lat + lastLat) / 2));
+            pathMeters += Math.sqrt(north * north + east * east) * EARTH_RADIUS_METERS;
+        }
+        lastLat = lat;
+        lastLon = lon;
+        lastMillis = timeMillis;
+        points++;
+    }
+}
@@ -0,0 +1,237 @@
+package com.rootdown.dragonsync.viewmodels;
+
+import android.location.Location;
+
+import com.rootdown.dragonsync.models.CoTMessage;
+import com.rootdown.dragonsync.models.DroneSignature;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Per-track running statistics behind a DroneSignature. Each observation updates ground speed,
+ * heading, climb and turn rate, message interval and the broadcast pattern in O(1) from the
+ * previous fix and a few accumulators (smoothed averages, Welford mean/variance and short
+ * rings), so history is never rescanned. The signature it returns is a fresh immutable value
+ * for the UI; the accumulators themselves stay on the writer thread.
+ *
+ * Writer thread only.
+ */
+class SignatureBuilder {
+    // Weight of the newest sample in the smoothed rates
+    private static final double SMOOTHING = 0.3;
+    // Below this displacement the bearing between fixes is GPS noise
+    private static final double MIN_MOVE_METERS = 2.0;
+    // Intervals and message types kept for the broadcast pattern
+    private static final int PATTERN_LENGTH = 8;
+
+    private final long firstSeenMillis;
+    private long messageCount;
+    private long lastMessageMillis;
+
+    // Message interval, Welford running mean and variance in seconds
+    private long intervalCount;
+    private double intervalMean;
+    private double intervalM2;
+    private final double[] intervals = new double[PATTERN_LENGTH];
+    private int intervalHead;
+    private int intervalSize;
+
+    private final DroneSignature.TransmissionInfo.MessageType[] types =
+            new DroneSignature.TransmissionInfo.MessageType[PATTERN_LENGTH];
+    private int typeHead;
+    private int typeSize;
+
+    // Previous own fix
+    private double lastLat = Double.NaN;
+    private double lastLon = Double.NaN;
+    private double lastAlt = Double.NaN;
+    private double lastHeight = Double.NaN;
+    private long lastFixMillis;
+
+    private double derivedSpeed = Double.NaN;
+    private double heading = Double.NaN;
+    private long headingMillis;
+    private double climbRate = Double.NaN;
+    private double turnRate = Double.NaN;
+    private double heightConsistency = 1.0;
+    private double lastGoodHeight = Double.NaN;
+
+    private final float[] distanceResult = new float[2];
+
+    SignatureBuilder(long nowMillis) {
+        firstSeenMillis = nowMillis;
+    }
+
+    /**
+     * Folds one observation into the running statistics and returns the updated signature.
+     * ownPosition is false when the message's position was carried over from an earlier fix,
+     * in which case the movement terms are left as they were. Intervals and rates use
+     * sampleMillis, the message's time on the track's TrackClock; nowMillis only stamps the
+     * signature.
+     */
+    DroneSignature update(CoTMessage message, boolean ownPosition, long nowMillis, long sampleMillis) {
+        if (messageCount > 0 && sampleMillis > lastMessageMillis) {
+            addInterval((sampleMillis - lastMessageMillis) / 1000.0);
+        }
+        lastMessageMillis = sampleMillis;
+        messageCount++;
+        addType(message);
+
+        if (ownPosition && message.hasCoordinate()) {
+            updateMovement(message, sampleMillis);
+        }
+
+        return build(message, nowMillis);
+    }
+
+    double getClimbRate() {
+        return climbRate;
+    }
+
+    long getMessageCount() {
+        return messageCount;
+    }
+
+    private void addInterval(double seconds) {
+        intervalCount++;
+        double delta = seconds - intervalMean;
+        intervalMean += delta / intervalCount;
+        intervalM2 += delta * (seconds - intervalMean);
+
+        intervals[intervalHead] = seconds;
+        intervalHead = (intervalHead + 1) % PATTERN_LENGTH;
+        if (intervalSize < PATTERN_LENGTH) intervalSize++;
+    }
+
+    // Detections from the network carry a CoT type rather than a transport and are not recorded
+    private void addType(CoTMessage message) {
+        String type = message.getType();
+        DroneSignature.TransmissionInfo.MessageType messageType = null;
+        if (type != null) {
+            if (type.startsWith("BLE")) messageType = DroneSignature.TransmissionInfo.MessageType.BT45;
+            else if (type.startsWith("WiFi")) messageType = DroneSignature.TransmissionInfo.MessageType.WIFI;
+            else if (type.startsWith("ESP32")) messageType = DroneSignature.TransmissionInfo.MessageType.ESP32;
+        }
+        if (messageType == null) return;
+
+        types[typeHead] = messageType;
+        typeHead = (typeHead + 1) % PATTERN_LENGTH;
+        if (typeSize < PATTERN_LENGTH) typeSize++;
+    }
+
+    private void updateMovement(CoTMessage message, long fixMillis) {
+        double lat = message.getLatValue();
+        double lon = message.getLonValue();
+        double alt = message.getAltValue();
+        double height = message.getHeightValue();
+        double dt = (fixMillis - lastFixMillis) / 1000.0;
+
+        if (!Double.isNaN(lastLat) && dt > 0) {
+            Location.distanceBetween(lastLat, lastLon, lat, lon, distanceResult);
+            double distance = distanceResult[0];
+            derivedSpeed = smooth(derivedSpeed, distance / dt);
+
+            double newHeading = !Double.isNaN(message.getDirectionValue())
+                    ? message.getDirectionValue()
+                    : distance >= MIN_MOVE_METERS ? (distanceResult[1] + 360.0) % 360.0 : Double.NaN;
+            if (!Double.isNaN(newHeading)) {
+                if (!Double.isNaN(heading) && fixMillis > headingMillis) {
+                    // Shortest signed turn, so 350 -> 10 is +20 degrees
+                    double turn = ((newHeading - heading + 540.0) % 360.0) - 180.0;
+                    turnRate = smooth(turnRate, turn / ((fixMillis - headingMillis) / 1000.0));
+                }
+                heading = newHeading;
+                headingMillis = fixMillis;
+            }
+
+            if (!Double.isNaN(message.getVspeedValue())) {
+                climbRate = smooth(climbRate, message.getVspeedValue());
+            } else if (!Double.isNaN(alt) && !Double.isNaN(lastAlt)) {
+                climbRate = smooth(climbRate, (alt - lastAlt) / dt);
+            }
+
+            // Height and altitude should move together; disagreement lowers the score
+            if (!Double.isNaN(alt) && !Double.isNaN(lastAlt) && !Double.isNaN(height) && !Double.isNaN(lastHeight)) {
+                double mismatch = Math.abs((height - lastHeight) - (alt - lastAlt));
+                heightConsistency = smooth(heightConsistency, 1.0 / (1.0 + mismatch / 10.0));
+            }
+        } else if (Double.isNaN(heading) && !Double.isNaN(message.getDirectionValue())) {
+            heading = message.getDirectionValue();
+            headingMillis = fixMillis;
+        }
+
+        if (!Double.isNaN(height) && heightConsistency >= 0.5) {
+            lastGoodHeight = height;
+        }
+        lastLat = lat;
+        lastLon = lon;
+        lastAlt = alt;
+        lastHeight = height;
+        lastFixMillis = fixMillis;
+    }
+
+    private DroneSignature build(CoTMessage message, long nowMillis) {
+        double now = nowMillis / 1000.0;
+        double firstSeen = firstSeenMillis / 1000.0;
+
+        double reportedSpeed = message.getSpeedValue();
+        DroneSignature.MovementVector movement = new DroneSignature.MovementVector(
+                !Double.isNaN(reportedSpeed) ? reportedSpeed : derivedSpeed,
+                message.getVspeedValue(),
+                heading,
+                Double.isNaN(climbRate) ? null : climbRate,
+                Double.isNaN(turnRate) ? null : turnRate,
+                now);
+
+        String heightType = message.getHeightType();
+        DroneSignature.HeightInfo heightInfo = new DroneSignature.HeightInfo(
+                message.getHeightValue(),
+                "Above Takeoff".equals(heightType) && !Double.isNaN(message.getHeightValue())
+                        ? message.getHeightValue() : null,
+                "Above Takeoff".equals(heightType)
+                        ? DroneSignature.HeightInfo.HeightReferenceType.TAKEOFF
+                        : DroneSignature.HeightInfo.HeightReferenceType.GROUND,
+                heightConsistency,
+                Double.isNaN(lastGoodHeight) ? null : lastGoodHeight,
+                now);
+
+        DroneSignature.BroadcastPattern pattern = new DroneSignature.BroadcastPattern(
+                typeSequence(), intervalPattern(), intervalConsistency(), firstSeen, now);
+
+        return new DroneSignature(message.getUid(), message.getOperatorId(), movement, heightInfo, pattern,
+                now, firstSeen, intervalCount > 0 ? intervalMean : null, messageCount);
+    }
+
+    // 1 / (1 + coefficient of variation) of the message interval
+    private double intervalConsistency() {
+        if (intervalCount < 2 || intervalMean <= 0) return 0;
+        double stdDev = Math.sqrt(intervalM2 / (intervalCount - 1));
+        return 1.0 / (1.0 + stdDev / intervalMean);
+    }
+
+    private List<DroneSignature.TransmissionInfo.MessageType> typeSequence() {
+        List<DroneSignature.TransmissionInfo.MessageType> sequence = new ArrayList<>(typeSize);
+        int i = (typeHead - typeSize + PATTERN_LENGTH) % PATTERN_LENGTH;
+        for (int n = 0; n < typeSize; n++) {
+            sequence.add(types[i]);
+            i = (i + 1) % PATTERN_LENGTH;
+        }
+        return Collections.unmodifiableList(sequence);
+    }
+
+    private List<Double> intervalPattern() {
+        List<Double> pattern = new ArrayList<>(intervalSize);
+        int i = (intervalHead - intervalSize + PATTERN_LENGTH) % PATTERN_LENGTH;
+        for (int n = 0; n < intervalSize; n++) {
+            pattern.add(intervals[i]);
+            i = (i + 1) % PATTERN_LENGTH;
+        }
+        return Collections.unmodifiableList(pattern);
+    }
+
+    private static double smooth(double current, double sample) {
+        return Double.isNaN(current) ? sample : current + SMOOTHING * (sample - current);
+    }
+}
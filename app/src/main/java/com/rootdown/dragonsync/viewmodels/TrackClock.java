@@ -0,0 +1,47 @@
+package com.rootdown.dragonsync.viewmodels;
+
+import com.rootdown.dragonsync.models.CoTMessage;
+import com.rootdown.dragonsync.utils.CoTTimeParser;
+
+/**
+ * The single timeline a track's rates are measured on. A fused track mixes sources that carry a
+ * sender timestamp with ones that don't, and a speed or turn rate taken across the two bases is
+ * meaningless. Samples follow the sender's clock only while every message on the track has had
+ * a timestamp that doesn't run backwards; from the first one that breaks this, the timeline
+ * carries on from its last value by monotonic arrival time and stays there.
+ *
+ * Writer thread only.
+ */
+final class TrackClock {
+    private boolean senderTime;
+    private boolean started;
+    private long lastSampleMillis;
+    private long lastArrivalMillis;
+
+    /**
+     * Returns the message's time on this track's timeline. arrivalMillis is a monotonic clock;
+     * CoTViewModel offsets SystemClock.elapsedRealtime() to wall time so that a track without
+     * sender time still has epoch-based samples.
+     */
+    long advance(CoTMessage message, long arrivalMillis) {
+        long senderMillis = message.getTimestampMillis();
+        long sampleMillis;
+        if (!started) {
+            started = true;
+            senderTime = senderMillis != CoTTimeParser.UNPARSED;
+            sampleMillis = senderTime ? senderMillis : arrivalMillis;
+        } else if (senderTime && senderMillis != CoTTimeParser.UNPARSED && senderMillis >= lastSampleMillis) {
+            sampleMillis = senderMillis;
+        } else {
+            senderTime = false;
+            sampleMillis = lastSampleMillis + Math.max(0, arrivalMillis - lastArrivalMillis);
+        }
+        lastSampleMillis = sampleMillis;
+        lastArrivalMillis = arrivalMillis;
+        return sampleMillis;
+    }
+
+    boolean isSenderTime() {
+        return senderTime;
+    }
+}
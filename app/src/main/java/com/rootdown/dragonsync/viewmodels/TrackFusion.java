@@ -0,0 +1,150 @@
+package com.rootdown.dragonsync.viewmodels;
+
+import com.rootdown.dragonsync.models.CoTMessage;
+import com.rootdown.dragonsync.utils.CoTTimeParser;
+import com.rootdown.dragonsync.utils.Constants;
+import com.rootdown.dragonsync.utils.NumberScanner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merges each observation of a drone (BLE, Wi-Fi beacon/NaN, ZMQ or multicast) into its track:
+ * fields an observation lacks are carried over, signal sources are aggregated per MAC and type
+ * with RSSI and latency, and the shown position is the most accurate recent fix rather than
+ * simply the latest one. RSSI-estimated positions are shown only when no recent measured fix
+ * exists and never count as the track's own fix.
+ *
+ * Writer thread only.
+ */
+class TrackFusion {
+    // ASTM F3411 horizontal accuracy categories 1..12 as upper bounds in meters (0 = unknown)
+    private static final double[] HORIZONTAL_ACCURACY_METERS = {
+            Double.POSITIVE_INFINITY, 18520, 7408, 3704, 1852, 926, 555.6, 185.2, 92.6, 30, 10, 3, 1
+    };
+    // CoT convention for an unknown circular error
+    private static final double CE_UNKNOWN = 9999999;
+
+    /**
+     * Folds the incoming observation into the track's previous message. Returns true when the
+     * observation's own measured position is the one the track should show; an RSSI estimate
+     * may be shown but always returns false.
+     */
+    boolean fuse(CoTMessage incoming, DroneRegistry.Track track, long nowMillis) {
+        CoTMessage previous = track != null ? track.getMessage() : null;
+        incoming.setSignalSources(mergeSources(incoming, previous, nowMillis));
+
+        if (previous == null) {
+            return hasMeasuredPosition(incoming);
+        }
+
+        incoming.inheritMissingFrom(previous);
+
+        if (!previous.hasCoordinate()) {
+            return hasMeasuredPosition(incoming);
+        }
+        if (!incoming.hasCoordinate()) {
+            incoming.copyPositionFrom(previous);
+            return false;
+        }
+
+        boolean previousFresh = nowMillis - track.getPositionTimeMillis() <= Constants.POSITION_FUSION_WINDOW_MS;
+        if (incoming.isLocationEstimated()) {
+            // A recent measured fix stays; otherwise the newer estimate replaces what was shown
+            if (!previous.isLocationEstimated() && previousFresh) {
+                incoming.copyPositionFrom(previous);
+            }
+            return false;
+        }
+        if (previous.isLocationEstimated()) {
+            return true;
+        }
+
+        // A recent, more accurate fix from another sensor beats a coarser new one
+        if (previousFresh && track.getPositionErrorMeters() < horizontalErrorMeters(incoming)) {
+            incoming.copyPositionFrom(previous);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean hasMeasuredPosition(CoTMessage message) {
+        return message.hasCoordinate() && !message.isLocationEstimated();
+    }
+
+    void recordPosition(DroneRegistry.Track track, CoTMessage message, long nowMillis) {
+        track.setPosition(nowMillis, horizontalErrorMeters(message));
+    }
+
+    // Observation's own sources first, then the track's other sources, newest first, bounded
+    private List<CoTMessage.SignalSource> mergeSources(CoTMessage incoming, CoTMessage previous, long nowMillis) {
+        List<CoTMessage.SignalSource> merged = new ArrayList<>(Constants.MAX_SIGNAL_SOURCES);
+        long latency = incoming.getTimestampMillis() != CoTTimeParser.UNPARSED ? nowMillis - incoming.getTimestampMillis() : -1;
+
+        List<CoTMessage.SignalSource> observed = incoming.getSignalSources();
+        if (observed != null && !observed.isEmpty()) {
+            for (CoTMessage.SignalSource source : observed) {
+                if (merged.size() == Constants.MAX_SIGNAL_SOURCES) break;
+                merged.add(new CoTMessage.SignalSource(source.getMac(), source.getRssi(),
+                        source.getType(), nowMillis, latency));
+            }
+        } else if (incoming.getMac() != null && !incoming.getMac().isEmpty() && incoming.getRssi() != null) {
+            merged.add(new CoTMessage.SignalSource(incoming.getMac(), incoming.getRssi(),
+                    signalTypeOf(incoming), nowMillis, latency));
+        }
+
+        if (previous != null && previous.getSignalSources() != null) {
+            for (CoTMessage.SignalSource source : previous.getSignalSources()) {
+                if (merged.size() == Constants.MAX_SIGNAL_SOURCES) break;
+                if (!merged.contains(source)) merged.add(source);
+            }
+        }
+        return merged;
+    }
+
+    // Onboard detections are typed "<source>_ONBOARD"
+    private static CoTMessage.SignalSource.SignalType signalTypeOf(CoTMessage message) {
+        String type = message.getType();
+        if (type != null) {
+            if (type.startsWith("BLE")) return CoTMessage.SignalSource.SignalType.BLUETOOTH;
+            if (type.startsWith("WiFi")) return CoTMessage.SignalSource.SignalType.WIFI;
+        }
+        return CoTMessage.SignalSource.SignalType.UNKNOWN;
+    }
+
+    /**
+     * Horizontal error bound in meters from horizontal_accuracy (an F3411 category or a value in
+     * meters such as "<3 m"), else the CoT ce; infinity when neither is known.
+     */
+    static double horizontalErrorMeters(CoTMessage message) {
+        String accuracy = message.getHorizontalAccuracy();
+        if (accuracy != null && !accuracy.isEmpty()) {
+            if (isDigits(accuracy)) {
+                int category = NumberScanner.parseInt(accuracy, 0);
+                if (category > 0 && category < HORIZONTAL_ACCURACY_METERS.length) {
+                    return HORIZONTAL_ACCURACY_METERS[category];
+                }
+            } else {
+                int start = 0;
+                while (start < accuracy.length()
+                        && (accuracy.charAt(start) == '<' || Character.isWhitespace(accuracy.charAt(start)))) {
+                    start++;
+                }
+                double meters = NumberScanner.parseDouble(accuracy, start, accuracy.length());
+                if (meters > 0) return meters;
+            }
+        }
+
+        double ce = message.getCeValue();
+        if (ce > 0 && ce < CE_UNKNOWN) return ce;
+        return Double.POSITIVE_INFINITY;
+    }
+
+    private static boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,160 @@
+package com.rootdown.dragonsync.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.rootdown.dragonsync.network.BleDutyCycleController.Plan;
+import com.rootdown.dragonsync.network.BleDutyCycleController.ScanMode;
+
+import org.junit.Test;
+
+public class BleDutyCycleControllerTest {
+    // Far enough from zero that "no detection yet" is outside the recent window
+    private static final long T0 = 1_000_000;
+    private static final double DUTY_DELTA = 1e-9;
+
+    private static void assertPlan(Plan plan, ScanMode mode, long onMillis, long offMillis, long reportDelayMillis) {
+        assertEquals(mode, plan.mode);
+        assertEquals(onMillis, plan.onMillis);
+        assertEquals(offMillis, plan.offMillis);
+        assertEquals(reportDelayMillis, plan.reportDelayMillis);
+    }
+
+    @Test
+    public void idleDeviceUsesBatchedLowPowerScan() {
+        BleDutyCycleController controller = new BleDutyCycleController(true);
+        Plan plan = controller.plan(T0);
+
+        assertPlan(plan, ScanMode.LOW_POWER, 0, 0, 5_000);
+        assertTrue(plan.isContinuous());
+        assertEquals(0.1, plan.getRadioDuty(), DUTY_DELTA);
+        // Half the LOW_POWER gap plus the batch delay
+        assertEquals(2_304 + 5_000, plan.getExpectedLatencyMillis());
+    }
+
+    @Test
+    public void idleWithoutBatchingReportsImmediately() {
+        BleDutyCycleController controller = new BleDutyCycleController(false);
+        Plan plan = controller.plan(T0);
+
+        assertPlan(plan, ScanMode.LOW_POWER, 0, 0, 0);
+        assertEquals(2_304, plan.getExpectedLatencyMillis());
+    }
+
+    @Test
+    public void firstDetectionActivatesLowLatency() {
+        BleDutyCycleController controller = new BleDutyCycleController(true);
+
+        assertTrue(controller.onDetection(T0));
+        assertFalse(controller.onDetection(T0 + 1_000));
+        Plan plan = controller.plan(T0 + 1_000);
+
+        assertPlan(plan, ScanMode.LOW_LATENCY, 0, 0, 0);
+        assertEquals(1.0, plan.getRadioDuty(), DUTY_DELTA);
+        assertEquals(0, plan.getExpectedLatencyMillis());
+    }
+
+    @Test
+    public void simulatedDroneStepsDownAfterItLeaves() {
+        BleDutyCycleController controller = new BleDutyCycleController(true);
+        long now = T0;
+        // One advert a second for half a minute
+        for (int i = 0; i < 30; i++, now += 1_000) {
+            controller.onDetection(now);
+            assertEquals(ScanMode.LOW_LATENCY, controller.plan(now).mode);
+        }
+        long lastDetection = now - 1_000;
+        assertEquals(30, controller.getDetections());
+
+        // Rate has decayed below the active threshold but the drone was seen recently
+        Plan recent = controller.plan(lastDetection + 60_000);
+        assertPlan(recent, ScanMode.BALANCED, 0, 0, 0);
+        assertEquals(0.25, recent.getRadioDuty(), DUTY_DELTA);
+        assertEquals(1_536, recent.getExpectedLatencyMillis());
+
+        assertPlan(controller.plan(lastDetection + 121_000), ScanMode.LOW_POWER, 0, 0, 5_000);
+    }
+
+    @Test
+    public void heatAndBatteryTradeScanDensityWhileActive() {
+        BleDutyCycleController controller = new BleDutyCycleController(true);
+        controller.onDetection(T0);
+
+        controller.updateConditions(BleDutyCycleController.THERMAL_MODERATE, 80, false);
+        assertPlan(controller.plan(T0), ScanMode.BALANCED, 0, 0, 0);
+
+        controller.updateConditions(BleDutyCycleController.THERMAL_SEVERE, 80, false);
+        Plan severe = controller.plan(T0);
+        assertPlan(severe, ScanMode.LOW_POWER, 0, 0, 0);
+        assertEquals(2_304, severe.getExpectedLatencyMillis());
+
+        controller.updateConditions(BleDutyCycleController.THERMAL_NONE, 10, false);
+        assertPlan(controller.plan(T0), ScanMode.BALANCED, 0, 0, 0);
+
+        // Charging lifts the low-battery restriction
+        controller.updateConditions(BleDutyCycleController.THERMAL_NONE, 10, true);
+        assertPlan(controller.plan(T0), ScanMode.LOW_LATENCY, 0, 0, 0);
+    }
+
+    @Test
+    public void hotIdleDeviceUsesOnOffWindows() {
+        BleDutyCycleController controller = new BleDutyCycleController(true);
+        controller.updateConditions(BleDutyCycleController.THERMAL_SEVERE, 80, false);
+        Plan plan = controller.plan(T0);
+
+        assertPlan(plan, ScanMode.LOW_POWER, 10_000, 20_000, 5_000);
+        assertFalse(plan.isContinuous());
+        assertEquals(0.1 / 3, plan.getRadioDuty(), DUTY_DELTA);
+        // 20^2 / (2 * 30) s waiting for the window, half the LOW_POWER gap, the batch delay
+        assertEquals(6_667 + 2_304 + 5_000, plan.getExpectedLatencyMillis());
+    }
+
+    @Test
+    public void criticalThermalOverridesActiveTracks() {
+        BleDutyCycleController controller = new BleDutyCycleController(true);
+        controller.onDetection(T0);
+        controller.updateConditions(BleDutyCycleController.THERMAL_CRITICAL, 80, false);
+        Plan plan = controller.plan(T0);
+
+        assertPlan(plan, ScanMode.LOW_POWER, 5_000, 25_000, 5_000);
+        assertEquals(0.1 / 6, plan.getRadioDuty(), DUTY_DELTA);
+        assertEquals(10_417 + 2_304 + 5_000, plan.getExpectedLatencyMillis());
+    }
+
+    @Test
+    public void scanStartsAreRateLimited() {
+        BleDutyCycleController controller = new BleDutyCycleController(true);
+        Plan plan = controller.plan(T0);
+        for (int i = 0; i < BleDutyCycleController.MAX_STARTS_PER_WINDOW; i++) {
+            long now = T0 + i * 1_000L;
+            assertTrue(controller.canStartScan(now));
+            assertEquals(0, controller.getStartDelay(now));
+            controller.onScanStarted(now, plan);
+        }
+
+        long now = T0 + 4_500;
+        assertFalse(controller.canStartScan(now));
+        // Until the oldest start leaves the window
+        assertEquals(BleDutyCycleController.START_WINDOW_MS - 4_500, controller.getStartDelay(now));
+
+        long later = T0 + BleDutyCycleController.START_WINDOW_MS;
+        assertTrue(controller.canStartScan(later));
+        assertEquals(0, controller.getStartDelay(later));
+        assertEquals(BleDutyCycleController.MAX_STARTS_PER_WINDOW, controller.getScansStarted());
+    }
+
+    @Test
+    public void radioTimeIsWeightedByModeDuty() {
+        BleDutyCycleController controller = new BleDutyCycleController(true);
+        controller.onScanStarted(T0, new Plan(ScanMode.LOW_LATENCY, 0, 0, 0));
+        controller.onScanStarted(T0 + 10_000, new Plan(ScanMode.LOW_POWER, 0, 0, 5_000));
+
+        assertEquals(10_000 + 1_000, controller.getRadioOnMillis(T0 + 20_000));
+        assertEquals(20_000, controller.getScanningMillis(T0 + 20_000));
+
+        controller.onScanStopped(T0 + 20_000);
+        assertEquals(11_000, controller.getRadioOnMillis(T0 + 60_000));
+        assertEquals(20_000, controller.getScanningMillis(T0 + 60_000));
+    }
+}
@@ -0,0 +1,35 @@
+package com.rootdown.dragonsync.network;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+// Loads the NaN service info frames under src/test/resources/nan: hex text, '#' comment lines
+final class NanFrames {
+    static final String FULL_PACK = "nan/full_pack.hex";
+    static final String NO_POSITION_PACK = "nan/no_position_pack.hex";
+    static final String NO_COUNTER_PACK = "nan/no_counter_pack.hex";
+
+    private NanFrames() {}
+
+    static byte[] load(String resource) throws IOException {
+        InputStream in = NanFrames.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) throw new IOException("Missing test resource " + resource);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                for (int i = 0; i + 1 < line.length(); i += 2) {
+                    out.write(Integer.parseInt(line.substring(i, i + 2), 16));
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,69 @@
+package com.rootdown.dragonsync.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Timed decode of the NaN test frames, in the spirit of a JMH average-time benchmark: warm up
+ * first so the JIT has compiled the decoder, then time several measurement rounds and report the
+ * best. Wall-clock timing is only meaningful on a quiet machine, so the timed run is opt-in
+ * ({@code ./gradlew test -Pbenchmarks}); the regular suite only checks the loop decodes every
+ * event.
+ */
+public class OpenDroneIdDecoderBenchmarkTest {
+    private static final Logger LOG = Logger.getLogger(OpenDroneIdDecoderBenchmarkTest.class.getName());
+
+    private static final int WARMUP_ITERATIONS = 50_000;
+    private static final int MEASURE_ITERATIONS = 100_000;
+    private static final int ROUNDS = 5;
+    // A 129-byte pack is a few hundred nanoseconds on a desktop JVM
+    private static final double MAX_NANOS_PER_FRAME = 20_000;
+
+    @Test
+    public void decodeLoopCountsEveryEvent() throws Exception {
+        long sink = run(new OpenDroneIdDecoder(), new DetectionBatch(),
+                NanFrames.load(NanFrames.FULL_PACK), NanFrames.load(NanFrames.NO_POSITION_PACK), 1_000);
+
+        // Five events from the full pack, two from the other, every iteration
+        assertEquals(1_000 / 2 * 7, sink);
+    }
+
+    @Test
+    public void decodeWiFiFullPack() throws Exception {
+        assumeTrue("Timed benchmark; run with -Pbenchmarks", Boolean.getBoolean("benchmarks"));
+
+        byte[] fullPack = NanFrames.load(NanFrames.FULL_PACK);
+        byte[] noPosition = NanFrames.load(NanFrames.NO_POSITION_PACK);
+        OpenDroneIdDecoder decoder = new OpenDroneIdDecoder();
+        DetectionBatch batch = new DetectionBatch();
+
+        run(decoder, batch, fullPack, noPosition, WARMUP_ITERATIONS);
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            run(decoder, batch, fullPack, noPosition, MEASURE_ITERATIONS);
+            best = Math.min(best, (double) (System.nanoTime() - start) / MEASURE_ITERATIONS);
+        }
+
+        LOG.info(String.format(Locale.US,
+                "OpenDroneIdDecoder.decodeWiFi: %.0f ns/frame (best of %d rounds of %d)",
+                best, ROUNDS, MEASURE_ITERATIONS));
+        assertTrue("decodeWiFi took " + best + " ns/frame", best < MAX_NANOS_PER_FRAME);
+    }
+
+    // Alternates the two frames; returns the events decoded so the work can't be optimized away
+    private static long run(OpenDroneIdDecoder decoder, DetectionBatch batch, byte[] a, byte[] b, int iterations) {
+        long events = 0;
+        for (int i = 0; i < iterations; i++) {
+            batch.clear();
+            events += decoder.decodeWiFi((i & 1) == 0 ? a : b, "NaN-12", 0, i, batch);
+        }
+        return events;
+    }
+}
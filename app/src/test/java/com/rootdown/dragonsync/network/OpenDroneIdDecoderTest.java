@@ -0,0 +1,147 @@
+package com.rootdown.dragonsync.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class OpenDroneIdDecoderTest {
+    // As WiFiScanner labels a NaN peer; NaN discovery reports no RSSI
+    private static final String ADDRESS = "NaN-12";
+    private static final int RSSI = 0;
+    private static final long RECEIVED = 1_700_000_000_000L;
+    private static final double DELTA = 1e-9;
+
+    private OpenDroneIdDecoder decoder;
+    private DetectionBatch batch;
+
+    @Before
+    public void setUp() {
+        decoder = new OpenDroneIdDecoder();
+        batch = new DetectionBatch();
+    }
+
+    private int decode(String resource) throws Exception {
+        return decoder.decodeWiFi(NanFrames.load(resource), ADDRESS, RSSI, RECEIVED, batch);
+    }
+
+    private void assertEnvelope(DetectionEvent event, DetectionEvent.MessageType type) {
+        assertEquals(type, event.getType());
+        assertEquals(ADDRESS, event.getMac());
+        assertEquals(RSSI, event.getRssi());
+        assertEquals(RECEIVED, event.getTimestampMillis());
+    }
+
+    @Test
+    public void decodesEveryMessageOfFullPack() throws Exception {
+        assertEquals(5, decode(NanFrames.FULL_PACK));
+        assertEquals(5, batch.size());
+
+        DetectionEvent basicId = batch.get(0);
+        assertEnvelope(basicId, DetectionEvent.MessageType.BASIC_ID);
+        assertEquals(1, basicId.idType);
+        assertEquals(2, basicId.uaType);
+        assertEquals("1581F5FJD228400PGSKN", basicId.uasId);
+        assertEquals("Serial Number (ANSI/CTA-2063-A)", basicId.getIdTypeLabel());
+
+        DetectionEvent location = batch.get(1);
+        assertEnvelope(location, DetectionEvent.MessageType.LOCATION);
+        assertEquals(2, location.status);
+        assertEquals(90.0, location.direction, DELTA);
+        assertEquals(12.5, location.speed, DELTA);
+        assertEquals(1.5, location.verticalSpeed, DELTA);
+        assertEquals(47.3977419, location.latitude, DELTA);
+        assertEquals(8.5455938, location.longitude, DELTA);
+        assertEquals(520.5, location.geodeticAltitude, DELTA);
+        assertEquals(40.0, location.height, DELTA);
+
+        DetectionEvent selfId = batch.get(2);
+        assertEnvelope(selfId, DetectionEvent.MessageType.SELF_ID);
+        assertEquals(0, selfId.descriptionType);
+        assertEquals("Survey flight", selfId.selfIdText);
+        assertEquals("Text", selfId.getDescriptionTypeLabel());
+
+        DetectionEvent system = batch.get(3);
+        assertEnvelope(system, DetectionEvent.MessageType.SYSTEM);
+        assertEquals(47.397, system.operatorLatitude, DELTA);
+        assertEquals(8.544, system.operatorLongitude, DELTA);
+        assertEquals(500.0, system.operatorAltitude, DELTA);
+        // The System message doesn't touch the drone's own position
+        assertEquals(Double.NaN, system.latitude, 0);
+
+        DetectionEvent operatorId = batch.get(4);
+        assertEnvelope(operatorId, DetectionEvent.MessageType.OPERATOR_ID);
+        assertEquals(0, operatorId.operatorIdType);
+        assertEquals("FIN87astrdge12k8", operatorId.operatorId);
+        assertEquals("CAA Assigned Operator ID", operatorId.getOperatorIdTypeLabel());
+    }
+
+    @Test
+    public void unknownLocationFieldsDecodeAsNaN() throws Exception {
+        assertEquals(2, decode(NanFrames.NO_POSITION_PACK));
+
+        DetectionEvent location = batch.get(1);
+        assertEnvelope(location, DetectionEvent.MessageType.LOCATION);
+        assertEquals(0, location.status);
+        // 181 + 180 is past 360, the "unknown" direction
+        assertEquals(Double.NaN, location.direction, 0);
+        assertEquals(Double.NaN, location.speed, 0);
+        assertEquals(Double.NaN, location.verticalSpeed, 0);
+        assertEquals(Double.NaN, location.latitude, 0);
+        assertEquals(Double.NaN, location.longitude, 0);
+        assertEquals(Double.NaN, location.geodeticAltitude, 0);
+        assertEquals(Double.NaN, location.height, 0);
+    }
+
+    @Test
+    public void packWithoutCounterByte() throws Exception {
+        assertEquals(2, decode(NanFrames.NO_COUNTER_PACK));
+        assertEquals("1581F5FJD228400PGSKN", batch.get(0).uasId);
+        assertEquals("FIN87astrdge12k8", batch.get(1).operatorId);
+    }
+
+    @Test
+    public void beaconOuiPrefixIsSkipped() throws Exception {
+        byte[] nan = NanFrames.load(NanFrames.FULL_PACK);
+        byte[] beacon = new byte[nan.length + 4];
+        beacon[0] = (byte) 0xFA;
+        beacon[1] = (byte) 0x0B;
+        beacon[2] = (byte) 0xBC;
+        beacon[3] = (byte) 0x0D;
+        System.arraycopy(nan, 0, beacon, 4, nan.length);
+
+        assertEquals(5, decoder.decodeWiFi(beacon, ADDRESS, RSSI, RECEIVED, batch));
+        assertEquals(47.3977419, batch.get(1).latitude, DELTA);
+    }
+
+    @Test
+    public void truncatedPackDecodesCompleteMessagesOnly() throws Exception {
+        byte[] frame = NanFrames.load(NanFrames.FULL_PACK);
+        // Counter, pack header and two whole messages, then half of the third
+        byte[] truncated = Arrays.copyOf(frame, 1 + 3 + 2 * OpenDroneIdDecoder.MESSAGE_SIZE + 12);
+
+        assertEquals(2, decoder.decodeWiFi(truncated, ADDRESS, RSSI, RECEIVED, batch));
+    }
+
+    @Test
+    public void tooShortFrameDecodesNothing() {
+        assertEquals(0, decoder.decodeWiFi(new byte[] {0x2A, (byte) 0xF2}, ADDRESS, RSSI, RECEIVED, batch));
+        assertEquals(0, batch.size());
+    }
+
+    @Test
+    public void repeatedSerialReusesCachedString() throws Exception {
+        byte[] frame = NanFrames.load(NanFrames.NO_COUNTER_PACK);
+        decoder.decodeWiFi(frame, ADDRESS, RSSI, RECEIVED, batch);
+        String uasId = batch.get(0).uasId;
+
+        batch.clear();
+        decoder.decodeWiFi(frame, ADDRESS, RSSI, RECEIVED + 1_000, batch);
+        assertSame(uasId, batch.get(0).uasId);
+        assertNull(batch.get(0).operatorId);
+    }
+}
@@ -0,0 +1,117 @@
+package com.rootdown.dragonsync.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SerialIdsTest {
+    // Manufacturer 1581, length 'F' (15), then 15 serial characters
+    private static final String DJI_SERIAL = "1581F5FJD228400PGSKN";
+
+    @Test
+    public void serialIdLengthBounds() {
+        assertFalse(SerialIds.isSerialId("ABC12"));
+        assertTrue(SerialIds.isSerialId("ABC123"));
+        assertTrue(SerialIds.isSerialId("ABCDEFGHJK1234567890"));
+        assertFalse(SerialIds.isSerialId("ABCDEFGHJK12345678901"));
+        assertFalse(SerialIds.isSerialId(""));
+        assertFalse(SerialIds.isSerialId(null));
+    }
+
+    @Test
+    public void allZeroSerialIdIsUnset() {
+        assertFalse(SerialIds.isSerialId("000000"));
+        assertFalse(SerialIds.isSerialId("00000000000000000000"));
+        assertTrue(SerialIds.isSerialId("000000000000000000A0"));
+    }
+
+    @Test
+    public void serialIdRejectsLowercaseAndPunctuation() {
+        assertFalse(SerialIds.isSerialId("abc123"));
+        assertFalse(SerialIds.isSerialId("ABC123x"));
+        assertFalse(SerialIds.isSerialId("ABC-123"));
+        assertFalse(SerialIds.isSerialId("ABC 123"));
+    }
+
+    @Test
+    public void serialIdRangeChecksOnlyTheSlice() {
+        assertTrue(SerialIds.isSerialId("--ABC123--", 2, 8));
+        assertFalse(SerialIds.isSerialId("--ABC123--", 1, 8));
+    }
+
+    @Test
+    public void ctaSerialFromRealTransmitter() {
+        assertTrue(SerialIds.isCta2063Serial(DJI_SERIAL));
+        assertEquals("1581", SerialIds.getCtaManufacturerCode(DJI_SERIAL));
+    }
+
+    @Test
+    public void ctaLengthCharacterCoversOneToFifteen() {
+        assertTrue(SerialIds.isCta2063Serial("ABCD1X"));
+        assertTrue(SerialIds.isCta2063Serial("ABCD9123456789"));
+        assertTrue(SerialIds.isCta2063Serial("ABCDA1234567890"));
+        assertTrue(SerialIds.isCta2063Serial("ABCDF123456789012345"));
+    }
+
+    @Test
+    public void ctaRejectsInvalidLengthCharacter() {
+        assertFalse(SerialIds.isCta2063Serial("ABCD0"));
+        assertFalse(SerialIds.isCta2063Serial("ABCDG1234567890123456"));
+        assertFalse(SerialIds.isCta2063Serial("ABCDa1234567890"));
+    }
+
+    @Test
+    public void ctaRejectsLengthMismatch() {
+        assertFalse(SerialIds.isCta2063Serial("ABCD3XY"));
+        assertFalse(SerialIds.isCta2063Serial("ABCD3XYZW"));
+        assertFalse(SerialIds.isCta2063Serial("ABCD"));
+        assertFalse(SerialIds.isCta2063Serial(null));
+    }
+
+    @Test
+    public void ctaExcludesLettersOAndI() {
+        assertFalse(SerialIds.isCta2063Serial("ABOD1X"));
+        assertFalse(SerialIds.isCta2063Serial("ABCD1I"));
+        assertFalse(SerialIds.isCta2063Serial("ABCD1O"));
+        // Plain F3411 serials may use them
+        assertTrue(SerialIds.isSerialId("ABOD1I"));
+    }
+
+    @Test
+    public void ctaRejectsLowercase() {
+        assertFalse(SerialIds.isCta2063Serial("abcd1x"));
+        assertFalse(SerialIds.isCta2063Serial("1581f5fjd228400pgskn"));
+    }
+
+    @Test
+    public void manufacturerCodeIsNullForOtherIds() {
+        assertNull(SerialIds.getCtaManufacturerCode("ABC123"));
+        assertNull(SerialIds.getCtaManufacturerCode("ABCD3XY"));
+        assertNull(SerialIds.getCtaManufacturerCode(null));
+    }
+
+    @Test
+    public void selfIdSerialDropsDigitPrefix() {
+        assertEquals("ABCDEFGHJK", SerialIds.extractSelfIdSerial("123ABCDEFGHJK"));
+        assertEquals("ABCDEF1234", SerialIds.extractSelfIdSerial("0 ABCDEF1234"));
+        assertEquals("ABCDEF123456", SerialIds.extractSelfIdSerial("  ABCDEF123456  "));
+    }
+
+    @Test
+    public void selfIdSerialNeedsLongRunAndOnlySerialCharacters() {
+        assertNull(SerialIds.extractSelfIdSerial(null));
+        assertNull(SerialIds.extractSelfIdSerial("ABC123"));
+        assertNull(SerialIds.extractSelfIdSerial("AB 12345 CD"));
+        assertNull(SerialIds.extractSelfIdSerial("Flying ABCDEF123456"));
+        assertNull(SerialIds.extractSelfIdSerial("abcdef123456"));
+    }
+
+    @Test
+    public void selfIdSerialTooShortAfterPrefix() {
+        // The run is long enough, but only "AB" is left once the digits are removed
+        assertNull(SerialIds.extractSelfIdSerial("1234567890AB"));
+    }
+}
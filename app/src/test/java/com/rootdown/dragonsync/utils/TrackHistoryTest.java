@@ -0,0 +1,80 @@
+package com.rootdown.dragonsync.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TrackHistoryTest {
+
+    private static TrackHistory historyAt(int capacity, long... times) {
+        TrackHistory history = new TrackHistory(capacity);
+        for (long time : times) {
+            history.append(time, -time, 1f, 2f, -60f, time);
+        }
+        return history;
+    }
+
+    private static long[] timesInRange(TrackHistory history, long from, long to) {
+        List<Long> times = new ArrayList<>();
+        history.forEachInRange(from, to, (lat, lon, alt, speed, rssi, timeMillis) -> times.add(timeMillis));
+        long[] result = new long[times.size()];
+        for (int i = 0; i < result.length; i++) result[i] = times.get(i);
+        return result;
+    }
+
+    @Test
+    public void rangeVisitsOnlySamplesInsideItOldestFirst() {
+        TrackHistory history = historyAt(8, 100, 200, 300, 400, 500);
+        assertArrayEquals(new long[] {200, 300, 400}, timesInRange(history, 200, 400));
+        assertArrayEquals(new long[] {300, 400, 500}, timesInRange(history, 250, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void rangeWalksAcrossTheWrapPoint() {
+        // Capacity 4: 100 and 200 are overwritten and the ring wraps after 400
+        TrackHistory history = historyAt(4, 100, 200, 300, 400, 500, 600);
+        assertEquals(4, history.size());
+        assertArrayEquals(new long[] {300, 400, 500, 600}, timesInRange(history, 0, Long.MAX_VALUE));
+        assertArrayEquals(new long[] {400, 500}, timesInRange(history, 350, 550));
+    }
+
+    @Test
+    public void rangeOutsideTheSamplesVisitsNothing() {
+        TrackHistory history = historyAt(4, 100, 200, 300);
+        assertEquals(0, timesInRange(history, 400, 500).length);
+        assertEquals(0, timesInRange(history, 0, 50).length);
+        assertEquals(0, timesInRange(new TrackHistory(4), 0, Long.MAX_VALUE).length);
+    }
+
+    @Test
+    public void rangeKeepsEqualTimestamps() {
+        TrackHistory history = historyAt(8, 100, 200, 200, 300);
+        assertArrayEquals(new long[] {200, 200}, timesInRange(history, 200, 200));
+    }
+
+    @Test
+    public void rangePassesTheStoredValues() {
+        TrackHistory history = new TrackHistory(4);
+        history.append(51.5, -0.1, 120f, 8.5f, -71f, 1_000);
+        double[] seen = new double[5];
+        history.forEachInRange(0, 1_000, (lat, lon, alt, speed, rssi, timeMillis) -> {
+            seen[0] = lat;
+            seen[1] = lon;
+            seen[2] = alt;
+            seen[3] = speed;
+            seen[4] = rssi;
+        });
+        assertArrayEquals(new double[] {51.5, -0.1, 120, 8.5, -71}, seen, 1e-9);
+    }
+
+    @Test
+    public void firstAndLastTimesFollowTheRing() {
+        TrackHistory history = historyAt(3, 100, 200, 300, 400);
+        assertEquals(200, history.getFirstTimeMillis());
+        assertEquals(400, history.getLastTimeMillis());
+    }
+}
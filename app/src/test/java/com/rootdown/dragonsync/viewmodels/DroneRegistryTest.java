@@ -0,0 +1,123 @@
+package com.rootdown.dragonsync.viewmodels;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.rootdown.dragonsync.models.CoTMessage;
+
+import org.junit.Test;
+
+public class DroneRegistryTest {
+    private static final long NOW = 1_700_000_000_000L;
+    private static final String MAC = "60:60:1f:aa:bb:cc";
+
+    private static CoTMessage message(String uid, String rid, String operatorId) {
+        CoTMessage message = new CoTMessage();
+        message.setUid(uid);
+        message.setId(rid);
+        message.setOperatorId(operatorId);
+        return message;
+    }
+
+    private static CoTMessage message(String uid, String rid, String operatorId, String mac) {
+        CoTMessage message = message(uid, rid, operatorId);
+        message.setMac(mac);
+        return message;
+    }
+
+    @Test
+    public void operatorIdDoesNotMergeDronesWithDifferentRids() {
+        DroneRegistry registry = new DroneRegistry();
+        DroneRegistry.Track first = registry.put(message("drone-A", "RID-A", "OP-1"), null, NOW);
+        DroneRegistry.Track second = registry.put(message("drone-B", "RID-B", "OP-1"), null, NOW);
+
+        assertNotSame(first, second);
+        assertEquals(2, registry.size());
+        assertEquals("RID-A", first.getMessage().getId());
+        assertSame(first, registry.find(message("drone-A", "RID-A", null)));
+        assertSame(second, registry.find(message("drone-B", "RID-B", null)));
+    }
+
+    @Test
+    public void operatorIdLinksMessageWithoutRid() {
+        DroneRegistry registry = new DroneRegistry();
+        DroneRegistry.Track track = registry.put(message("drone-A", "RID-A", "OP-1"), null, NOW);
+
+        assertSame(track, registry.find(message("other-uid", null, "OP-1")));
+    }
+
+    @Test
+    public void operatorIdLinksNewRidToTrackWithoutOne() {
+        DroneRegistry registry = new DroneRegistry();
+        DroneRegistry.Track track = registry.put(message("op-OP-1", null, "OP-1"), null, NOW);
+
+        assertSame(track, registry.find(message("drone-A", "RID-A", "OP-1")));
+    }
+
+    @Test
+    public void macDoesNotMergeDronesWithDifferentRids() {
+        DroneRegistry registry = new DroneRegistry();
+        DroneRegistry.Track first = registry.put(message("drone-A", "RID-A", null, MAC), null, NOW);
+        DroneRegistry.Track second = registry.put(message("drone-B", "RID-B", null, MAC), null, NOW);
+
+        assertNotSame(first, second);
+        assertEquals(2, registry.size());
+        assertEquals("drone-A", first.getMessage().getUid());
+        assertSame(first, registry.find(message("drone-A", "RID-A", null)));
+        assertSame(second, registry.find(message("drone-B", "RID-B", null)));
+    }
+
+    @Test
+    public void macLinksMessageWithoutRid() {
+        DroneRegistry registry = new DroneRegistry();
+        DroneRegistry.Track track = registry.put(message("drone-A", "RID-A", null, MAC), null, NOW);
+
+        assertSame(track, registry.find(message("drone-" + MAC, null, null, MAC)));
+    }
+
+    @Test
+    public void uidDoesNotMergeDronesWithDifferentRids() {
+        DroneRegistry registry = new DroneRegistry();
+        DroneRegistry.Track track = registry.put(message("drone-A", "RID-A", null), null, NOW);
+
+        assertNull(registry.find(message("drone-A", "RID-B", null)));
+        assertSame(track, registry.find(message("drone-A", null, null)));
+    }
+
+    // As CoTViewModel.applyMessage links an observation
+    private static DroneRegistry.Track apply(DroneRegistry registry, CoTMessage message) {
+        DroneRegistry.Track track = registry.find(message);
+        if (track != null) message.setUid(registry.resolveUid(track, message));
+        return registry.put(message, track, NOW);
+    }
+
+    @Test
+    public void basicIdAfterLocationOverTheSameMacShowsTheSerial() {
+        DroneRegistry registry = new DroneRegistry();
+        // Onboard, a Location message carries only the MAC until a Basic ID names the drone
+        DroneRegistry.Track track = apply(registry, message("drone-" + MAC, null, null, MAC));
+        DroneRegistry.Track basicId = apply(registry, message("drone-1581F5FJD239C00DW22E", "1581F5FJD239C00DW22E", null, MAC));
+
+        assertSame(track, basicId);
+        assertEquals(1, registry.size());
+        assertEquals("drone-1581F5FJD239C00DW22E", registry.getMessages().get(0).getUid());
+        assertNull(registry.find(message("drone-" + MAC, null, null)));
+
+        // Later MAC-only messages keep the serial
+        CoTMessage location = message("drone-" + MAC, null, null, MAC);
+        assertSame(track, apply(registry, location));
+        assertEquals("drone-1581F5FJD239C00DW22E", location.getUid());
+    }
+
+    @Test
+    public void laterRidDoesNotRekeyATrackThatHasOne() {
+        DroneRegistry registry = new DroneRegistry();
+        DroneRegistry.Track track = apply(registry, message("drone-A", "RID-A", null, MAC));
+        CoTMessage sameDrone = message("feed-uid", "RID-A", null, MAC);
+
+        assertSame(track, apply(registry, sameDrone));
+        assertEquals("drone-A", sameDrone.getUid());
+    }
+}
@@ -0,0 +1,37 @@
+package com.rootdown.dragonsync.viewmodels;
+
+import static com.rootdown.dragonsync.viewmodels.TrackFixtures.estimated;
+import static com.rootdown.dragonsync.viewmodels.TrackFixtures.measured;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.rootdown.dragonsync.models.CoTMessage;
+
+import org.junit.Test;
+
+public class KinematicSpoofDetectorTest {
+    private static final long NOW = 1_700_000_000_000L;
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void spoofDetectorIgnoresEstimatedPositions() {
+        KinematicSpoofDetector withEstimate = new KinematicSpoofDetector();
+        KinematicSpoofDetector withoutPosition = new KinematicSpoofDetector();
+        KinematicSpoofDetector withJump = new KinematicSpoofDetector();
+        for (int i = 0; i < 10; i++) {
+            long time = NOW + i * 1_000L;
+            withEstimate.update(measured(40.0, -105.0 + i * 1e-5), time, Double.NaN, Double.NaN);
+            withoutPosition.update(measured(40.0, -105.0 + i * 1e-5), time, Double.NaN, Double.NaN);
+            withJump.update(measured(40.0, -105.0 + i * 1e-5), time, Double.NaN, Double.NaN);
+        }
+
+        // Several kilometres away a second later: a spoof if reported, no evidence if estimated
+        long later = NOW + 10_000;
+        double estimate = withEstimate.update(estimated(40.05, -104.95), later, Double.NaN, Double.NaN);
+        double none = withoutPosition.update(new CoTMessage(), later, Double.NaN, Double.NaN);
+        double jump = withJump.update(measured(40.05, -104.95), later, Double.NaN, Double.NaN);
+
+        assertEquals(none, estimate, DELTA);
+        assertTrue(jump > estimate);
+    }
+}
@@ -0,0 +1,60 @@
+package com.rootdown.dragonsync.viewmodels;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.rootdown.dragonsync.utils.TrackHistory;
+
+import org.junit.Test;
+
+public class RecentTrackSpeedTest {
+    // Degrees of latitude per meter
+    private static final double DEG_PER_METER = 1.0 / 111194.93;
+
+    // One sample per second moving north at metersPerSecond
+    private static TrackHistory northbound(double metersPerSecond, int seconds) {
+        TrackHistory history = new TrackHistory(64);
+        for (int s = 0; s <= seconds; s++) {
+            history.append(10 + s * metersPerSecond * DEG_PER_METER, 20, Float.NaN, Float.NaN, Float.NaN, s * 1000L);
+        }
+        return history;
+    }
+
+    @Test
+    public void measuresSpeedAlongTheRecordedPath() {
+        TrackHistory history = northbound(12, 10);
+        assertEquals(12, new RecentTrackSpeed().measure(history, 0, 10_000), 0.05);
+    }
+
+    @Test
+    public void onlyCountsSamplesInTheWindow() {
+        TrackHistory history = northbound(5, 5);
+        // A jump well before the window must not count
+        for (int s = 6; s <= 10; s++) {
+            history.append(11 + s * 5 * DEG_PER_METER, 20, Float.NaN, Float.NaN, Float.NaN, s * 1000L);
+        }
+        assertEquals(5, new RecentTrackSpeed().measure(history, 6_000, 10_000), 0.05);
+    }
+
+    @Test
+    public void skipsSamplesWithoutPosition() {
+        TrackHistory history = northbound(8, 4);
+        history.append(Double.NaN, Double.NaN, Float.NaN, Float.NaN, -70f, 4_500);
+        assertEquals(8, new RecentTrackSpeed().measure(history, 0, 5_000), 0.05);
+    }
+
+    @Test
+    public void tooShortOrEmptyWindowIsNaN() {
+        RecentTrackSpeed speed = new RecentTrackSpeed();
+        assertTrue(Double.isNaN(speed.measure(northbound(8, 1), 0, 1_000)));
+        assertTrue(Double.isNaN(speed.measure(new TrackHistory(4), 0, 1_000)));
+        assertTrue(Double.isNaN(speed.measure(null, 0, 1_000)));
+    }
+
+    @Test
+    public void reusedInstanceStartsFresh() {
+        RecentTrackSpeed speed = new RecentTrackSpeed();
+        speed.measure(northbound(30, 10), 0, 10_000);
+        assertEquals(3, speed.measure(northbound(3, 10), 0, 10_000), 0.05);
+    }
+}
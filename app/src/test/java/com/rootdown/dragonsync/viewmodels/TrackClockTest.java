@@ -0,0 +1,54 @@
+package com.rootdown.dragonsync.viewmodels;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.rootdown.dragonsync.models.CoTMessage;
+
+import org.junit.Test;
+
+public class TrackClockTest {
+    private static final long SENDER_BASE = 1_700_000_000_000L;
+
+    private static CoTMessage at(Long senderMillis) {
+        CoTMessage message = new CoTMessage();
+        if (senderMillis != null) message.setTimestamp(Long.toString(senderMillis));
+        return message;
+    }
+
+    @Test
+    public void followsSenderTimeWhileEverySampleHasIt() {
+        TrackClock clock = new TrackClock();
+        assertEquals(SENDER_BASE, clock.advance(at(SENDER_BASE), 5_000));
+        assertEquals(SENDER_BASE + 1_000, clock.advance(at(SENDER_BASE + 1_000), 9_000));
+        assertTrue(clock.isSenderTime());
+    }
+
+    @Test
+    public void usesArrivalTimeWhenFirstSampleHasNoSenderTime() {
+        TrackClock clock = new TrackClock();
+        assertEquals(5_000, clock.advance(at(null), 5_000));
+        // A later sender timestamp doesn't pull the timeline onto the sender's clock
+        assertEquals(6_000, clock.advance(at(SENDER_BASE), 6_000));
+        assertFalse(clock.isSenderTime());
+    }
+
+    @Test
+    public void continuesOnArrivalTimeOnceASampleLacksSenderTime() {
+        TrackClock clock = new TrackClock();
+        clock.advance(at(SENDER_BASE), 5_000);
+        assertEquals(SENDER_BASE + 500, clock.advance(at(null), 5_500));
+        assertEquals(SENDER_BASE + 1_500, clock.advance(at(SENDER_BASE + 60_000), 6_500));
+        assertFalse(clock.isSenderTime());
+    }
+
+    @Test
+    public void senderTimeRunningBackwardsSwitchesToArrivalTime() {
+        TrackClock clock = new TrackClock();
+        clock.advance(at(SENDER_BASE), 5_000);
+        // A fused source whose clock lags the first one
+        assertEquals(SENDER_BASE + 200, clock.advance(at(SENDER_BASE - 3_000), 5_200));
+        assertFalse(clock.isSenderTime());
+    }
+}
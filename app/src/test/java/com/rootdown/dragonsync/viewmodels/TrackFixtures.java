@@ -0,0 +1,35 @@
+package com.rootdown.dragonsync.viewmodels;
+
+import com.rootdown.dragonsync.models.CoTMessage;
+
+// Messages for one drone, drone-A / RID-A, as the fusion and spoof-filter tests feed them
+final class TrackFixtures {
+
+    private TrackFixtures() {
+    }
+
+    // A GNSS fix with a 10 m horizontal accuracy
+    static CoTMessage measured(double lat, double lon) {
+        CoTMessage message = drone();
+        message.setLat(lat);
+        message.setLon(lon);
+        message.setHorizontalAccuracy("10");
+        return message;
+    }
+
+    // An RSSI estimate with an 80 x 30 m error ellipse
+    static CoTMessage estimated(double lat, double lon) {
+        CoTMessage message = drone();
+        message.setLat(lat);
+        message.setLon(lon);
+        message.setLocationEstimate(80, 30, 45);
+        return message;
+    }
+
+    private static CoTMessage drone() {
+        CoTMessage message = new CoTMessage();
+        message.setUid("drone-A");
+        message.setId("RID-A");
+        return message;
+    }
+}
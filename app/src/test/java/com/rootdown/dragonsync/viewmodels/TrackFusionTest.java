@@ -0,0 +1,79 @@
+package com.rootdown.dragonsync.viewmodels;
+
+import static com.rootdown.dragonsync.viewmodels.TrackFixtures.estimated;
+import static com.rootdown.dragonsync.viewmodels.TrackFixtures.measured;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.rootdown.dragonsync.models.CoTMessage;
+
+import org.junit.Test;
+
+public class TrackFusionTest {
+    private static final long NOW = 1_700_000_000_000L;
+    private static final double DELTA = 1e-9;
+
+    private final TrackFusion fusion = new TrackFusion();
+    private final DroneRegistry registry = new DroneRegistry();
+
+    private DroneRegistry.Track trackWith(CoTMessage message, boolean ownPosition) {
+        assertEquals(ownPosition, fusion.fuse(message, null, NOW));
+        DroneRegistry.Track track = registry.put(message, null, NOW);
+        if (ownPosition) fusion.recordPosition(track, message, NOW);
+        return track;
+    }
+
+    @Test
+    public void estimateIsNeverTheTracksOwnFix() {
+        CoTMessage estimate = estimated(40.0, -105.0);
+        assertFalse(fusion.fuse(estimate, null, NOW));
+        assertTrue(estimate.hasCoordinate());
+        assertTrue(estimate.isLocationEstimated());
+    }
+
+    @Test
+    public void recentMeasuredFixBeatsEstimate() {
+        DroneRegistry.Track track = trackWith(measured(40.0, -105.0), true);
+
+        CoTMessage estimate = estimated(40.01, -105.01);
+        assertFalse(fusion.fuse(estimate, track, NOW + 1_000));
+        assertEquals(40.0, estimate.getLatValue(), DELTA);
+        assertEquals(-105.0, estimate.getLonValue(), DELTA);
+        assertFalse(estimate.isLocationEstimated());
+        assertFalse(estimate.hasEstimateEllipse());
+    }
+
+    @Test
+    public void estimateReplacesOldMeasuredFix() {
+        DroneRegistry.Track track = trackWith(measured(40.0, -105.0), true);
+
+        CoTMessage estimate = estimated(40.01, -105.01);
+        assertFalse(fusion.fuse(estimate, track, NOW + 60_000));
+        assertEquals(40.01, estimate.getLatValue(), DELTA);
+        assertTrue(estimate.hasEstimateEllipse());
+    }
+
+    @Test
+    public void measuredFixReplacesEstimate() {
+        DroneRegistry.Track track = trackWith(estimated(40.01, -105.01), false);
+
+        CoTMessage fix = measured(40.0, -105.0);
+        assertTrue(fusion.fuse(fix, track, NOW + 1_000));
+        assertEquals(40.0, fix.getLatValue(), DELTA);
+        assertFalse(fix.isLocationEstimated());
+    }
+
+    @Test
+    public void messageWithoutPositionKeepsEstimateAndEllipse() {
+        DroneRegistry.Track track = trackWith(estimated(40.01, -105.01), false);
+
+        CoTMessage bare = new CoTMessage();
+        bare.setUid("drone-A");
+        bare.setId("RID-A");
+        assertFalse(fusion.fuse(bare, track, NOW + 1_000));
+        assertTrue(bare.hasEstimateEllipse());
+        assertEquals(80, bare.getEstimateSemiMajorMeters(), DELTA);
+        assertEquals(45, bare.getEstimateBearingDegrees(), DELTA);
+    }
+}